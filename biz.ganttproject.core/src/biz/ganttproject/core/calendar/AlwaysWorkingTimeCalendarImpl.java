@@ -74,6 +74,16 @@ public class AlwaysWorkingTimeCalendarImpl extends GPCalendarBase implements GPC
     return GPCalendar.DayMask.WORKING;
   }
 
+  @Override
+  public int dayMask(long epochDay) {
+    return GPCalendar.DayMask.WORKING;
+  }
+
+  @Override
+  public long shiftWorkingDays(long epochDay, int n) {
+    return epochDay + n;
+  }
+
   @Override
   public CalendarEvent getEvent(Date date) {
     return null;
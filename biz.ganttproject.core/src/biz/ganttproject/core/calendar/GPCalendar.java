@@ -69,6 +69,8 @@ public interface GPCalendar {
 
   public void addListener(GPCalendarListener listener);
 
+  public void removeListener(GPCalendarListener listener);
+
   public String getID();
   public String getName();
   public void setName(String name);
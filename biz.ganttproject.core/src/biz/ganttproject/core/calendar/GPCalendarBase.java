@@ -20,6 +20,7 @@ package biz.ganttproject.core.calendar;
 
 import java.util.Date;
 import java.util.List;
+import java.util.TimeZone;
 
 import com.google.common.collect.Lists;
 
@@ -32,7 +33,9 @@ import biz.ganttproject.core.time.TimeUnit;
  * @author bard
  */
 abstract class GPCalendarBase implements GPCalendarCalc {
-  private final List<GPCalendarListener> myListeners = Lists.newArrayList();
+  // Listeners may subscribe and unsubscribe while calendar notifies them
+  private final List<GPCalendarListener> myListeners = Lists.newCopyOnWriteArrayList();
+  private final TimeZone myTimeZone = TimeZone.getDefault();
   private String myName;
   private String myId;
   
@@ -56,6 +59,20 @@ abstract class GPCalendarBase implements GPCalendarCalc {
     myId = id;
   }
 
+  protected TimeZone getTimeZone() {
+    return myTimeZone;
+  }
+
+  @Override
+  public long toEpochDay(Date date) {
+    return WorkingDayIndex.toEpochDay(myTimeZone, date.getTime());
+  }
+
+  @Override
+  public Date fromEpochDay(long epochDay) {
+    return WorkingDayIndex.getDayStart(myTimeZone, epochDay);
+  }
+
   public Date shiftDate(Date input, TimeDuration shift) {
     if (shift.getLength() == 0) {
       return input;
@@ -132,6 +149,11 @@ abstract class GPCalendarBase implements GPCalendarCalc {
     myListeners.add(listener);
   }
 
+  @Override
+  public void removeListener(GPCalendarListener listener) {
+    myListeners.remove(listener);
+  }
+
   protected void fireCalendarChanged() {
     for (GPCalendarListener l : myListeners) {
       try {
@@ -42,6 +42,31 @@ public interface GPCalendarCalc extends GPCalendar {
   Date findClosest(Date time, TimeUnit timeUnit, MoveDirection direction, DayType dayType);
 
   Date findClosest(Date time, TimeUnit timeUnit, MoveDirection direction, DayType dayType, Date limit);
+
+  /**
+   * Epoch day is the number of days since Jan 1, 1970 in this calendar time zone. Epoch day methods
+   * are safe to call from several threads concurrently, even while the calendar settings are being changed.
+   *
+   * @return epoch day of the given date
+   */
+  long toEpochDay(Date date);
+
+  /**
+   * @return start of the given epoch day
+   */
+  Date fromEpochDay(long epochDay);
+
+  /**
+   * @return the same value as {@link #getDayMask(Date)} returns for the start of the given epoch day
+   */
+  int dayMask(long epochDay);
+
+  /**
+   * Moves over n working days starting from the given epoch day, forward if n is positive and backward otherwise.
+   * This is the epoch day counterpart of {@link #shiftDate(Date, TimeDuration)} with a duration measured in days,
+   * e.g. shifting Friday by 1 working day yields Saturday, and shifting Saturday by 1 working day yields Tuesday.
+   */
+  long shiftWorkingDays(long epochDay, int n);
   GPCalendarCalc PLAIN = new AlwaysWorkingTimeCalendarImpl();
   String EXTENSION_POINT_ID = "net.sourceforge.ganttproject.calendar";
 
@@ -28,12 +28,14 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
-import biz.ganttproject.core.calendar.CalendarEvent.Type;
 import biz.ganttproject.core.calendar.walker.ForwardTimeWalker;
 import biz.ganttproject.core.time.CalendarFactory;
+import biz.ganttproject.core.time.DateFrameable;
 import biz.ganttproject.core.time.TimeDuration;
 import biz.ganttproject.core.time.TimeUnit;
 import biz.ganttproject.core.time.impl.FramerImpl;
+import biz.ganttproject.core.time.impl.GPTimeUnitStack;
+import biz.ganttproject.core.time.impl.GregorianTimeUnitStack;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -52,19 +54,38 @@ import com.google.common.collect.Sets;
  * If D is a non-weekend day then it is a working day, unless one of the following is the case:
  * -- there is one-off event at date D with type HOLIDAY
  * -- there is a recurring event at date D with type HOLIDAY and no one-off event at date D with type WORKING
+ *
+ * Day masks are computed from an immutable snapshot of the settings and precomputed into {@link WorkingDayIndex}
+ * which covers the days queried so far plus a margin and grows on demand. Snapshot and index are dropped
+ * whenever calendar settings change. Settings are modified and the snapshot is taken under the calendar lock,
+ * so the queries which go through the index, like day masks and working day counts, are safe for concurrent
+ * readers. Event lookups are synchronized as well.
  * 
  * @author dbarashev (Dmitry Barashev)
  */
 public class WeekendCalendarImpl extends GPCalendarBase implements GPCalendarCalc {
 
+  // Shared calendar instance is guarded by itself, so that event lookups
+  // may come from several threads
   private final Calendar myCalendar = CalendarFactory.newCalendar();
 
+  // Days around the queried one which must be covered by the index, and the margin
+  // added when the index is rebuilt. Index never grows beyond INDEX_MAX_DAYS.
+  private static final int INDEX_SLACK_DAYS = 366;
+  private static final int INDEX_MARGIN_DAYS = 2 * 366;
+  private static final int INDEX_MAX_DAYS = 100 * 366;
+
+  private volatile WorkingDayIndex myDayIndex;
+
   private final FramerImpl myFramer = new FramerImpl(Calendar.DAY_OF_WEEK);
 
   private final DayType[] myTypes = new DayType[7];
 
   private boolean myOnlyShowWeekends = false;
 
+  // True if there are neither weekends nor events, updated under the calendar lock
+  private volatile boolean isAlwaysWorking;
+
   private int myWeekendDaysCount;
 
   private final Map<Date, CalendarEvent> myRecurringEvents = Maps.newLinkedHashMap();
@@ -84,10 +105,14 @@ public class WeekendCalendarImpl extends GPCalendarBase implements GPCalendarCal
   }
 
   public void reset() {
-    myRecurringEvents.clear();
-    myOneOffEvents.clear();
-    for (int i = 0; i < myTypes.length; i++) {
-      myTypes[i] = GPCalendar.DayType.WORKING;
+    synchronized (this) {
+      myRecurringEvents.clear();
+      myOneOffEvents.clear();
+      for (int i = 0; i < myTypes.length; i++) {
+        myTypes[i] = GPCalendar.DayType.WORKING;
+      }
+      myWeekendDaysCount = 0;
+      onSettingsChanged();
     }
     setWeekDayType(GregorianCalendar.SATURDAY, GPCalendar.DayType.WEEKEND);
     setWeekDayType(GregorianCalendar.SUNDAY, GPCalendar.DayType.WEEKEND);
@@ -96,7 +121,7 @@ public class WeekendCalendarImpl extends GPCalendarBase implements GPCalendarCal
   
   @Override
   public List<GPCalendarActivity> getActivities(Date startDate, final Date endDate) {
-    if (getWeekendDaysCount() == 0 && myOneOffEvents.isEmpty() && myRecurringEvents.isEmpty()) {
+    if (isAlwaysWorking) {
       return myRestlessCalendar.getActivities(startDate, endDate);
     }
     List<GPCalendarActivity> result = new ArrayList<GPCalendarActivity>();
@@ -120,13 +145,8 @@ public class WeekendCalendarImpl extends GPCalendarBase implements GPCalendarCal
   }
 
   public boolean isWeekend(Date curDayStart) {
-    if (myOnlyShowWeekends) {
-      return false;
-    }
-
-    myCalendar.setTime(curDayStart);
-    int dayOfWeek = myCalendar.get(Calendar.DAY_OF_WEEK);
-    return myTypes[dayOfWeek - 1] == GPCalendar.DayType.WEEKEND;
+    long epochDay = toEpochDay(curDayStart);
+    return getDayIndex(epochDay).getRules().isWeekend(epochDay);
   }
 
   @Override
@@ -178,10 +198,13 @@ public class WeekendCalendarImpl extends GPCalendarBase implements GPCalendarCal
 
   @Override
   public void setWeekDayType(int day, DayType type) {
-    if (type != myTypes[day - 1]) {
-      myWeekendDaysCount += (type == DayType.WEEKEND ? 1 : -1);
+    synchronized (this) {
+      if (type != myTypes[day - 1]) {
+        myWeekendDaysCount += (type == DayType.WEEKEND ? 1 : -1);
+      }
+      myTypes[day - 1] = type;
+      onSettingsChanged();
     }
-    myTypes[day - 1] = type;
     fireCalendarChanged();
   }
 
@@ -197,17 +220,26 @@ public class WeekendCalendarImpl extends GPCalendarBase implements GPCalendarCal
 
   @Override
   public void setOnlyShowWeekends(boolean onlyShowWeekends) {
-    myOnlyShowWeekends = onlyShowWeekends;
+    synchronized (this) {
+      myOnlyShowWeekends = onlyShowWeekends;
+      onSettingsChanged();
+    }
     fireCalendarChanged();
   }
 
+  // Must be called under the calendar lock
+  private void onSettingsChanged() {
+    isAlwaysWorking = getWeekendDaysCount() == 0 && myRecurringEvents.isEmpty() && myOneOffEvents.isEmpty();
+    myDayIndex = null;
+  }
+
   private int getWeekendDaysCount() {
     return myOnlyShowWeekends ? 0 : myWeekendDaysCount;
   }
 
   @Override
   public Date findClosestWorkingTime(Date time) {
-    if (getWeekendDaysCount() == 0 && myRecurringEvents.isEmpty() && myOneOffEvents.isEmpty()) {
+    if (isAlwaysWorking) {
       return time;
     }
     int dayMask = getDayMask(time);
@@ -217,35 +249,7 @@ public class WeekendCalendarImpl extends GPCalendarBase implements GPCalendarCal
     return doFindClosest(time, myFramer, MoveDirection.FORWARD, DayType.WORKING, null);
   }
 
-  private boolean isPublicHoliDay(Date curDayStart) {
-    CalendarEvent oneOff = myOneOffEvents.get(curDayStart);
-    if (oneOff != null) {
-      switch (oneOff.getType()) {
-      case HOLIDAY:
-        return true;
-      case WORKING_DAY:
-        return false;
-      case NEUTRAL:
-      default:
-        // intentionally fall-through, consult recurring holidays in this case 
-      }
-    }
-    CalendarEvent recurring = myRecurringEvents.get(getRecurringDate(curDayStart));
-    if (recurring != null) {
-      switch (recurring.getType()) {
-      case HOLIDAY:
-        return true;
-      case WORKING_DAY:
-        return false;
-      case NEUTRAL:
-      default:
-        // intentionally fall-through, use default answer 
-      }            
-    }
-    return false;
-  }
-
-  public CalendarEvent getEvent(Date date) {
+  public synchronized CalendarEvent getEvent(Date date) {
     CalendarEvent result = myOneOffEvents.get(date);
     if (result == null) {
       result = myRecurringEvents.get(getRecurringDate(date));
@@ -254,32 +258,152 @@ public class WeekendCalendarImpl extends GPCalendarBase implements GPCalendarCal
   }
   
   private Date getRecurringDate(Date date) {
-    myCalendar.setTime(date);
-    myCalendar.set(Calendar.YEAR, 1);
-    return myCalendar.getTime();
+    synchronized (myCalendar) {
+      myCalendar.setTime(date);
+      myCalendar.set(Calendar.YEAR, 1);
+      return myCalendar.getTime();
+    }
   }
+
   @Override
   public int getDayMask(Date date) {
-    int result = 0;
-    myCalendar.setTime(date);
-    int dayOfWeek = myCalendar.get(Calendar.DAY_OF_WEEK);
-    boolean isHoliday = isPublicHoliDay(date);
-    boolean isWeekend = myTypes[dayOfWeek - 1] == DayType.WEEKEND;
-    if (isWeekend) {
-      result |= DayMask.WEEKEND;
-      CalendarEvent oneOff = myOneOffEvents.get(date);
-      if (oneOff != null && oneOff.getType() == Type.WORKING_DAY) {
-        result |= DayMask.WORKING;
+    long epochDay = toEpochDay(date);
+    if (WorkingDayIndex.isDayStart(getTimeZone(), date.getTime())) {
+      return dayMask(epochDay);
+    }
+    // Events are bound to day starts, so other moments are only checked against weekends
+    return getDayIndex(epochDay).getRules().computeDayMask(epochDay, false);
+  }
+
+  @Override
+  public int dayMask(long epochDay) {
+    return getDayIndex(epochDay).getDayMask(epochDay);
+  }
+
+  @Override
+  public long shiftWorkingDays(long epochDay, int n) {
+    if (n == 0) {
+      return epochDay;
+    }
+    // Shift forward ends right after the n-th working day, shift backward ends at the n-th working day
+    long fromDay = n > 0 ? epochDay : epochDay - 1;
+    long found = getDayIndex(epochDay).findNthWorkingDay(fromDay, n);
+    for (long span = 2L * Math.abs(n); found == WorkingDayIndex.NOT_FOUND; span *= 2) {
+      if (span > INDEX_MAX_DAYS) {
+        throw new IllegalStateException("Can't find " + n + " working days from epoch day " + epochDay);
+      }
+      WorkingDayIndex index = n > 0 ? rebuildDayIndex(fromDay, fromDay + span) : rebuildDayIndex(fromDay - span, fromDay);
+      found = index.findNthWorkingDay(fromDay, n);
+    }
+    return n > 0 ? found + 1 : found;
+  }
+
+  @Override
+  public Date shiftDate(Date input, TimeDuration shift) {
+    if (shift.getLength() != 0 && isDayUnit(shift.getTimeUnit())) {
+      return fromEpochDay(shiftWorkingDays(toEpochDay(input), shift.getLength()));
+    }
+    return super.shiftDate(input, shift);
+  }
+
+  private boolean isDayUnit(DateFrameable framer) {
+    return framer == myFramer || framer == GPTimeUnitStack.DAY || framer == GregorianTimeUnitStack.DAY;
+  }
+
+  @Override
+  protected Date doFindClosest(Date time, DateFrameable framer, MoveDirection direction, DayType dayType, Date limit) {
+    if (!isDayUnit(framer) || !WorkingDayIndex.isDayStart(getTimeZone(), time.getTime())) {
+      return super.doFindClosest(time, framer, direction, dayType, limit);
+    }
+    long epochDay = toEpochDay(time);
+    WorkingDayIndex index = getDayIndex(epochDay);
+    boolean isWorking = dayType == DayType.WORKING;
+    if (direction == MoveDirection.FORWARD) {
+      // The first day which starts at or after the limit is still checked
+      long limitDay = Long.MAX_VALUE;
+      if (limit != null) {
+        limitDay = toEpochDay(limit);
+        if (!WorkingDayIndex.isDayStart(getTimeZone(), limit.getTime())) {
+          limitDay++;
+        }
+        limitDay = Math.max(limitDay, epochDay + 1);
+      }
+      long found = index.findNext(epochDay + 1, limitDay, isWorking);
+      if (found != WorkingDayIndex.NOT_FOUND) {
+        return index.getDayStart(found);
+      }
+      if (limitDay <= index.getLastDay()) {
+        return null;
+      }
+    } else {
+      // The last day which starts at or before the limit is still checked
+      long limitDay = Long.MIN_VALUE;
+      if (limit != null) {
+        limitDay = Math.min(toEpochDay(limit), epochDay - 1);
+      }
+      long found = index.findPrevious(epochDay - 1, limitDay, isWorking);
+      if (found != WorkingDayIndex.NOT_FOUND) {
+        return index.getDayStart(found);
+      }
+      if (limitDay >= index.getFirstDay()) {
+        return null;
       }
     }
-    if (isHoliday) {
-      result |= DayMask.HOLIDAY;
-      return result;
+    // Searched day is beyond the index, which may happen only in a very weird calendar
+    return super.doFindClosest(time, framer, direction, dayType, limit);
+  }
+
+  /**
+   * @return the number of working days in [start, end) range of day starts
+   */
+  public int countWorkingDays(Date start, Date end) {
+    long startDay = toEpochDay(start);
+    long endDay = toEpochDay(end);
+    if (endDay <= startDay) {
+      return 0;
     }
-    if (!isWeekend || myOnlyShowWeekends) {
-      result |= DayMask.WORKING;
+    WorkingDayIndex index = getDayIndex(startDay);
+    if (!index.covers(startDay, endDay)) {
+      index = rebuildDayIndex(startDay, endDay);
     }
-    return result;
+    return index.countWorkingDays(startDay, endDay);
+  }
+
+  private WorkingDayIndex getDayIndex(long epochDay) {
+    WorkingDayIndex index = myDayIndex;
+    if (index != null && index.covers(epochDay - INDEX_SLACK_DAYS, epochDay + INDEX_SLACK_DAYS)) {
+      return index;
+    }
+    return rebuildDayIndex(epochDay, epochDay);
+  }
+
+  private synchronized WorkingDayIndex rebuildDayIndex(long firstDay, long lastDay) {
+    WorkingDayIndex index = myDayIndex;
+    long newFirstDay = firstDay - INDEX_MARGIN_DAYS;
+    long newLastDay = lastDay + INDEX_MARGIN_DAYS;
+    if (index != null) {
+      if (index.covers(firstDay - INDEX_SLACK_DAYS, lastDay + INDEX_SLACK_DAYS)) {
+        return index;
+      }
+      if (Math.max(index.getLastDay(), newLastDay) - Math.min(index.getFirstDay(), newFirstDay) < INDEX_MAX_DAYS) {
+        newFirstDay = Math.min(index.getFirstDay(), newFirstDay);
+        newLastDay = Math.max(index.getLastDay(), newLastDay);
+      }
+    }
+    WorkingDayIndex.Rules rules = index == null
+        ? new WorkingDayIndex.Rules(getTimeZone(), myTypes, myOnlyShowWeekends, myRecurringEvents.values(), myOneOffEvents.values())
+        : index.getRules();
+    index = new WorkingDayIndex(rules, newFirstDay, newLastDay);
+    myDayIndex = index;
+    return index;
+  }
+
+  @Override
+  protected void fireCalendarChanged() {
+    synchronized (this) {
+      myDayIndex = null;
+    }
+    super.fireCalendarChanged();
   }
 
 //  @Override
@@ -289,16 +413,17 @@ public class WeekendCalendarImpl extends GPCalendarBase implements GPCalendarCal
 
   @Override
   public void setPublicHolidays(Collection<CalendarEvent> holidays) {
-    myRecurringEvents.clear();
-    myOneOffEvents.clear();
-    for (CalendarEvent h : holidays) {
-      if (h.isRecurring) {
-        myCalendar.setTime(h.myDate);
-        myCalendar.set(Calendar.YEAR, 1);
-        myRecurringEvents.put(myCalendar.getTime(), h);
-      } else {
-        myOneOffEvents.put(h.myDate, h);
+    synchronized (this) {
+      myRecurringEvents.clear();
+      myOneOffEvents.clear();
+      for (CalendarEvent h : holidays) {
+        if (h.isRecurring) {
+          myRecurringEvents.put(getRecurringDate(h.myDate), h);
+        } else {
+          myOneOffEvents.put(h.myDate, h);
+        }
       }
+      onSettingsChanged();
     }
     fireCalendarChanged();
 //    myCalendarUrl = calendarUrl;
@@ -319,7 +444,7 @@ public class WeekendCalendarImpl extends GPCalendarBase implements GPCalendarCal
   }
 
   @Override
-  public Collection<CalendarEvent> getPublicHolidays() {
+  public synchronized Collection<CalendarEvent> getPublicHolidays() {
     List<CalendarEvent> result = Lists.newArrayListWithExpectedSize(myRecurringEvents.size() + myOneOffEvents.size());
     result.addAll(myRecurringEvents.values());
     result.addAll(myOneOffEvents.values());
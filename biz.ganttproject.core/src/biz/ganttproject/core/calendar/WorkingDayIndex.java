@@ -0,0 +1,343 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package biz.ganttproject.core.calendar;
+
+import java.time.LocalDate;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Map;
+import java.util.TimeZone;
+
+import biz.ganttproject.core.calendar.CalendarEvent.Type;
+import biz.ganttproject.core.calendar.GPCalendar.DayMask;
+import biz.ganttproject.core.calendar.GPCalendar.DayType;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+
+/**
+ * Precomputed day masks of {@link WeekendCalendarImpl} over a contiguous range of days.
+ *
+ * Days are identified by epoch day numbers, that is, by the number of days since
+ * Jan 1, 1970 in the calendar time zone. Working, weekend and holiday flags are kept in
+ * separate bitsets, one bit per day, so that mask lookup is O(1) and searches for the next
+ * working or non-working day as well as working day counting process 64 days per step.
+ *
+ * Masks are computed from {@link Rules}, an immutable snapshot of the calendar settings. Neither rules
+ * nor index are modified after construction, so they can be safely shared between threads.
+ */
+class WorkingDayIndex {
+  static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+  static final long NOT_FOUND = Long.MIN_VALUE;
+
+  /**
+   * Immutable snapshot of weekend days and calendar events which computes a day mask for any epoch day.
+   */
+  static class Rules {
+    private final TimeZone myTimeZone;
+    private final DayType[] myWeekDayTypes;
+    private final boolean isOnlyShowWeekends;
+    private final Map<Long, Type> myOneOffEvents = Maps.newHashMap();
+    private final Map<Integer, Type> myRecurringEvents = Maps.newHashMap();
+
+    Rules(TimeZone timeZone, DayType[] weekDayTypes, boolean onlyShowWeekends,
+        Collection<CalendarEvent> recurringEvents, Collection<CalendarEvent> oneOffEvents) {
+      myTimeZone = timeZone;
+      myWeekDayTypes = weekDayTypes.clone();
+      isOnlyShowWeekends = onlyShowWeekends;
+      for (CalendarEvent e : recurringEvents) {
+        myRecurringEvents.put(getMonthDay(toEpochDay(timeZone, e.myDate.getTime())), e.getType());
+      }
+      for (CalendarEvent e : oneOffEvents) {
+        myOneOffEvents.put(toEpochDay(timeZone, e.myDate.getTime()), e.getType());
+      }
+    }
+
+    TimeZone getTimeZone() {
+      return myTimeZone;
+    }
+
+    boolean isWeekend(long epochDay) {
+      return !isOnlyShowWeekends && myWeekDayTypes[getDayOfWeek(epochDay) - 1] == DayType.WEEKEND;
+    }
+
+    /**
+     * @return mask of the given day which takes into account weekends and, if {@code withEvents} is true,
+     * one-off and recurring calendar events.
+     */
+    int computeDayMask(long epochDay, boolean withEvents) {
+      int result = 0;
+      Type oneOff = withEvents ? myOneOffEvents.get(epochDay) : null;
+      boolean isWeekend = myWeekDayTypes[getDayOfWeek(epochDay) - 1] == DayType.WEEKEND;
+      if (isWeekend) {
+        result |= DayMask.WEEKEND;
+        if (oneOff == Type.WORKING_DAY) {
+          result |= DayMask.WORKING;
+        }
+      }
+      if (withEvents && isHoliday(epochDay, oneOff)) {
+        result |= DayMask.HOLIDAY;
+        return result;
+      }
+      if (!isWeekend || isOnlyShowWeekends) {
+        result |= DayMask.WORKING;
+      }
+      return result;
+    }
+
+    private boolean isHoliday(long epochDay, Type oneOff) {
+      if (oneOff == Type.HOLIDAY || oneOff == Type.WORKING_DAY) {
+        return oneOff == Type.HOLIDAY;
+      }
+      // no one-off event or a neutral one, consult recurring events in this case
+      return !myRecurringEvents.isEmpty() && myRecurringEvents.get(getMonthDay(epochDay)) == Type.HOLIDAY;
+    }
+  }
+
+  private final Rules myRules;
+  private final long myFirstDay;
+  private final int myDayCount;
+  private final long[] myWorkingBits;
+  private final long[] myWeekendBits;
+  private final long[] myHolidayBits;
+
+  WorkingDayIndex(Rules rules, long firstDay, long lastDay) {
+    Preconditions.checkArgument(lastDay >= firstDay, "Empty day range [%s, %s]", firstDay, lastDay);
+    myRules = rules;
+    myFirstDay = firstDay;
+    myDayCount = (int) (lastDay - firstDay + 1);
+    int wordCount = (myDayCount + 63) >>> 6;
+    myWorkingBits = new long[wordCount];
+    myWeekendBits = new long[wordCount];
+    myHolidayBits = new long[wordCount];
+
+    for (int i = 0; i < myDayCount; i++) {
+      int mask = rules.computeDayMask(firstDay + i, true);
+      long bit = 1L << (i & 63);
+      if ((mask & DayMask.WORKING) != 0) {
+        myWorkingBits[i >>> 6] |= bit;
+      }
+      if ((mask & DayMask.WEEKEND) != 0) {
+        myWeekendBits[i >>> 6] |= bit;
+      }
+      if ((mask & DayMask.HOLIDAY) != 0) {
+        myHolidayBits[i >>> 6] |= bit;
+      }
+    }
+  }
+
+  static long toEpochDay(TimeZone timeZone, long millis) {
+    return Math.floorDiv(millis + timeZone.getOffset(millis), DAY_MILLIS);
+  }
+
+  static boolean isDayStart(TimeZone timeZone, long millis) {
+    return Math.floorMod(millis + timeZone.getOffset(millis), DAY_MILLIS) == 0;
+  }
+
+  /**
+   * @return start of the given day, exactly as {@link Calendar} computes it
+   */
+  static Date getDayStart(TimeZone timeZone, long epochDay) {
+    Calendar c = new GregorianCalendar(timeZone);
+    c.clear();
+    c.set(1970, Calendar.JANUARY, 1);
+    c.add(Calendar.DATE, (int) epochDay);
+    return c.getTime();
+  }
+
+  /**
+   * @return day of week, as in {@link Calendar#DAY_OF_WEEK}
+   */
+  static int getDayOfWeek(long epochDay) {
+    // Jan 1, 1970 is Thursday
+    return (int) Math.floorMod(epochDay + Calendar.THURSDAY - Calendar.SUNDAY, 7L) + Calendar.SUNDAY;
+  }
+
+  private static int getMonthDay(long epochDay) {
+    LocalDate date = LocalDate.ofEpochDay(epochDay);
+    return date.getMonthValue() * 32 + date.getDayOfMonth();
+  }
+
+  Rules getRules() {
+    return myRules;
+  }
+
+  long getFirstDay() {
+    return myFirstDay;
+  }
+
+  long getLastDay() {
+    return myFirstDay + myDayCount - 1;
+  }
+
+  boolean covers(long firstDay, long lastDay) {
+    return firstDay >= getFirstDay() && lastDay <= getLastDay();
+  }
+
+  int getDayMask(long epochDay) {
+    int i = toIndex(epochDay);
+    long bit = 1L << (i & 63);
+    int result = 0;
+    if ((myWorkingBits[i >>> 6] & bit) != 0) {
+      result |= DayMask.WORKING;
+    }
+    if ((myWeekendBits[i >>> 6] & bit) != 0) {
+      result |= DayMask.WEEKEND;
+    }
+    if ((myHolidayBits[i >>> 6] & bit) != 0) {
+      result |= DayMask.HOLIDAY;
+    }
+    return result;
+  }
+
+  Date getDayStart(long epochDay) {
+    return getDayStart(myRules.getTimeZone(), epochDay);
+  }
+
+  /**
+   * Searches for the first day in [fromDay, toDay] range which is working if {@code isWorking}
+   * is true and non-working otherwise. The range is clipped by the index bounds.
+   *
+   * @return epoch day number or {@link #NOT_FOUND}
+   */
+  long findNext(long fromDay, long toDay, boolean isWorking) {
+    int end = toClippedIndex(toDay);
+    int i = toClippedIndex(fromDay);
+    if (fromDay > getLastDay() || toDay < getFirstDay()) {
+      return NOT_FOUND;
+    }
+    while (i <= end) {
+      int wordIdx = i >>> 6;
+      long word = isWorking ? myWorkingBits[wordIdx] : ~myWorkingBits[wordIdx];
+      word &= -1L << (i & 63);
+      if (word != 0) {
+        int found = (wordIdx << 6) + Long.numberOfTrailingZeros(word);
+        return found <= end ? myFirstDay + found : NOT_FOUND;
+      }
+      i = (wordIdx + 1) << 6;
+    }
+    return NOT_FOUND;
+  }
+
+  /**
+   * Searches backwards for the last day in [toDay, fromDay] range which is working if
+   * {@code isWorking} is true and non-working otherwise. The range is clipped by the index bounds.
+   *
+   * @return epoch day number or {@link #NOT_FOUND}
+   */
+  long findPrevious(long fromDay, long toDay, boolean isWorking) {
+    int end = toClippedIndex(toDay);
+    int i = toClippedIndex(fromDay);
+    if (fromDay < getFirstDay() || toDay > getLastDay()) {
+      return NOT_FOUND;
+    }
+    while (i >= end) {
+      int wordIdx = i >>> 6;
+      long word = isWorking ? myWorkingBits[wordIdx] : ~myWorkingBits[wordIdx];
+      word &= -1L >>> (63 - (i & 63));
+      if (word != 0) {
+        int found = (wordIdx << 6) + 63 - Long.numberOfLeadingZeros(word);
+        return found >= end ? myFirstDay + found : NOT_FOUND;
+      }
+      i = (wordIdx << 6) - 1;
+    }
+    return NOT_FOUND;
+  }
+
+  /**
+   * Searches for the n-th working day counting from {@code fromDay} inclusive. Search goes forward
+   * if n is positive and backward otherwise.
+   *
+   * @return epoch day number or {@link #NOT_FOUND} if it is beyond this index
+   */
+  long findNthWorkingDay(long fromDay, int n) {
+    Preconditions.checkArgument(n != 0);
+    if (fromDay < getFirstDay() || fromDay > getLastDay()) {
+      return NOT_FOUND;
+    }
+    int i = (int) (fromDay - myFirstDay);
+    int remaining = Math.abs(n);
+    if (n > 0) {
+      while (i < myDayCount) {
+        int wordIdx = i >>> 6;
+        long word = myWorkingBits[wordIdx] & (-1L << (i & 63));
+        int count = Long.bitCount(word);
+        if (count >= remaining) {
+          for (; remaining > 1; remaining--) {
+            word &= word - 1;
+          }
+          return myFirstDay + (wordIdx << 6) + Long.numberOfTrailingZeros(word);
+        }
+        remaining -= count;
+        i = (wordIdx + 1) << 6;
+      }
+    } else {
+      while (i >= 0) {
+        int wordIdx = i >>> 6;
+        long word = myWorkingBits[wordIdx] & (-1L >>> (63 - (i & 63)));
+        int count = Long.bitCount(word);
+        if (count >= remaining) {
+          for (; remaining > 1; remaining--) {
+            word &= ~Long.highestOneBit(word);
+          }
+          return myFirstDay + (wordIdx << 6) + 63 - Long.numberOfLeadingZeros(word);
+        }
+        remaining -= count;
+        i = (wordIdx << 6) - 1;
+      }
+    }
+    return NOT_FOUND;
+  }
+
+  /**
+   * @return number of working days in [fromDay, toDay) range which must be covered by this index
+   */
+  int countWorkingDays(long fromDay, long toDay) {
+    if (toDay <= fromDay) {
+      return 0;
+    }
+    int from = toIndex(fromDay);
+    int to = toIndex(toDay - 1) + 1;
+    int fromWord = from >>> 6;
+    int toWord = (to - 1) >>> 6;
+    long firstMask = -1L << (from & 63);
+    long lastMask = -1L >>> (63 - ((to - 1) & 63));
+    if (fromWord == toWord) {
+      return Long.bitCount(myWorkingBits[fromWord] & firstMask & lastMask);
+    }
+    int result = Long.bitCount(myWorkingBits[fromWord] & firstMask);
+    for (int w = fromWord + 1; w < toWord; w++) {
+      result += Long.bitCount(myWorkingBits[w]);
+    }
+    result += Long.bitCount(myWorkingBits[toWord] & lastMask);
+    return result;
+  }
+
+  private int toIndex(long epochDay) {
+    Preconditions.checkArgument(epochDay >= getFirstDay() && epochDay <= getLastDay(),
+        "Day %s is out of index range [%s, %s]", epochDay, getFirstDay(), getLastDay());
+    return (int) (epochDay - myFirstDay);
+  }
+
+  private int toClippedIndex(long epochDay) {
+    return (int) (Math.max(getFirstDay(), Math.min(getLastDay(), epochDay)) - myFirstDay);
+  }
+}
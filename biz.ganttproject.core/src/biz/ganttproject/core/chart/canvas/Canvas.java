@@ -54,9 +54,11 @@ public class Canvas {
 
   private List<TextGroup> myTextGroups = new ArrayList<TextGroup>();
 
-  private final DummySpatialIndex<Text> myTextIndex = new DummySpatialIndex<Text>();
+  private final GridSpatialIndex<Rectangle> myRectangleIndex = new GridSpatialIndex<Rectangle>();
 
-  private final DummySpatialIndex<Polygon> myPolygonIndex = new DummySpatialIndex<Canvas.Polygon>();
+  private final GridSpatialIndex<Text> myTextIndex = new GridSpatialIndex<Text>();
+
+  private final GridSpatialIndex<Polygon> myPolygonIndex = new GridSpatialIndex<Canvas.Polygon>();
 
   /** Horizontal alignments for texts */
   public enum HAlignment {
@@ -553,6 +555,7 @@ public class Canvas {
   public Rectangle createRectangle(int leftx, int topy, int width, int height) {
     Rectangle result = createDetachedRectangle(leftx, topy, width, height);
     myRectangles.add(result);
+    myRectangleIndex.put(result, result.getLeftX(), result.getBottomY(), result.getWidth(), result.getHeight());
     return result;
   }
 
@@ -620,6 +623,7 @@ public class Canvas {
 
 
   public void clear() {
+    myRectangleIndex.clear();
     myTextIndex.clear();
     myPolygonIndex.clear();
     myRectangles.clear();
@@ -646,16 +650,7 @@ public class Canvas {
   }
 
   public Shape getPrimitive(int x, int xThreshold, int y, int yThreshold) {
-    Shape result = null;
-    for (int i = 0; i < myRectangles.size(); i++) {
-      Rectangle next = myRectangles.get(i);
-      // System.err.println(" next rectangle="+next);
-      if (next.getLeftX() <= x + xThreshold && next.getRightX() >= x - xThreshold
-          && next.getTopY() <= y + yThreshold && next.getBottomY() >= y - yThreshold) {
-        result = next;
-        break;
-      }
-    }
+    Shape result = myRectangleIndex.get(x, xThreshold, y, yThreshold);
     if (result != null) {
       return result;
     }
@@ -0,0 +1,174 @@
+/*
+GanttProject is an opensource project management tool. License: GPL3
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package biz.ganttproject.core.chart.canvas;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Implements an index on top of a uniform grid of cells. Every rectangle is registered in all
+ * cells it overlaps, so a point search only checks rectangles from a few cells around the point.
+ * Rectangles which overlap too many cells are kept aside and checked linearly.
+ *
+ * Search results are the same as in {@link DummySpatialIndex}: if several rectangles match then
+ * the one which was put first wins.
+ */
+public class GridSpatialIndex<T> implements SpatialIndex<T> {
+  // Chart rows are ~20px high, so a cell covers a row band and a few hundred pixels of it
+  private static final int DEFAULT_CELL_WIDTH = 128;
+  private static final int DEFAULT_CELL_HEIGHT = 32;
+  private static final int MAX_CELLS_PER_RECT = 64;
+
+  private static class Rect<T> {
+    final T myObject;
+    final int myOrder;
+    final int myLeftX;
+    final int myBottomY;
+    final int myWidth;
+    final int myHeight;
+
+    Rect(T object, int order, int leftX, int bottomY, int width, int height) {
+      myObject = object;
+      myOrder = order;
+      myLeftX = leftX;
+      myBottomY = bottomY;
+      myWidth = width;
+      myHeight = height;
+    }
+
+    boolean contains(int x, int xpadding, int y, int ypadding) {
+      return myLeftX <= x + xpadding && myLeftX + myWidth >= x - xpadding
+          && myBottomY >= y - ypadding && myBottomY - myHeight <= y + ypadding;
+    }
+
+    @Override
+    public String toString() {
+      return "x=" + myLeftX + " y=" + myBottomY + " width=" + myWidth;
+    }
+  }
+
+  private final int myCellWidth;
+  private final int myCellHeight;
+  private final Map<Long, List<Rect<T>>> myCells = Maps.newHashMap();
+  private final List<Rect<T>> myLargeRects = Lists.newArrayList();
+  private final List<Rect<T>> myRects = Lists.newArrayList();
+  private final List<T> myValues = Lists.newArrayList();
+
+  public GridSpatialIndex() {
+    this(DEFAULT_CELL_WIDTH, DEFAULT_CELL_HEIGHT);
+  }
+
+  public GridSpatialIndex(int cellWidth, int cellHeight) {
+    assert cellWidth > 0 && cellHeight > 0 : "Cell size must be positive";
+    myCellWidth = cellWidth;
+    myCellHeight = cellHeight;
+  }
+
+  @Override
+  public void put(T data, int x, int y, int width, int height) {
+    Rect<T> rect = new Rect<T>(data, myRects.size(), x, y, width, height);
+    myRects.add(rect);
+    myValues.add(data);
+    if (width < 0 || height < 0) {
+      myLargeRects.add(rect);
+      return;
+    }
+    int leftCol = Math.floorDiv(x, myCellWidth);
+    int rightCol = Math.floorDiv(x + width, myCellWidth);
+    int topRow = Math.floorDiv(y - height, myCellHeight);
+    int bottomRow = Math.floorDiv(y, myCellHeight);
+    if ((long) (rightCol - leftCol + 1) * (bottomRow - topRow + 1) > MAX_CELLS_PER_RECT) {
+      myLargeRects.add(rect);
+      return;
+    }
+    for (int col = leftCol; col <= rightCol; col++) {
+      for (int row = topRow; row <= bottomRow; row++) {
+        Long key = cellKey(col, row);
+        List<Rect<T>> cell = myCells.get(key);
+        if (cell == null) {
+          cell = Lists.newArrayListWithExpectedSize(4);
+          myCells.put(key, cell);
+        }
+        cell.add(rect);
+      }
+    }
+  }
+
+  @Override
+  public T get(int x, int y) {
+    return get(x, 0, y, 0);
+  }
+
+  @Override
+  public T get(int x, int xpadding, int y, int ypadding) {
+    int leftCol = Math.floorDiv(x - xpadding, myCellWidth);
+    int rightCol = Math.floorDiv(x + xpadding, myCellWidth);
+    int topRow = Math.floorDiv(y - ypadding, myCellHeight);
+    int bottomRow = Math.floorDiv(y + ypadding, myCellHeight);
+    Rect<T> result;
+    if ((long) (rightCol - leftCol + 1) * (bottomRow - topRow + 1) > MAX_CELLS_PER_RECT) {
+      result = findFirst(myRects, null, x, xpadding, y, ypadding);
+      return result == null ? null : result.myObject;
+    }
+    result = findFirst(myLargeRects, null, x, xpadding, y, ypadding);
+    for (int col = leftCol; col <= rightCol; col++) {
+      for (int row = topRow; row <= bottomRow; row++) {
+        List<Rect<T>> cell = myCells.get(cellKey(col, row));
+        if (cell != null) {
+          result = findFirst(cell, result, x, xpadding, y, ypadding);
+        }
+      }
+    }
+    return result == null ? null : result.myObject;
+  }
+
+  private static <T> Rect<T> findFirst(List<Rect<T>> rects, Rect<T> found, int x, int xpadding, int y, int ypadding) {
+    // Rectangles in every list are ordered by insertion, so we can stop at the first match
+    // or as soon as we pass the best match found so far
+    for (int i = 0; i < rects.size(); i++) {
+      Rect<T> r = rects.get(i);
+      if (found != null && r.myOrder >= found.myOrder) {
+        break;
+      }
+      if (r.contains(x, xpadding, y, ypadding)) {
+        return r;
+      }
+    }
+    return found;
+  }
+
+  private static Long cellKey(int col, int row) {
+    return ((long) col << 32) | (row & 0xffffffffL);
+  }
+
+  public void clear() {
+    myCells.clear();
+    myLargeRects.clear();
+    myRects.clear();
+    myValues.clear();
+  }
+
+  public Collection<T> values() {
+    return myValues;
+  }
+}
@@ -42,6 +42,7 @@ public interface OffsetBuilder {
     protected int myRightMarginTimeUnits;
     protected Date myViewportStartDate;
     protected Function<TimeUnit, Float> myOffsetStepFn;
+    protected OffsetFrameCache myFrameCache;
     
     protected Factory() {
     }
@@ -101,6 +102,11 @@ public interface OffsetBuilder {
       return this;
     }
     
+    public Factory withFrameCache(OffsetFrameCache frameCache) {
+      myFrameCache = frameCache;
+      return this;
+    }
+
     protected void preBuild() {
       myBaseUnit = TimeUnitStack.Util.findCommonUnit(myBottomUnit, myTopUnit);
       if (myOffsetStepFn == null) {
@@ -44,6 +44,8 @@ public class OffsetBuilderImpl implements OffsetBuilder {
   private final int myRightMarginBottomUnitCount;
   private final Date myViewportStartDate;
   private final Function<TimeUnit, Float> myOffsetStepFn;
+  private final OffsetFrameCache myFrameCache;
+  private WorkingUnitCounter myWorkingUnitCounter;
 
 //  protected RegularFrameOffsetBuilder(GPCalendar calendar, TimeUnit topUnit, TimeUnit bottomUnit, Date startDate,
 //      Date viewportStartDate, int defaultUnitWidth, int chartWidth, float weekendDecreaseFactor, Date endDate,
@@ -61,6 +63,7 @@ public class OffsetBuilderImpl implements OffsetBuilder {
     baseUnit = factory.myBaseUnit;
     myRightMarginBottomUnitCount = factory.myRightMarginTimeUnits;
     myOffsetStepFn = factory.myOffsetStepFn;
+    myFrameCache = factory.myFrameCache;
   }
 
   private TimeUnit getBottomUnit() {
@@ -92,6 +95,11 @@ public class OffsetBuilderImpl implements OffsetBuilder {
     return myCalendar;
   }
 
+  private OffsetFrameCache.Frame getFrame(TimeUnit timeUnit, Date startDate) {
+    return myFrameCache == null ? new OffsetFrameCache.Frame(timeUnit, startDate)
+        : myFrameCache.getFrame(timeUnit, startDate, getCalendar());
+  }
+
 //  public void setRightMarginBottomUnitCount(int value) {
 //    myRightMarginBottomUnitCount = value;
 //  }
@@ -118,9 +126,10 @@ public class OffsetBuilderImpl implements OffsetBuilder {
     OffsetStep step = new OffsetStep();
     int prevEnd = initialEnd;
     do {
-      TimeUnit concreteTimeUnit = getConcreteUnit(getBottomUnit(), currentDate);
-      calculateNextStep(step, concreteTimeUnit, currentDate);
-      Date endDate = concreteTimeUnit.adjustRight(currentDate);
+      OffsetFrameCache.Frame frame = getFrame(getBottomUnit(), currentDate);
+      TimeUnit concreteTimeUnit = frame.getConcreteUnit();
+      calculateNextStep(step, concreteTimeUnit, frame.getDayMask(getCalendar()));
+      Date endDate = frame.getEndDate();
       if (endDate.compareTo(myViewportStartDate) <= 0) {
         shift = (int) (step.parrots * getDefaultUnitWidth());
       }
@@ -152,8 +161,9 @@ public class OffsetBuilderImpl implements OffsetBuilder {
     int prevEnd = initialEnd;
     int offsetEnd;
     do {
-      TimeUnit concreteTimeUnit = getConcreteUnit(timeUnit, currentDate);
-      Date endDate = concreteTimeUnit.adjustRight(currentDate);
+      OffsetFrameCache.Frame frame = getFrame(timeUnit, currentDate);
+      TimeUnit concreteTimeUnit = frame.getConcreteUnit();
+      Date endDate = frame.getEndDate();
       int bottomOffsetLowerBound = offsetLookup.lookupOffsetByEndDate(endDate, bottomOffsets);
       if (bottomOffsetLowerBound >= 0) {
         offsetEnd = bottomOffsets.get(bottomOffsetLowerBound).getOffsetPixels();
@@ -164,8 +174,7 @@ public class OffsetBuilderImpl implements OffsetBuilder {
           Offset ubOffset = bottomOffsetLowerBound <= -2 ? bottomOffsets.get(-bottomOffsetLowerBound - 2) : null;
           Date ubEndDate = ubOffset == null ? myStartDate : ubOffset.getOffsetEnd();
           int ubEndPixel = ubOffset == null ? 0 : ubOffset.getOffsetPixels();
-          WorkingUnitCounter counter = new WorkingUnitCounter(GPCalendarCalc.PLAIN, baseUnit);
-          offsetEnd = ubEndPixel + counter.run(ubEndDate, endDate).getLength() * baseUnitWidth;
+          offsetEnd = ubEndPixel + getWorkingUnitCounter().run(ubEndDate, endDate).getLength() * baseUnitWidth;
         }
       }
       topOffsets.add(Offset.createFullyClosed(concreteTimeUnit, myStartDate, currentDate, endDate, prevEnd, initialEnd
@@ -176,9 +185,17 @@ public class OffsetBuilderImpl implements OffsetBuilder {
     } while (offsetEnd <= lastBottomOffset && (myEndDate == null || currentDate.before(myEndDate)));
   }
 
-  protected void calculateNextStep(OffsetStep step, TimeUnit timeUnit, Date startDate) {
+  // Counter is stateless between runs, so one instance serves all top unit gaps
+  private WorkingUnitCounter getWorkingUnitCounter() {
+    if (myWorkingUnitCounter == null) {
+      myWorkingUnitCounter = new WorkingUnitCounter(GPCalendarCalc.PLAIN, baseUnit);
+    }
+    return myWorkingUnitCounter;
+  }
+
+  protected void calculateNextStep(OffsetStep step, TimeUnit timeUnit, int dayMask) {
     float offsetStep = getOffsetStep(timeUnit);
-    step.dayMask = getCalendar().getDayMask(startDate);
+    step.dayMask = dayMask;
     if ((step.dayMask & DayMask.WORKING) == 0) {
       offsetStep = offsetStep / myWeekendDecreaseFactor;
     }
@@ -0,0 +1,106 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package biz.ganttproject.core.chart.grid;
+
+import java.util.Date;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+
+import biz.ganttproject.core.calendar.GPCalendar;
+import biz.ganttproject.core.time.TimeUnit;
+
+/**
+ * Remembers timeline frames computed by offset builders. A frame is identified by a time unit and its start date
+ * and keeps the concrete time unit, the end date and the calendar day mask of the start date.
+ *
+ * Frames don't depend on the viewport, chart width or unit width, so offset lists which are rebuilt
+ * when chart is scrolled or resized reuse the frames computed before and only the frames which
+ * haven't been seen yet are computed. Frames do depend on the calendar, so the cache is cleared when
+ * it is used with another calendar and must be cleared by the owner when the calendar changes.
+ */
+public class OffsetFrameCache {
+  // Decades of days are far more than a chart shows, so we just start over when we reach this size
+  private static final int MAX_FRAME_COUNT = 50000;
+
+  static class Frame {
+    private final TimeUnit myConcreteUnit;
+    private final Date myStartDate;
+    private final Date myEndDate;
+    private int myDayMask = -1;
+
+    Frame(TimeUnit unit, Date startDate) {
+      myConcreteUnit = OffsetBuilderImpl.getConcreteUnit(unit, startDate);
+      myStartDate = startDate;
+      myEndDate = myConcreteUnit.adjustRight(startDate);
+    }
+
+    TimeUnit getConcreteUnit() {
+      return myConcreteUnit;
+    }
+
+    Date getEndDate() {
+      return myEndDate;
+    }
+
+    int getDayMask(GPCalendar calendar) {
+      if (myDayMask < 0) {
+        myDayMask = calendar.getDayMask(myStartDate);
+      }
+      return myDayMask;
+    }
+  }
+
+  private final Map<TimeUnit, Map<Long, Frame>> myFrames = Maps.newHashMap();
+  private GPCalendar myCalendar;
+  private int myFrameCount;
+
+  Frame getFrame(TimeUnit unit, Date startDate, GPCalendar calendar) {
+    if (calendar != myCalendar) {
+      clear();
+      myCalendar = calendar;
+    }
+    Map<Long, Frame> unitFrames = myFrames.get(unit);
+    if (unitFrames == null) {
+      unitFrames = Maps.newHashMap();
+      myFrames.put(unit, unitFrames);
+    }
+    Long key = startDate.getTime();
+    Frame result = unitFrames.get(key);
+    if (result == null) {
+      if (myFrameCount >= MAX_FRAME_COUNT) {
+        clear();
+        return getFrame(unit, startDate, calendar);
+      }
+      result = new Frame(unit, startDate);
+      unitFrames.put(key, result);
+      myFrameCount++;
+    }
+    return result;
+  }
+
+  public int getFrameCount() {
+    return myFrameCount;
+  }
+
+  public void clear() {
+    myFrames.clear();
+    myFrameCount = 0;
+  }
+}
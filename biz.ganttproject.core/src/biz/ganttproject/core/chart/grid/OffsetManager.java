@@ -22,6 +22,11 @@ package biz.ganttproject.core.chart.grid;
  * Holds offset lists and provides a unified way to reset them all at once and
  * to rebuild them again.
  *
+ * Timeline frames computed by the builders are kept in {@link OffsetFrameCache} across
+ * resets, so that rebuilding offsets when chart is scrolled or resized only computes
+ * frames which haven't been seen yet. Builders created by the factory are expected
+ * to use {@link #getFrameCache()}.
+ *
  * @author dbarashev (Dmitry Barashev)
  */
 public class OffsetManager {
@@ -35,6 +40,7 @@ public class OffsetManager {
   private final OffsetList myBottomUnitOffsets = new OffsetList();
   private final OffsetList myDefaultUnitOffsets = new OffsetList();
   private final OffsetBuilderFactory myFactory;
+  private final OffsetFrameCache myFrameCache = new OffsetFrameCache();
   private boolean isReset = true;
 
   public OffsetManager(OffsetBuilderFactory factory) {
@@ -45,6 +51,19 @@ public class OffsetManager {
     isReset = true;
   }
 
+  /**
+   * Resets offsets and forgets the cached frames. Should be called when the frames
+   * become invalid, e.g. when the calendar changes.
+   */
+  public void resetFrames() {
+    myFrameCache.clear();
+    reset();
+  }
+
+  public OffsetFrameCache getFrameCache() {
+    return myFrameCache;
+  }
+
   public void constructOffsets() {
     myTopUnitOffsets.clear();
     myBottomUnitOffsets.clear();
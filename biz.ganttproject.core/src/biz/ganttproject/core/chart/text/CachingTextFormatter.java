@@ -5,19 +5,33 @@ package biz.ganttproject.core.chart.text;
 
 import biz.ganttproject.core.chart.grid.Offset;
 import biz.ganttproject.core.chart.text.TimeFormatters.LocaleApi;
+import biz.ganttproject.core.time.CalendarFactory;
 import biz.ganttproject.core.time.DateFrameable;
 import biz.ganttproject.core.time.TimeUnit;
 
 import java.util.Date;
-import java.util.HashMap;
+import java.util.TimeZone;
 
 /**
+ * Formatter which caches texts of time unit frames. Cache is keyed by the local epoch day of the formatted
+ * date, so it works for units which consist of whole days. Texts of up to {@link #DEFAULT_CACHE_CAPACITY}
+ * days are kept, and the least recently used are evicted when the cache is full.
+ *
  * @author bard
  */
 public abstract class CachingTextFormatter {
-  private final HashMap<Date, TimeUnitText[]> myTextCache = new HashMap<Date, TimeUnitText[]>();
+  public static final int DEFAULT_CACHE_CAPACITY = 2048;
+  private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+  private final TimeUnitTextCache myTextCache;
+  private TimeZone myTimeZone = TimeZone.getDefault();
 
   protected CachingTextFormatter() {
+    this(DEFAULT_CACHE_CAPACITY);
+  }
+
+  protected CachingTextFormatter(int cacheCapacity) {
+    myTextCache = new TimeUnitTextCache(cacheCapacity);
   }
 
   public TimeUnitText[] format(Offset curOffset) {
@@ -25,28 +39,52 @@ public abstract class CachingTextFormatter {
   }
 
   public TimeUnitText[] format(TimeUnit timeUnit, Date baseDate) {
-    TimeUnitText[] result = null;
-    Date adjustedLeft = ((DateFrameable) timeUnit).adjustLeft(baseDate);
-    result = getCachedText(adjustedLeft);
+    long epochDay = getEpochDay(baseDate);
+    TimeUnitText[] result = myTextCache.get(epochDay);
     if (result == null) {
-      result = createTimeUnitText(adjustedLeft);
-      myTextCache.put(adjustedLeft, result);
+      Date adjustedLeft = ((DateFrameable) timeUnit).adjustLeft(baseDate);
+      long adjustedDay = getEpochDay(adjustedLeft);
+      // Other days of the same frame share the texts of its first day
+      result = adjustedDay == epochDay ? null : myTextCache.get(adjustedDay);
+      if (result == null) {
+        result = createTimeUnitText(adjustedLeft);
+        myTextCache.put(adjustedDay, result);
+      }
+      myTextCache.put(epochDay, result);
     }
-
     return result;
   }
 
   protected TimeUnitText[] getCachedText(Date startDate) {
-    return myTextCache.get(startDate);
+    return myTextCache.get(getEpochDay(startDate));
+  }
+
+  private long getEpochDay(Date date) {
+    long millis = date.getTime();
+    return Math.floorDiv(millis + myTimeZone.getOffset(millis), DAY_MILLIS);
   }
 
   public void setLocale(LocaleApi locale) {
     myTextCache.clear();
+    myTimeZone = CalendarFactory.newCalendar().getTimeZone();
   }
 
   public int getTextCount() {
     return 1;
   }
+
+  public int getCacheSize() {
+    return myTextCache.size();
+  }
+
+  public long getCacheHitCount() {
+    return myTextCache.getHitCount();
+  }
+
+  public long getCacheMissCount() {
+    return myTextCache.getMissCount();
+  }
+
   protected abstract TimeUnitText[] createTimeUnitText(Date adjustedLeft);
 
 }
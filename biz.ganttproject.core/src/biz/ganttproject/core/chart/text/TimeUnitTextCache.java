@@ -0,0 +1,189 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package biz.ganttproject.core.chart.text;
+
+import java.util.Arrays;
+
+/**
+ * Bounded cache of timeline texts keyed by primitive long keys (epoch days in practice).
+ * When the cache is full, the least recently used entry is evicted.
+ *
+ * Entries live in preallocated slots which are linked into a recency list, and a linear probing
+ * hash table maps keys to slots, so neither lookups nor insertions allocate.
+ */
+class TimeUnitTextCache {
+  private static final int NO_SLOT = -1;
+
+  private final int myCapacity;
+  private final long[] myKeys;
+  private final TimeUnitText[][] myValues;
+  // Recency list, head is the most recently used slot
+  private final int[] myPrev;
+  private final int[] myNext;
+  private int myHead = NO_SLOT;
+  private int myTail = NO_SLOT;
+  private int mySize;
+  // Hash table of slot indices, its length is a power of two at least twice as big as capacity
+  private final int[] myIndex;
+  private final int myIndexMask;
+
+  private long myHitCount;
+  private long myMissCount;
+
+  TimeUnitTextCache(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+    }
+    myCapacity = capacity;
+    myKeys = new long[capacity];
+    myValues = new TimeUnitText[capacity][];
+    myPrev = new int[capacity];
+    myNext = new int[capacity];
+    myIndex = new int[Integer.highestOneBit(capacity) * 4];
+    myIndexMask = myIndex.length - 1;
+    Arrays.fill(myIndex, NO_SLOT);
+  }
+
+  /**
+   * @return cached texts or null, and marks the entry as the most recently used
+   */
+  TimeUnitText[] get(long key) {
+    int slot = myIndex[findPosition(key)];
+    if (slot == NO_SLOT) {
+      myMissCount++;
+      return null;
+    }
+    myHitCount++;
+    moveToHead(slot);
+    return myValues[slot];
+  }
+
+  void put(long key, TimeUnitText[] value) {
+    int position = findPosition(key);
+    int slot = myIndex[position];
+    if (slot != NO_SLOT) {
+      myValues[slot] = value;
+      moveToHead(slot);
+      return;
+    }
+    if (mySize < myCapacity) {
+      slot = mySize++;
+    } else {
+      slot = myTail;
+      unlink(slot);
+      removeFromIndex(findPosition(myKeys[slot]));
+      // Removal may have shifted the position of the new key
+      position = findPosition(key);
+    }
+    myKeys[slot] = key;
+    myValues[slot] = value;
+    myIndex[position] = slot;
+    linkAtHead(slot);
+  }
+
+  void clear() {
+    Arrays.fill(myIndex, NO_SLOT);
+    Arrays.fill(myValues, null);
+    myHead = NO_SLOT;
+    myTail = NO_SLOT;
+    mySize = 0;
+  }
+
+  int size() {
+    return mySize;
+  }
+
+  long getHitCount() {
+    return myHitCount;
+  }
+
+  long getMissCount() {
+    return myMissCount;
+  }
+
+  /**
+   * @return position of the key in the index, or position of the empty cell where it would be inserted
+   */
+  private int findPosition(long key) {
+    int position = hash(key) & myIndexMask;
+    while (true) {
+      int slot = myIndex[position];
+      if (slot == NO_SLOT || myKeys[slot] == key) {
+        return position;
+      }
+      position = (position + 1) & myIndexMask;
+    }
+  }
+
+  private void removeFromIndex(int position) {
+    // Backward shift deletion: move the following entries of the same probe run into the gap
+    int gap = position;
+    int next = (gap + 1) & myIndexMask;
+    while (myIndex[next] != NO_SLOT) {
+      int home = hash(myKeys[myIndex[next]]) & myIndexMask;
+      // The entry at next can fill the gap unless its home lies cyclically in (gap, next]
+      boolean canMove = gap <= next ? (home <= gap || home > next) : (home <= gap && home > next);
+      if (canMove) {
+        myIndex[gap] = myIndex[next];
+        gap = next;
+      }
+      next = (next + 1) & myIndexMask;
+    }
+    myIndex[gap] = NO_SLOT;
+  }
+
+  private void moveToHead(int slot) {
+    if (slot != myHead) {
+      unlink(slot);
+      linkAtHead(slot);
+    }
+  }
+
+  private void linkAtHead(int slot) {
+    myPrev[slot] = NO_SLOT;
+    myNext[slot] = myHead;
+    if (myHead != NO_SLOT) {
+      myPrev[myHead] = slot;
+    }
+    myHead = slot;
+    if (myTail == NO_SLOT) {
+      myTail = slot;
+    }
+  }
+
+  private void unlink(int slot) {
+    int prev = myPrev[slot];
+    int next = myNext[slot];
+    if (prev == NO_SLOT) {
+      myHead = next;
+    } else {
+      myNext[prev] = next;
+    }
+    if (next == NO_SLOT) {
+      myTail = prev;
+    } else {
+      myPrev[next] = prev;
+    }
+  }
+
+  private static int hash(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
@@ -30,13 +30,27 @@ public abstract class CalendarFactory {
   }
 
   private static LocaleApi ourLocaleApi;
+  private static volatile int ourLocaleVersion;
   
   public static Calendar newCalendar() {
     return (Calendar) Calendar.getInstance(ourLocaleApi.getLocale()).clone();
   }
+
+  public static Locale getCalendarLocale() {
+    return ourLocaleApi.getLocale();
+  }
+
+  /**
+   * @return number which changes every time locale settings are replaced, so that values
+   *   derived from calendars created by this factory can be invalidated
+   */
+  public static int getLocaleVersion() {
+    return ourLocaleVersion;
+  }
   
   protected static void setLocaleApi(LocaleApi localeApi) {
     ourLocaleApi = localeApi;
+    ourLocaleVersion++;
   }
 
   public static GanttCalendar createGanttCalendar(Date date) {
@@ -0,0 +1,296 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package biz.ganttproject.core.time.impl;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import biz.ganttproject.core.time.CalendarFactory;
+
+/**
+ * Computes day, week, month and year frames directly on epoch milliseconds, without creating
+ * Calendar instances. Local time is obtained by adding zone offset to UTC millis, frames are
+ * computed with proleptic Gregorian day arithmetic, and the result is mapped back to UTC.
+ *
+ * The results are the same as {@link FramerImpl} would produce with Calendar, and whenever that
+ * can't be guaranteed cheaply (non-Gregorian calendars, dates close to Julian-Gregorian cutover,
+ * local times close to zone offset transitions) {@link #NOT_COMPUTED} is returned and the caller is
+ * expected to fall back to Calendar.
+ *
+ * Time zone, first day of week and calendar system are captured from a calendar created by
+ * {@link CalendarFactory} and are refreshed when locale settings change.
+ */
+final class EpochMillisFramer {
+  static final long NOT_COMPUTED = Long.MIN_VALUE;
+  // Pseudo-field for week frames, which start on the locale's first day of week
+  static final int WEEK = Calendar.WEEK_OF_YEAR;
+
+  private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+  // Frames may jump up to a year to the left, so we keep a bit more than a year away from the cutover
+  private static final long CUTOVER_MARGIN_MILLIS = 400 * DAY_MILLIS;
+  // 9999-12-31T23:59:59.999Z
+  private static final long MAX_MILLIS = 253402300799999L;
+  // Days between 0000-03-01 and 1970-01-01
+  private static final long EPOCH_SHIFT = 719468;
+  private static final long DAYS_PER_ERA = 146097;
+
+  private static volatile EpochMillisFramer ourInstance;
+
+  private final Locale myLocale;
+  private final int myLocaleVersion;
+  private final TimeZone myTimeZone;
+  private final int myFirstDayOfWeek;
+  private final long myMinMillis;
+
+  EpochMillisFramer(Calendar prototype) {
+    this(prototype, null, -1);
+  }
+
+  private EpochMillisFramer(Calendar prototype, Locale locale, int localeVersion) {
+    myLocale = locale;
+    myLocaleVersion = localeVersion;
+    myTimeZone = prototype.getTimeZone();
+    myFirstDayOfWeek = prototype.getFirstDayOfWeek();
+    if (prototype instanceof GregorianCalendar && "gregory".equals(prototype.getCalendarType())) {
+      myMinMillis = ((GregorianCalendar) prototype).getGregorianChange().getTime() + CUTOVER_MARGIN_MILLIS;
+    } else {
+      myMinMillis = Long.MAX_VALUE;
+    }
+  }
+
+  static EpochMillisFramer getInstance() {
+    Locale locale = CalendarFactory.getCalendarLocale();
+    int localeVersion = CalendarFactory.getLocaleVersion();
+    EpochMillisFramer result = ourInstance;
+    if (result == null || result.myLocale != locale || result.myLocaleVersion != localeVersion) {
+      result = new EpochMillisFramer(CalendarFactory.newCalendar(), locale, localeVersion);
+      ourInstance = result;
+    }
+    return result;
+  }
+
+  static boolean isSupported(int field) {
+    switch (field) {
+    case Calendar.DATE:
+    case Calendar.DAY_OF_WEEK:
+    case WEEK:
+    case Calendar.MONTH:
+    case Calendar.YEAR:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * @return start of the frame which contains the given instant
+   */
+  long adjustLeft(int field, long millis) {
+    if (!isInRange(millis)) {
+      return NOT_COMPUTED;
+    }
+    long epochDay = Math.floorDiv(toLocal(millis), DAY_MILLIS);
+    return toUtc(getFrameStart(field, epochDay) * DAY_MILLIS);
+  }
+
+  /**
+   * @return start of the frame which follows the frame containing the given instant
+   */
+  long adjustRight(int field, long millis) {
+    if (!isInRange(millis)) {
+      return NOT_COMPUTED;
+    }
+    long epochDay = Math.floorDiv(toLocal(millis), DAY_MILLIS);
+    return toUtc(getNextFrameStart(field, epochDay) * DAY_MILLIS);
+  }
+
+  /**
+   * @return the given instant moved one frame back, with the same local time of day
+   */
+  long jumpLeft(int field, long millis) {
+    if (!isInRange(millis)) {
+      return NOT_COMPUTED;
+    }
+    long local = toLocal(millis);
+    long epochDay = Math.floorDiv(local, DAY_MILLIS);
+    long timeOfDay = local - epochDay * DAY_MILLIS;
+    long result = toUtc(getPreviousFrameDay(field, epochDay) * DAY_MILLIS + timeOfDay);
+    if (field == WEEK && result != NOT_COMPUTED && myTimeZone.getOffset(result) != myTimeZone.getOffset(millis)) {
+      // Week framer walks back day by day, and its time of day may drift
+      // when it passes a skipped local time
+      return NOT_COMPUTED;
+    }
+    return result;
+  }
+
+  private boolean isInRange(long millis) {
+    return millis >= myMinMillis && millis <= MAX_MILLIS;
+  }
+
+  private long getFrameStart(int field, long epochDay) {
+    switch (field) {
+    case Calendar.DATE:
+    case Calendar.DAY_OF_WEEK:
+      return epochDay;
+    case WEEK:
+      return epochDay - Math.floorMod(getDayOfWeek(epochDay) - myFirstDayOfWeek, 7);
+    case Calendar.MONTH:
+      return epochDay - getDayOfMonth(toCivil(epochDay)) + 1;
+    case Calendar.YEAR:
+      return toEpochDay(getYear(toCivil(epochDay)), 1, 1);
+    default:
+      throw new IllegalArgumentException("Unsupported field=" + field);
+    }
+  }
+
+  private long getNextFrameStart(int field, long epochDay) {
+    switch (field) {
+    case Calendar.DATE:
+    case Calendar.DAY_OF_WEEK:
+      return epochDay + 1;
+    case WEEK:
+      long nextDay = epochDay + 1;
+      return nextDay + Math.floorMod(myFirstDayOfWeek - getDayOfWeek(nextDay), 7);
+    case Calendar.MONTH: {
+      int civil = toCivil(epochDay);
+      int year = getYear(civil);
+      int month = getMonth(civil);
+      return month == 12 ? toEpochDay(year + 1, 1, 1) : toEpochDay(year, month + 1, 1);
+    }
+    case Calendar.YEAR:
+      return toEpochDay(getYear(toCivil(epochDay)) + 1, 1, 1);
+    default:
+      throw new IllegalArgumentException("Unsupported field=" + field);
+    }
+  }
+
+  private long getPreviousFrameDay(int field, long epochDay) {
+    switch (field) {
+    case Calendar.DATE:
+    case Calendar.DAY_OF_WEEK:
+      return epochDay - 1;
+    case WEEK:
+      return epochDay - 7;
+    case Calendar.MONTH: {
+      // Like Calendar.add does, day of month is pinned to the length of the target month
+      int civil = toCivil(epochDay);
+      int year = getYear(civil);
+      int month = getMonth(civil) - 1;
+      if (month == 0) {
+        year--;
+        month = 12;
+      }
+      return toEpochDay(year, month, Math.min(getDayOfMonth(civil), getMonthLength(year, month)));
+    }
+    case Calendar.YEAR: {
+      int civil = toCivil(epochDay);
+      int year = getYear(civil) - 1;
+      int month = getMonth(civil);
+      return toEpochDay(year, month, Math.min(getDayOfMonth(civil), getMonthLength(year, month)));
+    }
+    default:
+      throw new IllegalArgumentException("Unsupported field=" + field);
+    }
+  }
+
+  private long toLocal(long millis) {
+    return millis + myTimeZone.getOffset(millis);
+  }
+
+  /**
+   * Maps local time back to UTC. The result is accepted only if zone offset doesn't change
+   * within a day around it, so that the local time is neither skipped nor repeated and
+   * Calendar would resolve it to the same instant.
+   */
+  private long toUtc(long local) {
+    int offset = myTimeZone.getOffset(local);
+    for (int attempt = 0; attempt < 2; attempt++) {
+      long millis = local - offset;
+      int actualOffset = myTimeZone.getOffset(millis);
+      if (actualOffset == offset) {
+        boolean isStable = myTimeZone.getOffset(millis - DAY_MILLIS) == offset
+            && myTimeZone.getOffset(millis + DAY_MILLIS) == offset;
+        return isStable ? millis : NOT_COMPUTED;
+      }
+      offset = actualOffset;
+    }
+    return NOT_COMPUTED;
+  }
+
+  /**
+   * @return Calendar.SUNDAY..Calendar.SATURDAY
+   */
+  static int getDayOfWeek(long epochDay) {
+    // 1970-01-01 is Thursday
+    return (int) Math.floorMod(epochDay + Calendar.THURSDAY - 1, 7L) + 1;
+  }
+
+  // Civil dates are packed into int as year * 10000 + month * 100 + day, with 1-based months
+  static int toCivil(long epochDay) {
+    long z = epochDay + EPOCH_SHIFT;
+    long era = Math.floorDiv(z, DAYS_PER_ERA);
+    long dayOfEra = z - era * DAYS_PER_ERA;
+    long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    // Years start on March 1 here, which puts the leap day to the end of year
+    long shiftedMonth = (5 * dayOfYear + 2) / 153;
+    int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+    int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+    int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+    return year * 10000 + month * 100 + day;
+  }
+
+  static long toEpochDay(int year, int month, int day) {
+    long y = month <= 2 ? year - 1 : year;
+    long era = Math.floorDiv(y, 400L);
+    long yearOfEra = y - era * 400;
+    long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * DAYS_PER_ERA + dayOfEra - EPOCH_SHIFT;
+  }
+
+  private static int getYear(int civil) {
+    return civil / 10000;
+  }
+
+  private static int getMonth(int civil) {
+    return civil / 100 % 100;
+  }
+
+  private static int getDayOfMonth(int civil) {
+    return civil % 100;
+  }
+
+  private static int getMonthLength(int year, int month) {
+    switch (month) {
+    case 2:
+      boolean isLeap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+      return isLeap ? 29 : 28;
+    case 4:
+    case 6:
+    case 9:
+    case 11:
+      return 30;
+    default:
+      return 31;
+    }
+  }
+}
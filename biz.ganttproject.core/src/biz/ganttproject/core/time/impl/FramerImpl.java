@@ -18,18 +18,29 @@ import biz.ganttproject.core.time.DateFrameable;
 
 /**
  * Created by IntelliJ IDEA.
- * 
+ *
+ * Day, month and year frames are computed on epoch millis by {@link EpochMillisFramer},
+ * other fields and the cases it can't handle go through Calendar.
+ *
  * @author bard
  */
 public class FramerImpl implements DateFrameable {
   private final int myCalendarField;
+  private final boolean isEpochMillisSupported;
 
   public FramerImpl(int calendarField) {
     myCalendarField = calendarField;
+    isEpochMillisSupported = EpochMillisFramer.isSupported(calendarField);
   }
 
   @Override
   public Date adjustRight(Date baseDate) {
+    if (isEpochMillisSupported) {
+      long result = EpochMillisFramer.getInstance().adjustRight(myCalendarField, baseDate.getTime());
+      if (result != EpochMillisFramer.NOT_COMPUTED) {
+        return new Date(result);
+      }
+    }
     Calendar c = CalendarFactory.newCalendar();
     c.setTime(baseDate);
     clearFields(c);
@@ -45,6 +56,12 @@ public class FramerImpl implements DateFrameable {
 
   @Override
   public Date adjustLeft(Date baseDate) {
+    if (isEpochMillisSupported) {
+      long result = EpochMillisFramer.getInstance().adjustLeft(myCalendarField, baseDate.getTime());
+      if (result != EpochMillisFramer.NOT_COMPUTED) {
+        return new Date(result);
+      }
+    }
     Calendar c = CalendarFactory.newCalendar();
     c.setTime(baseDate);
     clearFields(c);
@@ -57,6 +74,12 @@ public class FramerImpl implements DateFrameable {
 
   @Override
   public Date jumpLeft(Date baseDate) {
+    if (isEpochMillisSupported) {
+      long result = EpochMillisFramer.getInstance().jumpLeft(myCalendarField, baseDate.getTime());
+      if (result != EpochMillisFramer.NOT_COMPUTED) {
+        return new Date(result);
+      }
+    }
     Calendar c = CalendarFactory.newCalendar();
     c.setTime(baseDate);
     c.add(myCalendarField, -1);
@@ -48,8 +48,19 @@ public class WeekFramerImpl implements DateFrameable {
     myCalendarFactory = calendarFactory;
   }
 
+  // Week frames of the default factory calendars are computed on epoch millis
+  private boolean isEpochMillisSupported() {
+    return myCalendarFactory instanceof DefaultCalendarFactory;
+  }
+
   @Override
   public Date adjustRight(Date baseDate) {
+    if (isEpochMillisSupported()) {
+      long result = EpochMillisFramer.getInstance().adjustRight(EpochMillisFramer.WEEK, baseDate.getTime());
+      if (result != EpochMillisFramer.NOT_COMPUTED) {
+        return new Date(result);
+      }
+    }
     Calendar c = myCalendarFactory.newCalendar();
     do {
       baseDate = myDayFramer.adjustRight(baseDate);
@@ -60,6 +71,12 @@ public class WeekFramerImpl implements DateFrameable {
 
   @Override
   public Date adjustLeft(Date baseDate) {
+    if (isEpochMillisSupported()) {
+      long result = EpochMillisFramer.getInstance().adjustLeft(EpochMillisFramer.WEEK, baseDate.getTime());
+      if (result != EpochMillisFramer.NOT_COMPUTED) {
+        return new Date(result);
+      }
+    }
     Calendar c = myCalendarFactory.newCalendar();
     c.setTime(myDayFramer.adjustLeft(baseDate));
     while (c.get(Calendar.DAY_OF_WEEK) != c.getFirstDayOfWeek()) {
@@ -70,6 +87,12 @@ public class WeekFramerImpl implements DateFrameable {
 
   @Override
   public Date jumpLeft(Date baseDate) {
+    if (isEpochMillisSupported()) {
+      long result = EpochMillisFramer.getInstance().jumpLeft(EpochMillisFramer.WEEK, baseDate.getTime());
+      if (result != EpochMillisFramer.NOT_COMPUTED) {
+        return new Date(result);
+      }
+    }
     Calendar c = myCalendarFactory.newCalendar();
     c.setTime(myDayFramer.adjustLeft(baseDate));
     int dayOfWeek = c.get(Calendar.DAY_OF_WEEK);
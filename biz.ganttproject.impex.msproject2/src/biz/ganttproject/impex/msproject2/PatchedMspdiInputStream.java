@@ -0,0 +1,226 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package biz.ganttproject.impex.msproject2;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import com.google.common.base.Strings;
+
+/**
+ * Input stream which patches MSPDI document on the fly. Some applications, e.g. Planta Project,
+ * write <Project> element with no associated namespace, and MPXJ fails to read such files
+ * (see http://code.google.com/p/ganttproject/issues/detail?id=438). If the root element has no namespace,
+ * we move it and all its namespace-less descendants into MS Project namespace, otherwise the document
+ * passes through unchanged. The output is always encoded in UTF-8.
+ *
+ * XML is parsed with StAX and re-serialized in chunks when consumer reads the stream, so the memory
+ * we need is proportional to the depth of the document rather than to its size.
+ */
+class PatchedMspdiInputStream extends InputStream {
+  static final String MSPDI_NAMESPACE = "http://schemas.microsoft.com/project";
+
+  // We re-serialize input until chunk buffer gets at least this many bytes
+  private static final int CHUNK_SIZE = 16 * 1024;
+
+  private static final int EVENTS_PER_FLUSH = 128;
+
+  /**
+   * Output buffer which lets us read its content without copying
+   */
+  private static class ChunkBuffer extends ByteArrayOutputStream {
+    ChunkBuffer() {
+      super(CHUNK_SIZE * 2);
+    }
+
+    byte[] getBytes() {
+      return buf;
+    }
+  }
+
+  private final InputStream mySource;
+  private final XMLStreamReader myReader;
+  private final XMLStreamWriter myWriter;
+  private final ChunkBuffer myChunk = new ChunkBuffer();
+  private int myChunkPosition;
+  private int myDepth;
+  private boolean isFixingNamespace;
+
+  PatchedMspdiInputStream(InputStream source) throws IOException {
+    mySource = source;
+    XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+    // Entities declared in the internal DTD subset are expanded, but nothing is loaded from outside
+    inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+    inputFactory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+    inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    inputFactory.setXMLResolver(new XMLResolver() {
+      @Override
+      public Object resolveEntity(String publicID, String systemID, String baseURI, String namespace) {
+        return new ByteArrayInputStream(new byte[0]);
+      }
+    });
+    try {
+      myReader = inputFactory.createXMLStreamReader(source);
+      myWriter = XMLOutputFactory.newInstance().createXMLStreamWriter(myChunk, "UTF-8");
+      myWriter.writeStartDocument("UTF-8", Strings.isNullOrEmpty(myReader.getVersion()) ? "1.0" : myReader.getVersion());
+    } catch (XMLStreamException e) {
+      throw new IOException("Failed to start reading MSPDI document", e);
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!ensureChunk()) {
+      return -1;
+    }
+    return myChunk.getBytes()[myChunkPosition++] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!ensureChunk()) {
+      return -1;
+    }
+    int result = Math.min(len, myChunk.size() - myChunkPosition);
+    System.arraycopy(myChunk.getBytes(), myChunkPosition, b, off, result);
+    myChunkPosition += result;
+    return result;
+  }
+
+  @Override
+  public int available() {
+    return myChunk.size() - myChunkPosition;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      myReader.close();
+    } catch (XMLStreamException e) {
+      throw new IOException(e);
+    } finally {
+      mySource.close();
+    }
+  }
+
+  /**
+   * @return true if there are unread bytes in the chunk buffer, reading the next chunk of input if needed,
+   * false if the document is over
+   */
+  private boolean ensureChunk() throws IOException {
+    if (myChunkPosition < myChunk.size()) {
+      return true;
+    }
+    myChunk.reset();
+    myChunkPosition = 0;
+    try {
+      while (myChunk.size() < CHUNK_SIZE && myReader.hasNext()) {
+        // Writer buffers its output, and flushing it after every event is expensive
+        for (int i = 0; i < EVENTS_PER_FLUSH && myReader.hasNext(); i++) {
+          copyNext();
+        }
+        myWriter.flush();
+      }
+    } catch (XMLStreamException e) {
+      throw new IOException("Failed to patch MSPDI document", e);
+    }
+    return myChunk.size() > 0;
+  }
+
+  private void copyNext() throws XMLStreamException {
+    switch (myReader.next()) {
+    case XMLStreamConstants.START_ELEMENT:
+      copyStartElement();
+      break;
+    case XMLStreamConstants.END_ELEMENT:
+      myDepth--;
+      myWriter.writeEndElement();
+      break;
+    case XMLStreamConstants.CHARACTERS:
+    case XMLStreamConstants.SPACE:
+      myWriter.writeCharacters(myReader.getTextCharacters(), myReader.getTextStart(), myReader.getTextLength());
+      break;
+    case XMLStreamConstants.CDATA:
+      myWriter.writeCData(myReader.getText());
+      break;
+    case XMLStreamConstants.COMMENT:
+      myWriter.writeComment(myReader.getText());
+      break;
+    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+      myWriter.writeProcessingInstruction(myReader.getPITarget(), Strings.nullToEmpty(myReader.getPIData()));
+      break;
+    case XMLStreamConstants.ENTITY_REFERENCE:
+      myWriter.writeEntityRef(myReader.getLocalName());
+      break;
+    case XMLStreamConstants.END_DOCUMENT:
+      myWriter.writeEndDocument();
+      break;
+    default:
+      // DTD is not supported in MSPDI, we skip it. Entities declared in it are already expanded
+      break;
+    }
+  }
+
+  private void copyStartElement() throws XMLStreamException {
+    String namespace = Strings.nullToEmpty(myReader.getNamespaceURI());
+    boolean isRoot = myDepth++ == 0;
+    if (isRoot) {
+      isFixingNamespace = "Project".equals(myReader.getLocalName()) && namespace.isEmpty();
+    }
+    boolean isFixing = isFixingNamespace && namespace.isEmpty();
+    if (isFixing) {
+      myWriter.writeStartElement("", myReader.getLocalName(), MSPDI_NAMESPACE);
+      if (isRoot) {
+        myWriter.writeDefaultNamespace(MSPDI_NAMESPACE);
+      }
+    } else {
+      myWriter.writeStartElement(Strings.nullToEmpty(myReader.getPrefix()), myReader.getLocalName(), namespace);
+    }
+    for (int i = 0; i < myReader.getNamespaceCount(); i++) {
+      String prefix = myReader.getNamespacePrefix(i);
+      if (!Strings.isNullOrEmpty(prefix)) {
+        myWriter.writeNamespace(prefix, myReader.getNamespaceURI(i));
+      } else if (!isFixing) {
+        myWriter.writeDefaultNamespace(Strings.nullToEmpty(myReader.getNamespaceURI(i)));
+      }
+    }
+    for (int i = 0; i < myReader.getAttributeCount(); i++) {
+      String attributeNamespace = myReader.getAttributeNamespace(i);
+      if (Strings.isNullOrEmpty(attributeNamespace)) {
+        myWriter.writeAttribute(myReader.getAttributeLocalName(i), myReader.getAttributeValue(i));
+      } else {
+        myWriter.writeAttribute(Strings.nullToEmpty(myReader.getAttributePrefix(i)), attributeNamespace,
+            myReader.getAttributeLocalName(i), myReader.getAttributeValue(i));
+      }
+    }
+  }
+}
@@ -73,18 +73,10 @@ import net.sourceforge.ganttproject.task.dependency.constraint.StartFinishConstr
 import net.sourceforge.ganttproject.task.dependency.constraint.StartStartConstraintImpl;
 import net.sourceforge.ganttproject.util.collect.Pair;
 
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactoryConfigurationError;
-import javax.xml.transform.sax.SAXTransformerFactory;
-import javax.xml.transform.stream.StreamResult;
-import javax.xml.transform.stream.StreamSource;
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -150,20 +142,14 @@ class ProjectFileImporter {
     return myNativeProject.getTaskManager();
   }
 
-  private static InputStream createPatchedStream(final File inputFile) throws TransformerConfigurationException,
-      TransformerFactoryConfigurationError, IOException {
-    final Transformer transformer = SAXTransformerFactory.newInstance().newTransformer(
-        new StreamSource(ProjectFileImporter.class.getResourceAsStream("/mspdi_fix.xsl")));
-    transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-
-    ByteArrayOutputStream transformationOut = new ByteArrayOutputStream();
+  private static InputStream createPatchedStream(final File inputFile) throws IOException {
+    InputStream fileStream = new BufferedInputStream(new FileInputStream(inputFile));
     try {
-      transformer.transform(new StreamSource(inputFile), new StreamResult(transformationOut));
-    } catch (TransformerException e) {
-      GPLogger.log(new RuntimeException("Failed to transform file=" + inputFile.getAbsolutePath(), e));
+      return new PatchedMspdiInputStream(fileStream);
+    } catch (IOException e) {
+      fileStream.close();
+      throw e;
     }
-
-    return new ByteArrayInputStream(transformationOut.toByteArray());
   }
 
   @SuppressWarnings("unused")
@@ -186,13 +172,13 @@ class ProjectFileImporter {
   public void run() throws MPXJException {
     ProjectFile pf;
     try {
-      pf = (myReader instanceof MSPDIReader && myPatchMspdi) ? myReader.read(createPatchedStream(myForeignFile))
-          : myReader.read(myForeignFile);
-    } catch (TransformerConfigurationException e) {
-      throw new MPXJException("Failed to read input file=" + myForeignFile.getAbsolutePath() + "<br>" + e.getMessage(),
-          e);
-    } catch (TransformerFactoryConfigurationError e) {
-      throw new MPXJException("Failed to create a transformer factory");
+      if (myReader instanceof MSPDIReader && myPatchMspdi) {
+        try (InputStream patchedStream = createPatchedStream(myForeignFile)) {
+          pf = myReader.read(patchedStream);
+        }
+      } else {
+        pf = myReader.read(myForeignFile);
+      }
     } catch (IOException e) {
       throw new MPXJException("Failed to read input file=" + myForeignFile.getAbsolutePath(), e);
     } catch (RuntimeException e) {
@@ -205,16 +191,19 @@ class ProjectFileImporter {
     importCalendar(pf);
     importResources(pf, foreignId2nativeResource);
 
-    importTasks(pf, foreignId2nativeTask, myNativeTask2foreignStart);
-    hideCustomProperties();
-    importDependencies(pf, foreignId2nativeTask);
-    List<net.sourceforge.ganttproject.task.Task> leafTasks = Lists.newArrayList();
-    for (GanttTask task : foreignId2nativeTask.values()) {
-      if (!getTaskManager().getTaskHierarchy().hasNestedTasks(task)) {
-        leafTasks.add(task);
-      }
+    // Supertask bounds are adjusted by the scheduler when session closes
+    TaskManager.ImportSession session = getTaskManager().startImport();
+    try {
+      importTasks(pf, foreignId2nativeTask, myNativeTask2foreignStart);
+      hideCustomProperties();
+      importDependencies(pf, foreignId2nativeTask);
+    } finally {
+      session.close();
+    }
+    for (TaskDependency loop : session.getLoopingDependencies()) {
+      myErrors.add(Pair.create(Level.SEVERE, String.format(
+          "Failed to import relation=%s because it makes a dependency loop", loop)));
     }
-    myNativeProject.getTaskManager().getAlgorithmCollection().getAdjustTaskBoundsAlgorithm().run(leafTasks);
     importResourceAssignments(pf, foreignId2nativeTask, foreignId2nativeResource);
   }
 
@@ -680,41 +669,36 @@ class ProjectFileImporter {
   }
 
   private void importDependencies(ProjectFile pf, Map<Integer, GanttTask> foreignId2nativeTask) {
-    getTaskManager().getAlgorithmCollection().getScheduler().setEnabled(false);
-    try {
-      for (Task t : pf.getAllTasks()) {
-        if (t.getPredecessors() == null) {
+    for (Task t : pf.getAllTasks()) {
+      if (t.getPredecessors() == null) {
+        continue;
+      }
+      for (Relation r : t.getPredecessors()) {
+        GanttTask dependant = foreignId2nativeTask.get(foreignId(r.getSourceTask()));
+        GanttTask dependee = foreignId2nativeTask.get(foreignId(r.getTargetTask()));
+        if (dependant == null) {
+          myErrors.add(Pair.create(Level.SEVERE, String.format(
+              "Failed to import relation=%s because source task=%s was not found", r, foreignId(r.getSourceTask()))));
           continue;
         }
-        for (Relation r : t.getPredecessors()) {
-          GanttTask dependant = foreignId2nativeTask.get(foreignId(r.getSourceTask()));
-          GanttTask dependee = foreignId2nativeTask.get(foreignId(r.getTargetTask()));
-          if (dependant == null) {
-            myErrors.add(Pair.create(Level.SEVERE, String.format(
-                "Failed to import relation=%s because source task=%s was not found", r, foreignId(r.getSourceTask()))));
-            continue;
-          }
-          if (dependee == null) {
-            myErrors.add(Pair.create(Level.SEVERE, String.format(
-                "Failed to import relation=%s because target task=%s", t, foreignId(r.getTargetTask()))));
-            continue;
-          }
-          try {
-            TaskDependency dependency = getTaskManager().getDependencyCollection().createDependency(dependant, dependee);
-            dependency.setConstraint(convertConstraint(r));
-            if (r.getLag().getDuration() != 0.0) {
-              // TODO(dbarashev): get rid of days
-              dependency.setDifference((int) r.getLag().convertUnits(TimeUnit.DAYS, pf.getProjectProperties()).getDuration());
-            }
-            dependency.setHardness(TaskDependency.Hardness.parse(getTaskManager().getDependencyHardnessOption().getValue()));
-          } catch (TaskDependencyException e) {
-            GPLogger.getLogger("MSProject").log(Level.SEVERE, "Failed to import relation=" + r, e);
-            myErrors.add(Pair.create(Level.SEVERE, String.format("Failed to import relation=%s: %s", r, e.getMessage())));
+        if (dependee == null) {
+          myErrors.add(Pair.create(Level.SEVERE, String.format(
+              "Failed to import relation=%s because target task=%s", t, foreignId(r.getTargetTask()))));
+          continue;
+        }
+        try {
+          TaskDependency dependency = getTaskManager().getDependencyCollection().createDependency(dependant, dependee);
+          dependency.setConstraint(convertConstraint(r));
+          if (r.getLag().getDuration() != 0.0) {
+            // TODO(dbarashev): get rid of days
+            dependency.setDifference((int) r.getLag().convertUnits(TimeUnit.DAYS, pf.getProjectProperties()).getDuration());
           }
+          dependency.setHardness(TaskDependency.Hardness.parse(getTaskManager().getDependencyHardnessOption().getValue()));
+        } catch (TaskDependencyException e) {
+          GPLogger.getLogger("MSProject").log(Level.SEVERE, "Failed to import relation=" + r, e);
+          myErrors.add(Pair.create(Level.SEVERE, String.format("Failed to import relation=%s: %s", r, e.getMessage())));
         }
       }
-    } finally {
-      getTaskManager().getAlgorithmCollection().getScheduler().setEnabled(true);
     }
   }
 
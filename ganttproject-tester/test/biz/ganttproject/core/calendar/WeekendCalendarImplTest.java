@@ -20,13 +20,16 @@ package biz.ganttproject.core.calendar;
 
 import java.text.DateFormat;
 import java.util.Calendar;
+import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 
 import biz.ganttproject.core.calendar.CalendarEvent.Type;
 import biz.ganttproject.core.calendar.GPCalendar.DayMask;
 import biz.ganttproject.core.calendar.GPCalendar.DayType;
+import biz.ganttproject.core.calendar.GPCalendarCalc.MoveDirection;
 import biz.ganttproject.core.time.CalendarFactory;
+import biz.ganttproject.core.time.impl.GPTimeUnitStack;
 
 import com.google.common.base.Function;
 import com.google.common.collect.Collections2;
@@ -130,4 +133,67 @@ public class WeekendCalendarImplTest extends TestCase {
     assertEquals(0, calendar.getDayMask(CalendarFactory.createGanttCalendar(2014, 0, 11).getTime()) & DayMask.WORKING);
     assertEquals(DayMask.WEEKEND, calendar.getDayMask(CalendarFactory.createGanttCalendar(2014, 0, 11).getTime()) & DayMask.WEEKEND);
   }
+
+  public void testEpochDayApi() {
+    WeekendCalendarImpl calendar = new WeekendCalendarImpl();
+    calendar.setPublicHolidays(TEST_EVENTS);
+    Date date = CalendarFactory.createGanttCalendar(2014, 0, 1).getTime();
+    long epochDay = calendar.toEpochDay(date);
+    assertEquals(date, calendar.fromEpochDay(epochDay));
+    assertEquals(DayMask.HOLIDAY, calendar.dayMask(epochDay) & DayMask.HOLIDAY);
+    // Jan 3, 2014 is Friday, Jan 6 is Monday
+    long friday = epochDay + 2;
+    assertEquals(friday + 1, calendar.shiftWorkingDays(friday, 1));
+    assertEquals(friday + 4, calendar.shiftWorkingDays(friday + 1, 1));
+    assertEquals(friday, calendar.shiftWorkingDays(friday + 3, -1));
+    // Dec 31, 2013 is the working day before the holiday
+    assertEquals(epochDay - 1, calendar.shiftWorkingDays(friday, -2));
+  }
+
+  public void testShiftWorkingDaysMatchesActivities() {
+    WeekendCalendarImpl calendar = new WeekendCalendarImpl();
+    calendar.setPublicHolidays(TEST_EVENTS);
+    long start = calendar.toEpochDay(CalendarFactory.createGanttCalendar(2014, 0, 1).getTime());
+    for (long day = start; day < start + 120; day++) {
+      Date date = calendar.fromEpochDay(day);
+      for (int n : new int[] {1, 3, 20, -1, -3, -20}) {
+        List<GPCalendarActivity> activities = calendar.getActivities(date, GPTimeUnitStack.DAY, n);
+        Date expected = n > 0 ? activities.get(activities.size() - 1).getEnd() : activities.get(0).getStart();
+        assertEquals(date + " shifted by " + n, expected, calendar.fromEpochDay(calendar.shiftWorkingDays(day, n)));
+      }
+    }
+  }
+
+  public void testFindClosestDay() {
+    WeekendCalendarImpl calendar = new WeekendCalendarImpl();
+    calendar.setPublicHolidays(TEST_EVENTS);
+    // Jan 3, 2014 is Friday
+    assertEquals(CalendarFactory.createGanttCalendar(2014, 0, 6).getTime(), calendar.findClosest(
+        CalendarFactory.createGanttCalendar(2014, 0, 3).getTime(), GPTimeUnitStack.DAY, MoveDirection.FORWARD, DayType.WORKING));
+    assertEquals(CalendarFactory.createGanttCalendar(2014, 0, 11).getTime(), calendar.findClosest(
+        CalendarFactory.createGanttCalendar(2014, 0, 6).getTime(), GPTimeUnitStack.DAY, MoveDirection.FORWARD, DayType.NON_WORKING));
+    assertEquals(CalendarFactory.createGanttCalendar(2014, 0, 3).getTime(), calendar.findClosest(
+        CalendarFactory.createGanttCalendar(2014, 0, 6).getTime(), GPTimeUnitStack.DAY, MoveDirection.BACKWARD, DayType.WORKING));
+    // Jan 1, 2014 is a recurring holiday
+    assertEquals(CalendarFactory.createGanttCalendar(2013, 11, 31).getTime(), calendar.findClosest(
+        CalendarFactory.createGanttCalendar(2014, 0, 2).getTime(), GPTimeUnitStack.DAY, MoveDirection.BACKWARD, DayType.WORKING));
+    assertNull(calendar.findClosest(
+        CalendarFactory.createGanttCalendar(2014, 0, 3).getTime(), GPTimeUnitStack.DAY, MoveDirection.FORWARD, DayType.WORKING,
+        CalendarFactory.createGanttCalendar(2014, 0, 5).getTime()));
+    assertEquals(CalendarFactory.createGanttCalendar(2014, 0, 6).getTime(), calendar.findClosest(
+        CalendarFactory.createGanttCalendar(2014, 0, 3).getTime(), GPTimeUnitStack.DAY, MoveDirection.FORWARD, DayType.WORKING,
+        CalendarFactory.createGanttCalendar(2014, 0, 6).getTime()));
+  }
+
+  public void testCountWorkingDays() {
+    WeekendCalendarImpl calendar = new WeekendCalendarImpl();
+    calendar.setPublicHolidays(TEST_EVENTS);
+    // 23 weekdays in January 2014, Jan 1 is a holiday
+    assertEquals(22, calendar.countWorkingDays(
+        CalendarFactory.createGanttCalendar(2014, 0, 1).getTime(), CalendarFactory.createGanttCalendar(2014, 1, 1).getTime()));
+    // Index is rebuilt when calendar changes
+    calendar.setWeekDayType(Calendar.SATURDAY, DayType.WORKING);
+    assertEquals(26, calendar.countWorkingDays(
+        CalendarFactory.createGanttCalendar(2014, 0, 1).getTime(), CalendarFactory.createGanttCalendar(2014, 1, 1).getTime()));
+  }
 }
@@ -0,0 +1,75 @@
+/*
+GanttProject is an opensource project management tool. License: GPL3
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package biz.ganttproject.core.chart.canvas;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link GridSpatialIndex}
+ */
+public class GridSpatialIndexTest extends TestCase {
+  public void testPointSearch() {
+    GridSpatialIndex<String> index = new GridSpatialIndex<String>();
+    index.put("bar", 10, 30, 100, 20);
+    index.put("label", 120, 30, 40, 12);
+    assertEquals("bar", index.get(10, 10));
+    assertEquals("bar", index.get(110, 30));
+    assertEquals("label", index.get(130, 25));
+    assertNull(index.get(115, 25));
+    assertEquals("label", index.get(116, 5, 25, 0));
+    assertNull(index.get(130, 5));
+  }
+
+  public void testFirstPutWins() {
+    GridSpatialIndex<String> index = new GridSpatialIndex<String>(16, 16);
+    index.put("wide", -1000, 100, 5000, 100);
+    index.put("small", 10, 30, 10, 10);
+    index.put("another", 0, 40, 100, 40);
+    assertEquals("wide", index.get(15, 25));
+    index.clear();
+    index.put("small", 10, 30, 10, 10);
+    index.put("wide", -1000, 100, 5000, 100);
+    assertEquals("small", index.get(15, 25));
+    assertEquals("wide", index.get(-500, 50));
+  }
+
+  public void testSameResultsAsDummyIndex() {
+    Random random = new Random(42);
+    GridSpatialIndex<Integer> gridIndex = new GridSpatialIndex<Integer>();
+    DummySpatialIndex<Integer> dummyIndex = new DummySpatialIndex<Integer>();
+    for (int i = 0; i < 2000; i++) {
+      int x = random.nextInt(4000) - 500;
+      int y = random.nextInt(4000) - 500;
+      int width = random.nextInt(10) == 0 ? random.nextInt(3000) : random.nextInt(200);
+      int height = random.nextInt(40);
+      gridIndex.put(i, x, y, width, height);
+      dummyIndex.put(i, x, y, width, height);
+    }
+    for (int i = 0; i < 5000; i++) {
+      int x = random.nextInt(4500) - 750;
+      int y = random.nextInt(4500) - 750;
+      int xpadding = random.nextInt(4) == 0 ? random.nextInt(2000) : random.nextInt(5);
+      int ypadding = random.nextInt(5);
+      assertEquals(dummyIndex.get(x, xpadding, y, ypadding), gridIndex.get(x, xpadding, y, ypadding));
+    }
+    assertEquals(dummyIndex.values(), gridIndex.values());
+  }
+}
@@ -0,0 +1,66 @@
+/*
+GanttProject is an opensource project management tool. License: GPL3
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package biz.ganttproject.core.chart.canvas;
+
+import java.util.Random;
+
+/**
+ * Compares point search in {@link GridSpatialIndex} and {@link DummySpatialIndex} on a synthetic
+ * chart canvas: one task bar and one label per row, like task chart renderer does.
+ *
+ * Run with: java biz.ganttproject.core.chart.canvas.SpatialIndexBenchmark [rows] [queries]
+ */
+public class SpatialIndexBenchmark {
+  private static final int ROW_HEIGHT = 24;
+  private static final int CHART_WIDTH = 4000;
+
+  public static void main(String[] args) {
+    int rows = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+    int queries = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+    for (int round = 0; round < 3; round++) {
+      System.out.println(String.format("Round %d, rows=%d queries=%d", round, rows, queries));
+      run("dummy", new DummySpatialIndex<Integer>(), rows, queries);
+      run("grid", new GridSpatialIndex<Integer>(), rows, queries);
+    }
+  }
+
+  private static void run(String name, SpatialIndex<Integer> index, int rows, int queries) {
+    Random random = new Random(1);
+    long buildStart = System.nanoTime();
+    for (int row = 0; row < rows; row++) {
+      int barX = random.nextInt(CHART_WIDTH);
+      int barWidth = 10 + random.nextInt(400);
+      int bottomY = (row + 1) * ROW_HEIGHT - 4;
+      index.put(2 * row, barX, bottomY, barWidth, ROW_HEIGHT - 8);
+      index.put(2 * row + 1, barX + barWidth + 5, bottomY, 80, 12);
+    }
+    long buildTime = System.nanoTime() - buildStart;
+
+    long queryStart = System.nanoTime();
+    int hits = 0;
+    for (int i = 0; i < queries; i++) {
+      if (index.get(random.nextInt(CHART_WIDTH), 2, random.nextInt(rows * ROW_HEIGHT), 2) != null) {
+        hits++;
+      }
+    }
+    long queryTime = System.nanoTime() - queryStart;
+    System.out.println(String.format("  %-6s build=%6.2fms query=%8.2fms (%.3fus/query) hits=%d", name,
+        buildTime / 1e6, queryTime / 1e6, queryTime / 1e3 / queries, hits));
+  }
+}
@@ -0,0 +1,113 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package biz.ganttproject.core.chart.text;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import biz.ganttproject.core.time.CalendarFactory;
+import biz.ganttproject.core.time.impl.GPTimeUnitStack;
+import junit.framework.TestCase;
+import net.sourceforge.ganttproject.language.GanttLanguage;
+
+/**
+ * Tests bounded timeline text cache and its use in {@link CachingTextFormatter}.
+ */
+public class TimeUnitTextCacheTest extends TestCase {
+  private static final TimeUnitText[] TEXT = new TimeUnitText[] { new TimeUnitText("foo") };
+
+  public void testLeastRecentlyUsedIsEvicted() {
+    TimeUnitTextCache cache = new TimeUnitTextCache(3);
+    cache.put(1, TEXT);
+    cache.put(2, TEXT);
+    cache.put(3, TEXT);
+    assertSame(TEXT, cache.get(1));
+    cache.put(4, TEXT);
+    assertEquals(3, cache.size());
+    assertNull(cache.get(2));
+    assertNotNull(cache.get(1));
+    assertNotNull(cache.get(3));
+    assertNotNull(cache.get(4));
+    assertEquals(4, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertNull(cache.get(1));
+  }
+
+  public void testSameAsLinkedHashMap() {
+    final int capacity = 37;
+    Map<Long, TimeUnitText[]> expected = new LinkedHashMap<Long, TimeUnitText[]>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, TimeUnitText[]> eldest) {
+        return size() > capacity;
+      }
+    };
+    TimeUnitTextCache cache = new TimeUnitTextCache(capacity);
+    Random random = new Random(42);
+    for (int i = 0; i < 100000; i++) {
+      // Negative keys and colliding hashes should work too
+      long key = random.nextInt(100) - 50 + (random.nextBoolean() ? 0 : (1L << 40));
+      if (random.nextInt(3) == 0) {
+        TimeUnitText[] value = new TimeUnitText[] { new TimeUnitText(String.valueOf(i)) };
+        expected.put(key, value);
+        cache.put(key, value);
+      } else {
+        assertSame("key=" + key, expected.get(key), cache.get(key));
+      }
+      assertEquals(expected.size(), cache.size());
+    }
+  }
+
+  public void testFormatterSharesFrameTexts() {
+    GanttLanguage.getInstance();
+    final int[] createCount = new int[1];
+    CachingTextFormatter formatter = new CachingTextFormatter(10) {
+      @Override
+      protected TimeUnitText[] createTimeUnitText(Date adjustedLeft) {
+        createCount[0]++;
+        return new TimeUnitText[] { new TimeUnitText(adjustedLeft.toString()) };
+      }
+    };
+    Calendar c = CalendarFactory.newCalendar();
+    c.clear();
+    c.set(2019, Calendar.JANUARY, 1, 13, 0);
+    TimeUnitText[] first = formatter.format(GPTimeUnitStack.MONTH, c.getTime());
+    for (int i = 0; i < 30; i++) {
+      c.add(Calendar.DATE, 1);
+      assertSame(first, formatter.format(GPTimeUnitStack.MONTH, c.getTime()));
+    }
+    assertEquals(1, createCount[0]);
+    // Only the 10 most recent days of January are cached, but others still share the texts
+    assertEquals(10, formatter.getCacheSize());
+    c.set(2019, Calendar.JANUARY, 3);
+    assertSame(first, formatter.format(GPTimeUnitStack.MONTH, c.getTime()));
+    assertEquals(1, createCount[0]);
+
+    c.set(2019, Calendar.FEBRUARY, 1);
+    assertNotSame(first, formatter.format(GPTimeUnitStack.MONTH, c.getTime()));
+    assertEquals(2, createCount[0]);
+    assertTrue(formatter.getCacheHitCount() > 0);
+    assertTrue(formatter.getCacheMissCount() > 0);
+  }
+}
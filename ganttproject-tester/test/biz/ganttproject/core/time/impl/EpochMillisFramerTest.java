@@ -0,0 +1,155 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package biz.ganttproject.core.time.impl;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import junit.framework.TestCase;
+
+/**
+ * Compares frames computed on epoch millis with frames computed by Calendar.
+ */
+public class EpochMillisFramerTest extends TestCase {
+  private static final String[] ZONES = new String[] {
+      "UTC", "Europe/Berlin", "America/New_York", "America/Sao_Paulo", "Australia/Lord_Howe",
+      "Asia/Kolkata", "Pacific/Apia"
+  };
+  private static final int[] FIELDS = new int[] {
+      Calendar.DATE, Calendar.DAY_OF_WEEK, EpochMillisFramer.WEEK, Calendar.MONTH, Calendar.YEAR
+  };
+  // A step which is not a multiple of an hour or a day, so that we visit different times of day
+  private static final long STEP = 23 * 60 * 60 * 1000L + 13 * 60 * 1000L + 17;
+
+  public void testSameAsCalendar() {
+    for (String zone : ZONES) {
+      for (Locale locale : new Locale[] {Locale.US, Locale.UK}) {
+        Calendar prototype = Calendar.getInstance(TimeZone.getTimeZone(zone), locale);
+        EpochMillisFramer framer = new EpochMillisFramer(prototype);
+        prototype.clear();
+        prototype.set(2005, Calendar.JANUARY, 1);
+        long start = prototype.getTimeInMillis();
+        prototype.set(2025, Calendar.JANUARY, 1);
+        long end = prototype.getTimeInMillis();
+        int computed = 0;
+        int total = 0;
+        for (long millis = start; millis < end; millis += STEP) {
+          for (int field : FIELDS) {
+            String message = zone + " " + locale + " field=" + field + " date=" + new Date(millis);
+            computed += check(message + " adjustLeft", adjustLeft(prototype, field, millis),
+                framer.adjustLeft(field, millis));
+            computed += check(message + " adjustRight", adjustRight(prototype, field, millis),
+                framer.adjustRight(field, millis));
+            computed += check(message + " jumpLeft", jumpLeft(prototype, field, millis),
+                framer.jumpLeft(field, millis));
+            total += 3;
+          }
+        }
+        assertTrue(zone + ": too many fallbacks, computed " + computed + " of " + total, computed > total * 0.95);
+      }
+    }
+  }
+
+  public void testNonGregorianCalendarIsNotComputed() {
+    Calendar buddhist = Calendar.getInstance(new Locale("th", "TH"));
+    assertFalse("gregory".equals(buddhist.getCalendarType()));
+    EpochMillisFramer framer = new EpochMillisFramer(buddhist);
+    assertEquals(EpochMillisFramer.NOT_COMPUTED, framer.adjustLeft(Calendar.MONTH, System.currentTimeMillis()));
+  }
+
+  public void testBeforeCutoverIsNotComputed() {
+    Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"), Locale.US);
+    EpochMillisFramer framer = new EpochMillisFramer(calendar);
+    calendar.clear();
+    calendar.set(1582, Calendar.DECEMBER, 1);
+    assertEquals(EpochMillisFramer.NOT_COMPUTED, framer.adjustLeft(Calendar.DATE, calendar.getTimeInMillis()));
+  }
+
+  public void testCivilDates() {
+    assertEquals(19700101, EpochMillisFramer.toCivil(0));
+    assertEquals(20000229, EpochMillisFramer.toCivil(EpochMillisFramer.toEpochDay(2000, 2, 29)));
+    assertEquals(21000301, EpochMillisFramer.toCivil(EpochMillisFramer.toEpochDay(2100, 2, 29)));
+    assertEquals(Calendar.THURSDAY, EpochMillisFramer.getDayOfWeek(0));
+    assertEquals(Calendar.WEDNESDAY, EpochMillisFramer.getDayOfWeek(-1));
+  }
+
+  private static int check(String message, long expected, long actual) {
+    if (actual == EpochMillisFramer.NOT_COMPUTED) {
+      return 0;
+    }
+    assertEquals(message, new Date(expected), new Date(actual));
+    return 1;
+  }
+
+  private static Calendar newCalendar(Calendar prototype, long millis) {
+    Calendar c = (Calendar) prototype.clone();
+    c.setTimeInMillis(millis);
+    return c;
+  }
+
+  // The reference implementations below repeat FramerImpl and WeekFramerImpl
+  private static long adjustLeft(Calendar prototype, int field, long millis) {
+    if (field == EpochMillisFramer.WEEK) {
+      Calendar c = newCalendar(prototype, adjustLeft(prototype, Calendar.DATE, millis));
+      while (c.get(Calendar.DAY_OF_WEEK) != c.getFirstDayOfWeek()) {
+        c.setTimeInMillis(adjustLeft(prototype, Calendar.DATE, jumpLeft(prototype, Calendar.DATE, c.getTimeInMillis())));
+      }
+      return c.getTimeInMillis();
+    }
+    Calendar c = newCalendar(prototype, millis);
+    clearFields(c, field);
+    return c.getTimeInMillis();
+  }
+
+  private static long adjustRight(Calendar prototype, int field, long millis) {
+    if (field == EpochMillisFramer.WEEK) {
+      Calendar c = newCalendar(prototype, millis);
+      do {
+        c.setTimeInMillis(adjustRight(prototype, Calendar.DATE, c.getTimeInMillis()));
+      } while (c.get(Calendar.DAY_OF_WEEK) != c.getFirstDayOfWeek());
+      return c.getTimeInMillis();
+    }
+    Calendar c = newCalendar(prototype, millis);
+    clearFields(c, field);
+    c.add(field, 1);
+    return c.getTimeInMillis();
+  }
+
+  private static long jumpLeft(Calendar prototype, int field, long millis) {
+    if (field == EpochMillisFramer.WEEK) {
+      int dayOfWeek = newCalendar(prototype, adjustLeft(prototype, Calendar.DATE, millis)).get(Calendar.DAY_OF_WEEK);
+      Calendar c = newCalendar(prototype, millis);
+      do {
+        c.setTimeInMillis(jumpLeft(prototype, Calendar.DATE, c.getTimeInMillis()));
+      } while (c.get(Calendar.DAY_OF_WEEK) != dayOfWeek);
+      return c.getTimeInMillis();
+    }
+    Calendar c = newCalendar(prototype, millis);
+    c.add(field, -1);
+    return c.getTimeInMillis();
+  }
+
+  private static void clearFields(Calendar c, int field) {
+    for (int i = field + 1; i <= Calendar.MILLISECOND; i++) {
+      c.clear(i);
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package biz.ganttproject.impex.msproject2;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+/**
+ * Compares peak heap usage and time of MSPDI patching: XSLT transformation into a byte array,
+ * which we used to do, and streaming {@link PatchedMspdiInputStream}. Input is a synthetic MSPDI
+ * document with no namespace on the root element, the case which needs patching.
+ *
+ * Run with: java biz.ganttproject.impex.msproject2.PatchedMspdiBenchmark [tasks]
+ */
+public class PatchedMspdiBenchmark {
+  private static final String LEGACY_STYLESHEET = "<xsl:stylesheet xmlns:xsl='http://www.w3.org/1999/XSL/Transform' version='1.0'>"
+      + "<xsl:template match='/Project'>"
+      + "<xsl:element name='Project' xmlns='http://schemas.microsoft.com/project'><xsl:apply-templates/></xsl:element>"
+      + "</xsl:template>"
+      + "<xsl:template match='@*|node()'><xsl:copy><xsl:apply-templates/></xsl:copy></xsl:template>"
+      + "</xsl:stylesheet>";
+
+  public static void main(String[] args) throws Exception {
+    int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+    File input = File.createTempFile("mspdi-benchmark", ".xml");
+    try {
+      writeDocument(input, tasks);
+      System.out.println(String.format("tasks=%d file size=%.1fMB", tasks, input.length() / 1e6));
+      for (int round = 0; round < 3; round++) {
+        System.out.println(String.format("Round %d", round));
+        measure("xslt     ", input, false);
+        measure("streaming", input, true);
+      }
+    } finally {
+      input.delete();
+    }
+  }
+
+  private static void writeDocument(File file, int tasks) throws IOException {
+    try (Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8))) {
+      out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<Project>\n<Name>Synthetic</Name>\n<Tasks>\n");
+      for (int i = 1; i <= tasks; i++) {
+        out.write("<Task><UID>" + i + "</UID><ID>" + i + "</ID><Name>Task &amp; " + i + "</Name>"
+            + "<OutlineLevel>" + (1 + i % 5) + "</OutlineLevel>"
+            + "<Start>2019-01-01T08:00:00</Start><Finish>2019-01-02T17:00:00</Finish>"
+            + "<Duration>PT16H0M0S</Duration><PercentComplete>" + (i % 101) + "</PercentComplete>"
+            + "<Notes>Some notes about the task number " + i + "</Notes></Task>\n");
+      }
+      out.write("</Tasks>\n</Project>\n");
+    }
+  }
+
+  private static void measure(String label, File input, boolean streaming) throws Exception {
+    System.gc();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      pool.resetPeakUsage();
+    }
+    long baseline = getUsedHeap();
+    long start = System.nanoTime();
+    long checksum = 0;
+    try (InputStream in = streaming ? new PatchedMspdiInputStream(new BufferedInputStream(new FileInputStream(input)))
+        : transform(input)) {
+      byte[] buffer = new byte[8192];
+      for (int count = in.read(buffer); count >= 0; count = in.read(buffer)) {
+        checksum += count;
+      }
+    }
+    long time = System.nanoTime() - start;
+    System.out.println(String.format("  %s time=%8.2fms peak heap=%8.1fMB bytes=%d",
+        label, time / 1e6, (getPeakHeap() - baseline) / 1e6, checksum));
+  }
+
+  private static InputStream transform(File input) throws Exception {
+    Transformer transformer = TransformerFactory.newInstance().newTransformer(
+        new StreamSource(new ByteArrayInputStream(LEGACY_STYLESHEET.getBytes(StandardCharsets.UTF_8))));
+    transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    transformer.transform(new StreamSource(input), new StreamResult(out));
+    return new ByteArrayInputStream(out.toByteArray());
+  }
+
+  private static long getUsedHeap() {
+    long result = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        result += pool.getUsage().getUsed();
+      }
+    }
+    return result;
+  }
+
+  private static long getPeakHeap() {
+    long result = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        result += pool.getPeakUsage().getUsed();
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,81 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package biz.ganttproject.impex.msproject2;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for on-the-fly patching of MSPDI documents
+ */
+public class PatchedMspdiInputStreamTest extends TestCase {
+  private static Document parsePatched(String xml, String encoding) throws Exception {
+    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    factory.setNamespaceAware(true);
+    try (InputStream in = new PatchedMspdiInputStream(new ByteArrayInputStream(xml.getBytes(Charset.forName(encoding))))) {
+      return factory.newDocumentBuilder().parse(in);
+    }
+  }
+
+  public void testProjectWithoutNamespace() throws Exception {
+    Document doc = parsePatched("<?xml version='1.0' encoding='ISO-8859-2'?>"
+        + "<Project><Name>Z\u00e1 &amp; b</Name><Tasks><Task><UID>1</UID></Task></Tasks></Project>", "ISO-8859-2");
+    Element root = doc.getDocumentElement();
+    assertEquals(PatchedMspdiInputStream.MSPDI_NAMESPACE, root.getNamespaceURI());
+    Element name = (Element) doc.getElementsByTagNameNS(PatchedMspdiInputStream.MSPDI_NAMESPACE, "Name").item(0);
+    assertEquals("Z\u00e1 & b", name.getTextContent());
+    assertEquals(1, doc.getElementsByTagNameNS(PatchedMspdiInputStream.MSPDI_NAMESPACE, "UID").getLength());
+  }
+
+  public void testProjectWithNamespace() throws Exception {
+    Document doc = parsePatched("<Project xmlns='" + PatchedMspdiInputStream.MSPDI_NAMESPACE + "' xmlns:x='urn:x'>"
+        + "<Name x:attr='1'>n</Name><x:Ext>e</x:Ext></Project>", "UTF-8");
+    assertEquals(PatchedMspdiInputStream.MSPDI_NAMESPACE, doc.getDocumentElement().getNamespaceURI());
+    Element name = (Element) doc.getElementsByTagNameNS(PatchedMspdiInputStream.MSPDI_NAMESPACE, "Name").item(0);
+    assertEquals("1", name.getAttributeNS("urn:x", "attr"));
+    assertEquals(1, doc.getElementsByTagNameNS("urn:x", "Ext").getLength());
+  }
+
+  public void testInternalEntitiesAreExpanded() throws Exception {
+    Document doc = parsePatched("<!DOCTYPE Project [<!ENTITY e 'x'>]><Project><Name>&e;</Name></Project>", "UTF-8");
+    Element name = (Element) doc.getElementsByTagNameNS(PatchedMspdiInputStream.MSPDI_NAMESPACE, "Name").item(0);
+    assertEquals("x", name.getTextContent());
+  }
+
+  public void testExternalEntitiesAreNotLoaded() throws Exception {
+    Document doc = parsePatched("<!DOCTYPE Project SYSTEM 'http://localhost:1/project.dtd' ["
+        + "<!ENTITY e SYSTEM 'file:///etc/passwd'>]><Project><Name>a&e;</Name></Project>", "UTF-8");
+    Element name = (Element) doc.getElementsByTagNameNS(PatchedMspdiInputStream.MSPDI_NAMESPACE, "Name").item(0);
+    assertEquals("a", name.getTextContent());
+  }
+
+  public void testOtherRootIsNotPatched() throws Exception {
+    Document doc = parsePatched("<Foo><Project/></Foo>", "UTF-8");
+    assertNull(doc.getDocumentElement().getNamespaceURI());
+    assertNull(doc.getDocumentElement().getFirstChild().getNamespaceURI());
+  }
+}
@@ -21,9 +21,11 @@ package net.sourceforge.ganttproject.chart;
 import biz.ganttproject.core.calendar.GPCalendarCalc;
 import biz.ganttproject.core.chart.grid.OffsetBuilder;
 import biz.ganttproject.core.chart.grid.OffsetBuilderImpl;
+import biz.ganttproject.core.chart.grid.OffsetFrameCache;
 import biz.ganttproject.core.chart.grid.OffsetList;
 import biz.ganttproject.core.chart.grid.OffsetLookup;
 import biz.ganttproject.core.chart.grid.OffsetManager;
+import biz.ganttproject.core.time.TimeUnit;
 import biz.ganttproject.core.time.impl.GPTimeUnitStack;
 import net.sourceforge.ganttproject.TestSetupHelper;
 import net.sourceforge.ganttproject.test.task.TaskTestCase;
@@ -98,4 +100,43 @@ public class OffsetManagerTest extends TaskTestCase {
         }
 
     }
+
+    private OffsetBuilder.Factory createFactory(Date viewportStart, TimeUnit topUnit, TimeUnit bottomUnit) {
+        return new OffsetBuilderImpl.FactoryImpl()
+            .withStartDate(bottomUnit.jumpLeft(viewportStart))
+            .withViewportStartDate(viewportStart)
+            .withCalendar(getTaskManager().getCalendar()).withTopUnit(topUnit).withBottomUnit(bottomUnit)
+            .withAtomicUnitWidth(20).withEndOffset(700).withWeekendDecreaseFactor(10f);
+    }
+
+    /**
+     * Scrolls the timeline unit by unit and checks that offsets built from the cached frames
+     * are the same as offsets built from scratch, and that frames are reused.
+     */
+    public void testFrameCache() {
+        TimeUnit[][] zoomLevels = new TimeUnit[][] {
+            {GPTimeUnitStack.WEEK, GPTimeUnitStack.DAY},
+            {GPTimeUnitStack.MONTH, GPTimeUnitStack.WEEK},
+            {GPTimeUnitStack.YEAR, GPTimeUnitStack.MONTH}
+        };
+        for (TimeUnit[] zoomLevel : zoomLevels) {
+            OffsetFrameCache cache = new OffsetFrameCache();
+            Date viewportStart = zoomLevel[1].adjustLeft(TestSetupHelper.newMonday().getTime());
+            for (int i = 0; i < 40; i++) {
+                OffsetList expectedTop = new OffsetList();
+                OffsetList expectedBottom = new OffsetList();
+                createFactory(viewportStart, zoomLevel[0], zoomLevel[1]).build().constructOffsets(expectedTop, expectedBottom);
+                OffsetList top = new OffsetList();
+                OffsetList bottom = new OffsetList();
+                createFactory(viewportStart, zoomLevel[0], zoomLevel[1]).withFrameCache(cache).build().constructOffsets(top, bottom);
+                assertEquals(expectedBottom, bottom);
+                assertEquals(expectedTop, top);
+                viewportStart = zoomLevel[1].adjustRight(viewportStart);
+            }
+            int frameCount = cache.getFrameCount();
+            createFactory(zoomLevel[1].adjustLeft(TestSetupHelper.newMonday().getTime()), zoomLevel[0], zoomLevel[1])
+                .withFrameCache(cache).build().constructOffsets(new OffsetList(), new OffsetList());
+            assertEquals("Frames are expected to be reused", frameCount, cache.getFrameCount());
+        }
+    }
 }
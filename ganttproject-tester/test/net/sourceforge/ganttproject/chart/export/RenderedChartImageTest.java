@@ -0,0 +1,130 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.chart.export;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import com.google.common.collect.Lists;
+
+import biz.ganttproject.core.option.DefaultFontOption;
+import biz.ganttproject.core.option.DefaultIntegerOption;
+import biz.ganttproject.core.option.FontSpec;
+import biz.ganttproject.core.time.impl.GPTimeUnitStack;
+import net.sourceforge.ganttproject.TestSetupHelper;
+import net.sourceforge.ganttproject.chart.ChartModelImpl;
+import net.sourceforge.ganttproject.gui.UIConfiguration;
+import net.sourceforge.ganttproject.task.Task;
+import net.sourceforge.ganttproject.test.task.TaskTestCase;
+
+/**
+ * Tests that chart image rendered in strips is the same as the image painted at once.
+ */
+public class RenderedChartImageTest extends TaskTestCase {
+  private static final int TABLE_WIDTH = 40;
+  private static final int CHART_WIDTH = 300;
+  private static final int HEADER_OFFSET = 10;
+
+  private static class CountingTablePainter implements RenderedChartImage.TablePainter {
+    int myPaintCount;
+
+    @Override
+    public void paint(Graphics2D g) {
+      myPaintCount++;
+      for (int y = 0; y < 1000; y += 20) {
+        g.setColor(new Color(y % 256, 0, 255 - y % 256));
+        g.fillRect(0, y, TABLE_WIDTH, 10);
+      }
+    }
+  }
+
+  private ChartModelImpl createChartModel(int taskCount) {
+    List<Task> tasks = Lists.newArrayList();
+    for (int i = 0; i < taskCount; i++) {
+      Task t = createTask(TestSetupHelper.newMonday());
+      t.setDuration(getTaskManager().createLength(1 + i % 5));
+      tasks.add(t);
+    }
+    UIConfiguration projectConfig = new UIConfiguration(Color.BLACK, false);
+    projectConfig.setChartFontOption(new DefaultFontOption("foo", new FontSpec("Foo", FontSpec.Size.NORMAL), Collections.<String>emptyList()));
+    projectConfig.setDpiOption(new DefaultIntegerOption("bar", 96));
+    ChartModelImpl chartModel = new ChartModelImpl(getTaskManager(), new GPTimeUnitStack(), projectConfig);
+    chartModel.setStartDate(TestSetupHelper.newMonday().getTime());
+    chartModel.setVisibleTasks(tasks);
+    chartModel.setTopTimeUnit(GPTimeUnitStack.WEEK);
+    chartModel.setBottomTimeUnit(GPTimeUnitStack.DAY);
+    chartModel.setBottomUnitWidth(20);
+    return chartModel;
+  }
+
+  public void testStripsMatchWholeImage() throws IOException {
+    ChartModelImpl chartModel = createChartModel(40);
+    int height = 1000;
+    CountingTablePainter tablePainter = new CountingTablePainter();
+
+    // Painted at once, like the image was exported before strips
+    BufferedImage expected = new BufferedImage(TABLE_WIDTH + CHART_WIDTH, height, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = expected.createGraphics();
+    g.setColor(Color.white);
+    g.fillRect(0, 0, expected.getWidth(), height);
+    Graphics2D tableGraphics = (Graphics2D) g.create();
+    tableGraphics.translate(0, HEADER_OFFSET);
+    tablePainter.paint(tableGraphics);
+    g.translate(TABLE_WIDTH, HEADER_OFFSET);
+    g.clipRect(0, -HEADER_OFFSET, expected.getWidth(), height);
+    chartModel.setBounds(new Dimension(expected.getWidth(), height));
+    chartModel.paint(g);
+
+    // Strips of 48 rows
+    int stripPixels = 48 * (TABLE_WIDTH + CHART_WIDTH) + 5;
+    RenderedChartImage image = new RenderedChartImage(chartModel, tablePainter, TABLE_WIDTH, CHART_WIDTH, height,
+        HEADER_OFFSET, stripPixels);
+    assertEquals(48, image.getTileHeight());
+    tablePainter.myPaintCount = 0;
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertTrue(ImageIO.write(image, "png", out));
+    // Every strip is painted once
+    assertEquals(image.getNumYTiles(), tablePainter.myPaintCount);
+
+    BufferedImage actual = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals(expected.getWidth(), actual.getWidth());
+    assertEquals(height, actual.getHeight());
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < actual.getWidth(); x++) {
+        assertEquals("x=" + x + " y=" + y, expected.getRGB(x, y), actual.getRGB(x, y));
+      }
+    }
+  }
+
+  public void testStripHeight() {
+    assertEquals(16, RenderedChartImage.getStripHeight(100000, 100000, 1000));
+    assertEquals(96, RenderedChartImage.getStripHeight(1000, 100000, 100000));
+    // Small image fits into a single strip
+    assertEquals(100, RenderedChartImage.getStripHeight(1000, 100, 1000000));
+  }
+}
@@ -0,0 +1,101 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.export;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests parsing of the batch export manifest.
+ */
+public class BatchManifestTest extends TestCase {
+  private File myDir;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myDir = Files.createTempDir();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    for (File f : myDir.listFiles()) {
+      f.delete();
+    }
+    myDir.delete();
+    super.tearDown();
+  }
+
+  private File writeManifest(String content) throws IOException {
+    File manifest = new File(myDir, "manifest.txt");
+    Files.write(content, manifest, Charsets.UTF_8);
+    return manifest;
+  }
+
+  public void testReadManifest() throws IOException {
+    File absolute = new File(myDir, "out").getAbsoluteFile();
+    File manifest = writeManifest("# nightly export\n"
+        + "projects/foo.gan  pdf\n"
+        + "\n"
+        + "  bar.gan\tpng   " + absolute.getPath() + "/bar.png\n");
+    List<CommandLineExportApplication.BatchEntry> entries = CommandLineExportApplication.readManifest(manifest);
+    assertEquals(2, entries.size());
+    assertEquals(new File(myDir.getAbsoluteFile(), "projects/foo.gan"), entries.get(0).inputFile);
+    assertEquals("pdf", entries.get(0).exporter);
+    assertNull(entries.get(0).outputFile);
+    assertEquals(new File(myDir.getAbsoluteFile(), "bar.gan"), entries.get(1).inputFile);
+    assertEquals("png", entries.get(1).exporter);
+    assertEquals(new File(absolute, "bar.png"), entries.get(1).outputFile);
+  }
+
+  public void testQuotedPaths() throws IOException {
+    File manifest = writeManifest("\"my projects/foo bar.gan\" pdf \"out dir/foo bar.pdf\"\n");
+    List<CommandLineExportApplication.BatchEntry> entries = CommandLineExportApplication.readManifest(manifest);
+    assertEquals(1, entries.size());
+    assertEquals(new File(myDir.getAbsoluteFile(), "my projects/foo bar.gan"), entries.get(0).inputFile);
+    assertEquals("pdf", entries.get(0).exporter);
+    assertEquals(new File(myDir.getAbsoluteFile(), "out dir/foo bar.pdf"), entries.get(0).outputFile);
+  }
+
+  public void testUnterminatedQuote() throws IOException {
+    File manifest = writeManifest("\"foo bar.gan pdf\n");
+    try {
+      CommandLineExportApplication.readManifest(manifest);
+      fail("Expected IOException");
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith("Line 1:"));
+    }
+  }
+
+  public void testMalformedLine() throws IOException {
+    File manifest = writeManifest("foo.gan pdf\nbar.gan\n");
+    try {
+      CommandLineExportApplication.readManifest(manifest);
+      fail("Expected IOException");
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith("Line 2:"));
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+
+import net.sourceforge.ganttproject.TestSetupHelper;
+import net.sourceforge.ganttproject.parser.AbstractTagHandler;
+import net.sourceforge.ganttproject.parser.DependencyTagHandler;
+import net.sourceforge.ganttproject.parser.ParsingListener;
+import net.sourceforge.ganttproject.parser.TagHandler;
+import net.sourceforge.ganttproject.parser.TaskTagHandler;
+import net.sourceforge.ganttproject.task.Task;
+import net.sourceforge.ganttproject.task.dependency.TaskDependency;
+import net.sourceforge.ganttproject.test.task.TaskTestCase;
+import org.xml.sax.Attributes;
+
+/**
+ * Tests for the streaming project file parser.
+ */
+public class StaxXmlParserTest extends TaskTestCase {
+  private static final String PROJECT =
+      "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+      + "<project>\n"
+      + "  <tasks>\n"
+      + "    <task id=\"1\" name=\"summary\" start=\"2004-10-18\" duration=\"1\">\n"
+      + "      <task id=\"2\" name=\"first\" start=\"2004-10-18\" duration=\"1\">\n"
+      + "        <notes><![CDATA[first notes]]></notes>\n"
+      + "        <depend id=\"3\" type=\"2\" difference=\"0\" hardness=\"Strong\"/>\n"
+      + "      </task>\n"
+      + "      <task id=\"3\" name=\"second\" start=\"2004-10-18\" duration=\"1\"/>\n"
+      + "    </task>\n"
+      + "  </tasks>\n"
+      + "</project>\n";
+
+  private static class RecordingTagHandler extends AbstractTagHandler {
+    private final List<String> myLog;
+    private final String myName;
+
+    RecordingTagHandler(String name, String tagName, List<String> log) {
+      super(tagName);
+      myName = name;
+      myLog = log;
+    }
+
+    @Override
+    protected boolean onStartElement(Attributes attrs) {
+      myLog.add(myName + ":" + attrs.getValue("id"));
+      return true;
+    }
+  }
+
+  private List<TagHandler> createTaskHandlers(GanttXMLOpen opener) {
+    return ImmutableList.<TagHandler>of(
+        new TaskTagHandler(getTaskManager(), opener.getContext(), null),
+        opener.getDefaultTagHandler(),
+        new DependencyTagHandler(opener.getContext(), getTaskManager(), null));
+  }
+
+  public void testTasksAndDependencies() throws IOException {
+    GanttXMLOpen opener = new GanttXMLOpen(getTaskManager());
+    List<TagHandler> handlers = createTaskHandlers(opener);
+    StaxXmlParser parser = new StaxXmlParser(handlers,
+        ImmutableList.<ParsingListener>of((ParsingListener) handlers.get(2)));
+    parser.parse(new ByteArrayInputStream(PROJECT.getBytes(Charsets.UTF_8)));
+
+    Task summary = getTaskManager().getTask(1);
+    Task first = getTaskManager().getTask(2);
+    Task second = getTaskManager().getTask(3);
+    assertEquals("summary", summary.getName());
+    assertEquals(summary, first.getSupertask());
+    assertEquals(summary, second.getSupertask());
+    assertEquals("first notes", first.getNotes());
+
+    TaskDependency[] deps = getTaskManager().getDependencyCollection().getDependencies();
+    assertEquals(1, deps.length);
+    assertEquals(second, deps[0].getDependant());
+    assertEquals(first, deps[0].getDependee());
+  }
+
+  public void testDispatchKeepsRegistrationOrder() throws IOException {
+    List<String> log = Lists.newArrayList();
+    final List<String> broadcastLog = Lists.newArrayList();
+    TagHandler broadcast = new AbstractTagHandler(null) {
+      @Override
+      public void startElement(String namespaceURI, String sName, String qName, Attributes attrs) {
+        broadcastLog.add(qName);
+      }
+
+      @Override
+      public void endElement(String namespaceURI, String sName, String qName) {
+      }
+    };
+    StaxXmlParser parser = new StaxXmlParser(ImmutableList.<TagHandler>of(
+        new RecordingTagHandler("a", "task", log), broadcast, new RecordingTagHandler("b", "task", log),
+        new RecordingTagHandler("c", "depend", log)), ImmutableList.<ParsingListener>of());
+    assertEquals(3, parser.getHandlers("task").length);
+    assertEquals(2, parser.getHandlers("depend").length);
+    assertEquals(1, parser.getHandlers("notes").length);
+
+    parser.parse(new ByteArrayInputStream(PROJECT.getBytes(Charsets.UTF_8)));
+    assertEquals(ImmutableList.of("a:1", "b:1", "a:2", "b:2", "c:3", "a:3", "b:3"), log);
+    assertEquals(ImmutableList.of("project", "tasks", "task", "task", "notes", "depend", "task"), broadcastLog);
+  }
+
+  public void testSchedulingPassAfterLoad() throws IOException {
+    File file = File.createTempFile("stax", ".gan");
+    file.deleteOnExit();
+    Files.write(PROJECT, file, Charsets.UTF_8);
+    GanttXMLOpen opener = new GanttXMLOpen(getTaskManager());
+    List<TagHandler> handlers = createTaskHandlers(opener);
+    for (TagHandler handler : handlers) {
+      opener.addTagHandler(handler);
+    }
+    opener.addParsingListener((ParsingListener) handlers.get(2));
+    assertTrue(opener.load(file));
+
+    // Dependency is created when parsing completes, and the scheduler shifts the dependant task
+    assertEquals(TestSetupHelper.newTuesday(), getTaskManager().getTask(3).getStart());
+    assertEquals(TestSetupHelper.newWendesday(), getTaskManager().getTask(1).getEnd());
+  }
+}
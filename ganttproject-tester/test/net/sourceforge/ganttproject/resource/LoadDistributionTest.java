@@ -18,6 +18,7 @@ along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
 */
 package net.sourceforge.ganttproject.resource;
 
+import biz.ganttproject.core.calendar.GanttDaysOff;
 import net.sourceforge.ganttproject.TestSetupHelper;
 import net.sourceforge.ganttproject.task.CustomColumnsManager;
 import net.sourceforge.ganttproject.task.ResourceAssignment;
@@ -79,4 +80,54 @@ public class LoadDistributionTest extends TaskTestCase {
     assertEquals(TestSetupHelper.newMonday().getTime(), taskLoads.get(0).startDate);
     assertEquals(TestSetupHelper.newTuesday().getTime(), taskLoads.get(0).endDate);
   }
+
+  public void testOverlappingTasksSteps() {
+    HumanResourceManager resourceManager = new HumanResourceManager(null, new CustomColumnsManager());
+    HumanResource humanResource = new HumanResource("Foo", 1, resourceManager);
+    resourceManager.add(humanResource);
+
+    Task task1 = createTask(TestSetupHelper.newMonday(), 2);
+    Task task2 = createTask(TestSetupHelper.newTuesday(), 2);
+    Task task3 = createTask(TestSetupHelper.newMonday(), 1);
+    task1.getAssignmentCollection().addAssignment(humanResource).setLoad(50.0f);
+    task2.getAssignmentCollection().addAssignment(humanResource).setLoad(100.0f);
+    task3.getAssignmentCollection().addAssignment(humanResource).setLoad(25.0f);
+
+    LoadDistribution ld = new LoadDistribution(humanResource);
+    LoadDistribution.Steps steps = ld.getLoadSteps();
+    assertEquals(4, steps.size());
+    assertEquals(TestSetupHelper.newMonday().getTimeInMillis(), steps.getStart(0));
+    assertEquals(75.0f, steps.getLoad(0));
+    assertEquals(TestSetupHelper.newTuesday().getTimeInMillis(), steps.getStart(1));
+    assertEquals(150.0f, steps.getLoad(1));
+    assertEquals(TestSetupHelper.newWendesday().getTimeInMillis(), steps.getStart(2));
+    assertEquals(100.0f, steps.getLoad(2));
+    assertEquals(TestSetupHelper.newThursday().getTimeInMillis(), steps.getStart(3));
+    assertEquals(0.0f, steps.getLoad(3));
+
+    List<LoadDistribution.Load> loads = ld.getLoads();
+    assertEquals(5, loads.size());
+    assertNull(loads.get(0).startDate);
+    assertEquals(150.0f, loads.get(2).load);
+    assertEquals(3, ld.getSeparatedTaskLoads().size());
+  }
+
+  public void testDaysOffInSeparatedTaskLoads() {
+    HumanResourceManager resourceManager = new HumanResourceManager(null, new CustomColumnsManager());
+    HumanResource humanResource = new HumanResource("Foo", 1, resourceManager);
+    resourceManager.add(humanResource);
+    Task task = createTask(TestSetupHelper.newMonday(), 1);
+    task.getAssignmentCollection().addAssignment(humanResource).setLoad(100.0f);
+    humanResource.addDaysOff(new GanttDaysOff(TestSetupHelper.newWendesday(), TestSetupHelper.newThursday()));
+
+    LoadDistribution ld = new LoadDistribution(humanResource);
+    Map<Task, List<LoadDistribution.Load>> task2loads = ld.getSeparatedTaskLoads();
+    assertEquals(2, task2loads.size());
+    assertEquals(1, task2loads.get(task).size());
+    List<LoadDistribution.Load> daysOff = task2loads.get(null);
+    assertEquals(1, daysOff.size());
+    assertEquals(-1.0f, daysOff.get(0).load);
+    assertEquals(TestSetupHelper.newWendesday().getTime(), daysOff.get(0).startDate);
+    assertEquals(TestSetupHelper.newThursday().getTime(), daysOff.get(0).endDate);
+  }
 }
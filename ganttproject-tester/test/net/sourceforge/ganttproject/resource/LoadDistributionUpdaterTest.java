@@ -0,0 +1,170 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.resource;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+
+import net.sourceforge.ganttproject.TestSetupHelper;
+import net.sourceforge.ganttproject.task.CustomColumnsManager;
+import net.sourceforge.ganttproject.task.ResourceAssignment;
+import net.sourceforge.ganttproject.task.Task;
+import net.sourceforge.ganttproject.test.task.TaskTestCase;
+
+/**
+ * Tests for parallel rebuild of resource load distributions.
+ */
+public class LoadDistributionUpdaterTest extends TaskTestCase {
+  private static class QueueExecutor implements Executor {
+    private final List<Runnable> myQueue = Lists.newArrayList();
+
+    @Override
+    public synchronized void execute(Runnable command) {
+      myQueue.add(command);
+      notifyAll();
+    }
+
+    synchronized void runAll() throws InterruptedException {
+      long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+      while (myQueue.isEmpty() && System.currentTimeMillis() < deadline) {
+        wait(100);
+      }
+      for (Runnable r : myQueue) {
+        r.run();
+      }
+      myQueue.clear();
+    }
+  }
+
+  public void testOutdatedDistributionIsReplacedInBackground() throws Exception {
+    HumanResourceManager resourceManager = new HumanResourceManager(null, new CustomColumnsManager());
+    HumanResource joe = new HumanResource("joe", 1, resourceManager);
+    HumanResource jane = new HumanResource("jane", 2, resourceManager);
+    resourceManager.add(joe);
+    resourceManager.add(jane);
+    Task task = createTask(TestSetupHelper.newMonday(), 1);
+    ResourceAssignment assignment = task.getAssignmentCollection().addAssignment(joe);
+    assignment.setLoad(100.0f);
+    task.getAssignmentCollection().addAssignment(jane).setLoad(50.0f);
+
+    QueueExecutor resultExecutor = new QueueExecutor();
+    LoadDistributionUpdater updater = new LoadDistributionUpdater(ForkJoinPool.commonPool(), resultExecutor);
+    final int[] updates = new int[1];
+    Runnable onUpdate = new Runnable() {
+      @Override
+      public void run() {
+        updates[0]++;
+      }
+    };
+    HumanResource[] resources = new HumanResource[] {joe, jane};
+
+    // Nothing has been built yet, so we wait for the results
+    List<LoadDistribution> distributions = updater.getLoadDistributions(resources, true, onUpdate);
+    assertEquals(100.0f, distributions.get(0).getLoadSteps().getLoad(0));
+    assertEquals(50.0f, distributions.get(1).getLoadSteps().getLoad(0));
+    assertTrue(joe.isLoadDistributionValid());
+
+    assignment.setLoad(200.0f);
+    joe.resetLoads();
+    distributions = updater.getLoadDistributions(resources, true, onUpdate);
+    assertEquals(100.0f, distributions.get(0).getLoadSteps().getLoad(0));
+    assertFalse(joe.isLoadDistributionValid());
+
+    resultExecutor.runAll();
+    assertEquals(1, updates[0]);
+    assertTrue(joe.isLoadDistributionValid());
+    distributions = updater.getLoadDistributions(resources, true, onUpdate);
+    assertEquals(200.0f, distributions.get(0).getLoadSteps().getLoad(0));
+  }
+
+  public void testFailedVersionIsNotRebuilt() throws Exception {
+    HumanResourceManager resourceManager = new HumanResourceManager(null, new CustomColumnsManager());
+    HumanResource joe = new HumanResource("joe", 1, resourceManager);
+    resourceManager.add(joe);
+    Task task = createTask(TestSetupHelper.newMonday(), 1);
+    ResourceAssignment assignment = task.getAssignmentCollection().addAssignment(joe);
+    assignment.setLoad(100.0f);
+    joe.getLoadDistribution();
+
+    QueueExecutor resultExecutor = new QueueExecutor();
+    final int[] builds = new int[1];
+    final boolean[] fails = new boolean[] {true};
+    LoadDistributionUpdater updater = new LoadDistributionUpdater(ForkJoinPool.commonPool(), resultExecutor) {
+      @Override
+      CompletableFuture<LoadDistribution> build(HumanResource resource) {
+        builds[0]++;
+        if (!fails[0]) {
+          return super.build(resource);
+        }
+        CompletableFuture<LoadDistribution> result = new CompletableFuture<LoadDistribution>();
+        result.completeExceptionally(new RuntimeException("test"));
+        return result;
+      }
+    };
+    final int[] updates = new int[1];
+    Runnable onUpdate = new Runnable() {
+      @Override
+      public void run() {
+        updates[0]++;
+      }
+    };
+    HumanResource[] resources = new HumanResource[] {joe};
+
+    assignment.setLoad(200.0f);
+    joe.resetLoads();
+    updater.getLoadDistributions(resources, true, onUpdate);
+    resultExecutor.runAll();
+    assertEquals(1, builds[0]);
+    assertEquals(0, updates[0]);
+
+    // Failed version is not resubmitted, the outdated distribution is returned
+    List<LoadDistribution> distributions = updater.getLoadDistributions(resources, true, onUpdate);
+    assertEquals(1, builds[0]);
+    assertEquals(100.0f, distributions.get(0).getLoadSteps().getLoad(0));
+
+    fails[0] = false;
+    joe.resetLoads();
+    updater.getLoadDistributions(resources, true, onUpdate);
+    resultExecutor.runAll();
+    assertEquals(2, builds[0]);
+    assertEquals(1, updates[0]);
+    assertEquals(200.0f, joe.getLoadDistribution().getLoadSteps().getLoad(0));
+  }
+
+  public void testOutdatedNotAllowed() {
+    HumanResourceManager resourceManager = new HumanResourceManager(null, new CustomColumnsManager());
+    HumanResource joe = new HumanResource("joe", 1, resourceManager);
+    resourceManager.add(joe);
+    Task task = createTask(TestSetupHelper.newMonday(), 1);
+    ResourceAssignment assignment = task.getAssignmentCollection().addAssignment(joe);
+    assignment.setLoad(100.0f);
+    joe.getLoadDistribution();
+
+    assignment.setLoad(25.0f);
+    joe.resetLoads();
+    LoadDistributionUpdater updater = new LoadDistributionUpdater(ForkJoinPool.commonPool(), new QueueExecutor());
+    List<LoadDistribution> distributions = updater.getLoadDistributions(new HumanResource[] {joe}, false, null);
+    assertEquals(25.0f, distributions.get(0).getLoadSteps().getLoad(0));
+  }
+}
@@ -0,0 +1,125 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.search;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that search index returns the same results as substring search over all objects.
+ */
+public class SearchIndexTest extends TestCase {
+  private static class Item {
+    String myName;
+    String myNotes;
+  }
+
+  private static class ItemIndex extends SearchIndex<Item> {
+    @Override
+    protected String[] getFields(Item item) {
+      return new String[] { item.myName, item.myNotes };
+    }
+
+    @Override
+    protected boolean isChanged(Item item, Document<Item> indexed) {
+      return indexed.getField(0) != item.myName || indexed.getField(1) != item.myNotes;
+    }
+  }
+
+  private static final String ALPHABET = "abcdeAB12 -.";
+
+  private static String randomText(Random random, int maxLength) {
+    if (random.nextInt(10) == 0) {
+      return null;
+    }
+    StringBuilder result = new StringBuilder();
+    for (int i = random.nextInt(maxLength + 1); i > 0; i--) {
+      result.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+    }
+    return result.toString();
+  }
+
+  private static Set<Item> bruteForce(List<Item> items, String query) {
+    Set<Item> result = Sets.newIdentityHashSet();
+    for (Item item : items) {
+      if ((item.myName != null && item.myName.toLowerCase().contains(query))
+          || (item.myNotes != null && item.myNotes.toLowerCase().contains(query))) {
+        result.add(item);
+      }
+    }
+    return result;
+  }
+
+  private static Set<Item> search(ItemIndex index, List<Item> items, String query) {
+    index.sync(items);
+    Set<Item> result = Sets.newIdentityHashSet();
+    for (SearchIndex.Document<Item> doc : index.search(query)) {
+      assertTrue("Duplicate result " + doc.getObject().myName, result.add(doc.getObject()));
+      assertSame(doc.getObject(), items.get(doc.getOrder()));
+    }
+    return result;
+  }
+
+  public void testSameAsBruteForce() {
+    Random random = new Random(7);
+    List<Item> items = Lists.newArrayList();
+    ItemIndex index = new ItemIndex();
+    for (int round = 0; round < 300; round++) {
+      // Add, remove and silently change some items
+      for (int i = random.nextInt(20); i > 0; i--) {
+        Item item = new Item();
+        item.myName = randomText(random, 10);
+        item.myNotes = randomText(random, 40);
+        items.add(random.nextInt(items.size() + 1), item);
+      }
+      for (int i = random.nextInt(5); i > 0 && !items.isEmpty(); i--) {
+        items.remove(random.nextInt(items.size()));
+      }
+      for (int i = random.nextInt(5); i > 0 && !items.isEmpty(); i--) {
+        Item item = items.get(random.nextInt(items.size()));
+        if (random.nextBoolean()) {
+          item.myName = randomText(random, 10);
+        } else {
+          item.myNotes = randomText(random, 40);
+        }
+      }
+      for (int i = 0; i < 10; i++) {
+        String query = randomText(random, 5);
+        if (query == null || query.isEmpty()) {
+          continue;
+        }
+        query = query.toLowerCase();
+        assertEquals("query=" + query, bruteForce(items, query), search(index, items, query));
+      }
+      assertEquals(items.size(), index.size());
+    }
+  }
+
+  public void testLongestWordRun() {
+    assertEquals("design", SearchIndex.getLongestWordRun("ux design-1"));
+    assertEquals("ab", SearchIndex.getLongestWordRun("ab"));
+    assertNull(SearchIndex.getLongestWordRun(" - "));
+  }
+}
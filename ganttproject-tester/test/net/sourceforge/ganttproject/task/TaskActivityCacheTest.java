@@ -0,0 +1,105 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.task;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import biz.ganttproject.core.calendar.GPCalendar.DayType;
+import biz.ganttproject.core.calendar.WeekendCalendarImpl;
+import biz.ganttproject.core.time.impl.GPTimeUnitStack;
+import net.sourceforge.ganttproject.TestSetupHelper;
+import net.sourceforge.ganttproject.test.task.TaskTestCase;
+
+/**
+ * Tests that task activities are shared by tasks with the same span and are recalculated
+ * when calendar changes.
+ */
+public class TaskActivityCacheTest extends TaskTestCase {
+  private WeekendCalendarImpl myCalendar;
+
+  @Override
+  protected TaskManager newTaskManager() {
+    myCalendar = new WeekendCalendarImpl();
+    return TestSetupHelper.newTaskManagerBuilder().withCalendar(myCalendar).build();
+  }
+
+  private Task createTaskOverWeekend() {
+    Task task = getTaskManager().createTask();
+    task.setStart(TestSetupHelper.newFriday());
+    task.setEnd(TestSetupHelper.newTuesday());
+    return task;
+  }
+
+  public void testSameSpansAreShared() {
+    Task task1 = createTaskOverWeekend();
+    Task task2 = createTaskOverWeekend();
+    List<TaskActivity> activities1 = task1.getActivities();
+    List<TaskActivity> activities2 = task2.getActivities();
+    // Friday, weekend, Monday
+    assertEquals(3, activities1.size());
+    assertEquals(0f, activities1.get(1).getIntensity());
+    assertEquals(activities1.size(), activities2.size());
+    for (int i = 0; i < activities1.size(); i++) {
+      assertSame(task1, activities1.get(i).getOwner());
+      assertSame(task2, activities2.get(i).getOwner());
+      assertSame(activities1.get(i).getDuration(), activities2.get(i).getDuration());
+      assertEquals(activities1.get(i).getStart(), activities2.get(i).getStart());
+    }
+    assertTrue(activities1.get(0).isFirst());
+    assertTrue(activities2.get(2).isLast());
+  }
+
+  public void testCalendarChangeClearsCache() {
+    Task task = createTaskOverWeekend();
+    assertEquals(3, task.getActivities().size());
+    myCalendar.setWeekDayType(Calendar.SATURDAY, DayType.WORKING);
+    myCalendar.setWeekDayType(Calendar.SUNDAY, DayType.WORKING);
+    assertEquals(0, ((TaskManagerImpl) getTaskManager()).getActivityCache().size());
+
+    Task sameSpan = createTaskOverWeekend();
+    assertEquals(1, sameSpan.getActivities().size());
+    assertEquals(1f, sameSpan.getActivities().get(0).getIntensity());
+  }
+
+  public void testActivitiesDontShareDates() {
+    Task task1 = createTaskOverWeekend();
+    Task task2 = createTaskOverWeekend();
+    Date start = task1.getActivities().get(0).getStart();
+    assertNotSame(start, task2.getActivities().get(0).getStart());
+    start.setTime(0);
+    assertEquals(TestSetupHelper.newFriday().getTime(), task2.getActivities().get(0).getStart());
+    assertEquals(TestSetupHelper.newFriday().getTime(), createTaskOverWeekend().getActivities().get(0).getStart());
+  }
+
+  public void testPreviousCalendarIsNotListened() {
+    TaskActivityCache cache = new TaskActivityCache(getTaskManager());
+    WeekendCalendarImpl otherCalendar = new WeekendCalendarImpl();
+    Date start = TestSetupHelper.newFriday().getTime();
+    Date end = TestSetupHelper.newTuesday().getTime();
+    cache.getSpans(myCalendar, GPTimeUnitStack.DAY, start, end);
+    cache.getSpans(otherCalendar, GPTimeUnitStack.DAY, start, end);
+    assertEquals(1, cache.size());
+    myCalendar.setWeekDayType(Calendar.SATURDAY, DayType.WORKING);
+    assertEquals(1, cache.size());
+    otherCalendar.setWeekDayType(Calendar.SATURDAY, DayType.WORKING);
+    assertEquals(0, cache.size());
+  }
+}
@@ -23,6 +23,12 @@ import net.sourceforge.ganttproject.task.dependency.TaskDependency;
 import net.sourceforge.ganttproject.test.task.TaskTestCase;
 
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Tests dependency graph behavior
@@ -258,6 +264,145 @@ public class DependencyGraphTest extends TaskTestCase {
     assertTrue(graph.getNode(tasks[1]).getOutgoing().isEmpty());
   }
 
+  public void testLoadDeepInheritedDependencies() throws Exception {
+    Task[] tasks = new Task[] {createTask(), createTask(), createTask(), createTask(), createTask()};
+    getTaskManager().getTaskHierarchy().move(tasks[3], tasks[2]);
+    getTaskManager().getTaskHierarchy().move(tasks[2], tasks[1]);
+    TaskDependency[] deps = new TaskDependency[] {createDependency(tasks[1], tasks[0]), createDependency(tasks[4], tasks[1])};
+
+    DependencyGraph graph = new DependencyGraph(Suppliers.ofInstance(getTaskManager().getTaskHierarchy()));
+    graph.load(Arrays.asList(tasks), Arrays.asList(deps));
+    assertEquals(0, graph.getNode(tasks[0]).getLevel());
+    assertEquals(1, graph.getNode(tasks[3]).getLevel());
+    assertEquals(2, graph.getNode(tasks[2]).getLevel());
+    assertEquals(3, graph.getNode(tasks[1]).getLevel());
+    assertEquals(4, graph.getNode(tasks[4]).getLevel());
+    assertEquals(graph.getNode(tasks[0]), graph.getNode(tasks[3]).getIncoming().get(0).getSrc());
+    assertEquals(5, graph.checkLayerValidity());
+
+    // Graph is incremental after loading
+    graph.removeDependency(deps[0]);
+    assertEquals(0, graph.getNode(tasks[3]).getLevel());
+    assertTrue(graph.getNode(tasks[3]).getIncoming().isEmpty());
+    assertEquals(2, graph.getNode(tasks[1]).getLevel());
+  }
+
+  public void testBulkLoadIgnoresChangesUntilFinished() throws Exception {
+    Task[] tasks = new Task[] {createTask(), createTask(), createTask()};
+    DependencyGraph graph = createGraph(tasks, null);
+    graph.startBulkLoad();
+    TaskDependency[] deps = new TaskDependency[] {createDependency(tasks[2], tasks[1]), createDependency(tasks[1], tasks[0])};
+    initGraph(graph, null, deps);
+    assertEquals(0, graph.getNode(tasks[2]).getLevel());
+
+    graph.finishBulkLoad(Arrays.asList(tasks), Arrays.asList(deps));
+    assertFalse(graph.isBulkLoading());
+    assertEquals(2, graph.getNode(tasks[2]).getLevel());
+    assertEquals(1, graph.getNode(tasks[1]).getLevel());
+  }
+
+  public void testLoadReportsAllLoops() throws Exception {
+    Task[] tasks = new Task[] {createTask(), createTask(), createTask(), createTask(), createTask(), createTask()};
+    // Task manager graph would reject looping dependencies
+    getTaskManager().getDependencyGraph().startBulkLoad();
+    TaskDependency[] deps = new TaskDependency[] {
+        createDependency(tasks[1], tasks[0]), createDependency(tasks[0], tasks[1]),
+        createDependency(tasks[3], tasks[2]), createDependency(tasks[4], tasks[3]), createDependency(tasks[2], tasks[4]),
+        createDependency(tasks[5], tasks[4])
+    };
+    final List<String> messages = Lists.newArrayList();
+    DependencyGraph graph = new DependencyGraph(Suppliers.ofInstance(getTaskManager().getTaskHierarchy()), new DependencyGraph.Logger() {
+      @Override
+      public void logDependencyLoop(String title, String message) {
+        messages.add(message);
+      }
+    });
+    List<TaskDependency> loops = graph.load(Arrays.asList(tasks), Arrays.asList(deps));
+
+    assertEquals(1, messages.size());
+    assertEquals(2, messages.get(0).split("<br><br>").length);
+    assertEquals(2, loops.size());
+    assertTrue(graph.getNode(tasks[5]).getLevel() > graph.getNode(tasks[4]).getLevel());
+  }
+
+  public void testBulkLoadReturnsLoopingDependencies() throws Exception {
+    Task[] tasks = new Task[] {createTask(), createTask(), createTask()};
+    DependencyGraph graph = getTaskManager().getDependencyGraph();
+    final List<String> messages = Lists.newArrayList();
+    graph.setLogger(new DependencyGraph.Logger() {
+      @Override
+      public void logDependencyLoop(String title, String message) {
+        messages.add(message);
+      }
+    });
+    graph.startBulkLoad();
+    TaskDependency dep10 = createDependency(tasks[1], tasks[0]);
+    TaskDependency dep01 = createDependency(tasks[0], tasks[1]);
+    TaskDependency dep21 = createDependency(tasks[2], tasks[1]);
+    List<TaskDependency> loops = graph.finishBulkLoad(Arrays.asList(getTaskManager().getTasks()),
+        Arrays.asList(getTaskManager().getDependencyCollection().getDependencies()));
+    assertEquals(1, loops.size());
+    for (TaskDependency loop : loops) {
+      loop.delete();
+    }
+    assertEquals(1, messages.size());
+
+    TaskDependency[] remaining = getTaskManager().getDependencyCollection().getDependencies();
+    assertEquals(2, remaining.length);
+    assertTrue(Arrays.asList(remaining).contains(dep21));
+    assertTrue(Arrays.asList(remaining).contains(loops.get(0) == dep10 ? dep01 : dep10));
+    // Scheduler fails if there are loops in the graph
+    getTaskManager().getAlgorithmCollection().getScheduler().run();
+    assertEquals(1, messages.size());
+  }
+
+  public void testIsLooping() throws Exception {
+    Task[] tasks = new Task[] {createTask(), createTask(), createTask(), createTask()};
+    TaskDependency[] deps = new TaskDependency[] {createDependency(tasks[2], tasks[1]), createDependency(tasks[1], tasks[0])};
+    DependencyGraph graph = createGraph(tasks, deps);
+
+    assertTrue(graph.isLooping(tasks[0], tasks[2]));
+    assertTrue(graph.isLooping(tasks[1], tasks[2]));
+    assertFalse(graph.isLooping(tasks[2], tasks[0]));
+    assertFalse(graph.isLooping(tasks[0], tasks[3]));
+    assertFalse(graph.isLooping(tasks[3], tasks[2]));
+    // Query doesn't modify the graph
+    assertEquals(0, graph.getNode(tasks[0]).getLevel());
+    assertEquals(1, graph.getNode(tasks[0]).getOutgoing().size());
+  }
+
+  public void testIsLoopingThroughSubtasks() throws Exception {
+    Task[] tasks = new Task[] {createTask(), createTask(), createTask()};
+    DependencyGraph graph = createGraph(tasks, null);
+    getTaskManager().getTaskHierarchy().move(tasks[1], tasks[0]);
+    graph.move(tasks[1], tasks[0]);
+    graph.addDependency(createDependency(tasks[2], tasks[1]));
+
+    // task1 would inherit dependency task2->task0, and there is task1->task2 already
+    assertTrue(graph.isLooping(tasks[0], tasks[2]));
+    assertFalse(graph.isLooping(tasks[2], tasks[0]));
+  }
+
+  public void testFindLoopingDependees() throws Exception {
+    Task[] tasks = new Task[] {createTask(), createTask(), createTask(), createTask(), createTask()};
+    getTaskManager().getTaskHierarchy().move(tasks[4], tasks[3]);
+    TaskDependency[] deps = new TaskDependency[] {createDependency(tasks[1], tasks[0]), createDependency(tasks[2], tasks[1])};
+    DependencyGraph graph = createGraph(tasks, deps);
+    graph.move(tasks[4], tasks[3]);
+
+    assertEquals(ImmutableSet.of(tasks[0], tasks[1], tasks[2]), graph.findLoopingDependees(tasks[0]));
+    assertEquals(ImmutableSet.of(tasks[2]), graph.findLoopingDependees(tasks[2]));
+    assertEquals(ImmutableSet.of(tasks[3], tasks[4]), graph.findLoopingDependees(tasks[4]));
+    for (Task dependant : tasks) {
+      Set<Task> looping = graph.findLoopingDependees(dependant);
+      for (Task dependee : tasks) {
+        if (dependee != dependant) {
+          assertEquals(looping.contains(dependee), graph.isLooping(dependant, dependee));
+        }
+      }
+    }
+  }
+
   private DependencyGraph createGraph(Task[] tasks, TaskDependency[] deps) {
     DependencyGraph graph = new DependencyGraph(Suppliers.ofInstance(getTaskManager().getTaskHierarchy()));
     initGraph(graph, tasks, deps);
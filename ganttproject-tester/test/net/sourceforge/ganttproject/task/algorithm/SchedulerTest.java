@@ -29,6 +29,8 @@ import net.sourceforge.ganttproject.task.dependency.constraint.FinishFinishConst
 import net.sourceforge.ganttproject.task.dependency.constraint.FinishStartConstraintImpl;
 import net.sourceforge.ganttproject.test.task.TaskTestCase;
 
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Tests scheduling algorithm
  *
@@ -297,6 +299,118 @@ public class SchedulerTest extends TaskTestCase {
     assertEquals(TestSetupHelper.newWendesday(), tasks[1].getStart());
   }
 
+  public void testIncrementalVisitsDownstreamOnly() {
+    getTaskManager().getAlgorithmCollection().getRecalculateTaskScheduleAlgorithm().setEnabled(false);
+    // task manager's own scheduler would reschedule the chain before the tested one
+    getTaskManager().getAlgorithmCollection().getScheduler().setEnabled(false);
+
+    // task0->task1->task2 is a chain, task3 and task4 are not connected to anything
+    Task[] tasks = new Task[] {
+        createTask(TestSetupHelper.newMonday()), createTask(TestSetupHelper.newMonday()), createTask(TestSetupHelper.newMonday()),
+        createTask(TestSetupHelper.newMonday()), createTask(TestSetupHelper.newMonday())};
+    TaskDependency[] deps = new TaskDependency[] {createDependency(tasks[2], tasks[1]), createDependency(tasks[1], tasks[0])};
+    DependencyGraph graph = createGraph(tasks, deps);
+
+    SchedulerImpl scheduler = new SchedulerImpl(graph, Suppliers.ofInstance(getTaskManager().getTaskHierarchy()));
+    scheduler.run();
+    assertEquals(5, scheduler.getStatistics().getVisitedCount());
+    assertEquals(TestSetupHelper.newWendesday(), tasks[2].getStart());
+
+    // shifting task0 to Tu should visit task0 and its dependants only
+    scheduler.getStatistics().reset();
+    tasks[0].shift(getTaskManager().createLength(1));
+    scheduler.run(tasks[0]);
+
+    assertEquals(TestSetupHelper.newWendesday(), tasks[1].getStart());
+    assertEquals(TestSetupHelper.newThursday(), tasks[2].getStart());
+    assertEquals(TestSetupHelper.newMonday(), tasks[3].getStart());
+    assertEquals(1, scheduler.getStatistics().getRunCount());
+    assertEquals(3, scheduler.getStatistics().getVisitedCount());
+    assertEquals(2, scheduler.getStatistics().getModifiedCount());
+  }
+
+  public void testIncrementalStopsAtUnchangedTask() {
+    // task0->task1 FS rubber, task1->task2 FS strong
+    // task0 starts on Mo, task1 on We so rubber dependency is not active
+    getTaskManager().getAlgorithmCollection().getScheduler().setEnabled(false);
+    Task[] tasks = new Task[] {createTask(TestSetupHelper.newMonday()), createTask(TestSetupHelper.newWendesday()), createTask(TestSetupHelper.newThursday())};
+    TaskDependency dep10 = getTaskManager().getDependencyCollection().createDependency(tasks[1], tasks[0], new FinishStartConstraintImpl(), TaskDependency.Hardness.RUBBER);
+    TaskDependency dep21 = getTaskManager().getDependencyCollection().createDependency(tasks[2], tasks[1], new FinishStartConstraintImpl(), TaskDependency.Hardness.STRONG);
+
+    DependencyGraph graph = createGraph(tasks, new TaskDependency[] {dep10, dep21});
+    SchedulerImpl scheduler = new SchedulerImpl(graph, Suppliers.ofInstance(getTaskManager().getTaskHierarchy()));
+    scheduler.run();
+    scheduler.getStatistics().reset();
+
+    // shifting task0 to Tu keeps task1 on We, so task2 should not be visited
+    tasks[0].shift(getTaskManager().createLength(1));
+    scheduler.run(tasks[0]);
+
+    assertEquals(TestSetupHelper.newWendesday(), tasks[1].getStart());
+    assertEquals(TestSetupHelper.newThursday(), tasks[2].getStart());
+    assertEquals(2, scheduler.getStatistics().getVisitedCount());
+    assertEquals(0, scheduler.getStatistics().getModifiedCount());
+  }
+
+  public void testParallelLayers() {
+    getTaskManager().getAlgorithmCollection().getRecalculateTaskScheduleAlgorithm().setEnabled(false);
+    getTaskManager().getAlgorithmCollection().getScheduler().setEnabled(false);
+
+    // task0 is followed by a wide layer of tasks, each of which is followed by one more task
+    int width = 200;
+    Task[] tasks = new Task[1 + 2 * width];
+    TaskDependency[] deps = new TaskDependency[2 * width];
+    tasks[0] = createTask(TestSetupHelper.newMonday());
+    for (int i = 0; i < width; i++) {
+      tasks[1 + i] = createTask(TestSetupHelper.newMonday());
+      tasks[1 + width + i] = createTask(TestSetupHelper.newMonday());
+      deps[i] = createDependency(tasks[1 + i], tasks[0]);
+      deps[width + i] = createDependency(tasks[1 + width + i], tasks[1 + i]);
+    }
+    DependencyGraph graph = createGraph(tasks, deps);
+
+    SchedulerImpl scheduler = new SchedulerImpl(graph, Suppliers.ofInstance(getTaskManager().getTaskHierarchy()));
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      scheduler.setParallelPool(pool);
+      scheduler.run();
+    } finally {
+      pool.shutdown();
+    }
+
+    assertEquals(tasks.length, scheduler.getStatistics().getVisitedCount());
+    assertEquals(2 * width, scheduler.getStatistics().getModifiedCount());
+    for (int i = 0; i < width; i++) {
+      assertEquals(TestSetupHelper.newTuesday(), tasks[1 + i].getStart());
+      assertEquals(TestSetupHelper.newWendesday(), tasks[1 + width + i].getStart());
+    }
+  }
+
+  public void testTaskManagerParallelModeIsOptIn() {
+    SchedulerImpl scheduler = (SchedulerImpl) getTaskManager().getAlgorithmCollection().getScheduler();
+    assertFalse(scheduler.isParallel());
+
+    int width = 100;
+    Task task0 = createTask(TestSetupHelper.newMonday());
+    Task[] layer = new Task[width];
+    for (int i = 0; i < width; i++) {
+      layer[i] = createTask(TestSetupHelper.newMonday());
+      createDependency(layer[i], task0);
+    }
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      scheduler.setParallelPool(pool);
+      task0.setDuration(getTaskManager().createLength(2));
+      scheduler.run();
+    } finally {
+      scheduler.setParallelPool(null);
+      pool.shutdown();
+    }
+    for (int i = 0; i < width; i++) {
+      assertEquals(TestSetupHelper.newWendesday(), layer[i].getStart());
+    }
+  }
+
   private DependencyGraph createGraph(Task[] tasks, TaskDependency[] deps) {
     DependencyGraph graph = new DependencyGraph(Suppliers.ofInstance(getTaskManager().getTaskHierarchy()));
     initGraph(graph, tasks, deps);
@@ -0,0 +1,144 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.task.algorithm;
+
+import java.math.BigDecimal;
+
+import net.sourceforge.ganttproject.TestSetupHelper;
+import net.sourceforge.ganttproject.TestSetupHelper.TaskManagerBuilder;
+import net.sourceforge.ganttproject.resource.HumanResource;
+import net.sourceforge.ganttproject.task.ResourceAssignment;
+import net.sourceforge.ganttproject.task.Task;
+import net.sourceforge.ganttproject.test.task.TaskTestCase;
+
+/**
+ * Tests for memoized cost and completion rollups
+ */
+public class TaskRollupsTest extends TaskTestCase {
+  private HumanResource myJoe;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    TaskManagerBuilder builder = TestSetupHelper.newTaskManagerBuilder();
+    setTaskManager(builder.build());
+    myJoe = new HumanResource("Joe", 1, builder.getResourceManager());
+    myJoe.setStandardPayRate(BigDecimal.valueOf(5));
+    builder.getResourceManager().add(myJoe);
+  }
+
+  private TaskRollups getRollups() {
+    return getTaskManager().getAlgorithmCollection().getTaskRollups();
+  }
+
+  private static void assertCost(long expected, Task task) {
+    BigDecimal actual = task.getCost().getValue();
+    assertEquals("Unexpected cost " + actual, 0, BigDecimal.valueOf(expected).compareTo(actual));
+  }
+
+  private Task createLeaf(Task parent, int duration) {
+    Task result = createTask();
+    result.move(parent);
+    result.setDuration(getTaskManager().createLength(duration));
+    return result;
+  }
+
+  public void testCostFollowsLeafChanges() {
+    Task supertask = createTask();
+    Task subtask1 = createLeaf(supertask, 2);
+    Task subtask2 = createLeaf(supertask, 4);
+    ResourceAssignment assignment = subtask1.getAssignmentCollection().addAssignment(myJoe);
+    assignment.setLoad(100f);
+    assertCost(10, supertask);
+
+    myJoe.setStandardPayRate(BigDecimal.valueOf(10));
+    assertCost(20, supertask);
+
+    assignment.setLoad(50f);
+    assertCost(10, supertask);
+
+    subtask1.setDuration(getTaskManager().createLength(6));
+    assertCost(30, supertask);
+
+    subtask2.getCost().setCalculated(false);
+    subtask2.getCost().setValue(BigDecimal.valueOf(7));
+    assertCost(37, supertask);
+
+    subtask1.getAssignmentCollection().deleteAssignment(myJoe);
+    assertCost(7, supertask);
+  }
+
+  public void testCostFollowsHierarchyChanges() {
+    Task supertask1 = createTask();
+    Task supertask2 = createTask();
+    Task subtask1 = createLeaf(supertask1, 2);
+    Task subtask2 = createLeaf(supertask1, 4);
+    subtask1.getAssignmentCollection().addAssignment(myJoe).setLoad(100f);
+    assertCost(10, supertask1);
+    assertCost(0, supertask2);
+
+    subtask1.move(supertask2);
+    assertCost(0, supertask1);
+    assertCost(10, supertask2);
+
+    subtask2.getAssignmentCollection().addAssignment(myJoe).setLoad(100f);
+    getTaskManager().deleteTask(subtask2);
+    assertCost(10, getTaskManager().getRootTask());
+  }
+
+  public void testInvalidationKeepsOtherSubtrees() {
+    Task supertask1 = createTask();
+    Task supertask2 = createTask();
+    Task subtask1 = createLeaf(supertask1, 2);
+    createLeaf(supertask2, 4);
+    Task root = getTaskManager().getRootTask();
+    TaskRollups.Rollup rootRollup = getRollups().getRollup(root);
+    TaskRollups.Rollup rollup2 = getRollups().getRollup(supertask2);
+    assertEquals(6, rootRollup.getPlannedWork());
+
+    subtask1.setDuration(getTaskManager().createLength(3));
+    assertNotSame(rootRollup, getRollups().getRollup(root));
+    assertSame(rollup2, getRollups().getRollup(supertask2));
+    assertEquals(7, getRollups().getRollup(root).getPlannedWork());
+  }
+
+  public void testCompletionOfAncestors() {
+    Task supertask = createTask();
+    Task middle = createTask();
+    middle.move(supertask);
+    Task subtask1 = createLeaf(middle, 2);
+    Task subtask2 = createLeaf(supertask, 2);
+    RecalculateTaskCompletionPercentageAlgorithm alg =
+        getTaskManager().getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm();
+
+    subtask1.setCompletionPercentage(50);
+    alg.run(subtask1);
+    assertEquals(50, middle.getCompletionPercentage());
+    assertEquals(25, supertask.getCompletionPercentage());
+
+    subtask2.setCompletionPercentage(100);
+    alg.run(subtask2);
+    assertEquals(50, middle.getCompletionPercentage());
+    assertEquals(75, supertask.getCompletionPercentage());
+
+    alg.run();
+    assertEquals(50, middle.getCompletionPercentage());
+    assertEquals(75, supertask.getCompletionPercentage());
+  }
+}
@@ -22,9 +22,12 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
+import net.sourceforge.ganttproject.TestSetupHelper;
 import net.sourceforge.ganttproject.task.Task;
 import net.sourceforge.ganttproject.task.TaskManager;
 import net.sourceforge.ganttproject.task.TaskMutator;
+import net.sourceforge.ganttproject.task.algorithm.CriticalPathAlgorithm;
+import net.sourceforge.ganttproject.task.algorithm.CriticalPathAlgorithmImpl;
 import net.sourceforge.ganttproject.task.dependency.TaskDependency;
 import net.sourceforge.ganttproject.task.dependency.TaskDependencyConstraint;
 import net.sourceforge.ganttproject.task.dependency.constraint.FinishFinishConstraintImpl;
@@ -226,4 +229,43 @@ public class TestCriticalPath extends TaskTestCase {
         assertTrue(tester.criticalTasks.contains(tester.t2));
     }
 
+    public void testIncrementalUpdate() throws Exception {
+        TaskManager mgr = getTaskManager();
+        Task t1 = createTask(TestSetupHelper.newMonday(), 1);
+        Task t2 = createTask(TestSetupHelper.newTuesday(), 2);
+        Task t5 = createTask(TestSetupHelper.newTuesday(), 1);
+        Task t4 = createTask(TestSetupHelper.newThursday(), 1);
+        createDependency(t2, t1);
+        createDependency(t5, t1);
+        createDependency(t4, t2);
+        createDependency(t4, t5);
+        mgr.getAlgorithmCollection().getRecalculateTaskScheduleAlgorithm().run();
+
+        CriticalPathAlgorithm algorithm = mgr.getAlgorithmCollection().getCriticalPathAlgorithm();
+        Set<Task> criticalTasks = new HashSet<Task>(Arrays.asList(algorithm.getCriticalTasks()));
+        assertEquals(new HashSet<Task>(Arrays.asList(t1, t2, t4)), criticalTasks);
+        assertEquals(0, algorithm.getTotalFloat(t2).getLength());
+        assertEquals(1, algorithm.getTotalFloat(t5).getLength());
+
+        TaskMutator mutator = t5.createMutator();
+        mutator.setDuration(mgr.createLength(3));
+        mutator.commit();
+        mgr.getAlgorithmCollection().getRecalculateTaskScheduleAlgorithm().run();
+
+        criticalTasks = new HashSet<Task>(Arrays.asList(algorithm.getCriticalTasks()));
+        assertEquals(new HashSet<Task>(Arrays.asList(t1, t5, t4)), criticalTasks);
+        assertEquals(1, algorithm.getTotalFloat(t2).getLength());
+        assertEquals(0, algorithm.getTotalFloat(t5).getLength());
+        Set<Task> expected = new HashSet<Task>(Arrays.asList(
+                new CriticalPathAlgorithmImpl(mgr, mgr.getCalendar()).getCriticalTasks()));
+        assertEquals(expected, criticalTasks);
+
+        // Project end doesn't change, so only t2 and its dependees are recalculated
+        mutator = t2.createMutator();
+        mutator.setDuration(mgr.createLength(1));
+        mutator.commit();
+        assertEquals(2, algorithm.getTotalFloat(t2).getLength());
+        assertEquals(criticalTasks, new HashSet<Task>(Arrays.asList(algorithm.getCriticalTasks())));
+    }
+
 }
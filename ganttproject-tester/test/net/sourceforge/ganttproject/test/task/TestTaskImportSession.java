@@ -0,0 +1,157 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.test.task;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import net.sourceforge.ganttproject.TestSetupHelper;
+import net.sourceforge.ganttproject.task.Task;
+import net.sourceforge.ganttproject.task.TaskManager;
+import net.sourceforge.ganttproject.task.dependency.TaskDependency;
+import net.sourceforge.ganttproject.task.event.TaskBatchListener;
+import net.sourceforge.ganttproject.task.event.TaskChangeSet;
+import net.sourceforge.ganttproject.task.event.TaskDependencyEvent;
+import net.sourceforge.ganttproject.task.event.TaskHierarchyEvent;
+import net.sourceforge.ganttproject.task.event.TaskListenerAdapter;
+
+/**
+ * Tests bulk import sessions of the task manager.
+ */
+public class TestTaskImportSession extends TaskTestCase {
+  public void testEventsAreDeliveredOnClose() throws Exception {
+    TaskManager taskManager = getTaskManager();
+    ListenerImpl immediateListener = new ListenerImpl();
+    BatchListenerImpl batchListener = new BatchListenerImpl();
+    taskManager.addTaskListener(immediateListener);
+    taskManager.addTaskListener(batchListener);
+
+    TaskManager.ImportSession session = taskManager.startImport();
+    Task supertask = taskManager.newTaskBuilder().build();
+    Task child1 = taskManager.newTaskBuilder().withParent(supertask).build();
+    Task child2 = taskManager.newTaskBuilder().withParent(supertask).build();
+    TaskDependency dep = createDependency(child2, child1);
+    assertTrue(immediateListener.myAddedTasks.isEmpty());
+    assertTrue(immediateListener.myAddedDependencies.isEmpty());
+    assertEquals(3, taskManager.getTaskCount());
+    assertSame(supertask, taskManager.getTaskHierarchy().getContainer(child1));
+    session.close();
+
+    assertEquals(Lists.newArrayList(supertask, child1, child2), immediateListener.myAddedTasks);
+    assertEquals(Lists.newArrayList(dep), immediateListener.myAddedDependencies);
+    assertEquals(1, batchListener.myChangeSets.size());
+    TaskChangeSet changes = batchListener.myChangeSets.get(0);
+    assertEquals(Lists.newArrayList(supertask, child1, child2), Lists.newArrayList(changes.getAddedTasks()));
+    assertEquals(Lists.newArrayList(dep), Lists.newArrayList(changes.getAddedDependencies()));
+  }
+
+  public void testProjectIsScheduledOnClose() throws Exception {
+    TaskManager taskManager = getTaskManager();
+    Task supertask;
+    Task child1;
+    Task child2;
+    TaskManager.ImportSession session = taskManager.startImport();
+    try {
+      supertask = taskManager.newTaskBuilder().withStartDate(TestSetupHelper.newFriday().getTime()).build();
+      child1 = taskManager.newTaskBuilder().withParent(supertask)
+          .withStartDate(TestSetupHelper.newMonday().getTime()).withDuration(taskManager.createLength(2)).build();
+      child2 = taskManager.newTaskBuilder().withParent(supertask)
+          .withStartDate(TestSetupHelper.newMonday().getTime()).build();
+      createDependency(child2, child1);
+      assertEquals(TestSetupHelper.newMonday(), child2.getStart());
+    } finally {
+      session.close();
+    }
+    assertEquals(TestSetupHelper.newWendesday(), child2.getStart());
+    assertEquals(TestSetupHelper.newMonday(), supertask.getStart());
+    assertEquals(TestSetupHelper.newThursday(), supertask.getEnd());
+    assertTrue(taskManager.getAlgorithmCollection().getScheduler().isEnabled());
+  }
+
+  public void testRemovedTasksAreNotReported() throws Exception {
+    TaskManager taskManager = getTaskManager();
+    ListenerImpl listener = new ListenerImpl();
+    taskManager.addTaskListener(listener);
+
+    Task existing = createTask();
+    TaskManager.ImportSession session = taskManager.startImport();
+    Task supertask = taskManager.newTaskBuilder().build();
+    taskManager.newTaskBuilder().withParent(supertask).build();
+    Task imported = taskManager.newTaskBuilder().build();
+    createDependency(imported, existing);
+    taskManager.deleteTask(supertask);
+    session.close();
+
+    assertEquals(Lists.newArrayList(existing, imported), listener.myAddedTasks);
+    assertTrue(listener.myRemovedTasks.isEmpty());
+    assertEquals(1, listener.myAddedDependencies.size());
+  }
+
+  public void testLoopingDependenciesAreDeletedOnClose() throws Exception {
+    TaskManager taskManager = getTaskManager();
+    ListenerImpl listener = new ListenerImpl();
+    taskManager.addTaskListener(listener);
+
+    TaskManager.ImportSession session = taskManager.startImport();
+    Task t1 = taskManager.newTaskBuilder().build();
+    Task t2 = taskManager.newTaskBuilder().build();
+    createDependency(t2, t1);
+    createDependency(t1, t2);
+    session.close();
+
+    assertEquals(1, session.getLoopingDependencies().size());
+    TaskDependency[] deps = taskManager.getDependencyCollection().getDependencies();
+    assertEquals(1, deps.length);
+    assertFalse(session.getLoopingDependencies().contains(deps[0]));
+    assertEquals(Lists.newArrayList(deps[0]), listener.myAddedDependencies);
+    // Scheduler fails if there are loops in the graph
+    taskManager.getAlgorithmCollection().getScheduler().run();
+  }
+
+  private static class ListenerImpl extends TaskListenerAdapter {
+    final List<Task> myAddedTasks = Lists.newArrayList();
+    final List<Task> myRemovedTasks = Lists.newArrayList();
+    final List<TaskDependency> myAddedDependencies = Lists.newArrayList();
+
+    @Override
+    public void taskAdded(TaskHierarchyEvent e) {
+      myAddedTasks.add(e.getTask());
+    }
+
+    @Override
+    public void taskRemoved(TaskHierarchyEvent e) {
+      myRemovedTasks.add(e.getTask());
+    }
+
+    @Override
+    public void dependencyAdded(TaskDependencyEvent e) {
+      myAddedDependencies.add(e.getDependency());
+    }
+  }
+
+  private static class BatchListenerImpl extends TaskListenerAdapter implements TaskBatchListener {
+    final List<TaskChangeSet> myChangeSets = Lists.newArrayList();
+
+    @Override
+    public void taskChangesCommitted(TaskChangeSet changes) {
+      myChangeSets.add(changes);
+    }
+  }
+}
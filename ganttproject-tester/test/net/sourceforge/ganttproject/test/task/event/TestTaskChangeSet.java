@@ -0,0 +1,132 @@
+package net.sourceforge.ganttproject.test.task.event;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import net.sourceforge.ganttproject.task.Task;
+import net.sourceforge.ganttproject.task.TaskManager;
+import net.sourceforge.ganttproject.task.TaskMutator;
+import net.sourceforge.ganttproject.task.dependency.TaskDependency;
+import net.sourceforge.ganttproject.task.event.TaskBatchListener;
+import net.sourceforge.ganttproject.task.event.TaskChangeSet;
+import net.sourceforge.ganttproject.task.event.TaskHierarchyEvent;
+import net.sourceforge.ganttproject.task.event.TaskListenerAdapter;
+import net.sourceforge.ganttproject.test.task.TaskTestCase;
+
+public class TestTaskChangeSet extends TaskTestCase {
+  public void testBatchListenerReceivesSingleChangeSet() throws Exception {
+    TaskManager taskManager = getTaskManager();
+    BatchListenerImpl batchListener = new BatchListenerImpl();
+    ImmediateListenerImpl immediateListener = new ImmediateListenerImpl();
+    taskManager.addTaskListener(batchListener);
+    taskManager.addTaskListener(immediateListener);
+
+    taskManager.beginTransaction();
+    Task t1 = createTask();
+    Task t2 = createTask();
+    TaskDependency dep = createDependency(t2, t1);
+    assertEquals(0, batchListener.myAddedCount);
+    assertTrue(batchListener.myChangeSets.isEmpty());
+    assertEquals(2, immediateListener.myAddedCount);
+    taskManager.commitTransaction();
+
+    assertEquals(0, batchListener.myAddedCount);
+    assertEquals(1, batchListener.myChangeSets.size());
+    TaskChangeSet changes = batchListener.myChangeSets.get(0);
+    assertEquals(Lists.newArrayList(t1, t2), Lists.newArrayList(changes.getAddedTasks()));
+    assertFalse(changes.getChangedTasks().contains(t1));
+    assertFalse(changes.getChangedTasks().contains(t2));
+    assertEquals(Lists.newArrayList(dep), Lists.newArrayList(changes.getAddedDependencies()));
+  }
+
+  public void testNestedTransactionsAreDeliveredOnOutermostCommit() {
+    TaskManager taskManager = getTaskManager();
+    BatchListenerImpl batchListener = new BatchListenerImpl();
+    taskManager.addTaskListener(batchListener);
+
+    taskManager.beginTransaction();
+    taskManager.beginTransaction();
+    Task t1 = createTask();
+    taskManager.commitTransaction();
+    assertTrue(batchListener.myChangeSets.isEmpty());
+    taskManager.commitTransaction();
+    assertEquals(1, batchListener.myChangeSets.size());
+    assertTrue(batchListener.myChangeSets.get(0).getAddedTasks().contains(t1));
+  }
+
+  public void testChangesAreConsolidated() {
+    TaskManager taskManager = getTaskManager();
+    Task existing = createTask();
+    BatchListenerImpl batchListener = new BatchListenerImpl();
+    taskManager.addTaskListener(batchListener);
+
+    taskManager.beginTransaction();
+    Task transient_ = createTask();
+    setDuration(transient_, 2);
+    taskManager.deleteTask(transient_);
+    setDuration(existing, 2);
+    setDuration(existing, 3);
+    taskManager.commitTransaction();
+
+    TaskChangeSet changes = batchListener.myChangeSets.get(0);
+    assertTrue(changes.getAddedTasks().isEmpty());
+    assertTrue(changes.getRemovedTasks().isEmpty());
+    assertTrue(changes.getChangedTasks().contains(existing));
+    assertFalse(changes.getChangedTasks().contains(transient_));
+  }
+
+  public void testMovedTasksAreReportedAsChanged() {
+    TaskManager taskManager = getTaskManager();
+    Task supertask = createTask();
+    Task task = createTask();
+    BatchListenerImpl batchListener = new BatchListenerImpl();
+    taskManager.addTaskListener(batchListener);
+
+    taskManager.beginTransaction();
+    task.move(supertask);
+    taskManager.commitTransaction();
+
+    assertEquals(1, batchListener.myChangeSets.size());
+    TaskChangeSet changes = batchListener.myChangeSets.get(0);
+    assertTrue(changes.getAddedTasks().isEmpty());
+    assertTrue(changes.getChangedTasks().contains(task));
+  }
+
+  public void testBatchListenerReceivesEventsOutsideOfTransactions() {
+    TaskManager taskManager = getTaskManager();
+    BatchListenerImpl batchListener = new BatchListenerImpl();
+    taskManager.addTaskListener(batchListener);
+    createTask();
+    assertEquals(1, batchListener.myAddedCount);
+    assertTrue(batchListener.myChangeSets.isEmpty());
+
+    taskManager.beginTransaction();
+    taskManager.commitTransaction();
+    assertTrue("Empty change sets are not expected to be delivered", batchListener.myChangeSets.isEmpty());
+  }
+
+  private void setDuration(Task task, int duration) {
+    TaskMutator mutator = task.createMutator();
+    mutator.setDuration(getTaskManager().createLength(duration));
+    mutator.commit();
+  }
+
+  private static class ImmediateListenerImpl extends TaskListenerAdapter {
+    int myAddedCount;
+
+    @Override
+    public void taskAdded(TaskHierarchyEvent e) {
+      myAddedCount++;
+    }
+  }
+
+  private static class BatchListenerImpl extends ImmediateListenerImpl implements TaskBatchListener {
+    final List<TaskChangeSet> myChangeSets = Lists.newArrayList();
+
+    @Override
+    public void taskChangesCommitted(TaskChangeSet changes) {
+      myChangeSets.add(changes);
+    }
+  }
+}
@@ -1,10 +1,17 @@
 package net.sourceforge.ganttproject.test.task.hierarchy;
 
 import net.sourceforge.ganttproject.task.Task;
+import net.sourceforge.ganttproject.task.TaskContainmentHierarchyFacade;
 import net.sourceforge.ganttproject.test.task.TaskTestCase;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.collect.Lists;
 
 public class TestTaskDocumentOrder extends TaskTestCase {
     public void testTasksAreInDocumentOrder() {
@@ -32,4 +39,73 @@ public class TestTaskDocumentOrder extends TaskTestCase {
 
         assertEquals(expectedOrder, getTaskManager().getTaskHierarchy().getTasksInDocumentOrder());
     }
+
+    public void testHierarchyQueriesFollowMoves() {
+        TaskContainmentHierarchyFacade hierarchy = getTaskManager().getTaskHierarchy();
+        Task task1 = createTask();
+        Task task2 = createTask();
+        Task task3 = createTask();
+        Task task4 = createTask();
+        task3.move(task1);
+        task4.move(task3);
+
+        assertEquals(1, hierarchy.getDepth(task1));
+        assertEquals(3, hierarchy.getDepth(task4));
+        assertEquals(1, hierarchy.getTaskIndex(task2));
+        assertEquals(0, hierarchy.getTaskIndex(task3));
+        assertTrue(hierarchy.compareDocumentOrder(task4, task2) < 0);
+        assertFalse(hierarchy.areUnrelated(task1, task4));
+        assertFalse(hierarchy.areUnrelated(task4, task1));
+        assertTrue(hierarchy.areUnrelated(task2, task4));
+
+        task2.move(getTaskManager().getRootTask(), 0);
+        task3.move(task2);
+        assertEquals(0, hierarchy.getTaskIndex(task2));
+        assertEquals(1, hierarchy.getTaskIndex(task1));
+        assertEquals(2, hierarchy.getDepth(task3));
+        assertTrue(hierarchy.compareDocumentOrder(task4, task1) < 0);
+        assertTrue(hierarchy.areUnrelated(task1, task4));
+        assertEquals(Arrays.asList(task2, task3, task4, task1), Arrays.asList(getTaskManager().getTasks()));
+
+        Task task5 = getTaskManager().createTask();
+        assertTrue(hierarchy.compareDocumentOrder(task1, task5) < 0);
+        assertEquals(task5, getTaskManager().getTasks()[4]);
+    }
+
+    public void testConcurrentQueriesAfterChange() throws Exception {
+        final TaskContainmentHierarchyFacade hierarchy = getTaskManager().getTaskHierarchy();
+        final List<Task> tasks = Lists.newArrayList();
+        for (int i = 0; i < 1000; i++) {
+            Task task = createTask();
+            if (i % 10 != 0) {
+                task.move(tasks.get(i - i % 10));
+            }
+            tasks.add(task);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // The index is stale after a new task is added, so the first queries race to rebuild it
+            createTask();
+            List<Future<Boolean>> results = Lists.newArrayList();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int j = 1; j < tasks.size(); j++) {
+                            if (hierarchy.compareDocumentOrder(tasks.get(j - 1), tasks.get(j)) >= 0
+                                || hierarchy.getDepth(tasks.get(j)) != (j % 10 == 0 ? 1 : 2)) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
@@ -81,4 +81,33 @@ public class TestTaskHierarchy extends TaskTestCase {
       });
       assertEquals(ImmutableList.of(getTaskManager().getRootTask(), task7, task6, task5, task2, task1), filteredBfs);
     }
+
+    public void testPositionalInsertAndSiblings() {
+      TaskContainmentHierarchyFacade hierarchy = getTaskManager().getTaskHierarchy();
+      Task summary = getTaskManager().createTask();
+      Task task1 = getTaskManager().createTask();
+      Task task2 = getTaskManager().createTask();
+      Task task3 = getTaskManager().createTask();
+      task1.move(summary);
+      task3.move(summary);
+      task2.move(summary, 1);
+
+      Task[] nested = summary.getNestedTasks();
+      assertEquals(Arrays.asList(task1, task2, task3), Arrays.asList(nested));
+      assertEquals(task2, hierarchy.getNextSibling(task1));
+      assertEquals(task2, hierarchy.getPreviousSibling(task3));
+      assertNull(hierarchy.getPreviousSibling(task1));
+      assertNull(hierarchy.getNextSibling(task3));
+      assertEquals(2, hierarchy.getTaskIndex(task3));
+
+      task1.move(getTaskManager().getRootTask());
+      // Arrays returned earlier are snapshots and don't change
+      assertEquals(Arrays.asList(task1, task2, task3), Arrays.asList(nested));
+      assertEquals(Arrays.asList(task2, task3), Arrays.asList(summary.getNestedTasks()));
+      assertEquals(0, hierarchy.getTaskIndex(task2));
+      assertNull(hierarchy.getPreviousSibling(task2));
+
+      task1.move(summary, 100);
+      assertEquals(Arrays.asList(task2, task3, task1), Arrays.asList(summary.getNestedTasks()));
+    }
 }
@@ -0,0 +1,88 @@
+/*
+GanttProject is an opensource project management tool. License: GPL3
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+*/
+package net.sourceforge.ganttproject.test.task.hierarchy;
+
+import net.sourceforge.ganttproject.TestSetupHelper;
+import net.sourceforge.ganttproject.task.Task;
+import net.sourceforge.ganttproject.task.TaskContainmentHierarchyFacade;
+import net.sourceforge.ganttproject.task.TaskManager;
+
+/**
+ * Measures hierarchy operations on summary tasks with many children: building the children list
+ * with positional inserts, reading nested tasks, index and sibling lookups, and moving children out.
+ *
+ * Run with: java net.sourceforge.ganttproject.test.task.hierarchy.WideSummaryTaskBenchmark [children] [reads]
+ */
+public class WideSummaryTaskBenchmark {
+  public static void main(String[] args) {
+    int children = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+    int reads = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+    for (int round = 0; round < 3; round++) {
+      System.out.println(String.format("Round %d, children=%d reads=%d", round, children, reads));
+      run(children, reads);
+    }
+  }
+
+  private static void run(int children, int reads) {
+    TaskManager taskManager = TestSetupHelper.newTaskManagerBuilder().build();
+    // Every move reschedules the summary task which visits all its children,
+    // we want to measure the hierarchy itself
+    taskManager.getAlgorithmCollection().getScheduler().setEnabled(false);
+    TaskContainmentHierarchyFacade hierarchy = taskManager.getTaskHierarchy();
+    Task summary = taskManager.createTask();
+    Task[] tasks = new Task[children];
+    for (int i = 0; i < children; i++) {
+      tasks[i] = taskManager.createTask();
+    }
+
+    long insertStart = System.nanoTime();
+    for (int i = 0; i < children; i++) {
+      // Insert into the middle, like paste or indent of a selection does
+      tasks[i].move(summary, i / 2);
+    }
+    long insertTime = System.nanoTime() - insertStart;
+
+    long readStart = System.nanoTime();
+    long checksum = 0;
+    for (int i = 0; i < reads; i++) {
+      checksum += summary.getNestedTasks().length;
+    }
+    long readTime = System.nanoTime() - readStart;
+
+    long lookupStart = System.nanoTime();
+    for (Task task : tasks) {
+      checksum += hierarchy.getTaskIndex(task);
+      Task sibling = hierarchy.getPreviousSibling(task);
+      if (sibling != null) {
+        checksum += sibling.getTaskID();
+      }
+    }
+    long lookupTime = System.nanoTime() - lookupStart;
+
+    long moveStart = System.nanoTime();
+    for (Task task : tasks) {
+      task.move(taskManager.getRootTask());
+    }
+    long moveTime = System.nanoTime() - moveStart;
+
+    System.out.println(String.format(
+        "  insert=%8.2fms read=%8.2fms (%.3fus/read) lookup=%8.2fms move-out=%8.2fms checksum=%d",
+        insertTime / 1e6, readTime / 1e6, readTime / 1e3 / reads, lookupTime / 1e6, moveTime / 1e6, checksum));
+  }
+}
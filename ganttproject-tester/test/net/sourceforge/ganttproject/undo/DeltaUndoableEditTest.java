@@ -0,0 +1,167 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.undo;
+
+import net.sourceforge.ganttproject.TestSetupHelper;
+import net.sourceforge.ganttproject.resource.HumanResource;
+import net.sourceforge.ganttproject.resource.HumanResourceManager;
+import net.sourceforge.ganttproject.roles.RoleManager;
+import net.sourceforge.ganttproject.roles.RoleManagerImpl;
+import net.sourceforge.ganttproject.task.CustomColumnsManager;
+import net.sourceforge.ganttproject.task.ResourceAssignment;
+import net.sourceforge.ganttproject.task.Task;
+import net.sourceforge.ganttproject.task.TaskMutator;
+import net.sourceforge.ganttproject.task.dependency.TaskDependency;
+import net.sourceforge.ganttproject.test.task.TaskTestCase;
+
+/**
+ * Tests for delta-based undo and redo of task edits.
+ */
+public class DeltaUndoableEditTest extends TaskTestCase {
+  private HumanResourceManager myResourceManager;
+  private RoleManager myRoleManager;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myRoleManager = new RoleManagerImpl();
+    myResourceManager = new HumanResourceManager(myRoleManager.getDefaultRole(), new CustomColumnsManager(), myRoleManager);
+  }
+
+  private DeltaUndoableEdit newEdit(TaskModelSnapshot before) {
+    return new DeltaUndoableEdit("test", before, TaskModelSnapshot.capture(getTaskManager()), getTaskManager(),
+        myResourceManager, myRoleManager);
+  }
+
+  public void testPropertiesAndSchedule() {
+    Task task1 = createTask(TestSetupHelper.newMonday(), 2);
+    Task task2 = createTask(TestSetupHelper.newMonday(), 1);
+    String name = task1.getName();
+
+    TaskModelSnapshot before = TaskModelSnapshot.capture(getTaskManager());
+    TaskMutator mutator = task1.createMutator();
+    mutator.setName("renamed");
+    mutator.setStart(TestSetupHelper.newWendesday());
+    mutator.setDuration(getTaskManager().createLength(3));
+    mutator.setCompletionPercentage(50);
+    mutator.commit();
+    DeltaUndoableEdit edit = newEdit(before);
+    assertFalse(edit.isEmpty());
+
+    edit.undo();
+    assertEquals(name, task1.getName());
+    assertEquals(TestSetupHelper.newMonday(), task1.getStart());
+    assertEquals(TestSetupHelper.newWendesday(), task1.getEnd());
+    assertEquals(0, task1.getCompletionPercentage());
+    assertEquals(TestSetupHelper.newMonday(), task2.getStart());
+
+    edit.redo();
+    assertEquals("renamed", task1.getName());
+    assertEquals(TestSetupHelper.newWendesday(), task1.getStart());
+    assertEquals(3, task1.getDuration().getLength());
+    assertEquals(50, task1.getCompletionPercentage());
+  }
+
+  public void testHierarchy() {
+    Task task1 = createTask();
+    Task task2 = createTask();
+    Task task3 = createTask();
+
+    TaskModelSnapshot before = TaskModelSnapshot.capture(getTaskManager());
+    task3.move(task1);
+    task2.move(getTaskManager().getRootTask(), 0);
+    DeltaUndoableEdit edit = newEdit(before);
+
+    edit.undo();
+    assertEquals(getTaskManager().getRootTask(), task3.getSupertask());
+    Task[] topLevel = getTaskManager().getRootTask().getNestedTasks();
+    assertEquals(3, topLevel.length);
+    assertEquals(task1, topLevel[0]);
+    assertEquals(task2, topLevel[1]);
+    assertEquals(task3, topLevel[2]);
+
+    edit.redo();
+    assertEquals(task1, task3.getSupertask());
+    topLevel = getTaskManager().getRootTask().getNestedTasks();
+    assertEquals(2, topLevel.length);
+    assertEquals(task2, topLevel[0]);
+    assertEquals(task1, topLevel[1]);
+  }
+
+  public void testDependenciesAndAssignments() throws Exception {
+    Task task1 = createTask(TestSetupHelper.newMonday(), 1);
+    Task task2 = createTask(TestSetupHelper.newTuesday(), 1);
+    Task task3 = createTask(TestSetupHelper.newTuesday(), 1);
+    TaskDependency dep = createDependency(task2, task1);
+    HumanResource joe = new HumanResource("joe", 1, myResourceManager);
+    myResourceManager.add(joe);
+
+    TaskModelSnapshot before = TaskModelSnapshot.capture(getTaskManager());
+    dep.delete();
+    createDependency(task3, task1).setDifference(2);
+    ResourceAssignment assignment = task1.getAssignmentCollection().addAssignment(joe);
+    assignment.setLoad(50);
+    DeltaUndoableEdit edit = newEdit(before);
+
+    edit.undo();
+    assertEquals(1, getTaskManager().getDependencyCollection().getDependencies().length);
+    TaskDependency restored = getTaskManager().getDependencyCollection().getDependencies()[0];
+    assertEquals(task2, restored.getDependant());
+    assertEquals(task1, restored.getDependee());
+    assertEquals(0, task1.getAssignments().length);
+
+    edit.redo();
+    assertEquals(1, getTaskManager().getDependencyCollection().getDependencies().length);
+    restored = getTaskManager().getDependencyCollection().getDependencies()[0];
+    assertEquals(task3, restored.getDependant());
+    assertEquals(2, restored.getDifference());
+    assertEquals(1, task1.getAssignments().length);
+    assertEquals(50f, task1.getAssignments()[0].getLoad());
+  }
+
+  public void testCreateAndDeleteTasks() {
+    Task task1 = createTask();
+    Task nested = createTask();
+    nested.move(task1);
+    nested.setName("nested");
+    Task task2 = createTask();
+
+    TaskModelSnapshot before = TaskModelSnapshot.capture(getTaskManager());
+    getTaskManager().deleteTask(nested);
+    getTaskManager().deleteTask(task1);
+    Task task3 = createTask();
+    DeltaUndoableEdit edit = newEdit(before);
+    assertFalse(edit.isEmpty());
+
+    edit.undo();
+    assertNull(getTaskManager().getTask(task3.getTaskID()));
+    Task restored = getTaskManager().getTask(task1.getTaskID());
+    Task[] tasks = getTaskManager().getTasks();
+    assertEquals(3, tasks.length);
+    assertEquals(restored, tasks[0]);
+    assertEquals("nested", tasks[1].getName());
+    assertEquals(restored, tasks[1].getSupertask());
+    assertEquals(task2, tasks[2]);
+
+    edit.redo();
+    assertNull(getTaskManager().getTask(task1.getTaskID()));
+    assertNull(getTaskManager().getTask(nested.getTaskID()));
+    assertNotNull(getTaskManager().getTask(task3.getTaskID()));
+  }
+}
@@ -0,0 +1,103 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.undo;
+
+import junit.framework.TestCase;
+import net.sourceforge.ganttproject.GanttProjectImpl;
+import net.sourceforge.ganttproject.task.Task;
+import net.sourceforge.ganttproject.task.TaskManager;
+
+/**
+ * Tests for recording task edits in the undo history.
+ */
+public class UndoManagerImplTest extends TestCase {
+  private GanttProjectImpl myProject;
+  private UndoManagerImpl myUndoManager;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myProject = new GanttProjectImpl();
+    // Task edits never save or load the whole project, so we need no document manager
+    myUndoManager = new UndoManagerImpl(myProject, null, null);
+  }
+
+  public void testEditHistoryIsKeptWhenTaskIsCreated() {
+    final Task task = myProject.newTask();
+    task.setName("foo");
+    myUndoManager.undoableTaskEdit("rename", new Runnable() {
+      @Override
+      public void run() {
+        task.setName("bar");
+      }
+    });
+    final Task[] created = new Task[1];
+    final int[] runCount = new int[1];
+    myUndoManager.undoableTaskEdit("create", new Runnable() {
+      @Override
+      public void run() {
+        runCount[0]++;
+        created[0] = myProject.newTask();
+      }
+    });
+    assertEquals(1, runCount[0]);
+    TaskManager taskManager = myProject.getTaskManager();
+    assertEquals(2, taskManager.getTaskCount());
+
+    myUndoManager.undo();
+    assertEquals(1, taskManager.getTaskCount());
+    assertEquals("bar", task.getName());
+    assertTrue(myUndoManager.canUndo());
+    myUndoManager.undo();
+    assertEquals("foo", task.getName());
+
+    myUndoManager.redo();
+    myUndoManager.redo();
+    assertEquals(1, runCount[0]);
+    assertEquals(2, taskManager.getTaskCount());
+    assertNotNull(taskManager.getTask(created[0].getTaskID()));
+    assertEquals("bar", task.getName());
+  }
+
+  public void testEditHistoryIsKeptWhenTaskIsDeleted() {
+    final Task task1 = myProject.newTask();
+    final Task task2 = myProject.newTask();
+    task1.setName("foo");
+    task2.setName("task2");
+    myUndoManager.undoableTaskEdit("rename", new Runnable() {
+      @Override
+      public void run() {
+        task1.setName("bar");
+      }
+    });
+    myUndoManager.undoableTaskEdit("delete", new Runnable() {
+      @Override
+      public void run() {
+        myProject.getTaskManager().deleteTask(task2);
+      }
+    });
+    TaskManager taskManager = myProject.getTaskManager();
+    assertNull(taskManager.getTask(task2.getTaskID()));
+
+    myUndoManager.undo();
+    assertEquals("task2", taskManager.getTask(task2.getTaskID()).getName());
+    myUndoManager.undo();
+    assertEquals("foo", task1.getName());
+  }
+}
@@ -51,6 +51,11 @@ class FXSearchUi(private val project: IGanttProject, private val uiFacade: UIFac
   val node: Node get() = textField
   lateinit var swingToolbar: () -> JComponent
 
+  // Search services keep their indexes between the queries, so we reuse the searcher
+  private val searcher: PopupSearchCallback by lazy {
+    PopupSearchCallback(this.project, this.uiFacade, this.swingToolbar(), Rectangle())
+  }
+
   private fun runSearch() {
     val textFieldBounds = this.textField.run {
       val bounds = localToScene(boundsInLocal)
@@ -58,7 +63,7 @@ class FXSearchUi(private val project: IGanttProject, private val uiFacade: UIFac
     }
     val query = this.textField.text
     SwingUtilities.invokeLater {
-      val searcher = PopupSearchCallback(this.project, this.uiFacade, this.swingToolbar(), textFieldBounds)
+      searcher.setSearchBoxPosition(textFieldBounds)
       searcher.runSearch(query)
     }
   }
@@ -196,20 +196,33 @@ public class GanttCSVOpen {
     int idxNextGroup;
     int skipHeadLines = 0;
     List<String> headers;
-    do {
-      idxNextGroup = idxCurrentGroup;
-      RecordGroup currentGroup = myRecordGroups.get(idxCurrentGroup);
-      headers = currentGroup.getHeader();
-      if (headers != null) {
-        idxNextGroup++;
+    try {
+      do {
+        idxNextGroup = idxCurrentGroup;
+        RecordGroup currentGroup = myRecordGroups.get(idxCurrentGroup);
+        headers = currentGroup.getHeader();
+        if (headers != null) {
+          idxNextGroup++;
+        }
+        try (SpreadsheetReader reader = createReader(myInputSupplier.get(), headers)) {
+          skipHeadLines = doLoad(reader, idxCurrentGroup, skipHeadLines);
+        }
+        idxCurrentGroup = idxNextGroup;
+      } while (skipHeadLines > 0);
+      for (RecordGroup group : myRecordGroups) {
+        group.postProcess();
       }
-      try (SpreadsheetReader reader = createReader(myInputSupplier.get(), headers)) {
-        skipHeadLines = doLoad(reader, idxCurrentGroup, skipHeadLines);
+    } catch (IOException | RuntimeException e) {
+      // Groups may hold resources, e.g. task import session, which are released without
+      // processing the records read so far
+      for (RecordGroup group : myRecordGroups) {
+        try {
+          group.abort();
+        } catch (RuntimeException abortError) {
+          e.addSuppressed(abortError);
+        }
       }
-      idxCurrentGroup = idxNextGroup;
-    } while (skipHeadLines > 0);
-    for (RecordGroup group : myRecordGroups) {
-      group.postProcess();
+      throw e;
     }
     return errors;
   }
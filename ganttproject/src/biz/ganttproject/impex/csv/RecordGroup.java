@@ -111,6 +111,12 @@ public abstract class RecordGroup {
   protected void postProcess() {
   }
 
+  /**
+   * Called instead of {@link #postProcess()} when loading fails.
+   */
+  protected void abort() {
+  }
+
   public void setHeader(List<String> header) {
     myHeader = header;
     myCustomFields = Sets.difference(Sets.newHashSet(header), myFields);
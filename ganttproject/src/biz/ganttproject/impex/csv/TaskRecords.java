@@ -116,6 +116,9 @@ class TaskRecords extends RecordGroup {
   private final TaskManager taskManager;
   private final HumanResourceManager resourceManager;
   private final TimeUnitStack myTimeUnitStack;
+  // Opened when the first task is created and closed when tasks are linked in postProcess,
+  // or in abort if loading fails
+  private TaskManager.ImportSession myImportSession;
 
   TaskRecords(TaskManager taskManager, HumanResourceManager resourceManager, TimeUnitStack timeUnitStack) {
     super("Task group",
@@ -151,6 +154,9 @@ class TaskRecords extends RecordGroup {
       return false;
     }
     Date startDate = parseDateOrError(getOrNull(record, TaskFields.BEGIN_DATE.toString()));
+    if (myImportSession == null) {
+      myImportSession = taskManager.startImport();
+    }
     // Create the task
     TaskManager.TaskBuilder builder = taskManager.newTaskBuilder()
         .withName(getOrNull(record, TaskFields.NAME.toString()))
@@ -321,6 +327,26 @@ class TaskRecords extends RecordGroup {
 
   @Override
   protected void postProcess() {
+    if (myImportSession == null) {
+      return;
+    }
+    try {
+      linkTasks();
+    } finally {
+      myImportSession.close();
+      myImportSession = null;
+    }
+  }
+
+  @Override
+  protected void abort() {
+    if (myImportSession != null) {
+      myImportSession.close();
+      myImportSession = null;
+    }
+  }
+
+  private void linkTasks() {
     for (Map.Entry<String, Task> wbsEntry : myWbsMap.entrySet()) {
       String outlineNumber = wbsEntry.getKey();
       List<String> components = Arrays.asList(outlineNumber.split("\\."));
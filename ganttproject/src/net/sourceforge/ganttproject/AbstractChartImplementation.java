@@ -54,7 +54,6 @@ import javax.swing.*;
 import javax.swing.plaf.LayerUI;
 import java.awt.*;
 import java.awt.event.MouseEvent;
-import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
 import java.util.Date;
 import java.util.LinkedHashSet;
@@ -252,22 +251,22 @@ public class AbstractChartImplementation implements TimelineChart, ZoomListener
 
   @Override
   public RenderedImage getRenderedImage(GanttExportSettings settings) {
-    class ChartImageVisitorImpl implements ChartImageVisitor {
+    // Logo and table are not painted here, but remembered and painted into the strips
+    // of the rendered image, so that we don't keep an image of the whole table in memory.
+    class ChartImageVisitorImpl implements ChartImageVisitor, RenderedChartImage.TablePainter {
       private RenderedChartImage myRenderedImage;
-      private Graphics2D myGraphics;
-      private BufferedImage myTreeImage;
+      private ChartDimensions myDimensions;
+      private Image myLogo;
+      private Component myHeader;
+      private Component myTable;
 
       @Override
       public void acceptLogo(ChartDimensions d, Image logo) {
         if (d.getTreeWidth() <= 0) {
           return;
         }
-        Graphics2D g = getGraphics(d);
-        g.setBackground(Color.WHITE);
-        g.clearRect(0, 0, d.getTreeWidth(), d.getLogoHeight());
-        // Hack: by adding 35, the left part of the logo becomes visible,
-        // otherwise it gets chopped off
-        g.drawImage(logo, 35, 0, null);
+        myDimensions = d;
+        myLogo = logo;
       }
 
       @Override
@@ -275,30 +274,37 @@ public class AbstractChartImplementation implements TimelineChart, ZoomListener
         if (d.getTreeWidth() <= 0) {
           return;
         }
-        Graphics2D g = getGraphics(d);
-        g.translate(0, d.getLogoHeight());
-        header.print(g);
-
-        g.translate(0, d.getTableHeaderHeight());
-        table.print(g);
+        myDimensions = d;
+        myHeader = header;
+        myTable = table;
       }
 
       @Override
       public void acceptChart(ChartDimensions d, ChartModel model) {
-        if (myTreeImage == null) {
-          myTreeImage = new BufferedImage(1, d.getChartHeight() + d.getLogoHeight(), BufferedImage.TYPE_INT_RGB);
-        }
-        myRenderedImage = new RenderedChartImage(model, myTreeImage, d.getChartWidth(), d.getChartHeight()
-            + d.getLogoHeight(), d.getLogoHeight());
+        int tableWidth = myDimensions == null ? 1 : d.getTreeWidth();
+        myRenderedImage = new RenderedChartImage(model, this, tableWidth, d.getChartWidth(),
+            d.getChartHeight() + d.getLogoHeight(), d.getLogoHeight(), RenderedChartImage.DEFAULT_STRIP_PIXELS);
       }
 
-      private Graphics2D getGraphics(ChartDimensions d) {
-        if (myGraphics == null) {
-          myTreeImage = new BufferedImage(d.getTreeWidth(), d.getChartHeight() + d.getLogoHeight(),
-              BufferedImage.TYPE_INT_RGB);
-          myGraphics = myTreeImage.createGraphics();
+      @Override
+      public void paint(Graphics2D g) {
+        if (myDimensions == null) {
+          return;
+        }
+        if (myLogo != null) {
+          g.setBackground(Color.WHITE);
+          g.clearRect(0, 0, myDimensions.getTreeWidth(), myDimensions.getLogoHeight());
+          // Hack: by adding 35, the left part of the logo becomes visible,
+          // otherwise it gets chopped off
+          g.drawImage(myLogo, 35, 0, null);
+        }
+        if (myTable != null) {
+          g.translate(0, myDimensions.getLogoHeight());
+          myHeader.print(g);
+
+          g.translate(0, myDimensions.getTableHeaderHeight());
+          myTable.print(g);
         }
-        return myGraphics;
       }
     }
     ChartImageVisitorImpl visitor = new ChartImageVisitorImpl();
@@ -111,6 +111,7 @@ import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
@@ -762,6 +763,47 @@ public class GanttProject extends GanttProjectBase implements ResourceView, Gant
     }
   }
 
+  /**
+   * Opens or imports the document like {@link #openStartupDocument(String)}, but reports failures
+   * to the caller rather than showing them. Must not be called in the Swing thread: the final steps of
+   * opening run there, and this method waits until they complete.
+   *
+   * @throws DocumentException if the document could be neither opened nor imported
+   */
+  public void openDocumentAndWait(String path) throws DocumentException, InterruptedException {
+    final Document document = getDocumentManager().getDocument(path);
+    // Some failures are caught in the Swing thread and never reach us, so we consider the document
+    // opened only if project listeners were notified
+    final AtomicBoolean opened = new AtomicBoolean(false);
+    ProjectEventListener listener = new ProjectEventListener.Stub() {
+      @Override
+      public void projectOpened() {
+        opened.set(true);
+      }
+    };
+    addProjectEventListener(listener);
+    Exception failure = null;
+    try {
+      getProjectUIFacade().openProject(document, getProject());
+      SwingUtilities.invokeAndWait(new Runnable() {
+        @Override
+        public void run() {
+        }
+      });
+    } catch (DocumentException | IOException | InvocationTargetException e) {
+      failure = e;
+    } finally {
+      removeProjectEventListener(listener);
+    }
+    if (failure == null && opened.get()) {
+      return;
+    }
+    fireProjectCreated(); // this will create columns in the tables, which are removed by previous call to openProject()
+    if (!tryImportDocument(document)) {
+      throw new DocumentException("Can't open document " + path, failure);
+    }
+  }
+
   private boolean tryImportDocument(Document document) {
     boolean success = false;
     List<Importer> importers = PluginManager.getExtensions(Importer.EXTENSION_POINT_ID, Importer.class);
@@ -346,7 +346,7 @@ public class GanttTreeTableModel extends DefaultTreeTableModel implements TableC
     }
     if (isCellEditable(node, column) && !Objects.equal(value, getValueAt(node, column))) {
       // System.out.println("undoable column: " + column);
-      myUiFacade.getUndoManager().undoableEdit("Change properties column", new Runnable() {
+      myUiFacade.getUndoManager().undoableTaskEdit("Change properties column", new Runnable() {
         @Override
         public void run() {
           setValue(value, node, column);
@@ -19,13 +19,15 @@ along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
 package net.sourceforge.ganttproject;
 
 import net.sourceforge.ganttproject.gui.UIFacade;
+import net.sourceforge.ganttproject.task.event.TaskBatchListener;
+import net.sourceforge.ganttproject.task.event.TaskChangeSet;
 import net.sourceforge.ganttproject.task.event.TaskDependencyEvent;
 import net.sourceforge.ganttproject.task.event.TaskHierarchyEvent;
 import net.sourceforge.ganttproject.task.event.TaskListenerAdapter;
 import net.sourceforge.ganttproject.task.event.TaskPropertyEvent;
 import net.sourceforge.ganttproject.task.event.TaskScheduleEvent;
 
-public class TaskModelModificationListener extends TaskListenerAdapter {
+public class TaskModelModificationListener extends TaskListenerAdapter implements TaskBatchListener {
   private IGanttProject myGanttProject;
   private UIFacade myUiFacade;
 
@@ -37,7 +39,7 @@ public class TaskModelModificationListener extends TaskListenerAdapter {
   @Override
   public void taskScheduleChanged(TaskScheduleEvent e) {
     myGanttProject.setModified();
-    myGanttProject.getTaskManager().getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run();
+    myGanttProject.getTaskManager().getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run(e.getTask());
   }
 
   @Override
@@ -59,14 +61,18 @@ public class TaskModelModificationListener extends TaskListenerAdapter {
   public void taskAdded(TaskHierarchyEvent e) {
     myGanttProject.setModified();
     myUiFacade.setViewIndex(UIFacade.GANTT_INDEX);
-    myGanttProject.getTaskManager().getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run();
+    myGanttProject.getTaskManager().getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run(e.getTask());
     myUiFacade.refresh();
   }
 
   @Override
   public void taskRemoved(TaskHierarchyEvent e) {
     myGanttProject.setModified();
-    myGanttProject.getTaskManager().getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run();
+    if (e.getOldContainer() == null) {
+      myGanttProject.getTaskManager().getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run();
+    } else {
+      myGanttProject.getTaskManager().getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run(e.getOldContainer());
+    }
   }
 
   @Override
@@ -82,6 +88,16 @@ public class TaskModelModificationListener extends TaskListenerAdapter {
   @Override
   public void taskProgressChanged(TaskPropertyEvent e) {
     myGanttProject.setModified();
-    e.getTask().getManager().getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run();
+    e.getTask().getManager().getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run(e.getTask());
+  }
+
+  @Override
+  public void taskChangesCommitted(TaskChangeSet changes) {
+    myGanttProject.setModified();
+    myGanttProject.getTaskManager().getAlgorithmCollection().getRecalculateTaskCompletionPercentageAlgorithm().run();
+    if (!changes.getAddedTasks().isEmpty()) {
+      myUiFacade.setViewIndex(UIFacade.GANTT_INDEX);
+      myUiFacade.refresh();
+    }
   }
 }
@@ -48,7 +48,7 @@ public class AssignmentDeleteAction extends GPAction {
       Choice choice = myUIFacade.showConfirmationDialog(getI18n("msg23") + " " + StringUtils.getDisplayNames(context)
           + "?", getI18n("warning"));
       if (choice == Choice.YES) {
-        myUIFacade.getUndoManager().undoableEdit(getLocalizedDescription(), new Runnable() {
+        myUIFacade.getUndoManager().undoableTaskEdit(getLocalizedDescription(), new Runnable() {
           @Override
           public void run() {
             deleteAssignments(context);
@@ -69,6 +69,17 @@ public interface ChartModel {
 
   void paint(Graphics g);
 
+  /**
+   * Builds the scene for the current bounds, like {@link #paint(Graphics)} does, without painting it.
+   */
+  void buildScene();
+
+  /**
+   * Paints the scene built by the last {@link #buildScene()} call. The same scene may be painted
+   * many times, e.g. into horizontal strips of an exported image.
+   */
+  void paintScene(Graphics g);
+
   void setVerticalOffset(int i);
 
   ChartUIConfiguration getChartUIConfiguration();
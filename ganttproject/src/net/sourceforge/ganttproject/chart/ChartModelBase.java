@@ -363,7 +363,7 @@ public abstract class ChartModelBase implements /* TimeUnitStack.Listener, */Cha
 
   @Override
   public void resetOffsets() {
-    myOffsetManager.reset();
+    myOffsetManager.resetFrames();
   }
 
   @Override
@@ -395,6 +395,7 @@ public abstract class ChartModelBase implements /* TimeUnitStack.Listener, */Cha
       .withAtomicUnitWidth(getBottomUnitWidth())
       .withBottomUnit(getBottomUnit())
       .withCalendar(myTaskManager.getCalendar())
+      .withFrameCache(myOffsetManager.getFrameCache())
       .withRightMargin(myScrollingSession == null ? 0 : 1)
       .withStartDate(getOffsetAnchorDate())
       .withViewportStartDate(getStartDate())
@@ -409,6 +410,12 @@ public abstract class ChartModelBase implements /* TimeUnitStack.Listener, */Cha
 
   @Override
   public void paint(Graphics g) {
+    buildScene();
+    paintScene(g);
+  }
+
+  @Override
+  public void buildScene() {
     int height = (int) getBounds().getHeight();
     for (SceneBuilder renderer : getRenderers()) {
       renderer.reset(height);
@@ -416,6 +423,10 @@ public abstract class ChartModelBase implements /* TimeUnitStack.Listener, */Cha
     for (SceneBuilder renderer : getRenderers()) {
       renderer.build();
     }
+  }
+
+  @Override
+  public void paintScene(Graphics g) {
     myPainter.setGraphics(g);
     for (SceneBuilder renderer : getRenderers()) {
       renderer.getCanvas().paint(myPainter);
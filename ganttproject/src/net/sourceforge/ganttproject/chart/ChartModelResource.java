@@ -50,6 +50,8 @@ public class ChartModelResource extends ChartModelBase {
 
   private final ResourceChart myResourceChart;
 
+  private final ResourceLoadRenderer myResourceLoadRenderer;
+
   private static class ResourceLoadOption extends DefaultColorOption implements GP1XOptionConverter {
     private final String myTagName;
     private final String myAttributeName;
@@ -80,8 +82,8 @@ public class ChartModelResource extends ChartModelBase {
       final UIConfiguration projectConfig, ResourceChart resourceChart) {
     super(taskManager, timeUnitStack, projectConfig);
     myResourceChart = resourceChart;
-    ResourceLoadRenderer resourceLoadRenderer = new ResourceLoadRenderer(this, resourceChart);
-    addRenderer(resourceLoadRenderer);
+    myResourceLoadRenderer = new ResourceLoadRenderer(this, resourceChart);
+    addRenderer(myResourceLoadRenderer);
     myManager = resourceManager;
     {
       myResourceNormalLoadOption = new ResourceLoadOption("resourceChartColors.normalLoad", "colors", "resources") {
@@ -159,8 +161,10 @@ public class ChartModelResource extends ChartModelBase {
 
   @Override
   public ChartModelBase createCopy() {
-    ChartModelBase result = new ChartModelResource(myTaskManager, myManager, myTimeUnitStack, getProjectConfig(),
+    ChartModelResource result = new ChartModelResource(myTaskManager, myManager, myTimeUnitStack, getProjectConfig(),
         myResourceChart);
+    // Copies are used for printing and export which need the actual loads
+    result.myResourceLoadRenderer.setOutdatedLoadAllowed(false);
     super.setupCopy(result);
     return result;
   }
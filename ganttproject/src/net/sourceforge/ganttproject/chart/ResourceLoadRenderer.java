@@ -31,6 +31,7 @@ import biz.ganttproject.core.chart.grid.Offset;
 import biz.ganttproject.core.chart.grid.OffsetLookup;
 import net.sourceforge.ganttproject.resource.HumanResource;
 import net.sourceforge.ganttproject.resource.LoadDistribution;
+import net.sourceforge.ganttproject.resource.LoadDistributionUpdater;
 import net.sourceforge.ganttproject.resource.LoadDistribution.Load;
 import net.sourceforge.ganttproject.task.ResourceAssignment;
 import net.sourceforge.ganttproject.task.Task;
@@ -41,6 +42,9 @@ import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.swing.SwingUtilities;
 
 /**
  * Renders resource load chart
@@ -55,6 +59,11 @@ class ResourceLoadRenderer extends ChartRendererBase {
 
   private final Canvas myTextCanvas;
 
+  private final LoadDistributionUpdater myLoadUpdater = new LoadDistributionUpdater(ForkJoinPool.commonPool(),
+      SwingUtilities::invokeLater);
+
+  private boolean isOutdatedLoadAllowed = true;
+
   public ResourceLoadRenderer(ChartModelResource model, ResourceChart resourceChart) {
     super(model);
     myResourcechart = resourceChart;
@@ -72,9 +81,8 @@ class ResourceLoadRenderer extends ChartRendererBase {
     beforeProcessingTimeFrames();
     int ypos = 0;
     for (LoadDistribution distribution : myDistributions) {
-      List<Load> loads = distribution.getLoads();
-      renderLoads(distribution.getDaysOff(), ypos);
-      renderLoads(loads, ypos);
+      renderLoads(distribution.getDaysOffSteps(), ypos);
+      renderLoads(distribution.getLoadSteps(), ypos);
       if (myResourcechart.isExpanded(distribution.getResource())) {
         renderLoadDetails(distribution, ypos);
         ypos += calculateGap(distribution.getResource());
@@ -107,46 +115,45 @@ class ResourceLoadRenderer extends ChartRendererBase {
   }
 
   /**
-   * Renders the list of loads in a single chart row Preconditions: loads come
-   * from the same distribution and are ordered by their time offsets
+   * Renders the load steps in a single chart row. Every step is rendered as a
+   * rectangle from its start to the start of the next step
    */
-  private void renderLoads(List<Load> loads, int ypos) {
-    Load prevLoad = null;
-    Load curLoad = null;
+  private void renderLoads(LoadDistribution.Steps steps, int ypos) {
     List<Offset> offsets = getDefaultOffsets();
-    String suffix = "";
-    for (int curIndex = 1; curIndex < loads.size(); curIndex++) {
-      curLoad = loads.get(curIndex);
-      prevLoad = loads.get(curIndex - 1);
-      if (prevLoad.load != 0) {
-        renderLoads(prevLoad, curLoad, offsets, ypos, suffix);
+    String suffix = steps.size() > 0 && steps.getLoad(0) > 0 ? ".first" : "";
+    for (int curIndex = 1; curIndex < steps.size(); curIndex++) {
+      float prevLoad = steps.getLoad(curIndex - 1);
+      float curLoad = steps.getLoad(curIndex);
+      if (prevLoad != 0) {
+        renderLoad(steps, curIndex - 1, offsets, ypos, suffix);
         suffix = "";
-      } else if (curLoad.load > 0) {
+      } else if (curLoad > 0) {
         suffix = ".first";
       }
     }
   }
 
   /**
-   * Renders prevLoad, with curLoad serving as a load right border marker and
-   * style hint
+   * Renders the step with the given index, with the next step serving as a
+   * load right border marker and style hint
    */
-  private void renderLoads(Load prevLoad, Load curLoad, List<Offset> offsets, int ypos, String suffix) {
-    final Date prevEnd = curLoad.startDate;
-    final Date prevStart = prevLoad.startDate;
+  private void renderLoad(LoadDistribution.Steps steps, int idx, List<Offset> offsets, int ypos, String suffix) {
+    final Date prevStart = new Date(steps.getStart(idx));
+    final Date prevEnd = new Date(steps.getStart(idx + 1));
+    final float load = steps.getLoad(idx);
 
     Rectangle nextRect = createRectangle(offsets, prevStart, prevEnd, ypos);
     if (nextRect == null) {
       return;
     }
     String style;
-    if (prevLoad.isResourceUnavailable()) {
+    if (steps.isResourceUnavailable(idx)) {
       style = "dayoff";
     } else {
-      suffix += curLoad.load == 0 ? ".last" : "";
-      if (prevLoad.load < 100f) {
+      suffix += steps.getLoad(idx + 1) == 0 ? ".last" : "";
+      if (load < 100f) {
         style = "load.underload";
-      } else if (prevLoad.load > 100f) {
+      } else if (load > 100f) {
         style = "load.overload";
       } else {
         style = "load.normal";
@@ -154,9 +161,9 @@ class ResourceLoadRenderer extends ChartRendererBase {
       style += suffix;
     }
     nextRect.setStyle(style);
-    nextRect.setModelObject(new ResourceLoad(prevLoad.load));
-    if (!prevLoad.isResourceUnavailable()) {
-      createLoadText(nextRect, prevLoad);
+    nextRect.setModelObject(new ResourceLoad(load));
+    if (!steps.isResourceUnavailable(idx)) {
+      createLoadText(nextRect, load);
     }
   }
 
@@ -187,16 +194,16 @@ class ResourceLoadRenderer extends ChartRendererBase {
       style += ".first.last";
       nextRect.setStyle(style);
       nextRect.setModelObject(new ResourceLoad(nextLoad.load));
-      createLoadText(nextRect, nextLoad);
+      createLoadText(nextRect, nextLoad.load);
     }
   }
 
-  private void createLoadText(final Rectangle rect, final Load load) {
+  private void createLoadText(final Rectangle rect, final float load) {
     final Text loadLabel = myTextCanvas.createText(rect.getMiddleX(), rect.getTopY(), "");
     loadLabel.setSelector(new TextSelector() {
       @Override
       public Label[] getLabels(TextMetrics textLengthCalculator) {
-        int loadInt = Math.round(load.load);
+        int loadInt = Math.round(load);
         String loadStr = loadInt + "%";
         int emsLength = textLengthCalculator.getTextLength(loadStr);
         boolean displayLoad = (loadInt != 100 && emsLength <= rect.getWidth());
@@ -229,13 +236,23 @@ class ResourceLoadRenderer extends ChartRendererBase {
   }
 
   public void beforeProcessingTimeFrames() {
-    myDistributions = new ArrayList<LoadDistribution>();
     getPrimitiveContainer().clear();
     HumanResource[] resources = ((ChartModelResource) getChartModel()).getVisibleResources();
-    for (HumanResource resource : resources) {
-      LoadDistribution nextDistribution = resource.getLoadDistribution();
-      myDistributions.add(nextDistribution);
-    }
+    myDistributions = myLoadUpdater.getLoadDistributions(resources, isOutdatedLoadAllowed, new Runnable() {
+      @Override
+      public void run() {
+        myResourcechart.reset();
+      }
+    });
+  }
+
+  /**
+   * If allowed, the chart is rendered with outdated loads of the resources while their new loads are
+   * being calculated in background, and is repainted when the calculation completes. Otherwise rendering
+   * waits for the new loads.
+   */
+  void setOutdatedLoadAllowed(boolean allowed) {
+    isOutdatedLoadAllowed = allowed;
   }
 
   /**
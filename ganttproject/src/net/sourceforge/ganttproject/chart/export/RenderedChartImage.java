@@ -21,6 +21,7 @@ package net.sourceforge.ganttproject.chart.export;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
 import java.awt.image.DirectColorModel;
@@ -30,75 +31,127 @@ import java.awt.image.SampleModel;
 import net.sourceforge.ganttproject.chart.ChartModel;
 import net.sourceforge.ganttproject.chart.SimpleRenderedImage;
 
+/**
+ * Chart image which is rendered in horizontal strips on demand, so that image writers which
+ * pull pixels row by row (like PNG and tiled TIFF writers do) never need the whole image in memory.
+ *
+ * The chart scene is built once and then painted into a single reusable strip buffer, clipped
+ * to the requested strip. The part to the left of the chart (logo and task table) is painted
+ * by {@link TablePainter} into the same strip.
+ */
 public class RenderedChartImage extends SimpleRenderedImage {
-  private BufferedImage myTaskImage;
+  /**
+   * Paints the part of the image which is left to the chart. Graphics is clipped
+   * to the strip being rendered.
+   */
+  public interface TablePainter {
+    void paint(Graphics2D g);
+  }
+
+  // 16M of memory for the strip buffer
+  public static final int DEFAULT_STRIP_PIXELS = 4 * 1024 * 1024;
+  // Strip height is a multiple of this value, which keeps strips aligned with TIFF tiles
+  public static final int STRIP_HEIGHT_UNIT = 16;
+
   ColorModel myColorModel = new DirectColorModel(32, 0x00ff0000, // Red
       0x0000ff00, // Green
       0x000000ff, // Blue
       0x0 // Alpha
   );
   SampleModel mySampleModel;
-  // private final List myVisibleTasks;
   private int myCurrentTile = -1;
   private Raster myCurrentRaster;
+  private BufferedImage myStrip;
+  private boolean isSceneBuilt;
   private final ChartModel myChartModel;
+  private final TablePainter myTablePainter;
+  private final int myTableWidth;
   private final int headerYOffset;
 
-  public RenderedChartImage(ChartModel chartModel, BufferedImage taskImage, int chartWidth, int chartHeight,
+  public RenderedChartImage(ChartModel chartModel, final BufferedImage taskImage, int chartWidth, int chartHeight,
       int headerYOffset) {
+    this(chartModel, new TablePainter() {
+      @Override
+      public void paint(Graphics2D g) {
+        g.drawImage(taskImage, 0, 0, null);
+      }
+    }, taskImage.getWidth(), chartWidth, chartHeight, headerYOffset, DEFAULT_STRIP_PIXELS);
+  }
+
+  public RenderedChartImage(ChartModel chartModel, TablePainter tablePainter, int tableWidth, int chartWidth,
+      int chartHeight, int headerYOffset, int maxStripPixels) {
     myChartModel = chartModel;
-    myTaskImage = taskImage;
+    myTablePainter = tablePainter;
+    myTableWidth = tableWidth;
     sampleModel = myColorModel.createCompatibleSampleModel(chartWidth, chartHeight);
     colorModel = myColorModel;
     minX = 0;
     minY = 0;
-    width = chartWidth + taskImage.getWidth();
+    width = chartWidth + tableWidth;
     height = chartHeight;
     tileWidth = width;
-    tileHeight = 32;
+    tileHeight = getStripHeight(width, height, maxStripPixels);
     this.headerYOffset = headerYOffset;
   }
 
+  static int getStripHeight(int width, int height, int maxStripPixels) {
+    int stripHeight = maxStripPixels / Math.max(1, width);
+    stripHeight -= stripHeight % STRIP_HEIGHT_UNIT;
+    int maxHeight = Math.max(STRIP_HEIGHT_UNIT, height);
+    return Math.max(STRIP_HEIGHT_UNIT, Math.min(stripHeight, maxHeight));
+  }
+
+  /**
+   * @return the whole image in a single buffer. Its memory grows with the chart size,
+   *   so exporters should write this object with image writers instead.
+   */
   public BufferedImage getWholeImage() {
-    BufferedImage chartImage = getChart(0, 0, getWidth(), getHeight(), getWidth(), getHeight());
-    BufferedImage result = new BufferedImage(chartImage.getWidth() + myTaskImage.getWidth(), getHeight(),
-        BufferedImage.TYPE_INT_RGB);
-    Graphics g = result.getGraphics();
-    g.drawImage(myTaskImage, 0, 0, null);
-    g.translate(myTaskImage.getWidth(), 0);
-    g.drawImage(chartImage, 0, 0, null);
-    return result;
+    return new BufferedImage(myColorModel, copyData(null), false, null);
   }
 
   @Override
   public Raster getTile(int tileX, int tileY) {
     if (myCurrentTile != tileY) {
-      int offsety = tileY * getTileHeight() - headerYOffset;
-      BufferedImage tile = getChart(myTaskImage.getWidth(), offsety, getTileWidth(), getTileHeight(), getWidth(),
-          getHeight());
-      Graphics g = tile.getGraphics();
-      g.translate(0, -offsety);
-      g.drawImage(myTaskImage, 0, 0, null);
-      myCurrentRaster = tile.getRaster().createTranslatedChild(0, tileY * getTileHeight());
+      // The strip buffer is reused, so rasters of the previous strips become invalid.
+      // Image writers and SimpleRenderedImage.getData consume each tile before requesting the next one.
+      int offsety = tileY * getTileHeight();
+      paintStrip(offsety);
+      myCurrentRaster = myStrip.getRaster().createTranslatedChild(0, offsety);
       myCurrentTile = tileY;
     }
     return myCurrentRaster;
   }
 
-  protected void paintChart(Graphics g) {
-    myChartModel.paint(g);
+  private void paintStrip(int top) {
+    if (myStrip == null) {
+      myStrip = new BufferedImage(getTileWidth(), getTileHeight(), BufferedImage.TYPE_INT_RGB);
+    }
+    if (!isSceneBuilt) {
+      myChartModel.setBounds(new Dimension(getWidth(), getHeight()));
+      myChartModel.buildScene();
+      isSceneBuilt = true;
+    }
+    int offsety = top - headerYOffset;
+    Graphics2D g = myStrip.createGraphics();
+    try {
+      g.setColor(Color.white);
+      g.fillRect(0, 0, getTileWidth(), getTileHeight());
+
+      Graphics2D tableGraphics = (Graphics2D) g.create();
+      tableGraphics.translate(0, -offsety);
+      tableGraphics.clipRect(0, offsety, myTableWidth, getTileHeight());
+      myTablePainter.paint(tableGraphics);
+      tableGraphics.dispose();
+
+      g.translate(myTableWidth, -offsety);
+      g.clipRect(0, offsety, getTileWidth(), getTileHeight());
+      paintChart(g);
+    } finally {
+      g.dispose();
+    }
   }
 
-  private BufferedImage getChart(int offsetx, int offsety, int width, int height, int chartWidth, int chartHeight) {
-    BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-    Graphics g2 = result.getGraphics();
-    g2.setColor(Color.white);
-    g2.fillRect(0, 0, width, height);
-    g2.translate(offsetx, -offsety);
-    g2.clipRect(0, offsety, width, height);
-    myChartModel.setBounds(new Dimension(chartWidth, chartHeight));
-    paintChart(g2);
-    // myChartModel.setTuningOptions(ChartModelImpl.TuningOptions.DEFAULT);
-    return result;
+  protected void paintChart(Graphics g) {
+    myChartModel.paintScene(g);
   }
-}
\ No newline at end of file
+}
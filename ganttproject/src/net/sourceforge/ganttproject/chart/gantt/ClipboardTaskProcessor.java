@@ -75,14 +75,19 @@ public class ClipboardTaskProcessor {
   private List<Task> pasteAsChild(Task pasteRoot, Task anchor, ClipboardContents clipboardContents) {
     List<Task> result = Lists.newArrayListWithExpectedSize(clipboardContents.getTasks().size());
     Map<Task, Task> original2copy = Maps.newHashMap();
-    for (Task task : clipboardContents.getTasks()) {
-      Task copy = copyAndInsert(task, pasteRoot, anchor, original2copy, clipboardContents);
-      anchor = copy;
-      result.add(copy);
-    }
-    copyDependencies(clipboardContents, original2copy);
-    if (!myTruncateAssignments) {
-      copyAssignments(clipboardContents, original2copy);
+    myTaskManager.beginTransaction();
+    try {
+      for (Task task : clipboardContents.getTasks()) {
+        Task copy = copyAndInsert(task, pasteRoot, anchor, original2copy, clipboardContents);
+        anchor = copy;
+        result.add(copy);
+      }
+      copyDependencies(clipboardContents, original2copy);
+      if (!myTruncateAssignments) {
+        copyAssignments(clipboardContents, original2copy);
+      }
+    } finally {
+      myTaskManager.commitTransaction();
     }
     return result;
   }
@@ -62,7 +62,7 @@ public abstract class ChangeTaskBoundaryInteraction extends MouseInteractionBase
 
   public void finish(final TaskMutator mutator) {
     mutator.setIsolationLevel(TaskMutator.READ_COMMITED);
-    myUiFacade.getUndoManager().undoableEdit("Task boundary changed", new Runnable() {
+    myUiFacade.getUndoManager().undoableTaskEdit("Task boundary changed", new Runnable() {
       @Override
       public void run() {
         doFinish(mutator);
@@ -83,7 +83,7 @@ public class ChangeTaskProgressInteraction extends MouseInteractionBase implemen
   @Override
   public void finish() {
     myMutator.setIsolationLevel(TaskMutator.READ_COMMITED);
-    myUiFacade.getUndoManager().undoableEdit("Task progress changed", new Runnable() {
+    myUiFacade.getUndoManager().undoableTaskEdit("Task progress changed", new Runnable() {
       @Override
       public void run() {
         doFinish(myMutator);
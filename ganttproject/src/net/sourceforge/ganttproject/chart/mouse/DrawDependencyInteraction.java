@@ -87,7 +87,7 @@ public class DrawDependencyInteraction extends MouseInteractionBase implements M
       final Task dependee = myTask;
       if (myDependant != null) {
         if (myDependencyCollection.canCreateDependency(myDependant, dependee)) {
-          myUiFacade.getUndoManager().undoableEdit("Draw dependency", new Runnable() {
+          myUiFacade.getUndoManager().undoableTaskEdit("Draw dependency", new Runnable() {
             @Override
             public void run() {
               try {
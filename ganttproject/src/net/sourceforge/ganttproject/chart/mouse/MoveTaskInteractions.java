@@ -67,7 +67,7 @@ public class MoveTaskInteractions extends MouseInteractionBase implements MouseI
     for (TaskMutator mutator : myMutators) {
       mutator.setIsolationLevel(TaskMutator.READ_COMMITED);
     }
-    myUiFacade.getUndoManager().undoableEdit("Task moved", new Runnable() {
+    myUiFacade.getUndoManager().undoableTaskEdit("Task moved", new Runnable() {
       @Override
       public void run() {
         doFinish();
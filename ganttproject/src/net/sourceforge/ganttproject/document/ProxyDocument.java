@@ -51,6 +51,8 @@ import net.sourceforge.ganttproject.resource.HumanResourceManager;
 import net.sourceforge.ganttproject.roles.RoleManager;
 import net.sourceforge.ganttproject.task.TaskManager;
 import net.sourceforge.ganttproject.task.TaskManagerImpl;
+import net.sourceforge.ganttproject.task.algorithm.DependencyGraph;
+import net.sourceforge.ganttproject.task.dependency.TaskDependency;
 import org.eclipse.core.runtime.IStatus;
 import org.xml.sax.Attributes;
 
@@ -60,6 +62,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.util.Arrays;
 import java.util.Set;
 
 /**
@@ -182,10 +185,17 @@ public class ProxyDocument implements Document {
     // OpenCopyConfirmationState confirmation = new OpenCopyConfirmationState(
     // parsing, failure);
     // AcquireLockState lock = new AcquireLockState(parsing, confirmation);
+    DependencyGraph dependencyGraph = getTaskManager().getDependencyGraph();
     try {
       getTaskManager().setEventsEnabled(false);
+      dependencyGraph.startBulkLoad();
       parsing.enter();
     } finally {
+      // Dependencies making loops could not be rejected while the graph was loading
+      for (TaskDependency loop : dependencyGraph.finishBulkLoad(Arrays.asList(getTaskManager().getTasks()),
+          Arrays.asList(getTaskManager().getDependencyCollection().getDependencies()))) {
+        loop.delete();
+      }
       getTaskManager().setEventsEnabled(true);
     }
     // lock.enter();
@@ -440,6 +450,11 @@ public class ProxyDocument implements Document {
     public PortfolioTagHandler() {
       super(null, false);
     }
+
+    @Override
+    public Set<String> getTagNames() {
+      return TAGS;
+    }
     @Override
     public void startElement(String namespaceURI, String sName, String qName, Attributes attrs)
         throws FileFormatException {
@@ -20,22 +20,39 @@ package net.sourceforge.ganttproject.export;
 
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.converters.FileConverter;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
 import net.sourceforge.ganttproject.GPLogger;
 import net.sourceforge.ganttproject.GanttProject;
 import net.sourceforge.ganttproject.PluginPreferencesImpl;
+import net.sourceforge.ganttproject.document.Document.DocumentException;
 import net.sourceforge.ganttproject.plugins.PluginManager;
 import net.sourceforge.ganttproject.task.Task;
 import org.eclipse.core.runtime.jobs.Job;
 import org.osgi.service.prefs.Preferences;
 import org.w3c.util.DateParser;
 
+import javax.swing.SwingUtilities;
 import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class CommandLineExportApplication {
   public static class Args {
@@ -60,19 +77,110 @@ public class CommandLineExportApplication {
     @Parameter(names = "-expand-tasks", description = "Expand all tasks nodes on the Gantt chart", arity = 1)
     public boolean expandTasks = true;
 
+    @Parameter(names = "-batch", description = "Batch export manifest. Each line is \"<input file> <export format> [<output file>]\", "
+        + "fields are separated with whitespace, paths with whitespace are enclosed in double quotes, "
+        + "relative paths are resolved against the manifest directory", converter = FileConverter.class)
+    public File batchManifest;
+
+    @Parameter(names = "-batch-threads", description = "Number of projects exported concurrently in the batch mode")
+    public Integer batchThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    @Parameter(names = "-batch-timeout", description = "Seconds to wait for export of a single project in the batch mode")
+    public Integer batchTimeout = 600;
+  }
+
+  /**
+   * Line of the batch export manifest
+   */
+  static class BatchEntry {
+    final File inputFile;
+    final String exporter;
+    final File outputFile;
+
+    BatchEntry(File inputFile, String exporter, File outputFile) {
+      this.inputFile = inputFile;
+      this.exporter = exporter;
+      this.outputFile = outputFile;
+    }
+  }
+
+  private static class BatchResult {
+    final BatchEntry entry;
+    final String error;
+    final long openMillis;
+    final long exportMillis;
+
+    BatchResult(BatchEntry entry, String error, long openMillis, long exportMillis) {
+      this.entry = entry;
+      this.error = error;
+      this.openMillis = openMillis;
+      this.exportMillis = exportMillis;
+    }
+  }
+
+  /**
+   * Exports projects of a batch one by one. Each worker has its own project, and hence its own task manager,
+   * and its own exporter instances, because exporters keep the project they export in their state.
+   * Project and exporters are reused for all projects processed by the worker, unless an export times out:
+   * it may still be running and using them, so such worker is abandoned.
+   */
+  private class BatchWorker {
+    private final GanttProject myProject = new GanttProject(false);
+    private final ConsoleUIFacade myConsoleUI = new ConsoleUIFacade(myProject.getUIFacade());
+    private final Map<String, Exporter> myFlag2exporter = createFlag2Exporter(PluginManager.createExporters());
+    private boolean isAbandoned;
+
+    BatchResult export(BatchEntry entry) {
+      Exporter exporter = myFlag2exporter.get(entry.exporter);
+      if (exporter == null) {
+        return new BatchResult(entry, "unknown export format " + entry.exporter, 0, 0);
+      }
+      if (!entry.inputFile.canRead()) {
+        return new BatchResult(entry, "file does not exist or is not readable", 0, 0);
+      }
+      long openStart = System.nanoTime();
+      try {
+        open(myProject, entry.inputFile.getPath());
+      } catch (Exception e) {
+        GPLogger.log(e);
+        return new BatchResult(entry, "failed to open: " + e.getMessage(), 0, 0);
+      }
+      long exportStart = System.nanoTime();
+      File outputFile = entry.outputFile == null ? FileChooserPage.proposeOutputFile(myProject, exporter)
+          : entry.outputFile;
+      String error = null;
+      try {
+        if (!run(myProject, myConsoleUI, exporter, outputFile, myArgs.batchTimeout)) {
+          error = "timed out after " + myArgs.batchTimeout + "s";
+          isAbandoned = true;
+        }
+      } catch (Exception e) {
+        GPLogger.log(e);
+        error = "failed to export: " + e.getMessage();
+      }
+      long exportEnd = System.nanoTime();
+      return new BatchResult(entry, error, TimeUnit.NANOSECONDS.toMillis(exportStart - openStart),
+          TimeUnit.NANOSECONDS.toMillis(exportEnd - exportStart));
+    }
   }
 
-  private final Map<String, Exporter> myFlag2exporter = new HashMap<String, Exporter>();
+  private final Map<String, Exporter> myFlag2exporter;
 
   private final Args myArgs = new Args();
 
   public CommandLineExportApplication() {
-    for (Exporter exporter : PluginManager.getExporters()) {
+    myFlag2exporter = createFlag2Exporter(PluginManager.getExporters());
+  }
+
+  private static Map<String, Exporter> createFlag2Exporter(List<Exporter> exporters) {
+    Map<String, Exporter> result = new HashMap<String, Exporter>();
+    for (Exporter exporter : exporters) {
       List<String> keys = Arrays.asList(exporter.getCommandLineKeys());
       for (String key : keys) {
-        myFlag2exporter.put(key, exporter);
+        result.put(key, exporter);
       }
     }
+    return result;
   }
 
   public Collection<String> getCommandLineFlags() {
@@ -84,6 +192,10 @@ public class CommandLineExportApplication {
   }
 
   public boolean export(GanttProject.Args mainArgs) {
+    if (myArgs.batchManifest != null) {
+      exportBatch();
+      return true;
+    }
     if (myArgs.exporter == null || mainArgs.file == null || mainArgs.file.isEmpty()) {
       return false;
     }
@@ -104,17 +216,205 @@ public class CommandLineExportApplication {
       return true;
     }
 
-    project.openStartupDocument(mainArgs.file.get(0));
-    if (myArgs.expandTasks) {
-      for (Task t : project.getTaskManager().getTasks()) {
-        project.getUIFacade().getTaskTree().setExpanded(t, true);
-      }
+    try {
+      open(project, mainArgs.file.get(0));
+    } catch (Exception e) {
+      consoleUI.showErrorDialog(e);
+      return true;
     }
 
     Job.getJobManager().setProgressProvider(null);
     File outputFile = myArgs.outputFile == null ? FileChooserPage.proposeOutputFile(project, exporter)
         : myArgs.outputFile;
+    try {
+      run(project, consoleUI, exporter, outputFile, 0);
+    } catch (Exception e) {
+      consoleUI.showErrorDialog(e);
+    }
+    return true;
+  }
 
+  private void exportBatch() {
+    List<BatchEntry> entries;
+    try {
+      entries = readManifest(myArgs.batchManifest);
+    } catch (IOException e) {
+      System.err.println("Failed to read batch manifest " + myArgs.batchManifest + ": " + e.getMessage());
+      return;
+    }
+    if (entries.isEmpty()) {
+      System.out.println("[batch] Manifest " + myArgs.batchManifest + " is empty");
+      return;
+    }
+    long batchStart = System.nanoTime();
+    Job.getJobManager().setProgressProvider(null);
+    int workerCount = Math.max(1, Math.min(myArgs.batchThreads, entries.size()));
+    // Projects are created up front, only exports and replacements of the timed out workers run concurrently.
+    // Empty value in the queue means that a replacement could not be created, and the entries which
+    // get it fail
+    final BlockingQueue<Optional<BatchWorker>> workers = new ArrayBlockingQueue<Optional<BatchWorker>>(workerCount);
+    try {
+      for (int i = 0; i < workerCount; i++) {
+        workers.add(Optional.of(createWorker()));
+      }
+    } catch (Exception e) {
+      GPLogger.log(e);
+      System.err.println("[batch] Failed to initialize workers: " + e.getMessage());
+      return;
+    }
+    System.out.println(String.format("[batch] Exporting %d projects using %d workers, initialized in %dms",
+        entries.size(), workerCount, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStart)));
+
+    ExecutorService executor = Executors.newFixedThreadPool(workerCount);
+    List<Future<BatchResult>> futures = Lists.newArrayListWithExpectedSize(entries.size());
+    for (final BatchEntry entry : entries) {
+      futures.add(executor.submit(new Callable<BatchResult>() {
+        @Override
+        public BatchResult call() throws InterruptedException {
+          Optional<BatchWorker> worker = workers.take();
+          if (!worker.isPresent()) {
+            workers.put(worker);
+            return new BatchResult(entry, "no worker available, failed to replace a timed out one", 0, 0);
+          }
+          boolean isCompleted = false;
+          try {
+            BatchResult result = worker.get().export(entry);
+            isCompleted = true;
+            return result;
+          } finally {
+            workers.put(isCompleted && !worker.get().isAbandoned ? worker : replaceWorker());
+          }
+        }
+      }));
+    }
+    executor.shutdown();
+
+    int successCount = 0;
+    for (int i = 0; i < futures.size(); i++) {
+      BatchResult result;
+      try {
+        result = futures.get(i).get();
+      } catch (InterruptedException | ExecutionException e) {
+        GPLogger.log(e);
+        result = new BatchResult(entries.get(i), String.valueOf(e.getMessage()), 0, 0);
+      }
+      if (result.error == null) {
+        successCount++;
+      }
+      System.out.println(String.format("[batch] %-6s %8dms (open %dms, export %dms) %s %s%s",
+          result.error == null ? "OK" : "FAILED", result.openMillis + result.exportMillis, result.openMillis,
+          result.exportMillis, result.entry.exporter, result.entry.inputFile.getPath(),
+          result.error == null ? "" : ": " + result.error));
+    }
+    System.out.println(String.format("[batch] Exported %d of %d projects in %dms", successCount, entries.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStart)));
+  }
+
+  /**
+   * Creates a worker in the Swing thread, because it creates a project frame
+   */
+  private BatchWorker createWorker() throws InterruptedException, InvocationTargetException {
+    final AtomicReference<BatchWorker> result = new AtomicReference<BatchWorker>();
+    SwingUtilities.invokeAndWait(new Runnable() {
+      @Override
+      public void run() {
+        result.set(new BatchWorker());
+      }
+    });
+    return result.get();
+  }
+
+  private Optional<BatchWorker> replaceWorker() {
+    try {
+      return Optional.of(createWorker());
+    } catch (InterruptedException | InvocationTargetException | RuntimeException e) {
+      GPLogger.log(e);
+      return Optional.empty();
+    }
+  }
+
+  static List<BatchEntry> readManifest(File manifest) throws IOException {
+    File baseDir = manifest.getAbsoluteFile().getParentFile();
+    List<BatchEntry> result = Lists.newArrayList();
+    int lineNumber = 0;
+    for (String line : Files.readLines(manifest, Charsets.UTF_8)) {
+      lineNumber++;
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      List<String> fields = splitManifestLine(line);
+      if (fields == null || fields.size() < 2 || fields.size() > 3) {
+        throw new IOException(String.format(
+            "Line %d: expected <input file> <export format> [<output file>], got: %s", lineNumber, line));
+      }
+      result.add(new BatchEntry(resolve(baseDir, fields.get(0)), fields.get(1),
+          fields.size() == 3 ? resolve(baseDir, fields.get(2)) : null));
+    }
+    return result;
+  }
+
+  /**
+   * Splits manifest line into whitespace separated fields. Fields enclosed in double quotes may contain
+   * whitespace.
+   *
+   * @return fields, or null if the line has an unterminated quote
+   */
+  private static List<String> splitManifestLine(String line) {
+    List<String> result = Lists.newArrayList();
+    StringBuilder field = null;
+    boolean isQuoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (c == '"') {
+        if (field == null) {
+          field = new StringBuilder();
+        }
+        isQuoted = !isQuoted;
+      } else if (Character.isWhitespace(c) && !isQuoted) {
+        if (field != null) {
+          result.add(field.toString());
+          field = null;
+        }
+      } else {
+        if (field == null) {
+          field = new StringBuilder();
+        }
+        field.append(c);
+      }
+    }
+    if (isQuoted) {
+      return null;
+    }
+    if (field != null) {
+      result.add(field.toString());
+    }
+    return result;
+  }
+
+  private static File resolve(File baseDir, String path) {
+    File file = new File(path);
+    return file.isAbsolute() ? file : new File(baseDir, path);
+  }
+
+  private void open(GanttProject project, String path) throws DocumentException, InterruptedException {
+    // Failed open must not silently leave an empty or the previous project to export
+    project.openDocumentAndWait(path);
+    if (myArgs.expandTasks) {
+      for (Task t : project.getTaskManager().getTasks()) {
+        project.getUIFacade().getTaskTree().setExpanded(t, true);
+      }
+    }
+  }
+
+  /**
+   * Runs the exporter and waits until it completes.
+   *
+   * @param timeoutSeconds how long to wait, or 0 to wait forever
+   * @return false if export didn't complete in time
+   */
+  private boolean run(GanttProject project, ConsoleUIFacade consoleUI, Exporter exporter, File outputFile,
+      int timeoutSeconds) throws Exception {
     Preferences prefs = new PluginPreferencesImpl(null, "");
     prefs.putInt("zoom", myArgs.zooming);
     prefs.put(
@@ -137,18 +437,17 @@ public class CommandLineExportApplication {
 
     exporter.setContext(project, consoleUI, prefs);
     final CountDownLatch latch = new CountDownLatch(1);
-    try {
-      ExportFinalizationJob finalizationJob = new ExportFinalizationJob() {
-        @Override
-        public void run(File[] exportedFiles) {
-          latch.countDown();
-        }
-      };
-      exporter.run(outputFile, finalizationJob);
+    ExportFinalizationJob finalizationJob = new ExportFinalizationJob() {
+      @Override
+      public void run(File[] exportedFiles) {
+        latch.countDown();
+      }
+    };
+    exporter.run(outputFile, finalizationJob);
+    if (timeoutSeconds <= 0) {
       latch.await();
-    } catch (Exception e) {
-      consoleUI.showErrorDialog(e);
+      return true;
     }
-    return true;
+    return latch.await(timeoutSeconds, TimeUnit.SECONDS);
   }
 }
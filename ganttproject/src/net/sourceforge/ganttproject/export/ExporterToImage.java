@@ -25,9 +25,14 @@ import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
 
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -44,11 +49,13 @@ import net.sourceforge.ganttproject.language.GanttLanguage;
  * @author bard
  */
 public class ExporterToImage extends ExporterBase {
+  private static final int TIFF_TILE_WIDTH = 256;
 
   static class FileTypeOption extends GPAbstractOption<String> implements EnumerationOption {
-    static final String[] FILE_FORMAT_ID = new String[] { "impex.image.fileformat.png", "impex.image.fileformat.jpeg" };
+    static final String[] FILE_FORMAT_ID = new String[] { "impex.image.fileformat.png", "impex.image.fileformat.jpeg",
+        "impex.image.fileformat.tiff" };
 
-    static final String[] FILE_EXTENSION = new String[] { "png", "jpg" };
+    static final String[] FILE_EXTENSION = new String[] { "png", "jpg", "tif" };
 
     // TODO GPAbstractOption already has this field, why add it again?!
     private String myValue = FileTypeOption.FILE_FORMAT_ID[0];
@@ -154,7 +161,7 @@ public class ExporterToImage extends ExporterBase {
         }
         RenderedImage renderedImage = chart.getRenderedImage(createExportSettings());
         try {
-          ImageIO.write(renderedImage, myFileTypeOption.proposeFileExtension(), outputFile);
+          writeImage(renderedImage, getFileExtension(outputFile), outputFile);
         } catch (IOException e) {
           getUIFacade().showErrorDialog(e);
           return Status.CANCEL_STATUS;
@@ -165,6 +172,49 @@ public class ExporterToImage extends ExporterBase {
     return result;
   }
 
+  /**
+   * Writers pull pixels from the rendered image strip by strip, so the whole image is never
+   * kept in memory. TIFF is written with tiles as high as the image strips.
+   */
+  static void writeImage(RenderedImage image, String fileExtension, File outputFile) throws IOException {
+    if (!"tif".equals(fileExtension)) {
+      if (!ImageIO.write(image, fileExtension, outputFile)) {
+        throw new IOException("No image writer found for format=" + fileExtension);
+      }
+      return;
+    }
+    Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("tiff");
+    if (!writers.hasNext()) {
+      throw new IOException("No image writer found for format=" + fileExtension);
+    }
+    ImageWriter writer = writers.next();
+    ImageWriteParam params = writer.getDefaultWriteParam();
+    params.setTilingMode(ImageWriteParam.MODE_EXPLICIT);
+    // TIFF tile sizes must be multiples of 16
+    int tileHeight = Math.max(16, image.getTileHeight() - image.getTileHeight() % 16);
+    params.setTiling(TIFF_TILE_WIDTH, tileHeight, 0, 0);
+    params.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+    params.setCompressionType("Deflate");
+    outputFile.delete();
+    try (ImageOutputStream out = ImageIO.createImageOutputStream(outputFile)) {
+      writer.setOutput(out);
+      writer.write(null, new IIOImage(image, null, null), params);
+    } finally {
+      writer.dispose();
+    }
+  }
+
+  // Command line export chooses this exporter by the output file extension, so we respect it
+  private String getFileExtension(File outputFile) {
+    String name = outputFile.getName().toLowerCase();
+    for (String extension : FileTypeOption.FILE_EXTENSION) {
+      if (name.endsWith("." + extension)) {
+        return extension;
+      }
+    }
+    return myFileTypeOption.proposeFileExtension();
+  }
+
   @Override
   public String proposeFileExtension() {
     return myFileTypeOption.proposeFileExtension();
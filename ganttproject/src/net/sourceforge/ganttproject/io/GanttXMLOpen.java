@@ -32,6 +32,7 @@ import net.sourceforge.ganttproject.parser.ParsingListener;
 import net.sourceforge.ganttproject.parser.TagHandler;
 import net.sourceforge.ganttproject.task.Task;
 import net.sourceforge.ganttproject.task.TaskManager;
+import net.sourceforge.ganttproject.task.algorithm.AlgorithmBase;
 import org.xml.sax.Attributes;
 
 import java.io.BufferedInputStream;
@@ -44,7 +45,7 @@ import java.util.List;
 import java.util.Set;
 
 /**
- * Allows to load a gantt file from xml format, using SAX parser
+ * Allows to load a gantt file from xml format, using StAX parser
  */
 public class GanttXMLOpen implements GPParser {
   /** 0-->description of project, 1->note for task */
@@ -94,9 +95,7 @@ public class GanttXMLOpen implements GPParser {
   }
 
   public boolean doLoad(InputStream inStream) throws IOException {
-    // Use an instance of ourselves as the SAX event handler
-    XmlParser parser = new XmlParser(myTagHandlers, myListeners);
-    parser.parse(inStream);
+    parse(inStream);
     myUIFacade.setViewIndex(viewIndex);
     myUIFacade.setGanttDividerLocation(ganttDividerLocation);
     if (resourceDividerLocation != 0) {
@@ -107,9 +106,8 @@ public class GanttXMLOpen implements GPParser {
   }
 
   public boolean load(File file) {
-    XmlParser parser = new XmlParser(myTagHandlers, myListeners);
     try {
-      parser.parse(new BufferedInputStream(new FileInputStream(file)));
+      parse(new BufferedInputStream(new FileInputStream(file)));
     } catch (Exception e) {
       myUIFacade.showErrorDialog(e);
       return false;
@@ -117,6 +115,23 @@ public class GanttXMLOpen implements GPParser {
     return true;
   }
 
+  /**
+   * Streams the document through the tag handlers. Scheduler is suspended while tasks and dependencies
+   * are being created, and the whole project is scheduled once when parsing completes.
+   */
+  private void parse(InputStream inStream) throws IOException {
+    StaxXmlParser parser = new StaxXmlParser(myTagHandlers, myListeners);
+    AlgorithmBase scheduler = myTaskManager.getAlgorithmCollection().getScheduler();
+    boolean isSchedulerEnabled = scheduler.isEnabled();
+    try {
+      scheduler.setEnabled(false);
+      parser.parse(inStream);
+    } finally {
+      // Enabling the scheduler runs it
+      scheduler.setEnabled(isSchedulerEnabled);
+    }
+  }
+
   @Override
   public void addTagHandler(TagHandler handler) {
     myTagHandlers.add(handler);
@@ -145,6 +160,11 @@ public class GanttXMLOpen implements GPParser {
       super(null, true);
     }
 
+    @Override
+    public Set<String> getTagNames() {
+      return myTags;
+    }
+
     @Override
     public void startElement(String namespaceURI, String sName, String qName, Attributes attrs) {
       clearCdata();
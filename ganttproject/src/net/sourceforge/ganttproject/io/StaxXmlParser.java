@@ -0,0 +1,268 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.io;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import net.sourceforge.ganttproject.GPLogger;
+import net.sourceforge.ganttproject.parser.AbstractTagHandler;
+import net.sourceforge.ganttproject.parser.FileFormatException;
+import net.sourceforge.ganttproject.parser.ParsingListener;
+import net.sourceforge.ganttproject.parser.TagHandler;
+import org.xml.sax.Attributes;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming parser which delegates parsing semantics to TagHandler instances, like {@link XmlParser} does,
+ * but pulls events from StAX reader and dispatches every element only to the handlers which are interested
+ * in its tag.
+ *
+ * Dispatch table is built once from the tag names declared by {@link AbstractTagHandler#getTagNames()}.
+ * Handlers which don't declare tag names receive all elements, and all handlers keep receiving
+ * elements in the order they were registered in.
+ */
+public class StaxXmlParser {
+  private static final TagHandler[] EMPTY = new TagHandler[0];
+  // Handlers only accept text from CDATA sections, and the default StAX implementation
+  // reports them as plain characters unless asked otherwise.
+  private static final String REPORT_CDATA_PROPERTY = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+  private final List<TagHandler> myTagHandlers;
+  private final List<ParsingListener> myListeners;
+  private final Map<String, TagHandler[]> myDispatchTable = Maps.newHashMap();
+  private final TagHandler[] myBroadcastHandlers;
+
+  public StaxXmlParser(List<TagHandler> tagHandlers, List<ParsingListener> listeners) {
+    myTagHandlers = tagHandlers;
+    myListeners = listeners;
+    List<TagHandler> broadcast = Lists.newArrayList();
+    for (TagHandler handler : tagHandlers) {
+      Set<String> tagNames = getTagNames(handler);
+      if (tagNames == null) {
+        broadcast.add(handler);
+      } else {
+        for (String tagName : tagNames) {
+          myDispatchTable.put(tagName, EMPTY);
+        }
+      }
+    }
+    myBroadcastHandlers = broadcast.toArray(EMPTY);
+    for (Map.Entry<String, TagHandler[]> entry : myDispatchTable.entrySet()) {
+      List<TagHandler> handlers = Lists.newArrayList();
+      for (TagHandler handler : tagHandlers) {
+        Set<String> tagNames = getTagNames(handler);
+        if (tagNames == null || tagNames.contains(entry.getKey())) {
+          handlers.add(handler);
+        }
+      }
+      entry.setValue(handlers.toArray(EMPTY));
+    }
+  }
+
+  private static Set<String> getTagNames(TagHandler handler) {
+    return handler instanceof AbstractTagHandler ? ((AbstractTagHandler) handler).getTagNames() : null;
+  }
+
+  TagHandler[] getHandlers(String tagName) {
+    TagHandler[] result = myDispatchTable.get(tagName);
+    return result == null ? myBroadcastHandlers : result;
+  }
+
+  public void parse(InputStream inStream) throws IOException {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+    if (factory.isPropertySupported(REPORT_CDATA_PROPERTY)) {
+      factory.setProperty(REPORT_CDATA_PROPERTY, true);
+    }
+    XMLStreamReader reader = null;
+    try {
+      reader = factory.createXMLStreamReader(inStream);
+      ReaderAttributes attrs = new ReaderAttributes(reader);
+      while (reader.hasNext()) {
+        switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT:
+          startElement(reader.getLocalName(), getQName(reader), attrs);
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          endElement(reader.getLocalName(), getQName(reader));
+          break;
+        case XMLStreamConstants.CDATA:
+          characters(reader.getText());
+          break;
+        case XMLStreamConstants.END_DOCUMENT:
+          for (ParsingListener l : myListeners) {
+            l.parsingFinished();
+          }
+          break;
+        default:
+          break;
+        }
+      }
+    } catch (XMLStreamException e) {
+      if (!GPLogger.log(e)) {
+        e.printStackTrace(System.err);
+      }
+      throw new IOException(e.getMessage());
+    } catch (RuntimeException e) {
+      if (!GPLogger.logToLogger(e)) {
+        e.printStackTrace(System.err);
+      }
+      throw new IOException(e.getMessage());
+    } finally {
+      if (reader != null) {
+        try {
+          reader.close();
+        } catch (XMLStreamException e) {
+          GPLogger.logToLogger(e);
+        }
+      }
+    }
+  }
+
+  private void startElement(String sName, String qName, Attributes attrs) {
+    for (TagHandler next : getHandlers(qName)) {
+      try {
+        next.startElement("", sName, qName, attrs);
+      } catch (FileFormatException e) {
+        System.err.println(e.getMessage());
+      }
+    }
+  }
+
+  private void endElement(String sName, String qName) {
+    for (TagHandler next : getHandlers(qName)) {
+      next.endElement("", sName, qName);
+    }
+  }
+
+  private void characters(String s) {
+    // CDATA is rare in project files and some handlers decide whether they want it
+    // depending on the current tag, so it goes to all handlers.
+    for (TagHandler tagHandler : myTagHandlers) {
+      if (tagHandler.hasCdata()) {
+        tagHandler.appendCdata(s);
+      }
+    }
+  }
+
+  private static String getQName(XMLStreamReader reader) {
+    String prefix = reader.getPrefix();
+    return prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+  }
+
+  /**
+   * SAX attributes view of the current element of StAX reader. Values are read directly
+   * from the reader, so that no attribute copies are created.
+   */
+  private static class ReaderAttributes implements Attributes {
+    private final XMLStreamReader myReader;
+
+    ReaderAttributes(XMLStreamReader reader) {
+      myReader = reader;
+    }
+
+    @Override
+    public int getLength() {
+      return myReader.getAttributeCount();
+    }
+
+    @Override
+    public String getURI(int index) {
+      String uri = myReader.getAttributeNamespace(index);
+      return uri == null ? "" : uri;
+    }
+
+    @Override
+    public String getLocalName(int index) {
+      return myReader.getAttributeLocalName(index);
+    }
+
+    @Override
+    public String getQName(int index) {
+      String prefix = myReader.getAttributePrefix(index);
+      String localName = myReader.getAttributeLocalName(index);
+      return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+    @Override
+    public String getType(int index) {
+      return myReader.getAttributeType(index);
+    }
+
+    @Override
+    public String getValue(int index) {
+      return myReader.getAttributeValue(index);
+    }
+
+    @Override
+    public int getIndex(String uri, String localName) {
+      for (int i = 0; i < getLength(); i++) {
+        if (getURI(i).equals(uri) && getLocalName(i).equals(localName)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    public int getIndex(String qName) {
+      for (int i = 0; i < getLength(); i++) {
+        if (getQName(i).equals(qName)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    public String getType(String uri, String localName) {
+      int index = getIndex(uri, localName);
+      return index < 0 ? null : getType(index);
+    }
+
+    @Override
+    public String getType(String qName) {
+      int index = getIndex(qName);
+      return index < 0 ? null : getType(index);
+    }
+
+    @Override
+    public String getValue(String uri, String localName) {
+      int index = getIndex(uri, localName);
+      return index < 0 ? null : getValue(index);
+    }
+
+    @Override
+    public String getValue(String qName) {
+      int index = getIndex(qName);
+      return index < 0 ? null : getValue(index);
+    }
+  }
+}
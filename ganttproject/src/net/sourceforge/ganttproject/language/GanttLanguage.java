@@ -163,13 +163,15 @@ public class GanttLanguage {
 
   public void setLocale(Locale locale) {
     currentLocale = locale;
-    CalendarFactoryImpl.setLocaleImpl();
     Locale.setDefault(locale);
     int defaultTimezoneOffset = TimeZone.getDefault().getRawOffset() + TimeZone.getDefault().getDSTSavings();
 
     TimeZone utc = TimeZone.getTimeZone("UTC");
     utc.setRawOffset(defaultTimezoneOffset);
     TimeZone.setDefault(utc);
+    // Calendar factory is updated when the time zone is already set, so that its clients
+    // which cache zone settings see the new one
+    CalendarFactoryImpl.setLocaleImpl();
 
     applyDateFormatLocale(getDateFormatLocale(locale));
     InternationalizationKt.setLocale(locale);
@@ -18,10 +18,13 @@ along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
 */
 package net.sourceforge.ganttproject.parser;
 
+import java.util.Set;
+
 import org.xml.sax.Attributes;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * Base class for all tag handlers.
@@ -43,6 +46,15 @@ public abstract class AbstractTagHandler implements TagHandler {
     this(tagName, false);
   }
 
+  /**
+   * @return names of the tags which this handler processes, or {@code null} if it needs to see all tags.
+   *   Handlers which override {@link #startElement(String, String, String, Attributes)} to process several
+   *   tags should override this method too.
+   */
+  public Set<String> getTagNames() {
+    return myTagName == null ? null : ImmutableSet.of(myTagName);
+  }
+
   @Override
   public boolean hasCdata() {
     return myCdataBuffer != null;
@@ -82,6 +82,11 @@ public class HolidayTagHandler extends AbstractTagHandler {
     myAttrs = null;
   }
 
+  @Override
+  public Set<String> getTagNames() {
+    return TAGS;
+  }
+
   /**
    * @see net.sourceforge.ganttproject.parser.TagHandler#endElement(String,
    *      String, String)
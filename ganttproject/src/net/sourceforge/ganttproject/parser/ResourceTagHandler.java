@@ -62,6 +62,11 @@ public class ResourceTagHandler extends AbstractTagHandler implements ParsingLis
     myRoleManager = roleManager;
   }
 
+  @Override
+  public Set<String> getTagNames() {
+    return TAGS;
+  }
+
   /**
    * @see net.sourceforge.ganttproject.parser.TagHandler#endElement(String,
    *      String, String)
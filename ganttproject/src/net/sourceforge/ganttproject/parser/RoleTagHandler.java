@@ -41,6 +41,11 @@ public class RoleTagHandler  extends AbstractTagHandler {
     myRoleManager.clear(); // Cleanup the old stuff
   }
 
+  @Override
+  public Set<String> getTagNames() {
+    return TAGS;
+  }
+
   /**
    * @see net.sourceforge.ganttproject.parser.TagHandler#endElement(String,
    *      String, String)
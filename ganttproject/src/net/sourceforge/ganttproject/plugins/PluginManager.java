@@ -71,9 +71,17 @@ public class PluginManager {
 
   public static List<Exporter> getExporters() {
     if (myExporters == null) {
-      myExporters = getExtensions(EXTENSION_POINT_ID_EXPORTER, Exporter.class);
+      myExporters = createExporters();
     }
     return myExporters;
 
   }
+
+  /**
+   * @return new instances of all exporters, for the clients which need exporters
+   * of their own rather than the shared ones
+   */
+  public static List<Exporter> createExporters() {
+    return getExtensions(EXTENSION_POINT_ID_EXPORTER, Exporter.class);
+  }
 }
@@ -61,6 +61,12 @@ public class HumanResource implements CustomPropertyHolder {
 
   private LoadDistribution myLoadDistribution;
 
+  // Incremented every time the loads are reset
+  private int myLoadVersion;
+
+  // Version of the loads which myLoadDistribution was built from
+  private int myLoadDistributionVersion = -1;
+
   private BigDecimal myStandardPayRate;
 
   private final DefaultListModel<GanttDaysOff> myDaysOffList = new DefaultListModel<>();
@@ -276,16 +282,39 @@ public class HumanResource implements CustomPropertyHolder {
   }
 
   public void resetLoads() {
-    myLoadDistribution = null;
+    myLoadVersion++;
   }
 
   public LoadDistribution getLoadDistribution() {
-    if (myLoadDistribution == null) {
-      myLoadDistribution = new LoadDistribution(this);
+    if (!isLoadDistributionValid()) {
+      setLoadDistribution(new LoadDistribution(this), myLoadVersion);
     }
     return myLoadDistribution;
   }
 
+  /**
+   * @return the most recently built load distribution, which may be outdated, or null if
+   *         it was never built
+   */
+  LoadDistribution getLastLoadDistribution() {
+    return myLoadDistribution;
+  }
+
+  boolean isLoadDistributionValid() {
+    return myLoadDistribution != null && myLoadDistributionVersion == myLoadVersion;
+  }
+
+  int getLoadVersion() {
+    return myLoadVersion;
+  }
+
+  void setLoadDistribution(LoadDistribution distribution, int loadVersion) {
+    if (loadVersion > myLoadDistributionVersion) {
+      myLoadDistribution = distribution;
+      myLoadDistributionVersion = loadVersion;
+    }
+  }
+
   private void fireAssignmentChanged() {
     resetLoads();
     fireAssignmentsChanged();
@@ -299,6 +328,10 @@ public class HumanResource implements CustomPropertyHolder {
 
   public void setStandardPayRate(BigDecimal rate) {
     myStandardPayRate = rate;
+    for (ResourceAssignment assignment : myAssignments) {
+      Task task = assignment.getTask();
+      task.getManager().getAlgorithmCollection().getTaskRollups().invalidate(task);
+    }
   }
 
   public BigDecimal getStandardPayRate() {
@@ -6,9 +6,9 @@
 package net.sourceforge.ganttproject.resource;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -21,7 +21,11 @@ import net.sourceforge.ganttproject.task.Task;
 import net.sourceforge.ganttproject.task.TaskActivity;
 
 /**
- * Represents load of of one particular resource in the given time range
+ * Represents load of of one particular resource in the given time range.
+ *
+ * Loads of all task activities are collected as intervals and turned into a step function
+ * with one sort and one sweep, so building a distribution takes O(n log n) in the number of
+ * activities.
  */
 public class LoadDistribution {
   public static class Load {
@@ -49,119 +53,214 @@ public class LoadDistribution {
     public final Date endDate;
   }
 
-  private final List<Load> myDaysOff = new LinkedList<Load>();
+  /**
+   * Step function of load over time, stored in primitive arrays. Step i starts at
+   * {@link #getStart(int)} and lasts until the start of step i+1; the last step always has zero load.
+   */
+  public static class Steps {
+    private final long[] myStarts;
+    private final float[] myLoads;
 
-  private final List<Load> myLoads = new ArrayList<Load>();
+    Steps(long[] starts, float[] loads) {
+      myStarts = starts;
+      myLoads = loads;
+    }
 
-  private final List<Load> myTasksLoads = new ArrayList<Load>();
+    public int size() {
+      return myStarts.length;
+    }
 
-  private final HumanResource myResource;
+    public long getStart(int idx) {
+      return myStarts[idx];
+    }
 
-  public LoadDistribution(HumanResource resource) {
-    myLoads.add(new Load(null, null, 0, null));
-    myDaysOff.add(new Load(null, null, 0, null));
-    myResource = resource;
-    ResourceAssignment[] assignments = myResource.getAssignments();
-    for (int j = 0; j < assignments.length; j++) {
-      processAssignment(assignments[j]);
-    }
-    processDaysOff(myResource);
-  }
+    public float getLoad(int idx) {
+      return myLoads[idx];
+    }
 
-  private void processDaysOff(HumanResource resource) {
-    DefaultListModel daysOff = resource.getDaysOff();
-    if (daysOff != null) {
-      for (int l = 0; l < daysOff.size(); l++) {
-        processDayOff((GanttDaysOff) daysOff.get(l));
-      }
+    public boolean isResourceUnavailable(int idx) {
+      return myLoads[idx] == -1;
     }
 
+    /**
+     * @return steps as a list of <code>Load</code> objects, starting with the sentinel zero
+     *         load which has no start date
+     */
+    List<Load> toList() {
+      List<Load> result = new ArrayList<Load>(myStarts.length + 1);
+      result.add(new Load(null, null, 0, null));
+      for (int i = 0; i < myStarts.length; i++) {
+        result.add(new Load(new Date(myStarts[i]), null, myLoads[i], null));
+      }
+      return result;
+    }
   }
 
-  private void processDayOff(GanttDaysOff dayOff) {
-    Date dayOffEnd = dayOff.getFinish().getTime();
-    addLoad(dayOff.getStart().getTime(), dayOffEnd, -1, myDaysOff, null);
-  }
+  /**
+   * Collects [start, end) intervals with their loads and builds a step function out of them
+   * in a single sweep over the sorted interval boundaries.
+   */
+  private static class StepsBuilder {
+    private long[] myIntervalStarts = new long[16];
+    private long[] myIntervalEnds = new long[16];
+    private float[] myIntervalLoads = new float[16];
+    private int myCount;
 
-  private void processAssignment(ResourceAssignment assignment) {
-    Task task = assignment.getTask();
-    for (TaskActivity ta : task.getActivities()) {
-      processActivity(ta, assignment.getLoad());
+    void add(long start, long end, float load) {
+      if (myCount == myIntervalStarts.length) {
+        int newLength = myCount * 2;
+        myIntervalStarts = Arrays.copyOf(myIntervalStarts, newLength);
+        myIntervalEnds = Arrays.copyOf(myIntervalEnds, newLength);
+        myIntervalLoads = Arrays.copyOf(myIntervalLoads, newLength);
+      }
+      myIntervalStarts[myCount] = start;
+      myIntervalEnds[myCount] = end;
+      myIntervalLoads[myCount] = load;
+      myCount++;
     }
-  }
 
-  private void processActivity(TaskActivity activity, float load) {
-    if (activity.getIntensity() == 0) {
-      return;
+    /**
+     * @param unavailability if true then the load of every step is -1 when at least one interval
+     *        covers it, rather than a sum of interval loads
+     */
+    Steps build(boolean unavailability) {
+      long[] boundaries = new long[myCount * 2];
+      System.arraycopy(myIntervalStarts, 0, boundaries, 0, myCount);
+      System.arraycopy(myIntervalEnds, 0, boundaries, myCount, myCount);
+      Arrays.sort(boundaries);
+      int size = 0;
+      for (int i = 0; i < boundaries.length; i++) {
+        if (size == 0 || boundaries[size - 1] != boundaries[i]) {
+          boundaries[size++] = boundaries[i];
+        }
+      }
+      boundaries = Arrays.copyOf(boundaries, size);
+
+      double[] loadDeltas = new double[size];
+      int[] countDeltas = new int[size];
+      for (int i = 0; i < myCount; i++) {
+        int startIdx = Arrays.binarySearch(boundaries, myIntervalStarts[i]);
+        int endIdx = Arrays.binarySearch(boundaries, myIntervalEnds[i]);
+        loadDeltas[startIdx] += myIntervalLoads[i];
+        loadDeltas[endIdx] -= myIntervalLoads[i];
+        countDeltas[startIdx]++;
+        countDeltas[endIdx]--;
+      }
+
+      float[] loads = new float[size];
+      double load = 0;
+      int count = 0;
+      for (int i = 0; i < size; i++) {
+        load += loadDeltas[i];
+        count += countDeltas[i];
+        if (count == 0) {
+          // Don't let rounding errors leave a small non-zero load where no interval is active
+          load = 0;
+        }
+        loads[i] = unavailability ? (count > 0 ? -1 : 0) : (float) load;
+      }
+      return new Steps(boundaries, loads);
     }
-    addLoad(activity.getStart(), activity.getEnd(), load, myLoads, activity.getOwner());
   }
 
-  private void addLoad(Date startDate, Date endDate, float load, List<Load> loads, Task t) {
-    Load taskLoad = new Load(startDate, endDate, load, t);
+  /**
+   * Load intervals of a resource captured from its assignments and days off. Building a distribution
+   * from the captured intervals doesn't touch the task model, so it may run on any thread.
+   */
+  static class Input {
+    private final HumanResource myResource;
+    private final StepsBuilder myLoads = new StepsBuilder();
+    private final StepsBuilder myDaysOff = new StepsBuilder();
+    private final List<Load> myTasksLoads = new ArrayList<Load>();
 
-    myTasksLoads.add(taskLoad);
+    Input(HumanResource resource) {
+      myResource = resource;
+      ResourceAssignment[] assignments = resource.getAssignments();
+      for (int j = 0; j < assignments.length; j++) {
+        processAssignment(assignments[j]);
+      }
+      processDaysOff(resource);
+    }
 
-    int idxStart = -1;
-    float currentLoad = 0;
-    if (startDate == null) {
-      idxStart = 0;
-    } else {
-      for (int i = 1; i < loads.size(); i++) {
-        Load nextLoad = loads.get(i);
-        if (startDate.compareTo(nextLoad.startDate) >= 0) {
-          currentLoad = loads.get(i).load;
-        }
-        if (startDate.compareTo(nextLoad.startDate) > 0) {
-          continue;
+    private void processDaysOff(HumanResource resource) {
+      DefaultListModel<GanttDaysOff> daysOff = resource.getDaysOff();
+      if (daysOff != null) {
+        for (int l = 0; l < daysOff.size(); l++) {
+          GanttDaysOff dayOff = daysOff.get(l);
+          Date start = dayOff.getStart().getTime();
+          Date end = dayOff.getFinish().getTime();
+          // Days off are task loads too, with no task and -1 load
+          myTasksLoads.add(new Load(start, end, -1, null));
+          myDaysOff.add(start.getTime(), end.getTime(), -1);
         }
-        idxStart = i;
-        if (startDate.compareTo(nextLoad.startDate) < 0) {
-          loads.add(i, new Load(startDate, null, currentLoad, null));
-        }
-        break;
       }
     }
-    if (idxStart == -1) {
-      idxStart = loads.size();
-      loads.add(new Load(startDate, null, 0, t));
-    }
-    int idxEnd = -1;
-    if (endDate == null) {
-      idxEnd = loads.size() - 1;
-    } else {
-      for (int i = idxStart; i < loads.size(); i++) {
-        Load nextLoad = loads.get(i);
-        if (endDate.compareTo(nextLoad.startDate) > 0) {
-          nextLoad.load += load;
-          continue;
-        }
-        idxEnd = i;
-        if (endDate.compareTo(nextLoad.startDate) < 0) {
-          Load prevLoad = loads.get(i - 1);
-          loads.add(i, new Load(endDate, null, prevLoad.load - load, null));
-        }
-        break;
+
+    private void processAssignment(ResourceAssignment assignment) {
+      Task task = assignment.getTask();
+      for (TaskActivity ta : task.getActivities()) {
+        processActivity(ta, assignment.getLoad());
       }
     }
-    if (idxEnd == -1) {
-      idxEnd = loads.size();
-      loads.add(new Load(endDate, null, 0, t));
+
+    private void processActivity(TaskActivity activity, float load) {
+      if (activity.getIntensity() == 0) {
+        return;
+      }
+      myTasksLoads.add(new Load(activity.getStart(), activity.getEnd(), load, activity.getOwner()));
+      myLoads.add(activity.getStart().getTime(), activity.getEnd().getTime(), load);
     }
   }
 
+  private final Steps myDaysOff;
+
+  private final Steps myLoads;
+
+  private List<Load> myDaysOffList;
+
+  private List<Load> myLoadsList;
+
+  private final List<Load> myTasksLoads;
+
+  private final HumanResource myResource;
+
+  public LoadDistribution(HumanResource resource) {
+    this(new Input(resource));
+  }
+
+  LoadDistribution(Input input) {
+    myResource = input.myResource;
+    myTasksLoads = input.myTasksLoads;
+    myLoads = input.myLoads.build(false);
+    myDaysOff = input.myDaysOff.build(true);
+  }
+
   public HumanResource getResource() {
     return myResource;
   }
 
-  public List<Load> getLoads() {
+  public Steps getLoadSteps() {
     return myLoads;
   }
 
-  public List<Load> getDaysOff() {
+  public Steps getDaysOffSteps() {
     return myDaysOff;
   }
 
+  public List<Load> getLoads() {
+    if (myLoadsList == null) {
+      myLoadsList = myLoads.toList();
+    }
+    return myLoadsList;
+  }
+
+  public List<Load> getDaysOff() {
+    if (myDaysOffList == null) {
+      myDaysOffList = myDaysOff.toList();
+    }
+    return myDaysOffList;
+  }
+
   /**
    * @return a list of lists of <code>Load</code> instances. Each list contains
    *         a set of <code>Load</code>
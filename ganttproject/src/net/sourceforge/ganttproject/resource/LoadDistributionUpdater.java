@@ -0,0 +1,139 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.resource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import com.google.common.collect.Lists;
+
+import net.sourceforge.ganttproject.GPLogger;
+
+/**
+ * Rebuilds invalidated load distributions of many resources in parallel.
+ *
+ * Assignments and days off of the invalidated resources are captured on the calling thread,
+ * so that workers build distributions from a consistent snapshot and never touch the task model.
+ * The capture walks task activities, which are recalculated in place by the task model, and thus
+ * it can't be moved to workers; it only copies activity bounds, sorting and summing runs in workers.
+ * Resources which have never had a distribution are waited for. Resources which have an outdated
+ * distribution may keep showing it while the new one is being built in background; when all the
+ * new distributions are ready they are installed on the result executor (normally the event
+ * dispatch thread) and the caller is notified. If background build fails, the failure is logged and
+ * the same load version is not rebuilt in background again; the outdated distribution is shown until
+ * the loads change.
+ */
+public class LoadDistributionUpdater {
+  private final Executor myWorkerPool;
+  private final Executor myResultExecutor;
+  // Load versions which are being built in background, keyed by resource. Keys are weak
+  // so that deleted resources and resources of closed projects are not kept reachable
+  private final Map<HumanResource, Integer> myPendingVersions = new WeakHashMap<HumanResource, Integer>();
+  // Load versions which failed to build in background, keyed by resource
+  private final Map<HumanResource, Integer> myFailedVersions = new WeakHashMap<HumanResource, Integer>();
+
+  public LoadDistributionUpdater(Executor workerPool, Executor resultExecutor) {
+    myWorkerPool = workerPool;
+    myResultExecutor = resultExecutor;
+  }
+
+  /**
+   * @param resources resources which distributions are requested
+   * @param allowOutdated if true, outdated distributions are returned as is and rebuilt in background,
+   *        otherwise all returned distributions are up to date
+   * @param onUpdate called on the result executor when background rebuild completes
+   * @return distributions of the given resources, in the same order
+   */
+  public List<LoadDistribution> getLoadDistributions(HumanResource[] resources, boolean allowOutdated,
+      final Runnable onUpdate) {
+    List<HumanResource> blocking = Lists.newArrayList();
+    List<CompletableFuture<LoadDistribution>> blockingFutures = Lists.newArrayList();
+    final List<HumanResource> background = Lists.newArrayList();
+    final List<Integer> backgroundVersions = Lists.newArrayList();
+    final List<CompletableFuture<LoadDistribution>> backgroundFutures = Lists.newArrayList();
+
+    for (HumanResource resource : resources) {
+      if (resource.isLoadDistributionValid()) {
+        continue;
+      }
+      int version = resource.getLoadVersion();
+      if (allowOutdated && resource.getLastLoadDistribution() != null) {
+        Integer pendingVersion = myPendingVersions.get(resource);
+        if (pendingVersion != null && pendingVersion == version) {
+          continue;
+        }
+        Integer failedVersion = myFailedVersions.get(resource);
+        if (failedVersion != null && failedVersion == version) {
+          continue;
+        }
+        myPendingVersions.put(resource, version);
+        background.add(resource);
+        backgroundVersions.add(version);
+        backgroundFutures.add(build(resource));
+      } else {
+        blocking.add(resource);
+        blockingFutures.add(build(resource));
+      }
+    }
+
+    for (int i = 0; i < blocking.size(); i++) {
+      HumanResource resource = blocking.get(i);
+      resource.setLoadDistribution(blockingFutures.get(i).join(), resource.getLoadVersion());
+    }
+    if (!background.isEmpty()) {
+      CompletableFuture.allOf(backgroundFutures.toArray(new CompletableFuture<?>[0])).whenCompleteAsync(
+          (ignore, ex) -> {
+            boolean updated = false;
+            for (int i = 0; i < background.size(); i++) {
+              HumanResource resource = background.get(i);
+              Integer version = backgroundVersions.get(i);
+              if (version.equals(myPendingVersions.get(resource))) {
+                myPendingVersions.remove(resource);
+              }
+              try {
+                resource.setLoadDistribution(backgroundFutures.get(i).join(), version);
+                myFailedVersions.remove(resource);
+                updated = true;
+              } catch (CompletionException e) {
+                GPLogger.log(e.getCause());
+                myFailedVersions.put(resource, version);
+              }
+            }
+            if (updated) {
+              onUpdate.run();
+            }
+          }, myResultExecutor);
+    }
+
+    List<LoadDistribution> result = Lists.newArrayListWithExpectedSize(resources.length);
+    for (HumanResource resource : resources) {
+      result.add(resource.getLastLoadDistribution());
+    }
+    return result;
+  }
+
+  CompletableFuture<LoadDistribution> build(HumanResource resource) {
+    final LoadDistribution.Input input = new LoadDistribution.Input(resource);
+    return CompletableFuture.supplyAsync(() -> new LoadDistribution(input), myWorkerPool);
+  }
+}
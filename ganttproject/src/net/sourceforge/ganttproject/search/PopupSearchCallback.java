@@ -36,7 +36,7 @@ import java.util.List;
  * @author dbarashev@bardsoftware.com
  */
 public class PopupSearchCallback implements SearchDialog.SearchCallback {
-  private final Rectangle mySearchBoxPosition;
+  private Rectangle mySearchBoxPosition;
   private final JComponent myInvoker;
   private SearchDialog myDialog;
   private JXList list = new JXList();
@@ -115,6 +115,10 @@ public class PopupSearchCallback implements SearchDialog.SearchCallback {
     selectedValue.getSearchService().select(Collections.singletonList(selectedValue));
   }
 
+  public void setSearchBoxPosition(Rectangle searchBoxPosition) {
+    mySearchBoxPosition = searchBoxPosition;
+  }
+
   public void runSearch(String query) {
     myDialog.runSearch(query, this);
   }
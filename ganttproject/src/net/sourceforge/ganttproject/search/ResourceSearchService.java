@@ -19,6 +19,8 @@ along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
 package net.sourceforge.ganttproject.search;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 import net.sourceforge.ganttproject.IGanttProject;
@@ -34,6 +36,20 @@ public class ResourceSearchService extends SearchServiceBase<ResourceSearchServi
     }
   }
 
+  private static class ResourceIndex extends SearchIndex<HumanResource> {
+    @Override
+    protected String[] getFields(HumanResource hr) {
+      return new String[] { hr.getName() };
+    }
+
+    @Override
+    protected boolean isChanged(HumanResource hr, Document<HumanResource> indexed) {
+      return indexed.getField(0) != hr.getName();
+    }
+  }
+
+  private final ResourceIndex myIndex = new ResourceIndex();
+
   public ResourceSearchService() {
     super(UIFacade.RESOURCES_INDEX);
   }
@@ -41,11 +57,20 @@ public class ResourceSearchService extends SearchServiceBase<ResourceSearchServi
   @Override
   public List<MySearchResult> search(String query) {
     query = query.toLowerCase();
-    List<MySearchResult> results = new ArrayList<>();
-    for (HumanResource hr : getProject().getHumanResourceManager().getResources()) {
-      if (isNotEmptyAndContains(hr.getName(), query)) {
-        results.add(new MySearchResult(hr, this, query, "", ""));
+    myIndex.sync(getProject().getHumanResourceManager().getResources());
+    List<SearchIndex.Document<HumanResource>> docs = myIndex.search(query);
+    // Resources whose name starts with the query go first, the others keep the resource list order
+    final String prefix = query;
+    Collections.sort(docs, new Comparator<SearchIndex.Document<HumanResource>>() {
+      @Override
+      public int compare(SearchIndex.Document<HumanResource> d1, SearchIndex.Document<HumanResource> d2) {
+        int result = Boolean.compare(!d1.fieldStartsWith(0, prefix), !d2.fieldStartsWith(0, prefix));
+        return result == 0 ? Integer.compare(d1.getOrder(), d2.getOrder()) : result;
       }
+    });
+    List<MySearchResult> results = new ArrayList<>(docs.size());
+    for (SearchIndex.Document<HumanResource> doc : docs) {
+      results.add(new MySearchResult(doc.getObject(), this, query, "", ""));
     }
     return results;
   }
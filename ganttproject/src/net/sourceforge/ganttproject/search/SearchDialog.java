@@ -18,6 +18,8 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 package net.sourceforge.ganttproject.search;
 
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import net.sourceforge.ganttproject.IGanttProject;
 import net.sourceforge.ganttproject.gui.UIFacade;
 import net.sourceforge.ganttproject.plugins.PluginManager;
@@ -38,22 +40,29 @@ class SearchDialog {
 
   private final UIFacade myUiFacade;
   private final IGanttProject myProject;
+  // Services keep their search indexes between queries, so we create them once
+  private final List<SearchService<?, ?>> myServices = Lists.newArrayList();
+  // Dialog has no end of life notification, so we use daemon threads which never block the exit
+  private final ExecutorService myExecutor;
 
   SearchDialog(IGanttProject project, UIFacade uiFacade) {
     myProject = project;
     myUiFacade = uiFacade;
+    for (SearchService<?, ?> service : PluginManager.getExtensions(SearchService.EXTENSION_POINT_ID, SearchService.class)) {
+      myServices.add(service);
+    }
+    myExecutor = Executors.newFixedThreadPool(Math.max(1, myServices.size()),
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("search-%d").build());
   }
 
   void runSearch(final String text, final SearchCallback callback) {
-    List<SearchService> services = PluginManager.getExtensions(SearchService.EXTENSION_POINT_ID, SearchService.class);
     final List<Future<List<SearchResult<?>>>> tasks = new ArrayList<Future<List<SearchResult<?>>>>();
-    ExecutorService executor = Executors.newFixedThreadPool(services.size());
-    for (final SearchService<SearchResult<?>, ?> service : services) {
+    for (final SearchService<?, ?> service : myServices) {
       service.init(myProject, myUiFacade);
-      tasks.add(executor.submit(new Callable<List<SearchResult<?>>>() {
+      tasks.add(myExecutor.submit(new Callable<List<SearchResult<?>>>() {
         @Override
         public List<SearchResult<?>> call() throws Exception {
-          List<SearchResult<?>> search = service.search(text);
+          List<SearchResult<?>> search = new ArrayList<SearchResult<?>>(service.search(text));
           return search;
         }
       }));
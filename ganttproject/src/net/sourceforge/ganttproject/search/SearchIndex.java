@@ -0,0 +1,322 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.search;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Substring search index over text fields of search objects.
+ *
+ * Fields are lowercased once, when object is indexed, and split into words, that is, runs of letters and digits.
+ * Every word of the vocabulary keeps the list of documents where it occurs, and word trigrams point to words.
+ * Any run of letters and digits in a query is a substring of some word of a matching document, so the documents
+ * of the words which contain the longest run of the query are the only candidates, and the candidates are
+ * checked with plain substring search. The results are thus exactly the same as substring search over all
+ * objects would return.
+ *
+ * Index is synchronized with the actual objects before each search. Not all changes of the searched properties
+ * are reported with events, so every indexed document keeps the values it was built from, and subclasses
+ * check them against the object, which is much cheaper than lowercasing and searching.
+ *
+ * @param <T> search object type
+ */
+abstract class SearchIndex<T> {
+  // We rebuild the index when there are more garbage than live documents
+  private static final int MIN_GARBAGE_TO_COMPACT = 1024;
+
+  static class Document<T> {
+    private final T myObject;
+    private final String[] myFields;
+    private final String[] myLowerFields;
+    private final long myVersion;
+    private final int mySlot;
+    private int myOrder;
+    private int mySyncStamp;
+    private int mySearchStamp;
+
+    private Document(T object, String[] fields, long version, int slot) {
+      myObject = object;
+      myFields = fields;
+      myVersion = version;
+      mySlot = slot;
+      myLowerFields = new String[fields.length];
+      for (int i = 0; i < fields.length; i++) {
+        myLowerFields[i] = fields[i] == null ? null : fields[i].toLowerCase();
+      }
+    }
+
+    T getObject() {
+      return myObject;
+    }
+
+    String getField(int idx) {
+      return myFields[idx];
+    }
+
+    long getVersion() {
+      return myVersion;
+    }
+
+    int getFieldCount() {
+      return myFields.length;
+    }
+
+    boolean fieldContains(int idx, String lowerQuery) {
+      return idx < myLowerFields.length && myLowerFields[idx] != null && myLowerFields[idx].contains(lowerQuery);
+    }
+
+    boolean fieldStartsWith(int idx, String lowerQuery) {
+      return idx < myLowerFields.length && myLowerFields[idx] != null && myLowerFields[idx].startsWith(lowerQuery);
+    }
+
+    /**
+     * @return position of the object in the collection it was synchronized with the last time
+     */
+    int getOrder() {
+      return myOrder;
+    }
+
+    private boolean contains(String lowerQuery) {
+      for (String field : myLowerFields) {
+        if (field != null && field.contains(lowerQuery)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static class Word {
+    private final String myText;
+    private int[] mySlots = new int[2];
+    private int mySize;
+
+    Word(String text) {
+      myText = text;
+    }
+
+    void addSlot(int slot) {
+      // Documents are indexed one by one, so repeated occurrences come in a row
+      if (mySize > 0 && mySlots[mySize - 1] == slot) {
+        return;
+      }
+      if (mySize == mySlots.length) {
+        int[] slots = new int[mySize * 2];
+        System.arraycopy(mySlots, 0, slots, 0, mySize);
+        mySlots = slots;
+      }
+      mySlots[mySize++] = slot;
+    }
+  }
+
+  // Documents by slot. Slots of removed and outdated documents are null and are not reused
+  // until the index is rebuilt, because word posting lists may still refer to them.
+  private final List<Document<T>> myDocuments = Lists.newArrayList();
+  private final Map<T, Document<T>> myObject2document = Maps.newIdentityHashMap();
+  private final Map<String, Word> myVocabulary = Maps.newHashMap();
+  private final Map<Long, List<Word>> myTrigram2words = Maps.newHashMap();
+  private int mySyncStamp;
+  private int mySearchStamp;
+
+  /**
+   * @return values of the searchable fields of the object, nulls are allowed
+   */
+  protected abstract String[] getFields(T object);
+
+  /**
+   * @return true if searchable fields of the object may differ from the indexed ones. It is called
+   * for every object before every search, so it should be cheap.
+   */
+  protected abstract boolean isChanged(T object, Document<T> indexed);
+
+  /**
+   * @return additional version of the object values, which is not available from the fields themselves
+   */
+  protected long getVersion(T object) {
+    return 0;
+  }
+
+  /**
+   * Brings the index in sync with the given objects: indexes new and changed objects and
+   * removes the objects which are not in the collection.
+   */
+  synchronized void sync(Collection<T> objects) {
+    if (myDocuments.size() - myObject2document.size() > Math.max(MIN_GARBAGE_TO_COMPACT, myObject2document.size())) {
+      clear();
+    }
+    mySyncStamp++;
+    int order = 0;
+    for (T object : objects) {
+      Document<T> doc = myObject2document.get(object);
+      if (doc == null || isChanged(object, doc)) {
+        if (doc != null) {
+          myDocuments.set(doc.mySlot, null);
+        }
+        doc = index(object);
+      }
+      doc.mySyncStamp = mySyncStamp;
+      doc.myOrder = order++;
+    }
+    if (myObject2document.size() > order) {
+      for (int slot = 0; slot < myDocuments.size(); slot++) {
+        Document<T> doc = myDocuments.get(slot);
+        if (doc != null && doc.mySyncStamp != mySyncStamp) {
+          myDocuments.set(slot, null);
+          myObject2document.remove(doc.myObject);
+        }
+      }
+    }
+  }
+
+  synchronized void clear() {
+    myDocuments.clear();
+    myObject2document.clear();
+    myVocabulary.clear();
+    myTrigram2words.clear();
+  }
+
+  synchronized int size() {
+    return myObject2document.size();
+  }
+
+  /**
+   * @return documents where some field contains the query, in no particular order
+   */
+  synchronized List<Document<T>> search(String lowerQuery) {
+    if (lowerQuery.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<Document<T>> result = Lists.newArrayList();
+    String run = getLongestWordRun(lowerQuery);
+    if (run == null) {
+      for (Document<T> doc : myObject2document.values()) {
+        if (doc.contains(lowerQuery)) {
+          result.add(doc);
+        }
+      }
+      return result;
+    }
+    mySearchStamp++;
+    for (Word word : getWordCandidates(run)) {
+      if (!word.myText.contains(run)) {
+        continue;
+      }
+      for (int i = 0; i < word.mySize; i++) {
+        Document<T> doc = myDocuments.get(word.mySlots[i]);
+        if (doc == null || doc.mySearchStamp == mySearchStamp) {
+          continue;
+        }
+        doc.mySearchStamp = mySearchStamp;
+        if (doc.contains(lowerQuery)) {
+          result.add(doc);
+        }
+      }
+    }
+    return result;
+  }
+
+  private Collection<Word> getWordCandidates(String run) {
+    if (run.length() < 3) {
+      return myVocabulary.values();
+    }
+    List<Word> result = null;
+    for (int i = 0; i + 3 <= run.length(); i++) {
+      List<Word> words = myTrigram2words.get(getTrigram(run, i));
+      if (words == null) {
+        return Collections.emptyList();
+      }
+      if (result == null || words.size() < result.size()) {
+        result = words;
+      }
+    }
+    return result;
+  }
+
+  private Document<T> index(T object) {
+    Document<T> doc = new Document<T>(object, getFields(object), getVersion(object), myDocuments.size());
+    myDocuments.add(doc);
+    myObject2document.put(object, doc);
+    for (String field : doc.myLowerFields) {
+      if (field == null) {
+        continue;
+      }
+      int start = -1;
+      for (int i = 0; i <= field.length(); i++) {
+        boolean isWordChar = i < field.length() && Character.isLetterOrDigit(field.charAt(i));
+        if (isWordChar && start < 0) {
+          start = i;
+        } else if (!isWordChar && start >= 0) {
+          getWord(field.substring(start, i)).addSlot(doc.mySlot);
+          start = -1;
+        }
+      }
+    }
+    return doc;
+  }
+
+  private Word getWord(String text) {
+    Word word = myVocabulary.get(text);
+    if (word == null) {
+      word = new Word(text);
+      myVocabulary.put(text, word);
+      for (int i = 0; i + 3 <= text.length(); i++) {
+        Long trigram = getTrigram(text, i);
+        List<Word> words = myTrigram2words.get(trigram);
+        if (words == null) {
+          words = Lists.newArrayListWithExpectedSize(2);
+          myTrigram2words.put(trigram, words);
+        }
+        // The same trigram may occur more than once in a word
+        if (words.isEmpty() || words.get(words.size() - 1) != word) {
+          words.add(word);
+        }
+      }
+    }
+    return word;
+  }
+
+  private static long getTrigram(String text, int start) {
+    return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+  }
+
+  static String getLongestWordRun(String text) {
+    int bestStart = -1;
+    int bestLength = 0;
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean isWordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (isWordChar && start < 0) {
+        start = i;
+      } else if (!isWordChar && start >= 0) {
+        if (i - start > bestLength) {
+          bestStart = start;
+          bestLength = i - start;
+        }
+        start = -1;
+      }
+    }
+    return bestStart < 0 ? null : text.substring(bestStart, bestStart + bestLength);
+  }
+}
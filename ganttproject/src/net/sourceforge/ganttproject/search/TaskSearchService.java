@@ -19,22 +19,84 @@ along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
 package net.sourceforge.ganttproject.search;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import net.sourceforge.ganttproject.CustomProperty;
+import net.sourceforge.ganttproject.CustomPropertyListener;
 
 import net.sourceforge.ganttproject.IGanttProject;
 import net.sourceforge.ganttproject.gui.UIFacade;
 import net.sourceforge.ganttproject.language.GanttLanguage;
+import net.sourceforge.ganttproject.task.CustomPropertyEvent;
 import net.sourceforge.ganttproject.task.Task;
+import net.sourceforge.ganttproject.task.TaskManager;
+import net.sourceforge.ganttproject.task.event.TaskListenerAdapter;
 
 /** Search service for tasks */
 public class TaskSearchService extends SearchServiceBase<TaskSearchService.MySearchResult, Task> {
   static class MySearchResult extends SearchResult<Task> {
-    MySearchResult(Task t, TaskSearchService searchService, String query, String snippet, String snippetText) {
+    private final int myRank;
+    private final int myOrder;
+
+    MySearchResult(Task t, TaskSearchService searchService, String query, String snippet, String snippetText, int rank, int order) {
       super(t.getTaskID(), GanttLanguage.getInstance().getText("generic.task"), t.getName(), query, snippet, snippetText, t, searchService);
+      myRank = rank;
+      myOrder = order;
     }
   }
 
+  private static final Comparator<MySearchResult> RANK_COMPARATOR = new Comparator<MySearchResult>() {
+    @Override
+    public int compare(MySearchResult r1, MySearchResult r2) {
+      int result = Integer.compare(r1.myRank, r2.myRank);
+      return result == 0 ? Integer.compare(r1.myOrder, r2.myOrder) : result;
+    }
+  };
+
+  private static final int NAME_FIELD = 0;
+  private static final int NOTES_FIELD = 1;
+  private static final int ID_FIELD = 2;
+  private static final int FIRST_CUSTOM_FIELD = 3;
+
+  // Results with lower rank are shown first. The best are tasks whose name starts with the query
+  // or whose ID is equal to the query
+  private static final int RANK_NAME_PREFIX = 0;
+  private static final int RANK_NAME = 1;
+  private static final int RANK_ID = 2;
+  private static final int RANK_CUSTOM_PROPERTY = 3;
+  private static final int RANK_NOTES = 4;
+
+  private static class TaskIndex extends SearchIndex<Task> {
+    @Override
+    protected String[] getFields(Task t) {
+      List<CustomProperty> customProperties = t.getCustomValues().getCustomProperties();
+      String[] result = new String[FIRST_CUSTOM_FIELD + customProperties.size()];
+      result[NAME_FIELD] = t.getName();
+      result[NOTES_FIELD] = t.getNotes();
+      result[ID_FIELD] = String.valueOf(t.getTaskID());
+      for (int i = 0; i < customProperties.size(); i++) {
+        result[FIRST_CUSTOM_FIELD + i] = customProperties.get(i).getValueAsString();
+      }
+      return result;
+    }
+
+    @Override
+    protected long getVersion(Task t) {
+      return t.getCustomValues().getModificationCount();
+    }
+
+    @Override
+    protected boolean isChanged(Task t, Document<Task> indexed) {
+      return indexed.getField(NAME_FIELD) != t.getName() || indexed.getField(NOTES_FIELD) != t.getNotes()
+          || indexed.getVersion() != getVersion(t);
+    }
+  }
+
+  private final TaskIndex myIndex = new TaskIndex();
+  private TaskManager myIndexedTaskManager;
+
   public TaskSearchService() {
     super(UIFacade.GANTT_INDEX);
   }
@@ -42,42 +104,72 @@ public class TaskSearchService extends SearchServiceBase<TaskSearchService.MySea
   @Override
   public List<MySearchResult> search(String query) {
     query = query.toLowerCase();
+    myIndex.sync(Arrays.asList(getProject().getTaskManager().getTasks()));
     List<MySearchResult> results = new ArrayList<>();
-    for (Task t : getProject().getTaskManager().getTasks()) {
+    for (SearchIndex.Document<Task> doc : myIndex.search(query)) {
+      Task t = doc.getObject();
       String snippet = "";
       String snippetText = "";
-      boolean matched = false;
-      if (isNotEmptyAndContains(t.getName(), query)) {
-        matched = true;
-      }
-      for (CustomProperty c : t.getCustomValues().getCustomProperties()) {
-        if (isNotEmptyAndContains(c.getValueAsString(), query)) {
-          matched = true;
-          snippet = c.getDefinition().getName();
-          snippetText = c.getValueAsString();
-          break;
-        }
-      }
-      if (isNotEmptyAndContains(t.getNotes(), query)) {
-        matched = true;
-        snippet = GanttLanguage.getInstance().getText("notes");
-        snippetText = t.getNotes();
-      }
-      if (isNotEmptyAndContains(String.valueOf(t.getTaskID()), query)) {
-        matched = true;
+      if (doc.fieldContains(ID_FIELD, query)) {
         snippet = GanttLanguage.getInstance().getText("id");
         snippetText = String.valueOf(t.getTaskID());
+      } else if (doc.fieldContains(NOTES_FIELD, query)) {
+        snippet = GanttLanguage.getInstance().getText("notes");
+        snippetText = t.getNotes();
+      } else {
+        for (CustomProperty c : t.getCustomValues().getCustomProperties()) {
+          if (isNotEmptyAndContains(c.getValueAsString(), query)) {
+            snippet = c.getDefinition().getName();
+            snippetText = c.getValueAsString();
+            break;
+          }
+        }
       }
-      if (matched) {
-        results.add(new MySearchResult(t, this, query, snippet, snippetText));
-      }
+      results.add(new MySearchResult(t, this, query, snippet, snippetText, getRank(doc, query), doc.getOrder()));
     }
+    Collections.sort(results, RANK_COMPARATOR);
     return results;
   }
 
+  private static int getRank(SearchIndex.Document<Task> doc, String query) {
+    if (doc.fieldStartsWith(NAME_FIELD, query) || doc.getField(ID_FIELD).equals(query)) {
+      return RANK_NAME_PREFIX;
+    }
+    if (doc.fieldContains(NAME_FIELD, query)) {
+      return RANK_NAME;
+    }
+    if (doc.fieldContains(ID_FIELD, query)) {
+      return RANK_ID;
+    }
+    for (int i = FIRST_CUSTOM_FIELD; i < doc.getFieldCount(); i++) {
+      if (doc.fieldContains(i, query)) {
+        return RANK_CUSTOM_PROPERTY;
+      }
+    }
+    return RANK_NOTES;
+  }
+
   @Override
   public void init(IGanttProject project, UIFacade uiFacade) {
     super.init(project, uiFacade.getTaskTree(), uiFacade);
+    TaskManager taskManager = project.getTaskManager();
+    if (taskManager != myIndexedTaskManager) {
+      myIndexedTaskManager = taskManager;
+      myIndex.clear();
+      taskManager.addTaskListener(new TaskListenerAdapter() {
+        @Override
+        public void taskModelReset() {
+          myIndex.clear();
+        }
+      });
+      // Values of removed or changed properties are not reported per task
+      taskManager.getCustomPropertyManager().addListener(new CustomPropertyListener() {
+        @Override
+        public void customPropertyChange(CustomPropertyEvent event) {
+          myIndex.clear();
+        }
+      });
+    }
   }
 
 }
@@ -44,6 +44,7 @@ public class CustomColumnsValues implements CustomPropertyHolder, Cloneable {
    */
   private final Map<String, Object> mapCustomColumnValue = new HashMap<String, Object>();
   private final CustomPropertyManager myManager;
+  private int myModificationCount;
 
   /**
    * Creates an instance of CustomColumnsValues.
@@ -55,6 +56,7 @@ public class CustomColumnsValues implements CustomPropertyHolder, Cloneable {
   public void setValue(CustomPropertyDefinition def, Object value) throws CustomColumnsException {
     if (value == null) {
       mapCustomColumnValue.remove(def.getID());
+      myModificationCount++;
       return;
     }
     Class<?> c1 = def.getType();
@@ -64,6 +66,7 @@ public class CustomColumnsValues implements CustomPropertyHolder, Cloneable {
           + ". value class=" + c2 + ", column class=" + c1);
     }
     mapCustomColumnValue.put(def.getID(), value);
+    myModificationCount++;
   }
 
   public Object getValue(CustomPropertyDefinition def) {
@@ -77,6 +80,14 @@ public class CustomColumnsValues implements CustomPropertyHolder, Cloneable {
 
   public void removeCustomColumn(CustomPropertyDefinition definition) {
     mapCustomColumnValue.remove(definition.getID());
+    myModificationCount++;
+  }
+
+  /**
+   * @return counter which changes whenever values are set or removed
+   */
+  public int getModificationCount() {
+    return myModificationCount;
   }
 
   @Override
@@ -21,7 +21,6 @@ package net.sourceforge.ganttproject.task;
 import java.util.Date;
 import java.util.List;
 
-import biz.ganttproject.core.calendar.GPCalendarActivity;
 import biz.ganttproject.core.calendar.GPCalendarCalc;
 
 
@@ -33,19 +32,14 @@ public class TaskActivitiesAlgorithm {
   }
 
   public void recalculateActivities(Task task, List<TaskActivity> output, Date startDate, Date endDate) {
+    createActivities(task, TaskActivityCache.createSpans(myCalendar, task.getManager(),
+        task.getDuration().getTimeUnit(), startDate, endDate), output);
+  }
+
+  static void createActivities(Task task, List<TaskActivityCache.Span> spans, List<TaskActivity> output) {
     output.clear();
-    List<GPCalendarActivity> activities = myCalendar.getActivities(startDate, endDate);
-    for (int i = 0; i < activities.size(); i++) {
-      GPCalendarActivity activity = activities.get(i);
-      TaskActivity nextTaskActivity;
-      if (activity.isWorkingTime()) {
-        nextTaskActivity = new TaskActivityImpl(task, activity.getStart(), activity.getEnd());
-      } else if (i > 0 && i + 1 < activities.size()) {
-        nextTaskActivity = new TaskActivityImpl(task, activity.getStart(), activity.getEnd(), 0);
-      } else {
-        continue;
-      }
-      output.add(nextTaskActivity);
+    for (TaskActivityCache.Span span : spans) {
+      output.add(new TaskActivityImpl(task, span));
     }
   }
 }
@@ -0,0 +1,156 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.task;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+
+import biz.ganttproject.core.calendar.GPCalendarActivity;
+import biz.ganttproject.core.calendar.GPCalendarCalc;
+import biz.ganttproject.core.calendar.GPCalendarListener;
+import biz.ganttproject.core.time.TimeDuration;
+import biz.ganttproject.core.time.TimeUnit;
+
+/**
+ * Caches the results of the calendar walk which splits a task span into working and non-working
+ * activities. Spans are identified by start and end dates and the time unit of activity durations, so
+ * tasks with identical spans share the same immutable list of {@link Span} objects, and so do repeated
+ * recalculations of the same span, e.g. when task is dragged back and forth. Spans keep their bounds
+ * as milliseconds, so every activity created from a span gets its own dates.
+ *
+ * Activities depend on the calendar, so the cache is cleared when calendar changes. It happens
+ * when task manager receives calendar change event and when calendar which we subscribed to
+ * ourselves notifies us, whichever comes first. We stay subscribed only to the latest calendar.
+ */
+class TaskActivityCache {
+  // Drags and imports may produce many distinct spans, we just start over when we reach this size
+  private static final int MAX_SPAN_COUNT = 20000;
+
+  /**
+   * Owner-independent part of a task activity
+   */
+  static class Span {
+    final long start;
+    final long end;
+    final float intensity;
+    final TimeDuration duration;
+
+    Span(Date start, Date end, float intensity, TimeDuration duration) {
+      this.start = start.getTime();
+      this.end = end.getTime();
+      this.intensity = intensity;
+      this.duration = duration;
+    }
+  }
+
+  private static class Key {
+    private final long myStart;
+    private final long myEnd;
+    private final TimeUnit myUnit;
+
+    Key(Date start, Date end, TimeUnit unit) {
+      myStart = start.getTime();
+      myEnd = end.getTime();
+      myUnit = unit;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) obj;
+      return myStart == that.myStart && myEnd == that.myEnd && Objects.equal(myUnit, that.myUnit);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(myStart, myEnd, myUnit);
+    }
+  }
+
+  private final TaskManager myTaskManager;
+  private final Map<Key, List<Span>> mySpans = Maps.newHashMap();
+  private GPCalendarCalc myCalendar;
+  private final GPCalendarListener myCalendarListener = new GPCalendarListener() {
+    @Override
+    public void onCalendarChange() {
+      onCalendarChanged();
+    }
+  };
+
+  TaskActivityCache(TaskManager taskManager) {
+    myTaskManager = taskManager;
+  }
+
+  synchronized List<Span> getSpans(GPCalendarCalc calendar, TimeUnit unit, Date startDate, Date endDate) {
+    if (calendar != myCalendar) {
+      mySpans.clear();
+      if (myCalendar != null) {
+        myCalendar.removeListener(myCalendarListener);
+      }
+      myCalendar = calendar;
+      calendar.addListener(myCalendarListener);
+    }
+    Key key = new Key(startDate, endDate, unit);
+    List<Span> result = mySpans.get(key);
+    if (result == null) {
+      if (mySpans.size() >= MAX_SPAN_COUNT) {
+        mySpans.clear();
+      }
+      result = createSpans(calendar, myTaskManager, unit, startDate, endDate);
+      mySpans.put(key, result);
+    }
+    return result;
+  }
+
+  synchronized void onCalendarChanged() {
+    mySpans.clear();
+  }
+
+  synchronized int size() {
+    return mySpans.size();
+  }
+
+  static List<Span> createSpans(GPCalendarCalc calendar, TaskManager taskManager, TimeUnit unit, Date startDate,
+      Date endDate) {
+    ImmutableList.Builder<Span> result = ImmutableList.builder();
+    List<GPCalendarActivity> activities = calendar.getActivities(startDate, endDate);
+    for (int i = 0; i < activities.size(); i++) {
+      GPCalendarActivity activity = activities.get(i);
+      float intensity;
+      if (activity.isWorkingTime()) {
+        intensity = 1.0f;
+      } else if (i > 0 && i + 1 < activities.size()) {
+        intensity = 0;
+      } else {
+        // Non-working time at the edges is not a part of the task
+        continue;
+      }
+      result.add(new Span(activity.getStart(), activity.getEnd(), intensity,
+          taskManager.createLength(unit, activity.getStart(), activity.getEnd())));
+    }
+    return result.build();
+  }
+}
@@ -36,6 +36,14 @@ class TaskActivityImpl implements TaskActivity {
     myTask = task;
   }
 
+  TaskActivityImpl(Task task, TaskActivityCache.Span span) {
+    myStartDate = new Date(span.start);
+    myEndDate = new Date(span.end);
+    myDuration = span.duration;
+    myIntensity = span.intensity;
+    myTask = task;
+  }
+
   public Date getStart() {
     return myStartDate;
   }
@@ -0,0 +1,95 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.task;
+
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+
+import net.sourceforge.ganttproject.task.dependency.TaskDependency;
+import net.sourceforge.ganttproject.task.event.TaskChangeSet;
+
+/**
+ * Collects task model changes made in a task manager transaction and consolidates them
+ * into a {@link TaskChangeSet}.
+ */
+class TaskChangeCollector {
+  private final Set<Task> myAddedTasks = Sets.newLinkedHashSet();
+  private final Set<Task> myRemovedTasks = Sets.newLinkedHashSet();
+  private final Set<Task> myChangedTasks = Sets.newLinkedHashSet();
+  private final Set<TaskDependency> myAddedDependencies = Sets.newLinkedHashSet();
+  private final Set<TaskDependency> myRemovedDependencies = Sets.newLinkedHashSet();
+  private final Set<TaskDependency> myChangedDependencies = Sets.newLinkedHashSet();
+  private boolean isModelReset;
+
+  void taskAdded(Task task) {
+    // Task which was removed and then added back has just changed
+    if (myRemovedTasks.remove(task)) {
+      myChangedTasks.add(task);
+    } else {
+      // New tasks may be changed while they are being built, before they are reported as added
+      myChangedTasks.remove(task);
+      myAddedTasks.add(task);
+    }
+  }
+
+  void taskRemoved(Task task) {
+    myChangedTasks.remove(task);
+    if (!myAddedTasks.remove(task)) {
+      myRemovedTasks.add(task);
+    }
+  }
+
+  void taskChanged(Task task) {
+    if (!myAddedTasks.contains(task) && !myRemovedTasks.contains(task)) {
+      myChangedTasks.add(task);
+    }
+  }
+
+  void dependencyAdded(TaskDependency dep) {
+    if (myRemovedDependencies.remove(dep)) {
+      myChangedDependencies.add(dep);
+    } else {
+      myChangedDependencies.remove(dep);
+      myAddedDependencies.add(dep);
+    }
+  }
+
+  void dependencyRemoved(TaskDependency dep) {
+    myChangedDependencies.remove(dep);
+    if (!myAddedDependencies.remove(dep)) {
+      myRemovedDependencies.add(dep);
+    }
+  }
+
+  void dependencyChanged(TaskDependency dep) {
+    if (!myAddedDependencies.contains(dep) && !myRemovedDependencies.contains(dep)) {
+      myChangedDependencies.add(dep);
+    }
+  }
+
+  void modelReset() {
+    isModelReset = true;
+  }
+
+  TaskChangeSet build() {
+    return new TaskChangeSet(myAddedTasks, myRemovedTasks, myChangedTasks, myAddedDependencies,
+        myRemovedDependencies, myChangedDependencies, isModelReset);
+  }
+}
@@ -86,7 +86,8 @@ public class TaskImpl implements Task {
 
   private GanttCalendar myStart;
 
-  private GanttCalendar myEnd;
+  // End date is lazily calculated and may be requested from scheduler worker threads
+  private volatile GanttCalendar myEnd;
 
   private GanttCalendar myThird;
 
@@ -483,14 +484,13 @@ public class TaskImpl implements Task {
     return container.getTask();
   }
 
+  TaskHierarchyItem getHierarchyItem() {
+    return myTaskHierarchyItem;
+  }
+
   @Override
   public Task[] getNestedTasks() {
-    TaskHierarchyItem[] nestedItems = myTaskHierarchyItem.getNestedItems();
-    Task[] result = new Task[nestedItems.length];
-    for (int i = 0; i < nestedItems.length; i++) {
-      result[i] = nestedItems[i].getTask();
-    }
-    return result;
+    return myTaskHierarchyItem.getNestedTasks();
   }
 
   @Override
@@ -502,8 +502,10 @@ public class TaskImpl implements Task {
   public void move(Task targetSupertask, int position) {
     TaskImpl supertaskImpl = (TaskImpl) targetSupertask;
     TaskHierarchyItem targetItem = supertaskImpl.myTaskHierarchyItem;
+    invalidateRollups();
     myTaskHierarchyItem.delete();
     targetItem.addNestedItem(myTaskHierarchyItem, position);
+    invalidateRollups();
     myManager.onTaskMoved(this);
   }
 
@@ -647,6 +649,7 @@ public class TaskImpl implements Task {
         myProgressEventSender.fireEvent();
       } finally {
         TaskImpl.this.myMutator = null;
+        invalidateRollups();
       }
       if (myStartChange != null && TaskImpl.this.isSupertask()) {
         TaskImpl.this.adjustNestedTasks();
@@ -677,10 +680,9 @@ public class TaskImpl implements Task {
     }
 
     public List<TaskActivity> getActivities() {
-      if (myActivities == null && (myStartChange != null) || (myDurationChange != null)) {
+      if (myActivities == null && (myStartChange != null || myDurationChange != null)) {
         myActivities = new ArrayList<TaskActivity>();
-        TaskImpl.recalculateActivities(myManager.getConfig().getCalendar(), TaskImpl.this, myActivities,
-            getStart().getTime(), TaskImpl.this.getEnd().getTime());
+        TaskImpl.this.recalculateActivities(myActivities, getStart().getTime(), TaskImpl.this.getEnd().getTime());
       }
       return myActivities;
     }
@@ -787,6 +789,7 @@ public class TaskImpl implements Task {
       }
 
       myDurationChange.setValue(length);
+      invalidateRollups();
       Date shifted = TaskImpl.this.shiftDate(getStart().getTime(), length);
       GanttCalendar newEnd = CalendarFactory.createGanttCalendar(shifted);
       setEnd(newEnd);
@@ -810,6 +813,7 @@ public class TaskImpl implements Task {
         myCompletionPercentageChange.myEventSender = myProgressEventSender;
       }
       myCompletionPercentageChange.setValue(new Integer(percentage));
+      invalidateRollups();
     }
 
     @Override
@@ -951,6 +955,7 @@ public class TaskImpl implements Task {
   @Override
   public void setMilestone(boolean milestone) {
     isMilestone = milestone;
+    invalidateRollups();
     if (milestone) {
       setEnd(null);
     }
@@ -1083,6 +1088,7 @@ public class TaskImpl implements Task {
     if (myLength == null || myManager == null) {
       return;
     }
+    invalidateRollups();
     if (isMilestone) {
       myMilestoneActivity = ImmutableList.<TaskActivity>of(new MilestoneTaskFakeActivity(this));
       return;
@@ -1097,7 +1103,7 @@ public class TaskImpl implements Task {
       return;
     }
 
-    recalculateActivities(myManager.getConfig().getCalendar(), this, myActivities, startDate, endDate);
+    recalculateActivities(myActivities, startDate, endDate);
     int length = 0;
     for (TaskActivity activity : myActivities) {
       if (activity.getIntensity() > 0) {
@@ -1107,16 +1113,20 @@ public class TaskImpl implements Task {
     myLength = getManager().createLength(myLength.getTimeUnit(), length);
   }
 
-  private static void recalculateActivities(GPCalendarCalc calendar, Task task, List<TaskActivity> output, Date startDate,
-      Date endDate) {
-    TaskActivitiesAlgorithm alg = new TaskActivitiesAlgorithm(calendar);
-    alg.recalculateActivities(task, output, startDate, endDate);
+  private void recalculateActivities(List<TaskActivity> output, Date startDate, Date endDate) {
+    List<TaskActivityCache.Span> spans = myManager.getActivityCache().getSpans(myManager.getConfig().getCalendar(),
+        getDuration().getTimeUnit(), startDate, endDate);
+    TaskActivitiesAlgorithm.createActivities(this, spans, output);
   }
 
   @Override
   public void setCompletionPercentage(int percentage) {
     if (percentage != myCompletionPercentage) {
       myCompletionPercentage = percentage;
+      // Completion of supertasks is itself calculated from the rollups and does not contribute to them
+      if (!isSupertask()) {
+        invalidateRollups();
+      }
       EventSender progressEventSender = new ProgressEventSender();
       progressEventSender.enable();
       progressEventSender.fireEvent();
@@ -1254,17 +1264,22 @@ public class TaskImpl implements Task {
 
     @Override
     public BigDecimal getCalculatedValue() {
-      return new CostAlgorithmImpl().getCalculatedCost(TaskImpl.this);
+      if (isUnplugged) {
+        return new CostAlgorithmImpl().getCalculatedCost(TaskImpl.this);
+      }
+      return myManager.getTaskRollups().getRollup(TaskImpl.this).getCalculatedCost();
     }
 
     @Override
     public void setValue(BigDecimal value) {
       myValue = value;
+      invalidateRollups();
     }
 
     public void setValue(Cost copy) {
       myValue = copy.getValue();
       isCalculated = copy.isCalculated();
+      invalidateRollups();
     }
 
     @Override
@@ -1275,6 +1290,7 @@ public class TaskImpl implements Task {
     @Override
     public void setCalculated(boolean calculated) {
       isCalculated = calculated;
+      invalidateRollups();
     }
   }
 
@@ -1282,4 +1298,14 @@ public class TaskImpl implements Task {
   public Cost getCost() {
     return myCost;
   }
+
+  /**
+   * Drops the cached cost and completion rollups of this task and its ancestors. Should be called
+   * whenever a value which contributes to the rollups changes.
+   */
+  void invalidateRollups() {
+    if (!isUnplugged && myManager != null) {
+      myManager.getTaskRollups().invalidate(this);
+    }
+  }
 }
@@ -34,6 +34,7 @@ import net.sourceforge.ganttproject.resource.HumanResourceManager;
 import net.sourceforge.ganttproject.task.Task.Priority;
 import net.sourceforge.ganttproject.task.algorithm.AlgorithmCollection;
 import net.sourceforge.ganttproject.task.algorithm.DependencyGraph;
+import net.sourceforge.ganttproject.task.dependency.TaskDependency;
 import net.sourceforge.ganttproject.task.dependency.TaskDependencyCollection;
 import net.sourceforge.ganttproject.task.dependency.TaskDependencyConstraint;
 import net.sourceforge.ganttproject.task.event.TaskListener;
@@ -41,6 +42,7 @@ import net.sourceforge.ganttproject.task.event.TaskListener;
 import java.awt.*;
 import java.math.BigDecimal;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -187,6 +189,42 @@ public interface TaskManager {
 
   void addTaskListener(TaskListener listener);
 
+  /**
+   * Opens a transaction. Until the matching {@link #commitTransaction()} call task events are not
+   * delivered to {@link net.sourceforge.ganttproject.task.event.TaskBatchListener} instances, which
+   * receive a single consolidated change set on commit instead. Other listeners receive events as usual.
+   * Transactions may be nested, the changes are delivered when the outermost one commits.
+   */
+  void beginTransaction();
+
+  void commitTransaction();
+
+  /**
+   * Bulk import of tasks and dependencies, see {@link TaskManager#startImport()}
+   */
+  interface ImportSession extends AutoCloseable {
+    /**
+     * Rebuilds the dependency graph, schedules the project and notifies listeners
+     * about the imported tasks and dependencies.
+     */
+    @Override
+    void close();
+
+    /**
+     * @return dependencies which were deleted on close because they made loops. Loops can't be detected
+     * while the session is open, so they are reported when it closes.
+     */
+    List<TaskDependency> getLoopingDependencies();
+  }
+
+  /**
+   * Opens bulk import session. Tasks are created with {@link #newTaskBuilder()} and dependencies with
+   * the dependency collection as usual, and they are registered and attached to the hierarchy right away,
+   * however, the dependency graph is built, the project is scheduled and the listeners are notified about
+   * the new tasks and dependencies only once, when session closes. The whole session runs in a transaction.
+   */
+  ImportSession startImport();
+
   public class Access {
     public static TaskManager newInstance(TaskContainmentHierarchyFacade.Factory containmentFacadeFactory,
         TaskManagerConfig config) {
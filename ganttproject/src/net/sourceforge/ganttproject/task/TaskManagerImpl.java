@@ -29,6 +29,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
 import net.sourceforge.ganttproject.CustomPropertyDefinition;
 import net.sourceforge.ganttproject.CustomPropertyListener;
 import net.sourceforge.ganttproject.CustomPropertyManager;
@@ -44,7 +45,6 @@ import net.sourceforge.ganttproject.resource.HumanResource;
 import net.sourceforge.ganttproject.resource.HumanResourceManager;
 import net.sourceforge.ganttproject.task.algorithm.AdjustTaskBoundsAlgorithm;
 import net.sourceforge.ganttproject.task.algorithm.AlgorithmCollection;
-import net.sourceforge.ganttproject.task.algorithm.CriticalPathAlgorithm;
 import net.sourceforge.ganttproject.task.algorithm.CriticalPathAlgorithmImpl;
 import net.sourceforge.ganttproject.task.algorithm.DependencyGraph;
 import net.sourceforge.ganttproject.task.algorithm.FindPossibleDependeesAlgorithm;
@@ -52,6 +52,7 @@ import net.sourceforge.ganttproject.task.algorithm.FindPossibleDependeesAlgorith
 import net.sourceforge.ganttproject.task.algorithm.RecalculateTaskCompletionPercentageAlgorithm;
 import net.sourceforge.ganttproject.task.algorithm.RecalculateTaskScheduleAlgorithm;
 import net.sourceforge.ganttproject.task.algorithm.SchedulerImpl;
+import net.sourceforge.ganttproject.task.algorithm.TaskRollups;
 import net.sourceforge.ganttproject.task.dependency.EventDispatcher;
 import net.sourceforge.ganttproject.task.dependency.TaskDependency;
 import net.sourceforge.ganttproject.task.dependency.TaskDependency.Hardness;
@@ -63,11 +64,14 @@ import net.sourceforge.ganttproject.task.dependency.constraint.FinishFinishConst
 import net.sourceforge.ganttproject.task.dependency.constraint.FinishStartConstraintImpl;
 import net.sourceforge.ganttproject.task.dependency.constraint.StartFinishConstraintImpl;
 import net.sourceforge.ganttproject.task.dependency.constraint.StartStartConstraintImpl;
+import net.sourceforge.ganttproject.task.event.TaskBatchListener;
+import net.sourceforge.ganttproject.task.event.TaskChangeSet;
 import net.sourceforge.ganttproject.task.event.TaskDependencyEvent;
 import net.sourceforge.ganttproject.task.event.TaskHierarchyEvent;
 import net.sourceforge.ganttproject.task.event.TaskListener;
 import net.sourceforge.ganttproject.task.event.TaskPropertyEvent;
 import net.sourceforge.ganttproject.task.event.TaskScheduleEvent;
+import net.sourceforge.ganttproject.task.hierarchy.TaskHierarchyItem;
 import net.sourceforge.ganttproject.task.hierarchy.TaskHierarchyManagerImpl;
 import net.sourceforge.ganttproject.util.collect.Pair;
 
@@ -75,6 +79,7 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
@@ -83,6 +88,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -135,10 +142,100 @@ public class TaskManagerImpl implements TaskManager {
     }
   });
 
+  // Big layers of the dependency graph are scheduled on the common fork-join pool if
+  // this system property is set to true
+  static final String PARALLEL_SCHEDULING_PROPERTY = "org.ganttproject.scheduler.parallel";
+
   private final SchedulerImpl myScheduler = new SchedulerImpl(myDependencyGraph, myHierarchySupplier);
 
   private boolean areEventsEnabled = true;
 
+  private int myTransactionDepth;
+
+  // Both are null outside of transactions
+  private TaskChangeCollector myChangeCollector;
+
+  private List<TaskListener> myTransactionListeners;
+
+  private ImportSessionImpl myImportSession;
+
+  /**
+   * Import session keeps the tasks and dependencies created while it is open and postpones
+   * the events about them until it closes. Tasks must be registered immediately, because their ids
+   * and hierarchy are used while import goes on, but the dependency graph is bulk loaded.
+   */
+  private class ImportSessionImpl implements ImportSession {
+    private final Set<Task> myTasks = Sets.newIdentityHashSet();
+    // Dependencies are equal when they connect the same tasks
+    private final Set<TaskDependency> myDependencies = Sets.newLinkedHashSet();
+    // Graph may be already bulk loading, e.g. when import runs while document is being read
+    private final boolean ownsBulkLoad;
+    private final boolean wasSchedulerEnabled;
+    private List<TaskDependency> myLoopingDependencies = Collections.emptyList();
+
+    ImportSessionImpl() {
+      beginTransaction();
+      ownsBulkLoad = !myDependencyGraph.isBulkLoading();
+      wasSchedulerEnabled = myScheduler.isEnabled();
+      if (ownsBulkLoad) {
+        myDependencyGraph.startBulkLoad();
+        myScheduler.setEnabled(false);
+      }
+    }
+
+    boolean contains(Task task) {
+      return myTasks.contains(task);
+    }
+
+    boolean contains(TaskDependency dep) {
+      return myDependencies.contains(dep);
+    }
+
+    @Override
+    public void close() {
+      Preconditions.checkState(myImportSession == this, "Import session is not open");
+      try {
+        if (ownsBulkLoad) {
+          try {
+            // Dependencies making loops could not be rejected while the graph was loading
+            myLoopingDependencies = myDependencyGraph.finishBulkLoad(Arrays.asList(getTasks()),
+                Arrays.asList(getDependencyCollection().getDependencies()));
+            for (TaskDependency loop : myLoopingDependencies) {
+              loop.delete();
+            }
+          } finally {
+            // Scheduling changes of the imported tasks are not reported, listeners will see
+            // the scheduled tasks when they are added
+            if (wasSchedulerEnabled) {
+              myScheduler.setEnabled(true);
+            }
+          }
+        }
+      } finally {
+        myImportSession = null;
+        try {
+          // Imported tasks are registered anyway, so listeners learn about them even if
+          // the import failed to complete
+          for (Task task : getTasks()) {
+            if (myTasks.contains(task)) {
+              fireTaskAdded(task);
+            }
+          }
+          for (TaskDependency dep : myDependencies) {
+            dispatchDependencyAdded(dep);
+          }
+        } finally {
+          commitTransaction();
+        }
+      }
+    }
+
+    @Override
+    public List<TaskDependency> getLoopingDependencies() {
+      return myLoopingDependencies;
+    }
+  }
+
   private static class TaskMap {
     private final Map<Integer, Task> myId2task = new HashMap<Integer, Task>();
     private TaskDocumentOrderComparator myComparator;
@@ -198,6 +295,10 @@ public class TaskManagerImpl implements TaskManager {
 
   private final TaskMap myTaskMap = new TaskMap(this);
 
+  private final TaskActivityCache myActivityCache = new TaskActivityCache(this);
+
+  private final TaskRollups myTaskRollups;
+
   private final CustomPropertyListenerImpl myCustomPropertyListener;
 
   private final CustomColumnsManager myCustomColumnsManager;
@@ -239,6 +340,7 @@ public class TaskManagerImpl implements TaskManager {
 
     };
     myFacadeFactory = containmentFacadeFactory == null ? new FacadeFactoryImpl() : containmentFacadeFactory;
+    myTaskRollups = new TaskRollups(myFacadeFactory);
     // clear();
     myRoot = createRootTask();
 
@@ -248,6 +350,10 @@ public class TaskManagerImpl implements TaskManager {
         return TaskManagerImpl.this.getTaskHierarchy();
       }
 
+      @Override
+      protected DependencyGraph getDependencyGraph() {
+        return myDependencyGraph;
+      }
     };
     AdjustTaskBoundsAlgorithm alg3 = new AdjustTaskBoundsAlgorithm() {
       @Override
@@ -266,11 +372,20 @@ public class TaskManagerImpl implements TaskManager {
       protected TaskContainmentHierarchyFacade createContainmentFacade() {
         return TaskManagerImpl.this.getTaskHierarchy();
       }
+
+      @Override
+      protected TaskRollups getRollups() {
+        return myTaskRollups;
+      }
     };
     ChartBoundsAlgorithm alg5 = new ChartBoundsAlgorithm();
-    CriticalPathAlgorithm alg6 = new CriticalPathAlgorithmImpl(this, getCalendar());
-    myAlgorithmCollection = new AlgorithmCollection(this, alg1, alg2, alg3, alg4, alg5, alg6, myScheduler);
+    CriticalPathAlgorithmImpl alg6 = new CriticalPathAlgorithmImpl(this, getCalendar());
+    myAlgorithmCollection = new AlgorithmCollection(this, alg1, alg2, alg3, alg4, alg5, alg6, myScheduler, myTaskRollups);
     addTaskListener(myScheduler.getTaskModelListener());
+    if (Boolean.getBoolean(PARALLEL_SCHEDULING_PROPERTY)) {
+      myScheduler.setParallelPool(ForkJoinPool.commonPool());
+    }
+    addTaskListener(alg6.getTaskModelListener());
   }
 
   private CustomPropertyListener getCustomPropertyListener() {
@@ -308,6 +423,7 @@ public class TaskManagerImpl implements TaskManager {
     myTaskMap.clear();
     myMaxID.set(0);
     myDependencyCollection.clear();
+    myTaskRollups.clear();
     // createRootTask();
     fireTaskModelReset();
   }
@@ -320,7 +436,9 @@ public class TaskManagerImpl implements TaskManager {
   @Override
   public void deleteTask(Task tasktoRemove) {
     Task[] nestedTasks = getTaskHierarchy().getDeepNestedTasks(tasktoRemove);
+    myTaskRollups.invalidate(tasktoRemove);
     for (Task t : nestedTasks) {
+      myTaskRollups.invalidate(t);
       t.delete();
     }
     Task container = getTaskHierarchy().getContainer(tasktoRemove);
@@ -413,7 +531,11 @@ public class TaskManagerImpl implements TaskManager {
         if (isLegacyMilestone) {
           task.setMilestone(isLegacyMilestone);
         }
-        fireTaskAdded(task);
+        if (myImportSession == null) {
+          fireTaskAdded(task);
+        } else {
+          myImportSession.myTasks.add(task);
+        }
         return task;
       }
     };
@@ -670,6 +792,9 @@ public class TaskManagerImpl implements TaskManager {
   @Override
   public void addTaskListener(TaskListener listener) {
     myListeners.add(listener);
+    if (myTransactionListeners != null && !(listener instanceof TaskBatchListener)) {
+      myTransactionListeners.add(listener);
+    }
   }
 
   @Override
@@ -691,10 +816,19 @@ public class TaskManagerImpl implements TaskManager {
     };
   }
 
+  TaskActivityCache getActivityCache() {
+    return myActivityCache;
+  }
+
+  TaskRollups getTaskRollups() {
+    return myTaskRollups;
+  }
+
   public GPCalendarListener getCalendarListener() {
     return new GPCalendarListener() {
       @Override
       public void onCalendarChange() {
+        myActivityCache.onCalendarChanged();
         for (Task t : getTasks()) {
           t.setEnd(null);
         }
@@ -703,24 +837,30 @@ public class TaskManagerImpl implements TaskManager {
     };
   }
   public void fireTaskProgressChanged(Task changedTask) {
-    if (areEventsEnabled) {
+    if (areEventsEnabled && !isImporting(changedTask)) {
+      if (myChangeCollector != null) {
+        myChangeCollector.taskChanged(changedTask);
+      }
       TaskPropertyEvent e = new TaskPropertyEvent(changedTask);
-      for (int i = 0; i < myListeners.size(); i++) {
-        TaskListener next = myListeners.get(i);
+      List<TaskListener> listeners = getImmediateListeners();
+      for (int i = 0; i < listeners.size(); i++) {
+        TaskListener next = listeners.get(i);
         next.taskProgressChanged(e);
       }
     }
   }
 
   void fireTaskScheduleChanged(Task changedTask, GanttCalendar oldStartDate, GanttCalendar oldFinishDate) {
-    myScheduler.run();
-    if (areEventsEnabled) {
+    myScheduler.run(changedTask);
+    if (areEventsEnabled && !isImporting(changedTask)) {
+      if (myChangeCollector != null) {
+        myChangeCollector.taskChanged(changedTask);
+      }
       TaskScheduleEvent e = new TaskScheduleEvent(changedTask, oldStartDate, oldFinishDate, changedTask.getStart(),
           changedTask.getEnd());
-      // List copy = new ArrayList(myListeners);
-      // myListeners.clear();
-      for (int i = 0; i < myListeners.size(); i++) {
-        TaskListener next = myListeners.get(i);
+      List<TaskListener> listeners = getImmediateListeners();
+      for (int i = 0; i < listeners.size(); i++) {
+        TaskListener next = listeners.get(i);
         next.taskScheduleChanged(e);
       }
     }
@@ -728,10 +868,22 @@ public class TaskManagerImpl implements TaskManager {
 
   private void fireDependencyAdded(TaskDependency newDependency) {
     myDependencyGraph.addDependency(newDependency);
+    if (myImportSession != null) {
+      myImportSession.myDependencies.add(newDependency);
+      return;
+    }
+    dispatchDependencyAdded(newDependency);
+  }
+
+  private void dispatchDependencyAdded(TaskDependency newDependency) {
     if (areEventsEnabled) {
+      if (myChangeCollector != null) {
+        myChangeCollector.dependencyAdded(newDependency);
+      }
       TaskDependencyEvent e = new TaskDependencyEvent(getDependencyCollection(), newDependency);
-      for (int i = 0; i < myListeners.size(); i++) {
-        TaskListener next = myListeners.get(i);
+      List<TaskListener> listeners = getImmediateListeners();
+      for (int i = 0; i < listeners.size(); i++) {
+        TaskListener next = listeners.get(i);
         next.dependencyAdded(e);
       }
     }
@@ -739,26 +891,44 @@ public class TaskManagerImpl implements TaskManager {
 
   private void fireDependencyRemoved(TaskDependency dep) {
     myDependencyGraph.removeDependency(dep);
+    if (myImportSession != null && myImportSession.myDependencies.remove(dep)) {
+      return;
+    }
+    if (myChangeCollector != null) {
+      myChangeCollector.dependencyRemoved(dep);
+    }
     TaskDependencyEvent e = new TaskDependencyEvent(getDependencyCollection(), dep);
-    for (int i = 0; i < myListeners.size(); i++) {
-      TaskListener next = myListeners.get(i);
+    List<TaskListener> listeners = getImmediateListeners();
+    for (int i = 0; i < listeners.size(); i++) {
+      TaskListener next = listeners.get(i);
       next.dependencyRemoved(e);
     }
   }
 
   private void fireDependencyChanged(TaskDependency dep) {
+    if (myImportSession != null && myImportSession.contains(dep)) {
+      return;
+    }
+    if (myChangeCollector != null) {
+      myChangeCollector.dependencyChanged(dep);
+    }
     TaskDependencyEvent e = new TaskDependencyEvent(getDependencyCollection(), dep);
-    for (int i = 0; i < myListeners.size(); i++) {
-      TaskListener next = myListeners.get(i);
+    List<TaskListener> listeners = getImmediateListeners();
+    for (int i = 0; i < listeners.size(); i++) {
+      TaskListener next = listeners.get(i);
       next.dependencyChanged(e);
     }
   }
 
   private void fireTaskAdded(Task task) {
     if (areEventsEnabled) {
+      if (myChangeCollector != null) {
+        myChangeCollector.taskAdded(task);
+      }
       TaskHierarchyEvent e = new TaskHierarchyEvent(this, task, null, getTaskHierarchy().getContainer(task));
-      for (int i = 0; i < myListeners.size(); i++) {
-        TaskListener next = myListeners.get(i);
+      List<TaskListener> listeners = getImmediateListeners();
+      for (int i = 0; i < listeners.size(); i++) {
+        TaskListener next = listeners.get(i);
         next.taskAdded(e);
       }
     }
@@ -766,18 +936,28 @@ public class TaskManagerImpl implements TaskManager {
 
   private void fireTaskRemoved(Task container, Task task) {
     myDependencyGraph.removeTask(task);
+    if (myImportSession != null && myImportSession.myTasks.remove(task)) {
+      return;
+    }
     if (areEventsEnabled) {
+      if (myChangeCollector != null) {
+        myChangeCollector.taskRemoved(task);
+      }
       TaskHierarchyEvent e = new TaskHierarchyEvent(this, task, container, null);
-      for (TaskListener l : myListeners) {
+      for (TaskListener l : getImmediateListeners()) {
         l.taskRemoved(e);
       }
     }
   }
   void fireTaskPropertiesChanged(Task task) {
-    if (areEventsEnabled) {
+    if (areEventsEnabled && !isImporting(task)) {
+      if (myChangeCollector != null) {
+        myChangeCollector.taskChanged(task);
+      }
       TaskPropertyEvent e = new TaskPropertyEvent(task);
-      for (int i = 0; i < myListeners.size(); i++) {
-        TaskListener next = myListeners.get(i);
+      List<TaskListener> listeners = getImmediateListeners();
+      for (int i = 0; i < listeners.size(); i++) {
+        TaskListener next = listeners.get(i);
         next.taskPropertiesChanged(e);
       }
     }
@@ -785,13 +965,72 @@ public class TaskManagerImpl implements TaskManager {
 
   private void fireTaskModelReset() {
     if (areEventsEnabled) {
-      for (int i = 0; i < myListeners.size(); i++) {
-        TaskListener next = myListeners.get(i);
+      if (myChangeCollector != null) {
+        myChangeCollector.modelReset();
+      }
+      List<TaskListener> listeners = getImmediateListeners();
+      for (int i = 0; i < listeners.size(); i++) {
+        TaskListener next = listeners.get(i);
         next.taskModelReset();
       }
     }
   }
 
+  /**
+   * @return listeners which receive events right away, that is, all listeners outside of transactions
+   * and all but batch listeners inside
+   */
+  private List<TaskListener> getImmediateListeners() {
+    return myTransactionListeners == null ? myListeners : myTransactionListeners;
+  }
+
+  /**
+   * @return true if task was created in the open import session, so that listeners do not know about it yet
+   */
+  private boolean isImporting(Task task) {
+    return myImportSession != null && myImportSession.contains(task);
+  }
+
+  @Override
+  public ImportSession startImport() {
+    Preconditions.checkState(myImportSession == null, "Import session is already open");
+    myImportSession = new ImportSessionImpl();
+    return myImportSession;
+  }
+
+  @Override
+  public void beginTransaction() {
+    if (myTransactionDepth++ == 0) {
+      myChangeCollector = new TaskChangeCollector();
+      myTransactionListeners = Lists.newArrayList();
+      for (TaskListener l : myListeners) {
+        if (!(l instanceof TaskBatchListener)) {
+          myTransactionListeners.add(l);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void commitTransaction() {
+    Preconditions.checkState(myTransactionDepth > 0, "No open transaction");
+    if (--myTransactionDepth > 0) {
+      return;
+    }
+    TaskChangeSet changes = myChangeCollector.build();
+    myChangeCollector = null;
+    myTransactionListeners = null;
+    if (changes.isEmpty()) {
+      return;
+    }
+    for (int i = 0; i < myListeners.size(); i++) {
+      TaskListener next = myListeners.get(i);
+      if (next instanceof TaskBatchListener) {
+        ((TaskBatchListener) next).taskChangesCommitted(changes);
+      }
+    }
+  }
+
   public TaskManagerConfig getConfig() {
     return myConfig;
   }
@@ -799,8 +1038,6 @@ public class TaskManagerImpl implements TaskManager {
   private final class FacadeImpl implements TaskContainmentHierarchyFacade {
     // private final Task myRoot;
 
-    private List<Task> myPathBuffer = new ArrayList<Task>();
-
     // public FacadeImpl(Task root) {
     // myRoot = root;
     // }
@@ -847,13 +1084,14 @@ public class TaskManagerImpl implements TaskManager {
 
     @Override
     public Task getPreviousSibling(Task nestedTask) {
-      int pos = getTaskIndex(nestedTask);
-      return pos == 0 ? null : nestedTask.getSupertask().getNestedTasks()[pos - 1];
+      TaskHierarchyItem sibling = getItem(nestedTask).getPreviousSiblingItem();
+      return sibling == null ? null : sibling.getTask();
     }
 
     @Override
     public Task getNextSibling(Task nestedTask) {
-      throw new UnsupportedOperationException();
+      TaskHierarchyItem sibling = getItem(nestedTask).getNextSiblingItem();
+      return sibling == null ? null : sibling.getTask();
     }
 
     @Override
@@ -862,7 +1100,7 @@ public class TaskManagerImpl implements TaskManager {
       if (container == null) {
         return 0;
       }
-      return Arrays.asList(container.getNestedTasks()).indexOf(nestedTask);
+      return getItem(nestedTask).getPosition();
     }
 
     @Override
@@ -870,18 +1108,24 @@ public class TaskManagerImpl implements TaskManager {
       if (first.equals(second)) {
         return false;
       }
-      myPathBuffer.clear();
+      TaskHierarchyItem firstItem = getItem(first);
+      TaskHierarchyItem secondItem = getItem(second);
+      if (myHierarchyManager.isIndexed(firstItem) && myHierarchyManager.isIndexed(secondItem)) {
+        return !myHierarchyManager.isAncestorOrSelf(firstItem, secondItem)
+            && !myHierarchyManager.isAncestorOrSelf(secondItem, firstItem);
+      }
+      List<Task> pathBuffer = new ArrayList<Task>();
       for (Task container = getContainer(first); container != null; container = getContainer(container)) {
-        myPathBuffer.add(container);
+        pathBuffer.add(container);
       }
-      if (myPathBuffer.contains(second)) {
+      if (pathBuffer.contains(second)) {
         return false;
       }
-      myPathBuffer.clear();
+      pathBuffer.clear();
       for (Task container = getContainer(second); container != null; container = getContainer(container)) {
-        myPathBuffer.add(container);
+        pathBuffer.add(container);
       }
-      if (myPathBuffer.contains(first)) {
+      if (pathBuffer.contains(first)) {
         return false;
       }
       return true;
@@ -899,6 +1143,10 @@ public class TaskManagerImpl implements TaskManager {
 
     @Override
     public int getDepth(Task task) {
+      TaskHierarchyItem item = getItem(task);
+      if (isUnderRoot(item)) {
+        return myHierarchyManager.getDepth(item) - myHierarchyManager.getDepth(getItem(myRoot));
+      }
       int depth = 0;
       while (task != myRoot) {
         task = task.getSupertask();
@@ -912,6 +1160,24 @@ public class TaskManagerImpl implements TaskManager {
       if (task1 == task2) {
         return 0;
       }
+      TaskHierarchyItem item1 = getItem(task1);
+      TaskHierarchyItem item2 = getItem(task2);
+      boolean isUnderRoot1 = isUnderRoot(item1);
+      boolean isUnderRoot2 = isUnderRoot(item2);
+      // Tasks which are not yet inserted into the project tree go first
+      if (!isUnderRoot1 && isUnderRoot2) {
+        return -1;
+      }
+      if (isUnderRoot1 && !isUnderRoot2) {
+        return 1;
+      }
+      if (isUnderRoot1) {
+        return Integer.compare(myHierarchyManager.getPreOrder(item1), myHierarchyManager.getPreOrder(item2));
+      }
+      return compareDocumentOrderByPath(task1, task2);
+    }
+
+    private int compareDocumentOrderByPath(Task task1, Task task2) {
       List<Task> buffer1 = new ArrayList<Task>();
       for (Task container = task1; container != null; container = getContainer(container)) {
         buffer1.add(0, container);
@@ -920,13 +1186,6 @@ public class TaskManagerImpl implements TaskManager {
       for (Task container = task2; container != null; container = getContainer(container)) {
         buffer2.add(0, container);
       }
-      if (buffer1.get(0) != getRootTask() && buffer2.get(0) == getRootTask()) {
-        return -1;
-      }
-      if (buffer1.get(0) == getRootTask() && buffer2.get(0) != getRootTask()) {
-        return 1;
-      }
-
       int i = 0;
       Task commonRoot = null;
       while (true) {
@@ -957,6 +1216,15 @@ public class TaskManagerImpl implements TaskManager {
       }
     }
 
+    private boolean isUnderRoot(TaskHierarchyItem item) {
+      return myHierarchyManager.isIndexed(item)
+          && myHierarchyManager.isAncestorOrSelf(getItem(myRoot), item);
+    }
+
+    private TaskHierarchyItem getItem(Task task) {
+      return ((TaskImpl) task).getHierarchyItem();
+    }
+
     @Override
     public boolean contains(Task task) {
       throw new UnsupportedOperationException();
@@ -1022,9 +1290,13 @@ public class TaskManagerImpl implements TaskManager {
     // myRoot = root;
     // }
 
+    // Facade is stateless, and task rollups rely on the same instance being returned while the hierarchy
+    // stays the same
+    private final FacadeImpl myFacade = new FacadeImpl();
+
     @Override
     public TaskContainmentHierarchyFacade createFacade() {
-      return new FacadeImpl();
+      return myFacade;
     }
   }
 
@@ -1048,24 +1320,29 @@ public class TaskManagerImpl implements TaskManager {
       Map<CustomPropertyDefinition, CustomPropertyDefinition> customPropertyMapping) {
     Task importRoot = taskManager.getRootTask();
     Map<Task, Task> original2imported = new LinkedHashMap<Task, Task>();
-    importData(importRoot, getRootTask(), customPropertyMapping, original2imported);
-    TaskDependency[] deps = taskManager.getDependencyCollection().getDependencies();
-    for (int i = 0; i < deps.length; i++) {
-      Task nextDependant = deps[i].getDependant();
-      Task nextDependee = deps[i].getDependee();
-      Task importedDependant = original2imported.get(nextDependant);
-      Task importedDependee = original2imported.get(nextDependee);
-      try {
-        TaskDependency dependency = getDependencyCollection().createDependency(importedDependant, importedDependee,
-            new FinishStartConstraintImpl());
-        dependency.setConstraint(deps[i].getConstraint());
-        dependency.setDifference(deps[i].getDifference());
-        dependency.setHardness(deps[i].getHardness());
-      } catch (TaskDependencyException e) {
-        if (!GPLogger.log(e)) {
-          e.printStackTrace(System.err);
+    ImportSession session = startImport();
+    try {
+      importData(importRoot, getRootTask(), customPropertyMapping, original2imported);
+      TaskDependency[] deps = taskManager.getDependencyCollection().getDependencies();
+      for (int i = 0; i < deps.length; i++) {
+        Task nextDependant = deps[i].getDependant();
+        Task nextDependee = deps[i].getDependee();
+        Task importedDependant = original2imported.get(nextDependant);
+        Task importedDependee = original2imported.get(nextDependee);
+        try {
+          TaskDependency dependency = getDependencyCollection().createDependency(importedDependant, importedDependee,
+              new FinishStartConstraintImpl());
+          dependency.setConstraint(deps[i].getConstraint());
+          dependency.setDifference(deps[i].getDifference());
+          dependency.setHardness(deps[i].getHardness());
+        } catch (TaskDependencyException e) {
+          if (!GPLogger.log(e)) {
+            e.printStackTrace(System.err);
+          }
         }
       }
+    } finally {
+      session.close();
     }
     return original2imported;
   }
@@ -1168,6 +1445,10 @@ public class TaskManagerImpl implements TaskManager {
     }
     myDependencyGraph.move(task, getTaskHierarchy().getContainer(task));
     myTaskMap.setDirty();
+    // There is no immediate event about moves, but batch listeners see moved tasks as changed
+    if (areEventsEnabled && myChangeCollector != null && !isImporting(task)) {
+      myChangeCollector.taskChanged(task);
+    }
   }
 
   public void setEventsEnabled(boolean enabled) {
@@ -46,7 +46,7 @@ public abstract class AdjustTaskBoundsAlgorithm extends AlgorithmBase {
 
 
   @Override
-  protected boolean isEnabled() {
+  public boolean isEnabled() {
     return false;
   }
 
@@ -35,7 +35,7 @@ public class AlgorithmBase {
     isEnabled = enabled;
   }
 
-  protected boolean isEnabled() {
+  public boolean isEnabled() {
     return isEnabled;
   }
 
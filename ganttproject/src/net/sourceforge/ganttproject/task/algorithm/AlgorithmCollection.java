@@ -41,13 +41,17 @@ public class AlgorithmCollection {
 
   private final SchedulerImpl myScheduler;
 
+  private final TaskRollups myTaskRollups;
+
   public AlgorithmCollection(TaskManagerImpl taskManager,
       FindPossibleDependeesAlgorithm myFindPossibleDependeesAlgorithm,
       RecalculateTaskScheduleAlgorithm recalculateTaskScheduleAlgorithm,
       AdjustTaskBoundsAlgorithm adjustTaskBoundsAlgorithm,
       RecalculateTaskCompletionPercentageAlgorithm completionPercentageAlgorithm,
-      ChartBoundsAlgorithm projectBoundsAlgorithm, CriticalPathAlgorithm criticalPathAlgorithm, SchedulerImpl scheduler) {
+      ChartBoundsAlgorithm projectBoundsAlgorithm, CriticalPathAlgorithm criticalPathAlgorithm, SchedulerImpl scheduler,
+      TaskRollups taskRollups) {
     myScheduler = scheduler;
+    myTaskRollups = taskRollups;
     this.myFindPossibleDependeesAlgorithm = myFindPossibleDependeesAlgorithm;
     myRecalculateTaskScheduleAlgorithm = recalculateTaskScheduleAlgorithm;
     myAdjustTaskBoundsAlgorithm = adjustTaskBoundsAlgorithm;
@@ -88,4 +92,8 @@ public class AlgorithmCollection {
   public AlgorithmBase getScheduler() {
     return myScheduler;
   }
+
+  public TaskRollups getTaskRollups() {
+    return myTaskRollups;
+  }
 }
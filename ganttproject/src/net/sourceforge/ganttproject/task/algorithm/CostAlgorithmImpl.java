@@ -39,6 +39,14 @@ public class CostAlgorithmImpl {
         total = total.add(child.getCost().getValue());
       }
     }
+    return total.add(getAssignmentCost(t));
+  }
+
+  /**
+   * @return cost of the resources assigned to the task itself, not including the cost of the nested tasks
+   */
+  public BigDecimal getAssignmentCost(Task t) {
+    BigDecimal total = BigDecimal.ZERO;
     for (ResourceAssignment assignment : t.getAssignments()) {
       HumanResource resource = assignment.getResource();
       total = total.add(resource.getStandardPayRate()
@@ -18,6 +18,7 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 package net.sourceforge.ganttproject.task.algorithm;
 
+import biz.ganttproject.core.time.TimeDuration;
 import net.sourceforge.ganttproject.task.Task;
 
 public interface CriticalPathAlgorithm {
@@ -26,4 +27,10 @@ public interface CriticalPathAlgorithm {
    *         many of them).
    */
   public Task[] getCriticalTasks();
+
+  /**
+   * @return difference between the latest start date of the task which doesn't delay
+   *         the project end and its actual start date, or null if it can't be calculated
+   */
+  public TimeDuration getTotalFloat(Task task);
 }
@@ -19,217 +19,350 @@ Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
 package net.sourceforge.ganttproject.task.algorithm;
 
 import biz.ganttproject.core.calendar.GPCalendarCalc;
+import biz.ganttproject.core.calendar.GPCalendarListener;
+import biz.ganttproject.core.time.TimeDuration;
 import net.sourceforge.ganttproject.GPLogger;
 import net.sourceforge.ganttproject.task.Task;
+import net.sourceforge.ganttproject.task.TaskContainmentHierarchyFacade;
 import net.sourceforge.ganttproject.task.TaskManager;
 import net.sourceforge.ganttproject.task.dependency.TaskDependency;
 import net.sourceforge.ganttproject.task.dependency.TaskDependencyConstraint.Collision;
+import net.sourceforge.ganttproject.task.event.TaskDependencyEvent;
+import net.sourceforge.ganttproject.task.event.TaskHierarchyEvent;
+import net.sourceforge.ganttproject.task.event.TaskListener;
+import net.sourceforge.ganttproject.task.event.TaskListenerAdapter;
+import net.sourceforge.ganttproject.task.event.TaskScheduleEvent;
 
 import java.util.*;
 import java.util.logging.Logger;
 
+/**
+ * Finds critical tasks with a backward pass over the dependency graph: latest finish of a task
+ * is the earliest of the latest acceptable starts of its dependants, of the project end and,
+ * if its supertask is critical, of the supertask latest finish. A task is critical if its
+ * latest start equals its actual start.
+ *
+ * Latest dates and the inputs they were computed from are kept between calls in arrays indexed
+ * by task id. Changes in the task model mark the changed tasks dirty, either through the task
+ * listener or when the start, end or duration of a task differs from the remembered one. Only the dirty
+ * tasks and the tasks which latest dates depend on them, that is, their dependees and nested tasks,
+ * are recalculated. Change of the project end, of the calendar or of the set of tasks causes full
+ * recalculation.
+ */
 public class CriticalPathAlgorithmImpl implements CriticalPathAlgorithm {
   private static final Logger ourLogger = GPLogger.getLogger(CriticalPathAlgorithm.class);
 
+  private static final long UNDEFINED = Long.MIN_VALUE;
+
   private final TaskManager myTaskManager;
   private final GPCalendarCalc myCalendar;
+  private final TaskListener myTaskListener;
+
+  private Task[] myTaskById = new Task[0];
+  private long[] myStart = new long[0];
+  private long[] myEnd = new long[0];
+  private int[] myDuration = new int[0];
+  private long[] myLatestStart = new long[0];
+  private long[] myLatestFinish = new long[0];
+
+  private int myTaskCount = -1;
+  private long myProjectEnd = UNDEFINED;
+  private boolean isFullRecalculationNeeded = true;
+  private final BitSet myDirty = new BitSet();
 
   public CriticalPathAlgorithmImpl(TaskManager taskManager, GPCalendarCalc calendar) {
     myTaskManager = taskManager;
     myCalendar = calendar;
-  }
+    myTaskListener = new TaskListenerAdapter() {
+      @Override
+      public void taskScheduleChanged(TaskScheduleEvent e) {
+        markDirty(e.getTask());
+      }
 
-  static class Node {
-    private final Task task;
-    private final List<Task> dependees = new ArrayList<Task>();
-    private int numDependants;
-    private final Date est;
-    private final Date eft;
-    private Date lst;
-    private Date lft;
-    private boolean lftFromSupertask = false;
-
-    public Node(Task t, Set<Task> taskScope) {
-      assert t != null;
-      task = t;
-      est = t.getStart().getTime();
-      eft = t.getEnd().getTime();
-      lst = null;
-      lft = null;
-      numDependants = 0;
-      TaskDependency[] deps = t.getDependenciesAsDependee().toArray();
-      for (int i = 0; i < deps.length; i++) {
-        if (taskScope.contains(deps[i].getDependant())) {
-          numDependants++;
-        }
+      @Override
+      public void dependencyAdded(TaskDependencyEvent e) {
+        markDirty(e.getDependency().getDependee());
       }
-      collectDependees(t, taskScope);
-    }
 
-    public Node(Task t, Date est, Date eft, Date lst, Date lft, int numDependants, Set<Task> taskScope) {
-      task = t;
-      this.est = est;
-      this.eft = eft;
-      this.lst = lst;
-      this.lft = lft;
-      this.numDependants = numDependants;
-      if (task != null) {
-        collectDependees(task, taskScope);
+      @Override
+      public void dependencyRemoved(TaskDependencyEvent e) {
+        markDirty(e.getDependency().getDependee());
       }
-    }
 
-    void collectDependees(Task task, Set<Task> taskScope) {
-      TaskDependency[] deps = task.getDependenciesAsDependant().toArray();
-      for (TaskDependency dep : deps) {
-        if (taskScope.contains(dep.getDependee())) {
-          dependees.add(dep.getDependee());
-        }
+      @Override
+      public void dependencyChanged(TaskDependencyEvent e) {
+        markDirty(e.getDependency().getDependee());
+      }
+
+      @Override
+      public void taskAdded(TaskHierarchyEvent e) {
+        isFullRecalculationNeeded = true;
+      }
+
+      @Override
+      public void taskRemoved(TaskHierarchyEvent e) {
+        isFullRecalculationNeeded = true;
+      }
+
+      @Override
+      public void taskMoved(TaskHierarchyEvent e) {
+        markDirty(e.getTask());
       }
-    }
 
-    boolean isCritical() {
-      return est.equals(lst);
+      @Override
+      public void taskModelReset() {
+        isFullRecalculationNeeded = true;
+      }
+    };
+    if (calendar != null) {
+      calendar.addListener(new GPCalendarListener() {
+        @Override
+        public void onCalendarChange() {
+          isFullRecalculationNeeded = true;
+        }
+      });
     }
+  }
 
-    @Override
-    public String toString() {
-      return task == null ? "[Deadline node " + eft + "]" : task.toString();
+  public TaskListener getTaskModelListener() {
+    return myTaskListener;
+  }
+
+  private void markDirty(Task task) {
+    if (task != null && task.getTaskID() >= 0) {
+      myDirty.set(task.getTaskID());
     }
   }
 
   @Override
   public Task[] getCriticalTasks() {
-    Date projectEnd = myTaskManager.getProjectEnd();
-    Node fakeFinalNode = new Node(null, projectEnd, projectEnd, projectEnd, projectEnd, 0, null);
     Task[] tasks = myTaskManager.getTasks();
     if (tasks.length == 0) {
       return tasks;
     }
-    Map<Task, Node> task_node = createTaskNodeMap(tasks, fakeFinalNode);
-    for (Node curNode : task_node.values()) {
-      curNode.numDependants += myTaskManager.getTaskHierarchy().getDepth(curNode.task) - 1;
+    update(tasks);
+    List<Task> result = new ArrayList<Task>();
+    for (Task t : tasks) {
+      if (isCritical(t.getTaskID())) {
+        result.add(t);
+      }
     }
-    assert fakeFinalNode.dependees.size() > 0;
-
-    LinkedHashSet<Task> result = new LinkedHashSet<Task>();
-    Processor p = new Processor(task_node, fakeFinalNode);
-    result.addAll(p.run());
     return result.toArray(new Task[result.size()]);
   }
 
-  private Map<Task, Node> createTaskNodeMap(Task[] tasks, Node deadlineNode) {
-    Set<Task> taskScope = new HashSet<Task>(Arrays.asList(tasks));
-    Map<Task, Node> task_node = new HashMap<Task, Node>();
-    for (Task task : tasks) {
-      Node newNode = new Node(task, taskScope);
-      deadlineNode.dependees.add(task);
-      newNode.numDependants++;
-      task_node.put(task, newNode);
+  @Override
+  public TimeDuration getTotalFloat(Task task) {
+    update(myTaskManager.getTasks());
+    int id = task.getTaskID();
+    if (id < 0 || id >= myTaskById.length || myTaskById[id] != task || myLatestStart[id] == UNDEFINED) {
+      return null;
     }
-    return task_node;
+    return myTaskManager.createLength(task.getDuration().getTimeUnit(), new Date(myStart[id]),
+        new Date(myLatestStart[id]));
   }
 
-  class Processor {
-    private final Map<Task, Node> myTask_Node;
-    private LinkedList<Node> myQueue = new LinkedList<Node>();
-    private final ArrayList<Task> myResult = new ArrayList<Task>();
-    private final Node myDeadlineNode;
-
-    Processor(Map<Task, Node> task_node, Node deadlineNode) {
-      myDeadlineNode = deadlineNode;
-      myTask_Node = task_node;
-      myQueue.add(myDeadlineNode);
-    }
-
-    boolean hasMoreInput() {
-      return !myQueue.isEmpty();
-    }
-
-    List<Task> run() {
-      while (hasMoreInput()) {
-        myQueue = processQueue();
-      }
-      return myResult;
-    }
-
-    private LinkedList<Node> processQueue() {
-      LinkedList<Node> newQueue = new LinkedList<Node>();
-      for (Iterator<Node> nodes = myQueue.iterator(); nodes.hasNext();) {
-        Node curNode = nodes.next();
-        if (curNode.lft == null || curNode.lftFromSupertask) {
-          calculateLatestDates(curNode);
-          Task[] nestedTasks = myTaskManager.getTaskHierarchy().getNestedTasks(curNode.task);
-          for (Task nestedTask : nestedTasks) {
-            Node nested = myTask_Node.get(nestedTask);
-            nested.numDependants -= (myTaskManager.getTaskHierarchy().getDepth(nested.task) - 1);
-            assert nested.numDependants >= 0;
-            if (nested.numDependants == 0) {
-              newQueue.add(nested);
-            }
-            if (curNode.isCritical()) {
-              nested.lft = curNode.lft;
-              nested.lftFromSupertask = true;
-            }
-          }
-
-          if (curNode.isCritical()) {
-            ourLogger.fine("\n\nNode=" + curNode + " is critical\n\n");
-            myResult.add(curNode.task);
-          }
-        } else {
-          assert curNode.task == null || curNode.lftFromSupertask;
-        }
-        enqueueDependees(newQueue, curNode);
+  private boolean isCritical(int id) {
+    return myLatestStart[id] != UNDEFINED && myLatestStart[id] == myStart[id];
+  }
+
+  private void update(Task[] tasks) {
+    long projectEnd = myTaskManager.getProjectEnd().getTime();
+    if (projectEnd != myProjectEnd || tasks.length != myTaskCount) {
+      isFullRecalculationNeeded = true;
+    }
+    int maxId = -1;
+    for (Task t : tasks) {
+      maxId = Math.max(maxId, t.getTaskID());
+    }
+    if (maxId >= myTaskById.length) {
+      ensureCapacity(maxId + 1);
+      isFullRecalculationNeeded = true;
+    }
+    // Some schedule changes do not fire events, so we also compare the dates with the remembered ones
+    for (Task t : tasks) {
+      int id = t.getTaskID();
+      if (myTaskById[id] != t) {
+        isFullRecalculationNeeded = true;
+      }
+      long start = t.getStart().getTime().getTime();
+      long end = t.getEnd().getTime().getTime();
+      int duration = t.getDuration().getLength();
+      if (myStart[id] != start || myEnd[id] != end || myDuration[id] != duration) {
+        myStart[id] = start;
+        myEnd[id] = end;
+        myDuration[id] = duration;
+        myDirty.set(id);
       }
-      return newQueue;
     }
 
-    private void calculateLatestDates(Node curNode) {
-      ourLogger.fine("Calculating latest dates for:" + curNode);
-      curNode.lft = findLatestFinishTime(myTask_Node, curNode);
-      curNode.lst = myCalendar.shiftDate(curNode.lft,
-          myTaskManager.createLength(-curNode.task.getDuration().getLength()));
-      ourLogger.fine("latest start date=" + curNode.lst);
+    List<Task> scope;
+    if (isFullRecalculationNeeded) {
+      Arrays.fill(myTaskById, null);
+      for (Task t : tasks) {
+        myTaskById[t.getTaskID()] = t;
+      }
+      scope = Arrays.asList(tasks);
+    } else if (myDirty.isEmpty()) {
+      return;
+    } else {
+      scope = collectAffectedTasks();
     }
+    myTaskCount = tasks.length;
+    myProjectEnd = projectEnd;
+    isFullRecalculationNeeded = false;
+    myDirty.clear();
+    calculateLatestDates(scope);
+  }
 
-    private void enqueueDependees(LinkedList<Node> newQueue, Node curNode) {
-      for (int i = 0; i < curNode.dependees.size(); i++) {
-        Task dependeeTask = curNode.dependees.get(i);
-        Node dependeeNode = myTask_Node.get(dependeeTask);
-        assert dependeeNode.numDependants > 0;
-        if (--dependeeNode.numDependants == 0) {
-          newQueue.add(dependeeNode);
-        }
+  private void ensureCapacity(int capacity) {
+    int oldCapacity = myTaskById.length;
+    int newCapacity = Math.max(capacity, oldCapacity * 2);
+    myTaskById = Arrays.copyOf(myTaskById, newCapacity);
+    myStart = Arrays.copyOf(myStart, newCapacity);
+    myEnd = Arrays.copyOf(myEnd, newCapacity);
+    myDuration = Arrays.copyOf(myDuration, newCapacity);
+    myLatestStart = Arrays.copyOf(myLatestStart, newCapacity);
+    myLatestFinish = Arrays.copyOf(myLatestFinish, newCapacity);
+    Arrays.fill(myStart, oldCapacity, newCapacity, UNDEFINED);
+    Arrays.fill(myEnd, oldCapacity, newCapacity, UNDEFINED);
+    Arrays.fill(myDuration, oldCapacity, newCapacity, -1);
+    Arrays.fill(myLatestStart, oldCapacity, newCapacity, UNDEFINED);
+    Arrays.fill(myLatestFinish, oldCapacity, newCapacity, UNDEFINED);
+  }
+
+  /**
+   * @return dirty tasks together with all tasks which latest dates depend on them
+   */
+  private List<Task> collectAffectedTasks() {
+    TaskContainmentHierarchyFacade hierarchy = myTaskManager.getTaskHierarchy();
+    BitSet affected = new BitSet();
+    Deque<Task> queue = new ArrayDeque<Task>();
+    for (int id = myDirty.nextSetBit(0); id >= 0; id = myDirty.nextSetBit(id + 1)) {
+      if (id < myTaskById.length && myTaskById[id] != null) {
+        affected.set(id);
+        queue.add(myTaskById[id]);
+      }
+    }
+    List<Task> result = new ArrayList<Task>();
+    while (!queue.isEmpty()) {
+      Task task = queue.poll();
+      result.add(task);
+      for (TaskDependency dep : task.getDependenciesAsDependant().toArray()) {
+        enqueueAffected(dep.getDependee(), affected, queue);
+      }
+      for (Task nested : hierarchy.getNestedTasks(task)) {
+        enqueueAffected(nested, affected, queue);
       }
     }
+    return result;
+  }
+
+  private void enqueueAffected(Task task, BitSet affected, Deque<Task> queue) {
+    int id = task.getTaskID();
+    if (id >= 0 && id < myTaskById.length && myTaskById[id] == task && !affected.get(id)) {
+      affected.set(id);
+      queue.add(task);
+    }
+  }
 
-    private Date findLatestFinishTime(Map<Task, Node> task_node, Node curNode) {
-      Date result = curNode.lft;
-      Node resultNode = null;
-      TaskDependency[] deps = curNode.task.getDependenciesAsDependee().toArray();
-      for (TaskDependency dep : deps) {
-        Node depNode = task_node.get(dep.getDependant());
-        if (depNode != null) {
-          Date lft = findLatestFinishTime(curNode, depNode, dep);
-          if (result == null || result.after(lft)) {
-            result = lft;
-            resultNode = depNode;
-          }
+  /**
+   * Calculates latest dates of the tasks in the given scope. Tasks are processed after all their
+   * dependants and their supertask, if those are in the scope too; latest dates of the tasks outside
+   * of the scope are taken as is.
+   */
+  private void calculateLatestDates(List<Task> scope) {
+    TaskContainmentHierarchyFacade hierarchy = myTaskManager.getTaskHierarchy();
+    BitSet inScope = new BitSet();
+    for (Task t : scope) {
+      inScope.set(t.getTaskID());
+    }
+    Map<Task, Integer> blockerCount = new HashMap<Task, Integer>();
+    Deque<Task> queue = new ArrayDeque<Task>();
+    for (Task t : scope) {
+      int count = 0;
+      for (TaskDependency dep : t.getDependenciesAsDependee().toArray()) {
+        if (isInScope(dep.getDependant(), inScope)) {
+          count++;
         }
       }
-      if (result == null || result.after(myDeadlineNode.lft)) {
-        result = myDeadlineNode.lft;
+      if (isInScope(hierarchy.getContainer(t), inScope)) {
+        count++;
+      }
+      myLatestStart[t.getTaskID()] = UNDEFINED;
+      myLatestFinish[t.getTaskID()] = UNDEFINED;
+      if (count == 0) {
+        queue.add(t);
+      } else {
+        blockerCount.put(t, count);
+      }
+    }
+    while (!queue.isEmpty()) {
+      Task task = queue.poll();
+      calculateLatestDates(task, hierarchy);
+      for (TaskDependency dep : task.getDependenciesAsDependant().toArray()) {
+        unblock(dep.getDependee(), blockerCount, queue);
+      }
+      for (Task nested : hierarchy.getNestedTasks(task)) {
+        unblock(nested, blockerCount, queue);
       }
-      ourLogger.fine("latest finish time=" + result + " (defined by:" + resultNode + ")");
-      return result;
     }
+    if (!blockerCount.isEmpty()) {
+      ourLogger.warning("Can't calculate latest dates of tasks " + blockerCount.keySet()
+          + " because of circular dependencies");
+    }
+  }
+
+  private boolean isInScope(Task task, BitSet inScope) {
+    return task != null && task.getTaskID() >= 0 && inScope.get(task.getTaskID());
+  }
+
+  private void unblock(Task task, Map<Task, Integer> blockerCount, Deque<Task> queue) {
+    Integer count = blockerCount.get(task);
+    if (count == null) {
+      return;
+    }
+    if (count == 1) {
+      blockerCount.remove(task);
+      queue.add(task);
+    } else {
+      blockerCount.put(task, count - 1);
+    }
+  }
 
-    Date findLatestFinishTime(Node curNode, Node depNode, TaskDependency dep) {
-      Collision backwardCollision = dep.getConstraint().getBackwardCollision(depNode.lst);
-      if (backwardCollision == null) {
-        return depNode.lst;
+  private void calculateLatestDates(Task task, TaskContainmentHierarchyFacade hierarchy) {
+    ourLogger.fine("Calculating latest dates for:" + task);
+    int id = task.getTaskID();
+    long result = UNDEFINED;
+    Task supertask = hierarchy.getContainer(task);
+    if (supertask != null && supertask.getTaskID() >= 0 && isCritical(supertask.getTaskID())) {
+      result = myLatestFinish[supertask.getTaskID()];
+    }
+    for (TaskDependency dep : task.getDependenciesAsDependee().toArray()) {
+      int dependantId = dep.getDependant().getTaskID();
+      if (dependantId < 0 || dependantId >= myTaskById.length || myLatestStart[dependantId] == UNDEFINED) {
+        continue;
       }
-      return backwardCollision.getAcceptableStart().getTime();
+      long lft = findLatestFinishTime(dep, myLatestStart[dependantId]);
+      if (result == UNDEFINED || result > lft) {
+        result = lft;
+      }
+    }
+    if (result == UNDEFINED || result > myProjectEnd) {
+      result = myProjectEnd;
+    }
+    myLatestFinish[id] = result;
+    myLatestStart[id] = myCalendar.shiftDate(new Date(result),
+        myTaskManager.createLength(-myDuration[id])).getTime();
+    if (isCritical(id)) {
+      ourLogger.fine("\n\nNode=" + task + " is critical\n\n");
+    }
+  }
+
+  private long findLatestFinishTime(TaskDependency dep, long dependantLatestStart) {
+    Collision backwardCollision = dep.getConstraint().getBackwardCollision(new Date(dependantLatestStart));
+    if (backwardCollision == null) {
+      return dependantLatestStart;
     }
+    return backwardCollision.getAcceptableStart().getTime().getTime();
   }
 }
@@ -26,6 +26,7 @@ import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.common.collect.BoundType;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
@@ -40,6 +41,8 @@ import net.sourceforge.ganttproject.task.dependency.TaskDependency.Hardness;
 import net.sourceforge.ganttproject.task.dependency.TaskDependencyConstraint;
 import net.sourceforge.ganttproject.task.dependency.TaskDependencyException;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -62,7 +65,11 @@ import java.util.Set;
  */
 public class DependencyGraph {
   public static interface Listener {
-    void onChange();
+    /**
+     * @param dirtyNodes nodes which were added to the graph or which incoming edges were
+     *                   added or removed since the previous notification
+     */
+    void onChange(Collection<Node> dirtyNodes);
   }
 
   public static interface Logger {
@@ -110,7 +117,10 @@ public class DependencyGraph {
 
   /**
    * Explicit dependency is constructed from {@link TaskDependency} instances and corresponds
-   * to dependencies explicitly created by a user
+   * to dependencies explicitly created by a user.
+   *
+   * Dependencies inherited by sibling subtasks share the same explicit dependency and may refresh it
+   * concurrently when scheduler processes a layer in parallel, hence the synchronized accessors.
    */
   static class ExplicitDependencyImpl implements DependencyEdge {
     private final TaskDependency myDep;
@@ -127,17 +137,17 @@ public class DependencyGraph {
     }
 
     @Override
-    public Range<Date> getStartRange() {
+    public synchronized Range<Date> getStartRange() {
       return myStartRange;
     }
 
     @Override
-    public Range<Date> getEndRange() {
+    public synchronized Range<Date> getEndRange() {
       return myEndRange;
     }
 
     @Override
-    public boolean refresh() {
+    public synchronized boolean refresh() {
       GPCalendarCalc calendar = myDstNode.myTask.getManager().getCalendar();
       TaskDependencyConstraint.Collision nextCollision = myDep.getConstraint().getCollision();
       Date acceptableStart = nextCollision.getAcceptableStart().getTime();
@@ -166,7 +176,7 @@ public class DependencyGraph {
     }
 
     @Override
-    public boolean isWeak() {
+    public synchronized boolean isWeak() {
       return isWeak;
     }
 
@@ -634,6 +644,10 @@ public class DependencyGraph {
 
   private GraphData myData = new GraphData(myTxn);
 
+  private final Set<Node> myDirtyNodes = Sets.newLinkedHashSet();
+
+  private boolean isBulkLoading;
+
   public DependencyGraph(Supplier<TaskContainmentHierarchyFacade> taskHierarchy) {
     this(taskHierarchy, new Logger() {
       @Override
@@ -655,11 +669,15 @@ public class DependencyGraph {
    * @param t task being added
    */
   public void addTask(Task t) {
+    if (isBulkLoading) {
+      return;
+    }
     //assert t.getDependencies().toArray().length == 0 : "Task has deps:" + t.getDependencies().toArray();
     //assert myTaskHierarchy.get().hasNestedTasks(t) == false : "Task has nested tasks: " + myTaskHierarchy.get().getNestedTasks(t);
     Node node = new Node(t, myTxn);
     myData.withTransaction().addToLevel(0, node);
     myNodeMap.put(t, node);
+    markDirty(node);
     fireGraphChanged();
   }
 
@@ -668,6 +686,9 @@ public class DependencyGraph {
    * @param task task to remove
    */
   public void removeTask(Task task) {
+    if (isBulkLoading) {
+      return;
+    }
     Node node = myNodeMap.get(task);
     if (node == null) {
       return;
@@ -693,6 +714,9 @@ public class DependencyGraph {
    * @param dep dependency to add
    */
   public void addDependency(TaskDependency dep) {
+    if (isBulkLoading) {
+      return;
+    }
     Task srcTask = dep.getDependee();
     Node srcNode = myNodeMap.get(srcTask);
     if (srcNode == null) {
@@ -728,6 +752,7 @@ public class DependencyGraph {
   private void addEdge(DependencyEdge edge) {
     edge.getSrc().addOutgoing(edge);
     edge.getDst().addIncoming(edge);
+    markDirty(edge.getDst());
     PriorityQueue<Node> queue = new PriorityQueue<DependencyGraph.Node>(11, new Comparator<Node>() {
       @Override
       public int compare(Node o1, Node o2) {
@@ -782,6 +807,9 @@ public class DependencyGraph {
    * @param dep dependency to remove
    */
   public void removeDependency(TaskDependency dep) {
+    if (isBulkLoading) {
+      return;
+    }
     Node srcNode = myNodeMap.get(dep.getDependee());
     Node dstNode = myNodeMap.get(dep.getDependant());
     if (srcNode == null && dstNode == null) {
@@ -817,6 +845,7 @@ public class DependencyGraph {
   private void removeEdge(DependencyEdge edge) {
     edge.getSrc().removeOutgoing(edge);
     edge.getDst().removeIncoming(edge);
+    markDirty(edge.getDst());
 
     Deque<DependencyEdge> queue = new LinkedList<DependencyEdge>();
     queue.add(edge);
@@ -837,6 +866,9 @@ public class DependencyGraph {
    * @param where new container or {@code null} if task is moved to the top level
    */
   public void move(Task what, Task where) {
+    if (isBulkLoading) {
+      return;
+    }
     Node subNode = myNodeMap.get(what);
     if (subNode == null) {
       return;
@@ -891,6 +923,85 @@ public class DependencyGraph {
     return removed;
   }
 
+  /**
+   * Answers whether a dependency of dependant on dependee would make a loop, without modifying the graph.
+   * Subtasks of the dependant inherit the dependency, so it makes a loop if dependee is reachable
+   * from the dependant or any of its subtasks.
+   *
+   * @return true if the dependency would make a loop, false if it wouldn't or if any of tasks is not in the graph
+   */
+  public boolean isLooping(Task dependant, Task dependee) {
+    Node dstNode = myNodeMap.get(dependant);
+    Node srcNode = myNodeMap.get(dependee);
+    if (dstNode == null || srcNode == null) {
+      return false;
+    }
+    return visitDownstream(dstNode, srcNode, null);
+  }
+
+  /**
+   * Answers {@link #isLooping(Task, Task)} for all possible dependees at once.
+   *
+   * @return tasks which can't become dependees of the given dependant because the dependency would make a loop
+   */
+  public Set<Task> findLoopingDependees(Task dependant) {
+    Set<Task> result = Sets.newHashSet();
+    Node node = myNodeMap.get(dependant);
+    if (node != null) {
+      visitDownstream(node, null, result);
+    }
+    return result;
+  }
+
+  /**
+   * Walks the nodes reachable from the root and its subtasks with breadth-first search.
+   * Node levels grow along every path, so when looking for a target we don't go through the nodes
+   * which level is not less than the target level.
+   *
+   * @param target node to look for, or null to walk all reachable nodes
+   * @param visitedTasks if not null, receives tasks of the visited nodes
+   * @return true if target has been reached
+   */
+  private boolean visitDownstream(Node root, Node target, Set<Task> visitedTasks) {
+    BitSet visited = new BitSet();
+    List<Node> queue = Lists.newArrayList();
+    queue.add(root);
+    visited.set(root.myTask.getTaskID());
+    // Subtasks come first
+    for (int head = 0; head < queue.size(); head++) {
+      for (DependencyEdge edge : queue.get(head).getIncoming()) {
+        if (edge instanceof ImplicitSubSuperTaskDependency && !visited.get(edge.getSrc().myTask.getTaskID())) {
+          visited.set(edge.getSrc().myTask.getTaskID());
+          queue.add(edge.getSrc());
+        }
+      }
+    }
+    if (target != null && visited.get(target.myTask.getTaskID())) {
+      return true;
+    }
+    for (int head = 0; head < queue.size(); head++) {
+      Node node = queue.get(head);
+      if (visitedTasks != null) {
+        visitedTasks.add(node.myTask);
+      }
+      for (DependencyEdge edge : node.getOutgoing()) {
+        Node dst = edge.getDst();
+        if (dst == target) {
+          return true;
+        }
+        if (visited.get(dst.myTask.getTaskID())) {
+          continue;
+        }
+        if (target != null && dst.getLevel() >= target.getLevel()) {
+          continue;
+        }
+        visited.set(dst.myTask.getTaskID());
+        queue.add(dst);
+      }
+    }
+    return false;
+  }
+
   int checkLayerValidity() {
     return myData.checkLayerValidity();
   }
@@ -899,16 +1010,338 @@ public class DependencyGraph {
     return myData.getLayer(num);
   }
 
+  /**
+   * Starts bulk loading mode. In this mode the graph ignores all structural changes, and
+   * {@link #finishBulkLoad(Collection, Collection)} builds it from scratch when all tasks and dependencies
+   * are known. It is intended for project loading and import, where building the graph
+   * incrementally costs a leveling pass and a loop check per dependency.
+   */
+  public void startBulkLoad() {
+    Preconditions.checkState(!myTxn.isRunning(), "Can't start bulk loading in a transaction");
+    isBulkLoading = true;
+  }
+
+  /**
+   * Finishes bulk loading mode and builds the graph, see {@link #load(Collection, Collection)}
+   *
+   * @return dependencies which close loops and were not added to the graph. Loop checks do not work
+   * in bulk loading mode, so callers are expected to delete them.
+   */
+  public List<TaskDependency> finishBulkLoad(Collection<Task> tasks, Collection<TaskDependency> deps) {
+    isBulkLoading = false;
+    return load(tasks, deps);
+  }
+
+  public boolean isBulkLoading() {
+    return isBulkLoading;
+  }
+
+  /**
+   * Replaces the graph contents with the given tasks and dependencies. Implicit edges are created
+   * according to the task hierarchy. Node levels are computed with a single topological pass, and if
+   * some dependencies make loops, all loops are reported at once and the graph is then built with the
+   * incremental algorithm, which ignores the dependencies closing the loops.
+   *
+   * @return dependencies which close loops and were not added to the graph
+   */
+  public List<TaskDependency> load(Collection<Task> tasks, Collection<TaskDependency> deps) {
+    Preconditions.checkState(!myTxn.isRunning(), "Can't load the graph in a transaction");
+    clear();
+    Node[] nodes = new Node[tasks.size()];
+    Map<Task, Integer> task2index = Maps.newHashMapWithExpectedSize(tasks.size());
+    for (Task t : tasks) {
+      Node node = new Node(t, myTxn);
+      myNodeMap.put(t, node);
+      task2index.put(t, task2index.size());
+      nodes[task2index.size() - 1] = node;
+    }
+
+    // Subtasks of every node as a linked list in two arrays
+    int[] firstChild = new int[nodes.length];
+    int[] nextSibling = new int[nodes.length];
+    Arrays.fill(firstChild, -1);
+    Arrays.fill(nextSibling, -1);
+    EdgeList edges = new EdgeList(nodes.length + deps.size());
+    TaskContainmentHierarchyFacade hierarchy = myTaskHierarchy.get();
+    for (int i = nodes.length - 1; i >= 0; i--) {
+      Integer superIdx = task2index.get(hierarchy.getContainer(nodes[i].myTask));
+      if (superIdx != null) {
+        edges.add(new ImplicitSubSuperTaskDependency(nodes[i], nodes[superIdx]), i, superIdx);
+        nextSibling[i] = firstChild[superIdx];
+        firstChild[superIdx] = i;
+      }
+    }
+    int[] subtree = new int[nodes.length];
+    for (TaskDependency dep : deps) {
+      Integer srcIdx = task2index.get(dep.getDependee());
+      Integer dstIdx = task2index.get(dep.getDependant());
+      if (srcIdx == null || dstIdx == null) {
+        continue;
+      }
+      DependencyEdge explicitEdge = new ExplicitDependencyImpl(dep, nodes[srcIdx], nodes[dstIdx]);
+      edges.add(explicitEdge, srcIdx, dstIdx);
+      // Subtasks of the dependant, at any depth, inherit the dependency
+      int subtreeSize = 0;
+      for (int child = firstChild[dstIdx]; child >= 0; child = nextSibling[child]) {
+        subtree[subtreeSize++] = child;
+      }
+      for (int head = 0; head < subtreeSize; head++) {
+        int sub = subtree[head];
+        edges.add(new ImplicitInheritedDependency(explicitEdge, nodes[dstIdx], nodes[sub]), srcIdx, sub);
+        for (int child = firstChild[sub]; child >= 0; child = nextSibling[child]) {
+          subtree[subtreeSize++] = child;
+        }
+      }
+    }
+
+    int[] levels = computeLevels(nodes, edges);
+    if (levels == null) {
+      return loadIncrementally(nodes, edges);
+    }
+    for (int i = 0; i < edges.size(); i++) {
+      DependencyEdge edge = edges.get(i);
+      edge.getSrc().addOutgoing(edge);
+      edge.getDst().addIncoming(edge);
+    }
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i].myData = nodes[i].myData.setLevel(levels[i]);
+      myData.addToLevel(levels[i], nodes[i]);
+      markDirty(nodes[i]);
+    }
+    fireGraphChanged();
+    return Collections.emptyList();
+  }
+
+  /**
+   * Edges with source and target node indices kept in int arrays
+   */
+  private static class EdgeList {
+    private final List<DependencyEdge> myEdges;
+    private int[] mySrc;
+    private int[] myDst;
+
+    EdgeList(int expectedSize) {
+      myEdges = Lists.newArrayListWithExpectedSize(expectedSize);
+      mySrc = new int[Math.max(expectedSize, 16)];
+      myDst = new int[mySrc.length];
+    }
+
+    void add(DependencyEdge edge, int src, int dst) {
+      if (myEdges.size() == mySrc.length) {
+        mySrc = Arrays.copyOf(mySrc, mySrc.length * 2);
+        myDst = Arrays.copyOf(myDst, myDst.length * 2);
+      }
+      mySrc[myEdges.size()] = src;
+      myDst[myEdges.size()] = dst;
+      myEdges.add(edge);
+    }
+
+    int size() {
+      return myEdges.size();
+    }
+
+    DependencyEdge get(int idx) {
+      return myEdges.get(idx);
+    }
+  }
+
+  /**
+   * Computes node levels with Kahn's algorithm: a node gets its level when all its incoming edges
+   * are processed, and the level is one more than the max level of its predecessors.
+   *
+   * @return node levels, or null if there are loops. Loops are reported to the logger in this case.
+   */
+  private int[] computeLevels(Node[] nodes, EdgeList edges) {
+    int n = nodes.length;
+    int m = edges.size();
+    // Outgoing edge indices grouped by the source node: edges of node i are outEdges[outStart[i]..outStart[i+1])
+    int[] outStart = new int[n + 1];
+    int[] inDegree = new int[n];
+    for (int e = 0; e < m; e++) {
+      outStart[edges.mySrc[e] + 1]++;
+      inDegree[edges.myDst[e]]++;
+    }
+    for (int i = 0; i < n; i++) {
+      outStart[i + 1] += outStart[i];
+    }
+    int[] outEdges = new int[m];
+    int[] fill = Arrays.copyOf(outStart, n);
+    for (int e = 0; e < m; e++) {
+      outEdges[fill[edges.mySrc[e]]++] = e;
+    }
+
+    int[] levels = new int[n];
+    int[] queue = new int[n];
+    int tail = 0;
+    for (int i = 0; i < n; i++) {
+      if (inDegree[i] == 0) {
+        queue[tail++] = i;
+      }
+    }
+    for (int head = 0; head < tail; head++) {
+      int node = queue[head];
+      for (int k = outStart[node]; k < outStart[node + 1]; k++) {
+        int dst = edges.myDst[outEdges[k]];
+        levels[dst] = Math.max(levels[dst], levels[node] + 1);
+        if (--inDegree[dst] == 0) {
+          queue[tail++] = dst;
+        }
+      }
+    }
+    if (tail == n) {
+      return levels;
+    }
+    reportLoops(nodes, edges, outStart, outEdges, inDegree);
+    return null;
+  }
+
+  /**
+   * Finds and reports loops among the nodes which were not leveled, that is, which still have
+   * non-zero in-degree. Nodes which only follow the loops are excluded first, so that every remaining
+   * node has an outgoing edge to another remaining node and following such edges always closes a loop.
+   */
+  private void reportLoops(Node[] nodes, EdgeList edges, int[] outStart, int[] outEdges, int[] inDegree) {
+    int n = nodes.length;
+    boolean[] remaining = new boolean[n];
+    int[] outDegree = new int[n];
+    for (int i = 0; i < n; i++) {
+      remaining[i] = inDegree[i] > 0;
+    }
+    List<List<Integer>> predecessors = Lists.newArrayListWithExpectedSize(n);
+    for (int i = 0; i < n; i++) {
+      predecessors.add(null);
+    }
+    for (int e = 0; e < edges.size(); e++) {
+      int src = edges.mySrc[e];
+      int dst = edges.myDst[e];
+      if (remaining[src] && remaining[dst]) {
+        outDegree[src]++;
+        if (predecessors.get(dst) == null) {
+          predecessors.set(dst, Lists.<Integer>newArrayList());
+        }
+        predecessors.get(dst).add(src);
+      }
+    }
+    Deque<Integer> sinks = Lists.newLinkedList();
+    for (int i = 0; i < n; i++) {
+      if (remaining[i] && outDegree[i] == 0) {
+        sinks.add(i);
+      }
+    }
+    while (!sinks.isEmpty()) {
+      int sink = sinks.pollFirst();
+      remaining[sink] = false;
+      if (predecessors.get(sink) != null) {
+        for (int pred : predecessors.get(sink)) {
+          if (remaining[pred] && --outDegree[pred] == 0) {
+            sinks.add(pred);
+          }
+        }
+      }
+    }
+
+    List<String> loops = Lists.newArrayList();
+    int[] walkPosition = new int[n];
+    Arrays.fill(walkPosition, -1);
+    boolean[] visited = new boolean[n];
+    List<DependencyEdge> walk = Lists.newArrayList();
+    List<Integer> walkNodes = Lists.newArrayList();
+    for (int start = 0; start < n; start++) {
+      if (!remaining[start] || visited[start]) {
+        continue;
+      }
+      walk.clear();
+      walkNodes.clear();
+      int node = start;
+      while (!visited[node]) {
+        visited[node] = true;
+        walkPosition[node] = walk.size();
+        walkNodes.add(node);
+        for (int k = outStart[node]; k < outStart[node + 1]; k++) {
+          int e = outEdges[k];
+          if (remaining[edges.myDst[e]]) {
+            walk.add(edges.get(e));
+            node = edges.myDst[e];
+            break;
+          }
+        }
+      }
+      // We stopped either on a node of this walk, which closes a new loop, or on a node visited before
+      if (walkPosition[node] >= 0) {
+        List<String> trace = Lists.newArrayList();
+        for (DependencyEdge edge : walk.subList(walkPosition[node], walk.size())) {
+          trace.add(edge.toString());
+        }
+        loops.add(Joiner.on("<br>").join(trace));
+      }
+      for (int walked : walkNodes) {
+        walkPosition[walked] = -1;
+      }
+    }
+    myLogger.logDependencyLoop("Dependency loop detected",
+        Joiner.on("<br><br>").join(loops) + "\n\nSome of the dependencies making the loops have been ignored");
+  }
+
+  /**
+   * Builds the graph edge by edge when the topological pass found loops. Explicit dependencies which
+   * would close a loop are skipped together with the dependencies inherited from them. Loops have
+   * already been reported, so the logger is muted.
+   *
+   * @return skipped dependencies
+   */
+  private List<TaskDependency> loadIncrementally(Node[] nodes, EdgeList edges) {
+    for (Node node : nodes) {
+      myData.addToLevel(0, node);
+      markDirty(node);
+    }
+    List<TaskDependency> skipped = Lists.newArrayList();
+    Set<DependencyEdge> skippedEdges = Sets.newIdentityHashSet();
+    Logger logger = myLogger;
+    myLogger = new Logger() {
+      @Override
+      public void logDependencyLoop(String title, String message) {
+      }
+    };
+    try {
+      for (int i = 0; i < edges.size(); i++) {
+        DependencyEdge edge = edges.get(i);
+        if (edge instanceof ExplicitDependencyImpl && isLooping(edge.getDst().myTask, edge.getSrc().myTask)) {
+          skipped.add(((ExplicitDependencyImpl) edge).myDep);
+          skippedEdges.add(edge);
+          continue;
+        }
+        if (edge instanceof ImplicitInheritedDependency
+            && skippedEdges.contains(((ImplicitInheritedDependency) edge).myExplicitDep)) {
+          continue;
+        }
+        addEdge(edge);
+      }
+    } finally {
+      myLogger = logger;
+    }
+    fireGraphChanged();
+    return skipped;
+  }
+
   public void addListener(Listener l) {
     myListeners.add(l);
   }
 
+  private void markDirty(Node node) {
+    // Changes made in a transaction are always rolled back, so there is no need to track them
+    if (!myTxn.isRunning()) {
+      myDirtyNodes.add(node);
+    }
+  }
+
   private void fireGraphChanged() {
     if (myTxn.isRunning()) {
       return;
     }
+    List<Node> dirtyNodes = ImmutableList.copyOf(myDirtyNodes);
+    myDirtyNodes.clear();
     for (Listener l : myListeners) {
-      l.onChange();
+      l.onChange(dirtyNodes);
     }
   }
 
@@ -916,6 +1349,7 @@ public class DependencyGraph {
     myData = myData.rollback();
     myData.myLayers.clear();
     myNodeMap.clear();
+    myDirtyNodes.clear();
   }
 
   public void startTransaction() {
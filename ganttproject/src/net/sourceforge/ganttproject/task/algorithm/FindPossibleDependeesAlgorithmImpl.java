@@ -19,6 +19,8 @@ along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
 package net.sourceforge.ganttproject.task.algorithm;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
 
 import net.sourceforge.ganttproject.task.Task;
 import net.sourceforge.ganttproject.task.TaskContainmentHierarchyFacade;
@@ -35,25 +37,36 @@ public abstract class FindPossibleDependeesAlgorithmImpl implements FindPossible
   @Override
   public Task[] run(Task dependant) {
     myContainmentFacade = createContainmentFacade();
+    DependencyGraph graph = getDependencyGraph();
+    Set<Task> looping = graph == null ? Collections.<Task>emptySet() : graph.findLoopingDependees(dependant);
     ArrayList<Task> result = new ArrayList<Task>();
     Task root = myContainmentFacade.getRootTask();
     Task[] nestedTasks = myContainmentFacade.getNestedTasks(root);
-    processTask(nestedTasks, dependant, result);
+    processTask(nestedTasks, dependant, looping, result);
     return result.toArray(new Task[0]);
   }
 
   protected abstract TaskContainmentHierarchyFacade createContainmentFacade();
 
-  private void processTask(Task[] taskList, Task dependant, ArrayList<Task> result) {
+  /**
+   * @return graph which is used to exclude the tasks which would make a dependency loop, or null
+   */
+  protected DependencyGraph getDependencyGraph() {
+    return null;
+  }
+
+  private void processTask(Task[] taskList, Task dependant, Set<Task> looping, ArrayList<Task> result) {
     for (int i = 0; i < taskList.length; i++) {
       Task next = taskList[i];
       if (!next.equals(dependant)) {
         Task[] nested = myContainmentFacade.getNestedTasks(next);
         // if (nested.length==0) {
-        result.add(next);
+        if (!looping.contains(next)) {
+          result.add(next);
+        }
         // }
         // else {
-        processTask(nested, dependant, result);
+        processTask(nested, dependant, looping, result);
         // }
       }
     }
@@ -28,45 +28,52 @@ public abstract class RecalculateTaskCompletionPercentageAlgorithm extends Algor
       return;
     }
     TaskContainmentHierarchyFacade facade = createContainmentFacade();
-    recalculateSupertaskCompletionPercentage(facade.getRootTask(), facade);
+    TaskRollups rollups = getRollups();
+    rollups.clear();
+    recalculateSupertaskCompletionPercentage(facade.getRootTask(), facade, rollups);
   }
 
-  static private class SubtreeCompletion {
-    public final long myCompletedDays;
-    public final long myPlannedDays;
-
-    SubtreeCompletion(long completedDays, long plannedDays) {
-      myCompletedDays = completedDays;
-      myPlannedDays = plannedDays;
-    };
+  /**
+   * Recalculates completion percentage of the given task, if it is a supertask, and of its ancestors.
+   * Completion of the other subtrees is taken from the rollups, so it is enough to call this method
+   * when progress or duration of the given task changes.
+   */
+  public void run(Task task) {
+    if (!isEnabled()) {
+      return;
+    }
+    TaskContainmentHierarchyFacade facade = createContainmentFacade();
+    TaskRollups rollups = getRollups();
+    for (Task next = task; next != null; next = facade.getContainer(next)) {
+      if (facade.hasNestedTasks(next)) {
+        next.setCompletionPercentage(rollups.getRollup(next).getCompletionPercentage());
+      }
+    }
   }
 
-  private SubtreeCompletion recalculateSupertaskCompletionPercentage(Task task, TaskContainmentHierarchyFacade facade) {
-
+  private void recalculateSupertaskCompletionPercentage(Task task, TaskContainmentHierarchyFacade facade, TaskRollups rollups) {
     Task[] nestedTasks = facade.getNestedTasks(task);
-
     if (nestedTasks.length == 0) {
-      long nextDuration = task.getDuration().getLength();
-      return new SubtreeCompletion(nextDuration * task.getCompletionPercentage(), nextDuration);
+      return;
     }
-
-    long completedDays = 0;
-    long plannedDays = 0;
-
     for (int i = 0; i < nestedTasks.length; i++) {
-      Task next = nestedTasks[i];
-      SubtreeCompletion subtreeCompletion = recalculateSupertaskCompletionPercentage(next, facade);
-      completedDays += subtreeCompletion.myCompletedDays;
-      plannedDays += subtreeCompletion.myPlannedDays;
+      recalculateSupertaskCompletionPercentage(nestedTasks[i], facade, rollups);
     }
-
-    int completionPercentage = (plannedDays == 0) ? 0 : (int) (completedDays / plannedDays);
-    task.setCompletionPercentage(completionPercentage);
-
-    return new SubtreeCompletion(completedDays, plannedDays);
-
+    task.setCompletionPercentage(rollups.getRollup(task).getCompletionPercentage());
   }
 
   protected abstract TaskContainmentHierarchyFacade createContainmentFacade();
 
-}
\ No newline at end of file
+  /**
+   * @return rollups over the same hierarchy as {@link #createContainmentFacade()} returns. Subclasses
+   * are expected to return the cache shared with the task model, default implementation returns a new one.
+   */
+  protected TaskRollups getRollups() {
+    return new TaskRollups(new TaskContainmentHierarchyFacade.Factory() {
+      @Override
+      public TaskContainmentHierarchyFacade createFacade() {
+        return createContainmentFacade();
+      }
+    });
+  }
+}
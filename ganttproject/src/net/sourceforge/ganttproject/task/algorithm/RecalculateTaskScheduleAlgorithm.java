@@ -62,7 +62,7 @@ public abstract class RecalculateTaskScheduleAlgorithm extends AlgorithmBase {
 
 
   @Override
-  protected boolean isEnabled() {
+  public boolean isEnabled() {
     return false;
   }
 
@@ -29,6 +29,7 @@ import com.google.common.base.Supplier;
 import com.google.common.collect.BoundType;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
 import net.sourceforge.ganttproject.GPLogger;
 import net.sourceforge.ganttproject.task.Task;
 import net.sourceforge.ganttproject.task.TaskContainmentHierarchyFacade;
@@ -42,19 +43,184 @@ import net.sourceforge.ganttproject.task.event.TaskListener;
 import net.sourceforge.ganttproject.task.event.TaskListenerAdapter;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.logging.Logger;
 
 /**
  * This class walk the dependency graph and updates start and end dates of tasks
  * according to information returned by dependency edges.
  *
+ * By default scheduler works incrementally when it is triggered by a change in the task model:
+ * it starts from the nodes which dates or incoming edges have changed and walks
+ * their downstream cone in the layer order, stopping at the nodes which dates
+ * remain the same after scheduling. Explicit {@link #run()} call always walks the whole graph.
+ *
+ * Nodes in the same layer do not depend on each other, so when a fork-join pool is set
+ * with {@link #setParallelPool(ForkJoinPool)}, date constraints of the nodes in a big enough layer
+ * are computed in parallel. Tasks are then modified sequentially in the layer order. Task manager
+ * uses the common pool if system property org.ganttproject.scheduler.parallel is true; parallel mode is
+ * experimental and off by default.
+ *
  * @author dbarashev
  */
 public class SchedulerImpl extends AlgorithmBase {
+  /**
+   * Counters of the nodes processed by the scheduler since creation or the last reset.
+   */
+  public static class Statistics {
+    private long myRunCount;
+    private long myVisitedCount;
+    private long myModifiedCount;
+
+    public long getRunCount() {
+      return myRunCount;
+    }
+
+    public long getVisitedCount() {
+      return myVisitedCount;
+    }
+
+    public long getModifiedCount() {
+      return myModifiedCount;
+    }
+
+    public void reset() {
+      myRunCount = 0;
+      myVisitedCount = 0;
+      myModifiedCount = 0;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("runs=%d visited=%d modified=%d", myRunCount, myVisitedCount, myModifiedCount);
+    }
+  }
+
+  /**
+   * Layers smaller than this are scheduled sequentially even if parallel mode is on
+   */
+  private static final int MIN_PARALLEL_LAYER_SIZE = 64;
+
+  private static final Comparator<Node> LAYER_ORDER = new Comparator<Node>() {
+    @Override
+    public int compare(Node o1, Node o2) {
+      int result = o1.getLevel() - o2.getLevel();
+      return result == 0 ? o1.getTask().getTaskID() - o2.getTask().getTaskID() : result;
+    }
+  };
+
+  /**
+   * State of incremental scheduling pass. Nodes are polled from the queue in the layer order and
+   * only nodes from the layers above the current one may be queued, so every node is visited at most once.
+   */
+  private static class Propagation {
+    private final PriorityQueue<Node> myQueue = new PriorityQueue<Node>(11, LAYER_ORDER);
+    private final Set<Node> myQueued = Sets.newHashSet();
+    private final Set<Node> myShifted = Sets.newHashSet();
+    private int myCurrentLevel = -1;
+
+    void enqueue(Node node) {
+      if (node.getLevel() > myCurrentLevel && myQueued.add(node)) {
+        myQueue.add(node);
+      }
+    }
+
+    /**
+     * Registers a node which task dates have changed. Its dependants need to be scheduled
+     * anyway, even if the node itself stays where it is.
+     */
+    void enqueueShifted(Node node) {
+      if (node.getLevel() > myCurrentLevel) {
+        myShifted.add(node);
+        enqueue(node);
+      } else {
+        enqueueDependants(node);
+      }
+    }
+
+    void enqueueDependants(Node node) {
+      for (DependencyEdge edge : node.getOutgoing()) {
+        enqueue(edge.getDst());
+      }
+    }
+
+    boolean isEmpty() {
+      return myQueue.isEmpty();
+    }
+
+    List<Node> pollLayer() {
+      Node first = myQueue.poll();
+      myCurrentLevel = first.getLevel();
+      List<Node> result = Lists.newArrayList(first);
+      while (!myQueue.isEmpty() && myQueue.peek().getLevel() == myCurrentLevel) {
+        result.add(myQueue.poll());
+      }
+      return result;
+    }
+
+    boolean isShifted(Node node) {
+      return myShifted.contains(node);
+    }
+  }
+
+  /**
+   * Start and end date ranges of a node computed from its incoming edges
+   */
+  private static class Constraints {
+    private final Range<Date> myStartRange;
+    private final Range<Date> myEndRange;
+
+    Constraints(Range<Date> startRange, Range<Date> endRange) {
+      myStartRange = startRange;
+      myEndRange = endRange;
+    }
+  }
+
+  /**
+   * Computes constraints of the layer nodes in the given index interval, splitting the interval
+   * while it is big enough. Results are written into the array slots with the same indexes.
+   */
+  private class ComputeConstraintsTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final List<Node> myLayer;
+    private final Constraints[] myResult;
+    private final int myFrom;
+    private final int myTo;
+
+    ComputeConstraintsTask(List<Node> layer, Constraints[] result, int from, int to) {
+      myLayer = layer;
+      myResult = result;
+      myFrom = from;
+      myTo = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (myTo - myFrom <= MIN_PARALLEL_LAYER_SIZE / 2) {
+        for (int i = myFrom; i < myTo; i++) {
+          myResult[i] = computeConstraintsSafely(myLayer.get(i));
+        }
+        return;
+      }
+      int middle = (myFrom + myTo) >>> 1;
+      invokeAll(new ComputeConstraintsTask(myLayer, myResult, myFrom, middle),
+          new ComputeConstraintsTask(myLayer, myResult, middle, myTo));
+    }
+  }
+
   private final DependencyGraph myGraph;
   private boolean isRunning;
+  private boolean isIncremental = true;
+  private ForkJoinPool myParallelPool;
+  private Propagation myPropagation;
+  private final Statistics myStatistics = new Statistics();
   private final Supplier<TaskContainmentHierarchyFacade> myTaskHierarchy;
   private final TaskListener myTaskListener;
 
@@ -62,15 +228,20 @@ public class SchedulerImpl extends AlgorithmBase {
     myGraph = graph;
     myGraph.addListener(new DependencyGraph.Listener() {
       @Override
-      public void onChange() {
-        run();
+      public void onChange(Collection<Node> dirtyNodes) {
+        runIncremental(dirtyNodes, Collections.<Node>emptyList());
       }
     });
     myTaskHierarchy = taskHierarchy;
     myTaskListener = new TaskListenerAdapter() {
       @Override
       public void dependencyChanged(TaskDependencyEvent e) {
-        run();
+        Node node = myGraph.getNode(e.getDependency().getDependant());
+        if (node == null) {
+          run();
+        } else {
+          runIncremental(Collections.singletonList(node), Collections.<Node>emptyList());
+        }
       }
     };
   }
@@ -87,6 +258,83 @@ public class SchedulerImpl extends AlgorithmBase {
     return myTaskListener;
   }
 
+  public void setIncremental(boolean incremental) {
+    isIncremental = incremental;
+  }
+
+  public boolean isIncremental() {
+    return isIncremental;
+  }
+
+  public Statistics getStatistics() {
+    return myStatistics;
+  }
+
+  /**
+   * Turns parallel scheduling mode on or off.
+   *
+   * @param pool pool where date constraints of layer nodes are computed, or {@code null}
+   *             if scheduling should run on the calling thread only
+   */
+  public void setParallelPool(ForkJoinPool pool) {
+    myParallelPool = pool;
+  }
+
+  public boolean isParallel() {
+    return myParallelPool != null;
+  }
+
+  /**
+   * Updates the schedule after start or end date of the given task has changed.
+   * In the incremental mode only the tasks which depend on the changed one are visited.
+   *
+   * @param changedTask task which dates have changed
+   */
+  public void run(Task changedTask) {
+    Node node = myGraph.getNode(changedTask);
+    if (node == null) {
+      return;
+    }
+    runIncremental(Collections.<Node>emptyList(), Collections.singletonList(node));
+  }
+
+  private void runIncremental(Collection<Node> dirtyNodes, Collection<Node> shiftedNodes) {
+    if (!isEnabled()) {
+      return;
+    }
+    if (isRunning) {
+      // Changes made by the scheduler itself. Full pass visits all nodes anyway,
+      // and incremental pass needs to know which tasks were shifted as a side effect.
+      if (myPropagation != null) {
+        for (Node node : dirtyNodes) {
+          myPropagation.enqueue(node);
+        }
+        for (Node node : shiftedNodes) {
+          myPropagation.enqueueShifted(node);
+        }
+      }
+      return;
+    }
+    if (!isIncremental) {
+      run();
+      return;
+    }
+    isRunning = true;
+    myPropagation = new Propagation();
+    try {
+      for (Node node : dirtyNodes) {
+        myPropagation.enqueue(node);
+      }
+      for (Node node : shiftedNodes) {
+        myPropagation.enqueueShifted(node);
+      }
+      doRunIncremental(myPropagation);
+    } finally {
+      myPropagation = null;
+      isRunning = false;
+    }
+  }
+
   @Override
   public void run() {
     if (!isEnabled() || isRunning) {
@@ -101,20 +349,81 @@ public class SchedulerImpl extends AlgorithmBase {
   }
 
   private void doRun() {
+    myStatistics.myRunCount++;
     int layers = myGraph.checkLayerValidity();
     for (int i = 0; i < layers; i++) {
-      Collection<Node> layer = myGraph.getLayer(i);
-      for (Node node : layer) {
-        try {
-          schedule(node);
-        } catch (IllegalArgumentException e) {
-          GPLogger.log(e);
+      scheduleLayer(Lists.newArrayList(myGraph.getLayer(i)));
+    }
+  }
+
+  private void doRunIncremental(Propagation propagation) {
+    if (propagation.isEmpty()) {
+      return;
+    }
+    myStatistics.myRunCount++;
+    myGraph.checkLayerValidity();
+    while (!propagation.isEmpty()) {
+      List<Node> layer = propagation.pollLayer();
+      boolean[] modified = scheduleLayer(layer);
+      for (int i = 0; i < layer.size(); i++) {
+        if (modified[i] || propagation.isShifted(layer.get(i))) {
+          propagation.enqueueDependants(layer.get(i));
         }
       }
     }
   }
 
-  private void schedule(Node node) {
+  /**
+   * Schedules nodes which belong to the same layer.
+   *
+   * @return flags telling which nodes have been modified, in the order of the layer list
+   */
+  private boolean[] scheduleLayer(List<Node> layer) {
+    boolean[] result = new boolean[layer.size()];
+    if (myParallelPool == null || layer.size() < MIN_PARALLEL_LAYER_SIZE) {
+      for (int i = 0; i < layer.size(); i++) {
+        result[i] = applyAndCount(layer.get(i), computeConstraintsSafely(layer.get(i)));
+      }
+      return result;
+    }
+    Constraints[] constraints = new Constraints[layer.size()];
+    myParallelPool.invoke(new ComputeConstraintsTask(layer, constraints, 0, layer.size()));
+    for (int i = 0; i < layer.size(); i++) {
+      result[i] = applyAndCount(layer.get(i), constraints[i]);
+    }
+    return result;
+  }
+
+  private Constraints computeConstraintsSafely(Node node) {
+    try {
+      return computeConstraints(node);
+    } catch (IllegalArgumentException e) {
+      GPLogger.log(e);
+      return null;
+    }
+  }
+
+  private boolean applyAndCount(Node node, Constraints constraints) {
+    myStatistics.myVisitedCount++;
+    if (constraints == null) {
+      return false;
+    }
+    try {
+      if (apply(node, constraints)) {
+        myStatistics.myModifiedCount++;
+        return true;
+      }
+    } catch (IllegalArgumentException e) {
+      GPLogger.log(e);
+    }
+    return false;
+  }
+
+  /**
+   * Computes date constraints of the node task. This method doesn't modify tasks and may run
+   * concurrently for the nodes of the same layer.
+   */
+  private Constraints computeConstraints(Node node) {
     Logger logger = GPLogger.getLogger(this);
     GPLogger.debug(logger, "Scheduling node %s", node);
     Range<Date> startRange = Range.all();
@@ -173,8 +482,20 @@ public class SchedulerImpl extends AlgorithmBase {
       endRange = endRange.intersection(subtasksSpan);
     }
     GPLogger.debug(logger, ".. finally, start range=%s", startRange);
+    return new Constraints(startRange, endRange);
+  }
+
+  /**
+   * Modifies node task dates according to the computed constraints.
+   *
+   * @return true if task dates have been modified
+   */
+  private boolean apply(Node node, Constraints constraints) {
+    Range<Date> startRange = constraints.myStartRange;
+    Range<Date> endRange = constraints.myEndRange;
+    boolean modified = false;
     if (startRange.hasLowerBound()) {
-      modifyTaskStart(node.getTask(), startRange.lowerEndpoint());
+      modified = modifyTaskStart(node.getTask(), startRange.lowerEndpoint());
     }
     if (endRange.hasUpperBound()) {
       GPCalendarCalc cal = node.getTask().getManager().getCalendar();
@@ -199,13 +520,14 @@ public class SchedulerImpl extends AlgorithmBase {
           }
         }
       }
-      modifyTaskEnd(node.getTask(), endDate);
+      modified |= modifyTaskEnd(node.getTask(), endDate);
     }
+    return modified;
   }
 
-  private void modifyTaskEnd(Task task, Date newEnd) {
+  private boolean modifyTaskEnd(Task task, Date newEnd) {
     if (task.getEnd().getTime().equals(newEnd)) {
-      return;
+      return false;
     }
     GanttCalendar newEndCalendar = CalendarFactory.createGanttCalendar(newEnd);
     if (getDiagnostic() != null) {
@@ -214,11 +536,12 @@ public class SchedulerImpl extends AlgorithmBase {
     TaskMutator mutator = task.createMutator();
     mutator.setEnd(newEndCalendar);
     mutator.commit();
+    return true;
   }
 
-  private void modifyTaskStart(Task task, Date newStart) {
+  private boolean modifyTaskStart(Task task, Date newStart) {
     if (task.getStart().getTime().equals(newStart)) {
-      return;
+      return false;
     }
     GanttCalendar newStartCalendar = CalendarFactory.createGanttCalendar(newStart);
     if (getDiagnostic() != null) {
@@ -233,5 +556,6 @@ public class SchedulerImpl extends AlgorithmBase {
       mutator.shift(shift);
       mutator.commit();
     }
+    return true;
   }
 }
@@ -0,0 +1,153 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.task.algorithm;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+
+import net.sourceforge.ganttproject.task.Task;
+import net.sourceforge.ganttproject.task.Task.Cost;
+import net.sourceforge.ganttproject.task.TaskContainmentHierarchyFacade;
+
+/**
+ * Memoized subtree aggregates: calculated cost and completed and planned work of the task with all its
+ * nested tasks. Rollup of a supertask is computed from the rollups of its children, so once the cache is
+ * warm, reading a rollup costs O(1) and recomputing it after a change costs O(children) on every level
+ * of the ancestor path.
+ *
+ * Whoever changes a value which contributes to the rollups (task duration or completion, manual cost,
+ * assignment load or resource pay rate) or changes the task hierarchy is expected to call
+ * {@link #invalidate(Task)}, which drops the rollups of the task and all its ancestors. A cached rollup of
+ * a supertask implies that rollups of all its children are cached too, so invalidation stops at the
+ * first ancestor which is not cached.
+ *
+ * Hierarchy may come from a facade over UI tree which is updated asynchronously with the task model.
+ * Such facade is replaced when the tree changes, and we start over whenever we see a different facade.
+ */
+public class TaskRollups {
+  public static class Rollup {
+    private final BigDecimal myCalculatedCost;
+    private final long myCompletedWork;
+    private final long myPlannedWork;
+
+    Rollup(BigDecimal calculatedCost, long completedWork, long plannedWork) {
+      myCalculatedCost = calculatedCost;
+      myCompletedWork = completedWork;
+      myPlannedWork = plannedWork;
+    }
+
+    /**
+     * @return cost of the assignments of the task plus the costs of its children
+     */
+    public BigDecimal getCalculatedCost() {
+      return myCalculatedCost;
+    }
+
+    /**
+     * @return sum of duration multiplied by completion percentage over the leaf tasks of the subtree
+     */
+    public long getCompletedWork() {
+      return myCompletedWork;
+    }
+
+    /**
+     * @return sum of durations of the leaf tasks of the subtree
+     */
+    public long getPlannedWork() {
+      return myPlannedWork;
+    }
+
+    public int getCompletionPercentage() {
+      return myPlannedWork == 0 ? 0 : (int) (myCompletedWork / myPlannedWork);
+    }
+  }
+
+  private final TaskContainmentHierarchyFacade.Factory myHierarchyFactory;
+  private final CostAlgorithmImpl myCostAlgorithm = new CostAlgorithmImpl();
+  private final Map<Task, Rollup> myRollups = Maps.newIdentityHashMap();
+  private TaskContainmentHierarchyFacade myHierarchy;
+
+  public TaskRollups(TaskContainmentHierarchyFacade.Factory hierarchyFactory) {
+    myHierarchyFactory = hierarchyFactory;
+  }
+
+  public synchronized Rollup getRollup(Task task) {
+    return getRollup(task, getHierarchy());
+  }
+
+  /**
+   * Drops the rollups of the given task and its ancestors
+   */
+  public synchronized void invalidate(Task task) {
+    TaskContainmentHierarchyFacade hierarchy = getHierarchy();
+    myRollups.remove(task);
+    for (Task container = hierarchy.getContainer(task); container != null; container = hierarchy.getContainer(container)) {
+      if (myRollups.remove(container) == null) {
+        break;
+      }
+    }
+  }
+
+  public synchronized void clear() {
+    myRollups.clear();
+  }
+
+  synchronized int size() {
+    return myRollups.size();
+  }
+
+  private TaskContainmentHierarchyFacade getHierarchy() {
+    TaskContainmentHierarchyFacade hierarchy = myHierarchyFactory.createFacade();
+    if (hierarchy != myHierarchy) {
+      myRollups.clear();
+      myHierarchy = hierarchy;
+    }
+    return hierarchy;
+  }
+
+  private Rollup getRollup(Task task, TaskContainmentHierarchyFacade hierarchy) {
+    Rollup result = myRollups.get(task);
+    if (result == null) {
+      result = createRollup(task, hierarchy);
+      myRollups.put(task, result);
+    }
+    return result;
+  }
+
+  private Rollup createRollup(Task task, TaskContainmentHierarchyFacade hierarchy) {
+    BigDecimal cost = myCostAlgorithm.getAssignmentCost(task);
+    Task[] nestedTasks = hierarchy.getNestedTasks(task);
+    if (nestedTasks.length == 0) {
+      long duration = task.getDuration().getLength();
+      return new Rollup(cost, duration * task.getCompletionPercentage(), duration);
+    }
+    long completedWork = 0;
+    long plannedWork = 0;
+    for (Task child : nestedTasks) {
+      Rollup childRollup = getRollup(child, hierarchy);
+      completedWork += childRollup.myCompletedWork;
+      plannedWork += childRollup.myPlannedWork;
+      Cost childCost = child.getCost();
+      cost = cost.add(childCost.isCalculated() ? childRollup.myCalculatedCost : childCost.getValue());
+    }
+    return new Rollup(cost, completedWork, plannedWork);
+  }
+}
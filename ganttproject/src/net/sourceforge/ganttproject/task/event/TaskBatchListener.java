@@ -0,0 +1,30 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.task.event;
+
+/**
+ * Task listener which prefers to receive the changes made in a task manager transaction at once.
+ *
+ * While a transaction is open, task manager doesn't call the per-event methods of such listeners
+ * and calls {@link #taskChangesCommitted(TaskChangeSet)} when the outermost transaction commits.
+ * Changes made outside of transactions are delivered with the per-event methods as usual.
+ */
+public interface TaskBatchListener extends TaskListener {
+  void taskChangesCommitted(TaskChangeSet changes);
+}
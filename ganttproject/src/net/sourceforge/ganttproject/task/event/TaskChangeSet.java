@@ -0,0 +1,91 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.task.event;
+
+import java.util.Collections;
+import java.util.Set;
+
+import net.sourceforge.ganttproject.task.Task;
+import net.sourceforge.ganttproject.task.dependency.TaskDependency;
+
+/**
+ * Consolidated changes of the task model made in a task manager transaction.
+ *
+ * Every task and dependency appears at most once: objects which were added and then removed in the same
+ * transaction are not reported at all, and added or removed objects are not reported as changed.
+ * Changed tasks are those which schedule, progress, properties or position in the hierarchy changed.
+ */
+public class TaskChangeSet {
+  private final Set<Task> myAddedTasks;
+  private final Set<Task> myRemovedTasks;
+  private final Set<Task> myChangedTasks;
+  private final Set<TaskDependency> myAddedDependencies;
+  private final Set<TaskDependency> myRemovedDependencies;
+  private final Set<TaskDependency> myChangedDependencies;
+  private final boolean isModelReset;
+
+  public TaskChangeSet(Set<Task> addedTasks, Set<Task> removedTasks, Set<Task> changedTasks,
+      Set<TaskDependency> addedDependencies, Set<TaskDependency> removedDependencies,
+      Set<TaskDependency> changedDependencies, boolean modelReset) {
+    myAddedTasks = Collections.unmodifiableSet(addedTasks);
+    myRemovedTasks = Collections.unmodifiableSet(removedTasks);
+    myChangedTasks = Collections.unmodifiableSet(changedTasks);
+    myAddedDependencies = Collections.unmodifiableSet(addedDependencies);
+    myRemovedDependencies = Collections.unmodifiableSet(removedDependencies);
+    myChangedDependencies = Collections.unmodifiableSet(changedDependencies);
+    isModelReset = modelReset;
+  }
+
+  public Set<Task> getAddedTasks() {
+    return myAddedTasks;
+  }
+
+  public Set<Task> getRemovedTasks() {
+    return myRemovedTasks;
+  }
+
+  public Set<Task> getChangedTasks() {
+    return myChangedTasks;
+  }
+
+  public Set<TaskDependency> getAddedDependencies() {
+    return myAddedDependencies;
+  }
+
+  public Set<TaskDependency> getRemovedDependencies() {
+    return myRemovedDependencies;
+  }
+
+  public Set<TaskDependency> getChangedDependencies() {
+    return myChangedDependencies;
+  }
+
+  /**
+   * @return true if the whole model was reset in the transaction, e.g. because project was closed.
+   * Listeners should rather rebuild their state from scratch in this case.
+   */
+  public boolean isModelReset() {
+    return isModelReset;
+  }
+
+  public boolean isEmpty() {
+    return !isModelReset && myAddedTasks.isEmpty() && myRemovedTasks.isEmpty() && myChangedTasks.isEmpty()
+        && myAddedDependencies.isEmpty() && myRemovedDependencies.isEmpty() && myChangedDependencies.isEmpty();
+  }
+}
@@ -23,25 +23,51 @@ import net.sourceforge.ganttproject.task.Task;
 
 import java.util.ArrayList;
 
+/**
+ * Node of the task containment tree. Nested items are kept in an array list in the document order,
+ * and every item remembers its position in the container, so that indexed access and sibling lookup
+ * are O(1). Arrays returned from {@link #getNestedItems()} and {@link #getNestedTasks()} are cached
+ * until the list of nested items changes and are shared between callers, so they must not be modified.
+ */
 public class TaskHierarchyItem {
   private Task myTask;
 
   private TaskHierarchyItem myContainerItem;
 
-  private TaskHierarchyItem myFirstNestedItem;
+  private ArrayList<TaskHierarchyItem> myNestedItems;
+
+  // Position of this item in the nested items of its container, -1 if it has no container
+  private int myPosition = -1;
 
-  private TaskHierarchyItem myNextSiblingItem;
+  private TaskHierarchyItem[] myNestedItemsSnapshot;
+
+  private Task[] myNestedTasksSnapshot;
 
   private static final TaskHierarchyItem[] EMPTY_ARRAY = new TaskHierarchyItem[0];
 
+  private static final Task[] EMPTY_TASK_ARRAY = new Task[0];
+
+  private final TaskHierarchyManagerImpl myManager;
+
+  // Position of this item in the hierarchy index, valid if myIndexVersion is equal
+  // to the version of the last index built by the manager
+  int myIndexVersion = -1;
+  int myPreOrder;
+  int mySubtreeSize;
+  int myDepth;
+
   public TaskHierarchyItem(Task myTask, TaskHierarchyItem containerItem) {
     this.myTask = myTask;
-    this.myContainerItem = containerItem;
-    if (myContainerItem != null) {
-      myContainerItem.addNestedItem(this, -1);
+    myManager = containerItem == null ? null : containerItem.myManager;
+    if (containerItem != null) {
+      containerItem.addNestedItem(this, -1);
     }
   }
 
+  TaskHierarchyItem(TaskHierarchyManagerImpl manager) {
+    myManager = manager;
+  }
+
   public Task getTask() {
     return myTask;
   }
@@ -50,60 +76,102 @@ public class TaskHierarchyItem {
     return myContainerItem;
   }
 
+  /**
+   * @return position of this item in the nested items of its container, or -1 if it has no container
+   */
+  public int getPosition() {
+    return myPosition;
+  }
+
+  /**
+   * @return the item which follows this one in the container, or null if this one is the last
+   */
   public TaskHierarchyItem getNextSiblingItem() {
-    return myNextSiblingItem;
+    if (myContainerItem == null || myPosition + 1 >= myContainerItem.myNestedItems.size()) {
+      return null;
+    }
+    return myContainerItem.myNestedItems.get(myPosition + 1);
+  }
+
+  /**
+   * @return the item which precedes this one in the container, or null if this one is the first
+   */
+  public TaskHierarchyItem getPreviousSiblingItem() {
+    if (myContainerItem == null || myPosition == 0) {
+      return null;
+    }
+    return myContainerItem.myNestedItems.get(myPosition - 1);
+  }
+
+  public int getNestedItemCount() {
+    return myNestedItems == null ? 0 : myNestedItems.size();
+  }
+
+  public TaskHierarchyItem getNestedItem(int position) {
+    return myNestedItems.get(position);
   }
 
   public TaskHierarchyItem[] getNestedItems() {
-    TaskHierarchyItem[] result;
-    if (myFirstNestedItem == null) {
-      result = EMPTY_ARRAY;
-    } else {
-      ArrayList<TaskHierarchyItem> tempList = new ArrayList<TaskHierarchyItem>();
-      for (TaskHierarchyItem nested = myFirstNestedItem; nested != null; nested = nested.myNextSiblingItem) {
-        tempList.add(nested);
+    if (myNestedItemsSnapshot == null) {
+      myNestedItemsSnapshot = getNestedItemCount() == 0 ? EMPTY_ARRAY : myNestedItems.toArray(EMPTY_ARRAY);
+    }
+    return myNestedItemsSnapshot;
+  }
+
+  public Task[] getNestedTasks() {
+    if (myNestedTasksSnapshot == null) {
+      int count = getNestedItemCount();
+      Task[] result = count == 0 ? EMPTY_TASK_ARRAY : new Task[count];
+      for (int i = 0; i < count; i++) {
+        result[i] = myNestedItems.get(i).getTask();
       }
-      result = Lists.reverse(tempList).toArray(EMPTY_ARRAY);
+      myNestedTasksSnapshot = result;
     }
-    return result;
+    return myNestedTasksSnapshot;
   }
 
+  /**
+   * Inserts the given item into the nested items of this one.
+   *
+   * @param position position of the inserted item, -1 or any value greater than the number of nested items
+   *   appends it to the end
+   */
   public void addNestedItem(TaskHierarchyItem nested, int position) {
-    if (position == -1) {
-      // Just add to the end of the list
-      nested.myNextSiblingItem = myFirstNestedItem;
-      nested.myContainerItem = this;
-      myFirstNestedItem = nested;
-    } else {
-      int curCount = getNestedItems().length;
-      if (position == curCount) {
-        addNestedItem(nested, -1);
-        return;
-      }
-      TaskHierarchyItem nextItem = myFirstNestedItem;
-      for (int idx = curCount - position; nextItem != null && --idx > 0; nextItem = nextItem.getNextSiblingItem());
-      if (nextItem == null) {
-        addNestedItem(nested, -1);
-      } else {
-        nested.myNextSiblingItem = nextItem.myNextSiblingItem;
-        nested.myContainerItem = this;
-        nextItem.myNextSiblingItem = nested;
-      }
+    onHierarchyChanged();
+    if (myNestedItems == null) {
+      myNestedItems = Lists.newArrayList();
     }
+    int count = myNestedItems.size();
+    if (position < 0 || position > count) {
+      position = count;
+    }
+    myNestedItems.add(position, nested);
+    nested.myContainerItem = this;
+    updatePositions(position);
   }
 
   public void delete() {
+    onHierarchyChanged();
     if (myContainerItem != null) {
-      TaskHierarchyItem previousSibling = myContainerItem.myFirstNestedItem;
-      if (this == previousSibling) {
-        myContainerItem.myFirstNestedItem = myNextSiblingItem;
-      } else {
-        for (; previousSibling.myNextSiblingItem != this; previousSibling = previousSibling.myNextSiblingItem)
-          ;
-        previousSibling.myNextSiblingItem = myNextSiblingItem;
-      }
+      TaskHierarchyItem container = myContainerItem;
+      container.myNestedItems.remove(myPosition);
+      container.updatePositions(myPosition);
       myContainerItem = null;
     }
-    myNextSiblingItem = null;
+    myPosition = -1;
+  }
+
+  private void updatePositions(int fromPosition) {
+    for (int i = fromPosition; i < myNestedItems.size(); i++) {
+      myNestedItems.get(i).myPosition = i;
+    }
+    myNestedItemsSnapshot = null;
+    myNestedTasksSnapshot = null;
+  }
+
+  private void onHierarchyChanged() {
+    if (myManager != null) {
+      myManager.onHierarchyChanged();
+    }
   }
 }
@@ -18,10 +18,30 @@ along with GanttProject.  If not, see <http://www.gnu.org/licenses/>.
  */
 package net.sourceforge.ganttproject.task.hierarchy;
 
+import com.google.common.collect.Lists;
 import net.sourceforge.ganttproject.task.Task;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Owns the hierarchy items of all tasks and maintains a pre-order index of the hierarchy:
+ * pre-order number, subtree size and depth of every item.
+ * The index is rebuilt lazily on the first query after any hierarchy change, so a batch of
+ * moves costs a single O(n) pass, and all queries are O(1) between changes. Interleaving single
+ * changes with queries costs O(n) per change, which is what patching pre-order numbers
+ * after an insertion would cost anyway.
+ *
+ * Queries may come from worker threads, e.g. from task comparators, so rebuilding and reading
+ * the index is synchronized. Hierarchy changes themselves are expected to happen in one thread.
+ */
 public class TaskHierarchyManagerImpl {
-  private TaskHierarchyItem myRootItem = new TaskHierarchyItem(null, null);
+  private final TaskHierarchyItem myRootItem = new TaskHierarchyItem(this);
+
+  private int myVersion = 0;
+
+  private int myIndexVersion = -1;
 
   public TaskHierarchyItem getRootItem() {
     return myRootItem;
@@ -32,4 +52,76 @@ public class TaskHierarchyManagerImpl {
     return result;
   }
 
+  synchronized void onHierarchyChanged() {
+    myVersion++;
+  }
+
+  /**
+   * @return true if the item is reachable from the root item, that is, if index values
+   *   are available for it
+   */
+  public synchronized boolean isIndexed(TaskHierarchyItem item) {
+    ensureIndex();
+    return item.myIndexVersion == myIndexVersion;
+  }
+
+  /**
+   * @return number of the item in the pre-order traversal of the hierarchy. Items of the indexed part
+   *   of the hierarchy are in the document order when sorted by this number.
+   */
+  public synchronized int getPreOrder(TaskHierarchyItem item) {
+    ensureIndexed(item);
+    return item.myPreOrder;
+  }
+
+  public synchronized int getDepth(TaskHierarchyItem item) {
+    ensureIndexed(item);
+    return item.myDepth;
+  }
+
+  /**
+   * @return true if ancestor is the same item as descendant or contains it, directly or indirectly
+   */
+  public synchronized boolean isAncestorOrSelf(TaskHierarchyItem ancestor, TaskHierarchyItem descendant) {
+    ensureIndexed(ancestor);
+    ensureIndexed(descendant);
+    return descendant.myPreOrder >= ancestor.myPreOrder
+        && descendant.myPreOrder < ancestor.myPreOrder + ancestor.mySubtreeSize;
+  }
+
+  private void ensureIndexed(TaskHierarchyItem item) {
+    if (!isIndexed(item)) {
+      throw new IllegalArgumentException("Item of task=" + item.getTask() + " is detached from the hierarchy");
+    }
+  }
+
+  private void ensureIndex() {
+    if (myIndexVersion == myVersion) {
+      return;
+    }
+    int version = myVersion;
+    List<TaskHierarchyItem> preOrder = Lists.newArrayList();
+    Deque<TaskHierarchyItem> stack = new ArrayDeque<TaskHierarchyItem>();
+    myRootItem.myDepth = 0;
+    stack.push(myRootItem);
+    while (!stack.isEmpty()) {
+      TaskHierarchyItem item = stack.pop();
+      item.myIndexVersion = version;
+      item.myPreOrder = preOrder.size();
+      item.mySubtreeSize = 1;
+      preOrder.add(item);
+      for (int i = item.getNestedItemCount() - 1; i >= 0; i--) {
+        TaskHierarchyItem nested = item.getNestedItem(i);
+        nested.myDepth = item.myDepth + 1;
+        stack.push(nested);
+      }
+    }
+    // Items follow their containers in the pre-order, so walking it backwards
+    // completes every subtree before its size is added to the container
+    for (int i = preOrder.size() - 1; i > 0; i--) {
+      TaskHierarchyItem item = preOrder.get(i);
+      item.getContainerItem().mySubtreeSize += item.mySubtreeSize;
+    }
+    myIndexVersion = version;
+  }
 }
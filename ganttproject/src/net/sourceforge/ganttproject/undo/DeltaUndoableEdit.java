@@ -0,0 +1,316 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.undo;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.undo.AbstractUndoableEdit;
+import javax.swing.undo.CannotRedoException;
+import javax.swing.undo.CannotUndoException;
+
+import biz.ganttproject.core.time.CalendarFactory;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import net.sourceforge.ganttproject.CustomPropertyDefinition;
+import net.sourceforge.ganttproject.CustomPropertyManager;
+import net.sourceforge.ganttproject.GPLogger;
+import net.sourceforge.ganttproject.resource.HumanResource;
+import net.sourceforge.ganttproject.resource.HumanResourceManager;
+import net.sourceforge.ganttproject.roles.RoleManager;
+import net.sourceforge.ganttproject.task.CustomColumnsException;
+import net.sourceforge.ganttproject.task.ResourceAssignment;
+import net.sourceforge.ganttproject.task.ResourceAssignmentCollection;
+import net.sourceforge.ganttproject.task.Task;
+import net.sourceforge.ganttproject.task.TaskManager;
+import net.sourceforge.ganttproject.task.TaskMutator;
+import net.sourceforge.ganttproject.task.algorithm.AlgorithmCollection;
+import net.sourceforge.ganttproject.task.dependency.TaskDependency;
+import net.sourceforge.ganttproject.task.dependency.TaskDependencyException;
+import net.sourceforge.ganttproject.undo.TaskModelSnapshot.AssignmentState;
+import net.sourceforge.ganttproject.undo.TaskModelSnapshot.DependencyState;
+import net.sourceforge.ganttproject.undo.TaskModelSnapshot.TaskState;
+
+/**
+ * Undoable edit which keeps only the difference between task model states before and after
+ * the edit and applies it in place. Unlike {@link UndoableEditImpl} it neither writes the whole
+ * project to the autosave documents nor reloads the project on undo and redo.
+ *
+ * Tasks are identified by their ids, so tasks created or deleted by the edit are deleted or created
+ * again with the same ids, and the edits recorded before or after this one keep working with them.
+ * Recreated tasks are new objects, just like after reloading a project snapshot. Creation or deletion
+ * of resources and custom columns can't be reverted.
+ */
+class DeltaUndoableEdit extends AbstractUndoableEdit {
+  private static final long serialVersionUID = 1L;
+
+  private final String myPresentationName;
+  private final TaskManager myTaskManager;
+  private final HumanResourceManager myResourceManager;
+  private final RoleManager myRoleManager;
+  private final List<TaskState> myTasksBefore;
+  private final List<TaskState> myTasksAfter;
+  private final List<TaskState> myAddedTasks;
+  private final List<TaskState> myRemovedTasks;
+  private final Map<String, DependencyState> myDependenciesBefore = Maps.newLinkedHashMap();
+  private final Map<String, DependencyState> myDependenciesAfter = Maps.newLinkedHashMap();
+
+  DeltaUndoableEdit(String localizedName, TaskModelSnapshot before, TaskModelSnapshot after, TaskManager taskManager,
+      HumanResourceManager resourceManager, RoleManager roleManager) {
+    myPresentationName = localizedName;
+    myTaskManager = taskManager;
+    myResourceManager = resourceManager;
+    myRoleManager = roleManager;
+    myTasksBefore = before.getChangedTasks(after);
+    myTasksAfter = after.getChangedTasks(before);
+    myAddedTasks = after.getMissingTasks(before);
+    myRemovedTasks = before.getMissingTasks(after);
+    for (String key : Sets.union(before.getDependencies().keySet(), after.getDependencies().keySet())) {
+      DependencyState depBefore = before.getDependencies().get(key);
+      DependencyState depAfter = after.getDependencies().get(key);
+      if (depBefore == null || !depBefore.equals(depAfter)) {
+        if (depBefore != null) {
+          myDependenciesBefore.put(key, depBefore);
+        }
+        if (depAfter != null) {
+          myDependenciesAfter.put(key, depAfter);
+        }
+      }
+    }
+  }
+
+  boolean isEmpty() {
+    return myTasksBefore.isEmpty() && myAddedTasks.isEmpty() && myRemovedTasks.isEmpty()
+        && myDependenciesBefore.isEmpty() && myDependenciesAfter.isEmpty();
+  }
+
+  @Override
+  public void undo() throws CannotUndoException {
+    super.undo();
+    try {
+      apply(myTasksBefore, myTasksAfter, myRemovedTasks, myAddedTasks, myDependenciesBefore, myDependenciesAfter);
+    } catch (TaskDependencyException | CustomColumnsException e) {
+      if (!GPLogger.log(e)) {
+        e.printStackTrace(System.err);
+      }
+      throw new CannotUndoException();
+    }
+  }
+
+  @Override
+  public void redo() throws CannotRedoException {
+    super.redo();
+    try {
+      apply(myTasksAfter, myTasksBefore, myAddedTasks, myRemovedTasks, myDependenciesAfter, myDependenciesBefore);
+    } catch (TaskDependencyException | CustomColumnsException e) {
+      if (!GPLogger.log(e)) {
+        e.printStackTrace(System.err);
+      }
+      throw new CannotRedoException();
+    }
+  }
+
+  @Override
+  public String getPresentationName() {
+    return myPresentationName;
+  }
+
+  private void apply(List<TaskState> targetTasks, List<TaskState> currentTasks, List<TaskState> createdTasks,
+      List<TaskState> deletedTasks, Map<String, DependencyState> targetDependencies,
+      Map<String, DependencyState> currentDependencies) throws TaskDependencyException, CustomColumnsException {
+    AlgorithmCollection algs = myTaskManager.getAlgorithmCollection();
+    try {
+      algs.getScheduler().setEnabled(false);
+      algs.getRecalculateTaskScheduleAlgorithm().setEnabled(false);
+      algs.getAdjustTaskBoundsAlgorithm().setEnabled(false);
+      // Like TaskDeleteAction, we delete subtasks before their supertasks
+      for (TaskState state : Lists.reverse(deletedTasks)) {
+        myTaskManager.deleteTask(getTask(state.myId));
+      }
+      // States are in document order, so supertasks are created before their subtasks
+      for (TaskState state : createdTasks) {
+        Task root = myTaskManager.getRootTask();
+        Task task = myTaskManager.newTaskBuilder().withId(state.myId)
+            .withParent(state.myParentId == root.getTaskID() ? root : getTask(state.myParentId)).build();
+        if (task.getTaskID() != state.myId) {
+          throw new CannotUndoException();
+        }
+      }
+      List<TaskState> states = Lists.newArrayList(targetTasks);
+      states.addAll(createdTasks);
+      applyHierarchy(states, currentTasks);
+      for (TaskState state : states) {
+        applyTaskState(getTask(state.myId), state);
+      }
+      applyDependencies(targetDependencies, currentDependencies);
+    } finally {
+      algs.getRecalculateTaskScheduleAlgorithm().setEnabled(true);
+      algs.getAdjustTaskBoundsAlgorithm().setEnabled(true);
+      algs.getScheduler().setEnabled(true);
+    }
+  }
+
+  private void applyHierarchy(List<TaskState> targetTasks, List<TaskState> currentTasks) {
+    Map<Integer, TaskState> currentById = Maps.newHashMap();
+    for (TaskState state : currentTasks) {
+      currentById.put(state.myId, state);
+    }
+    List<TaskState> moved = Lists.newArrayList();
+    for (TaskState state : targetTasks) {
+      TaskState current = currentById.get(state.myId);
+      if (current == null || state.isHierarchyChanged(current)) {
+        moved.add(state);
+      }
+    }
+    if (moved.isEmpty()) {
+      return;
+    }
+    // Tasks which keep their positions are already ordered correctly relative to each other.
+    // We detach all moved tasks first and then insert them in the order of their target indices,
+    // so that every insertion lands at its final position.
+    Task root = myTaskManager.getRootTask();
+    for (TaskState state : moved) {
+      getTask(state.myId).move(root);
+    }
+    Collections.sort(moved, new Comparator<TaskState>() {
+      @Override
+      public int compare(TaskState o1, TaskState o2) {
+        return o1.myIndex - o2.myIndex;
+      }
+    });
+    for (TaskState state : moved) {
+      Task parent = state.myParentId == root.getTaskID() ? root : getTask(state.myParentId);
+      getTask(state.myId).move(parent, state.myIndex);
+    }
+  }
+
+  private void applyTaskState(Task task, TaskState state) throws CustomColumnsException {
+    TaskMutator mutator = task.createMutator();
+    mutator.setStart(CalendarFactory.createGanttCalendar(state.myStart));
+    if (state.myDuration.getLength() > 0) {
+      mutator.setDuration(state.myDuration);
+    } else {
+      mutator.setEnd(CalendarFactory.createGanttCalendar(state.myEnd));
+    }
+    mutator.setName(state.myName);
+    mutator.setWebLink(state.myWebLink);
+    mutator.setMilestone(state.isMilestone);
+    mutator.setProjectTask(state.isProjectTask);
+    mutator.setPriority(state.myPriority);
+    mutator.setCompletionPercentage(state.myCompletion);
+    if (state.myThird != null) {
+      mutator.setThird(CalendarFactory.createGanttCalendar(state.myThird), state.myThirdConstraint);
+    } else {
+      task.setThirdDateConstraint(state.myThirdConstraint);
+    }
+    mutator.setShape(state.myShape);
+    mutator.setColor(state.myColor);
+    mutator.setNotes(state.myNotes);
+    mutator.setExpand(state.isExpanded);
+    mutator.commit();
+
+    task.getCost().setValue(state.myManualCost);
+    task.getCost().setCalculated(state.isCostCalculated);
+
+    CustomPropertyManager customPropertyManager = myTaskManager.getCustomPropertyManager();
+    for (CustomPropertyDefinition def : customPropertyManager.getDefinitions()) {
+      task.getCustomValues().setValue(def, state.myCustomValues.get(def.getID()));
+    }
+
+    applyAssignments(task.getAssignmentCollection(), state.myAssignments);
+  }
+
+  private void applyAssignments(ResourceAssignmentCollection assignments, List<AssignmentState> target) {
+    Map<Integer, AssignmentState> targetByResource = Maps.newHashMap();
+    for (AssignmentState state : target) {
+      targetByResource.put(state.myResourceId, state);
+    }
+    for (ResourceAssignment ra : assignments.getAssignments()) {
+      if (!targetByResource.containsKey(ra.getResource().getId())) {
+        assignments.deleteAssignment(ra.getResource());
+      }
+    }
+    for (AssignmentState state : target) {
+      HumanResource resource = myResourceManager.getById(state.myResourceId);
+      if (resource == null) {
+        throw new CannotUndoException();
+      }
+      ResourceAssignment ra = assignments.getAssignment(resource);
+      if (ra == null) {
+        ra = assignments.addAssignment(resource);
+      }
+      ra.setLoad(state.myLoad);
+      ra.setCoordinator(state.isCoordinator);
+      ra.setRoleForAssignment(state.myRoleId == null ? null : myRoleManager.getRole(state.myRoleId));
+    }
+  }
+
+  private void applyDependencies(Map<String, DependencyState> target, Map<String, DependencyState> current)
+      throws TaskDependencyException {
+    for (String key : current.keySet()) {
+      if (!target.containsKey(key)) {
+        DependencyState state = current.get(key);
+        if (myTaskManager.getTask(state.myDependantId) == null) {
+          // Deleted together with the task
+          continue;
+        }
+        TaskDependency dep = findDependency(state);
+        if (dep != null) {
+          dep.delete();
+        }
+      }
+    }
+    for (DependencyState state : target.values()) {
+      TaskDependency dep = findDependency(state);
+      if (dep == null) {
+        dep = myTaskManager.getDependencyCollection().createDependency(getTask(state.myDependantId),
+            getTask(state.myDependeeId), myTaskManager.createConstraint(state.myType), state.myHardness);
+      } else {
+        if (dep.getConstraint().getType() != state.myType) {
+          dep.setConstraint(myTaskManager.createConstraint(state.myType));
+        }
+        dep.setHardness(state.myHardness);
+      }
+      dep.setDifference(state.myDifference);
+    }
+  }
+
+  private TaskDependency findDependency(DependencyState state) {
+    for (TaskDependency dep : myTaskManager.getDependencyCollection().getDependenciesAsDependant(
+        getTask(state.myDependantId))) {
+      if (dep.getDependee().getTaskID() == state.myDependeeId) {
+        return dep;
+      }
+    }
+    return null;
+  }
+
+  private Task getTask(int id) {
+    Task result = myTaskManager.getTask(id);
+    if (result == null) {
+      throw new CannotUndoException();
+    }
+    return result;
+  }
+}
@@ -27,6 +27,14 @@ import javax.swing.undo.CannotUndoException;
 public interface GPUndoManager {
   void undoableEdit(String localizedName, Runnable runnableEdit);
 
+  /**
+   * Runs an edit which changes only tasks: creates or deletes them, changes their properties, schedule,
+   * position in the hierarchy, dependencies and resource assignments. Such edit is recorded as a difference
+   * between task model states and is reverted in place, without saving and reloading the whole project.
+   * The edit runs exactly once.
+   */
+  void undoableTaskEdit(String localizedName, Runnable runnableEdit);
+
   boolean canUndo();
 
   boolean canRedo();
@@ -0,0 +1,276 @@
+/*
+GanttProject is an opensource project management tool.
+Copyright (C) 2026 GanttProject Team
+
+This program is free software; you can redistribute it and/or
+modify it under the terms of the GNU General Public License
+as published by the Free Software Foundation; either version 3
+of the License, or (at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program; if not, write to the Free Software
+Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package net.sourceforge.ganttproject.undo;
+
+import java.awt.Color;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import biz.ganttproject.core.chart.render.ShapePaint;
+import biz.ganttproject.core.time.GanttCalendar;
+import biz.ganttproject.core.time.TimeDuration;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import net.sourceforge.ganttproject.CustomProperty;
+import net.sourceforge.ganttproject.roles.Role;
+import net.sourceforge.ganttproject.task.ResourceAssignment;
+import net.sourceforge.ganttproject.task.Task;
+import net.sourceforge.ganttproject.task.TaskContainmentHierarchyFacade;
+import net.sourceforge.ganttproject.task.TaskImpl;
+import net.sourceforge.ganttproject.task.TaskManager;
+import net.sourceforge.ganttproject.task.dependency.TaskDependency;
+import net.sourceforge.ganttproject.task.dependency.TaskDependencyConstraint;
+
+/**
+ * In-memory copy of the task model state which can be changed by task edits: task properties,
+ * schedule, position in the hierarchy, resource assignments and dependencies.
+ *
+ * Tasks, resources and custom properties are referenced by their identifiers, so that a snapshot
+ * survives project reloads caused by snapshot-based undo.
+ */
+class TaskModelSnapshot {
+  static class AssignmentState {
+    final int myResourceId;
+    final float myLoad;
+    final boolean isCoordinator;
+    final String myRoleId;
+
+    AssignmentState(ResourceAssignment assignment) {
+      myResourceId = assignment.getResource().getId();
+      myLoad = assignment.getLoad();
+      isCoordinator = assignment.isCoordinator();
+      Role role = assignment.getRoleForAssignment();
+      myRoleId = role == null ? null : role.getPersistentID();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (false == obj instanceof AssignmentState) {
+        return false;
+      }
+      AssignmentState that = (AssignmentState) obj;
+      return myResourceId == that.myResourceId && myLoad == that.myLoad && isCoordinator == that.isCoordinator
+          && Objects.equal(myRoleId, that.myRoleId);
+    }
+
+    @Override
+    public int hashCode() {
+      return myResourceId;
+    }
+  }
+
+  static class TaskState {
+    final int myId;
+    final int myParentId;
+    final int myIndex;
+    final String myName;
+    final String myWebLink;
+    final boolean isMilestone;
+    final boolean isProjectTask;
+    final Task.Priority myPriority;
+    final Date myStart;
+    final Date myEnd;
+    final TimeDuration myDuration;
+    final int myCompletion;
+    final Date myThird;
+    final int myThirdConstraint;
+    final ShapePaint myShape;
+    final Color myColor;
+    final String myNotes;
+    final boolean isExpanded;
+    final boolean isCostCalculated;
+    final BigDecimal myManualCost;
+    final Map<String, Object> myCustomValues;
+    final List<AssignmentState> myAssignments;
+
+    TaskState(Task task, TaskContainmentHierarchyFacade hierarchy) {
+      myId = task.getTaskID();
+      Task parent = hierarchy.getContainer(task);
+      myParentId = parent == null ? -1 : parent.getTaskID();
+      myIndex = hierarchy.getTaskIndex(task);
+      myName = task.getName();
+      myWebLink = task instanceof TaskImpl ? ((TaskImpl) task).getWebLink() : null;
+      isMilestone = task.isMilestone();
+      isProjectTask = task.isProjectTask();
+      myPriority = task.getPriority();
+      myStart = task.getStart().getTime();
+      myEnd = task.getEnd().getTime();
+      myDuration = task.getDuration();
+      myCompletion = task.getCompletionPercentage();
+      GanttCalendar third = task.getThird();
+      myThird = third == null ? null : third.getTime();
+      myThirdConstraint = task.getThirdDateConstraint();
+      myShape = task.getShape();
+      myColor = task.getColor();
+      myNotes = task.getNotes();
+      isExpanded = task.getExpand();
+      isCostCalculated = task.getCost().isCalculated();
+      myManualCost = task.getCost().getManualValue();
+      List<CustomProperty> customProperties = task.getCustomValues().getCustomProperties();
+      if (customProperties.isEmpty()) {
+        myCustomValues = Collections.emptyMap();
+      } else {
+        Map<String, Object> customValues = Maps.newHashMap();
+        for (CustomProperty p : customProperties) {
+          customValues.put(p.getDefinition().getID(), p.getValue());
+        }
+        myCustomValues = customValues;
+      }
+      ResourceAssignment[] assignments = task.getAssignments();
+      if (assignments.length == 0) {
+        myAssignments = Collections.emptyList();
+      } else {
+        List<AssignmentState> assignmentStates = Lists.newArrayListWithExpectedSize(assignments.length);
+        for (ResourceAssignment ra : assignments) {
+          assignmentStates.add(new AssignmentState(ra));
+        }
+        myAssignments = assignmentStates;
+      }
+    }
+
+    boolean isHierarchyChanged(TaskState that) {
+      return myParentId != that.myParentId || myIndex != that.myIndex;
+    }
+
+    boolean isScheduleChanged(TaskState that) {
+      return !myStart.equals(that.myStart) || !myEnd.equals(that.myEnd)
+          || myDuration.getTimeUnit() != that.myDuration.getTimeUnit()
+          || myDuration.getLength() != that.myDuration.getLength();
+    }
+
+    boolean isPropertiesChanged(TaskState that) {
+      return !Objects.equal(myName, that.myName) || !Objects.equal(myWebLink, that.myWebLink)
+          || isMilestone != that.isMilestone || isProjectTask != that.isProjectTask || myPriority != that.myPriority
+          || myCompletion != that.myCompletion || !Objects.equal(myThird, that.myThird)
+          || myThirdConstraint != that.myThirdConstraint || !Objects.equal(myShape, that.myShape)
+          || !Objects.equal(myColor, that.myColor) || !Objects.equal(myNotes, that.myNotes)
+          || isExpanded != that.isExpanded || isCostCalculated != that.isCostCalculated
+          || !Objects.equal(myManualCost, that.myManualCost) || !myCustomValues.equals(that.myCustomValues);
+    }
+
+    boolean isAssignmentsChanged(TaskState that) {
+      return !myAssignments.equals(that.myAssignments);
+    }
+
+    boolean isChanged(TaskState that) {
+      return isHierarchyChanged(that) || isScheduleChanged(that) || isPropertiesChanged(that)
+          || isAssignmentsChanged(that);
+    }
+  }
+
+  static class DependencyState {
+    final int myDependantId;
+    final int myDependeeId;
+    final TaskDependencyConstraint.Type myType;
+    final int myDifference;
+    final TaskDependency.Hardness myHardness;
+
+    DependencyState(TaskDependency dependency) {
+      myDependantId = dependency.getDependant().getTaskID();
+      myDependeeId = dependency.getDependee().getTaskID();
+      myType = dependency.getConstraint().getType();
+      myDifference = dependency.getDifference();
+      myHardness = dependency.getHardness();
+    }
+
+    String getKey() {
+      return myDependantId + ":" + myDependeeId;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (false == obj instanceof DependencyState) {
+        return false;
+      }
+      DependencyState that = (DependencyState) obj;
+      return myDependantId == that.myDependantId && myDependeeId == that.myDependeeId && myType == that.myType
+          && myDifference == that.myDifference && myHardness == that.myHardness;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(myDependantId, myDependeeId);
+    }
+  }
+
+  private final Map<Integer, TaskState> myTasks;
+  private final Map<String, DependencyState> myDependencies;
+
+  private TaskModelSnapshot(Map<Integer, TaskState> tasks, Map<String, DependencyState> dependencies) {
+    myTasks = tasks;
+    myDependencies = dependencies;
+  }
+
+  static TaskModelSnapshot capture(TaskManager taskManager) {
+    TaskContainmentHierarchyFacade hierarchy = taskManager.getTaskHierarchy();
+    ImmutableMap.Builder<Integer, TaskState> tasks = ImmutableMap.builder();
+    for (Task t : taskManager.getTasks()) {
+      tasks.put(t.getTaskID(), new TaskState(t, hierarchy));
+    }
+    Map<String, DependencyState> dependencies = Maps.newLinkedHashMap();
+    for (TaskDependency dep : taskManager.getDependencyCollection().getDependencies()) {
+      DependencyState state = new DependencyState(dep);
+      dependencies.put(state.getKey(), state);
+    }
+    return new TaskModelSnapshot(tasks.build(), dependencies);
+  }
+
+  Map<Integer, TaskState> getTasks() {
+    return myTasks;
+  }
+
+  Map<String, DependencyState> getDependencies() {
+    return myDependencies;
+  }
+
+  /**
+   * @return states of tasks which are in this snapshot but not in the other one, in document order
+   */
+  List<TaskState> getMissingTasks(TaskModelSnapshot that) {
+    ImmutableList.Builder<TaskState> result = ImmutableList.builder();
+    for (TaskState state : myTasks.values()) {
+      if (!that.myTasks.containsKey(state.myId)) {
+        result.add(state);
+      }
+    }
+    return result.build();
+  }
+
+  /**
+   * @return states of tasks which differ in this and the other snapshot, taken from this snapshot
+   */
+  List<TaskState> getChangedTasks(TaskModelSnapshot that) {
+    ImmutableList.Builder<TaskState> result = ImmutableList.builder();
+    for (TaskState state : myTasks.values()) {
+      TaskState thatState = that.myTasks.get(state.myId);
+      if (thatState != null && state.isChanged(thatState)) {
+        result.add(state);
+      }
+    }
+    return result.build();
+  }
+}
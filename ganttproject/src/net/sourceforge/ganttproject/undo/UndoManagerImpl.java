@@ -26,6 +26,7 @@ import javax.swing.event.UndoableEditListener;
 import javax.swing.undo.CannotRedoException;
 import javax.swing.undo.CannotUndoException;
 import javax.swing.undo.UndoManager;
+import javax.swing.undo.UndoableEdit;
 import javax.swing.undo.UndoableEditSupport;
 
 import net.sourceforge.ganttproject.GPLogger;
@@ -34,6 +35,7 @@ import net.sourceforge.ganttproject.document.DocumentManager;
 import net.sourceforge.ganttproject.language.GanttLanguage;
 import net.sourceforge.ganttproject.language.GanttLanguage.Event;
 import net.sourceforge.ganttproject.parser.ParserFactory;
+import net.sourceforge.ganttproject.task.TaskManager;
 
 /**
  * UndoManager implementation, it manages the undoable edits in GanttProject
@@ -81,7 +83,22 @@ public class UndoManagerImpl implements GPUndoManager {
     }
   }
 
-  private void fireUndoableEditHappened(UndoableEditImpl swingEditImpl) {
+  @Override
+  public void undoableTaskEdit(String localizedName, Runnable editImpl) {
+    TaskManager taskManager = myProject.getTaskManager();
+    TaskModelSnapshot before = TaskModelSnapshot.capture(taskManager);
+    editImpl.run();
+    TaskModelSnapshot after = TaskModelSnapshot.capture(taskManager);
+    DeltaUndoableEdit deltaEdit = new DeltaUndoableEdit(localizedName, before, after, taskManager,
+        myProject.getHumanResourceManager(), myProject.getRoleManager());
+    if (deltaEdit.isEmpty()) {
+      return;
+    }
+    mySwingUndoManager.addEdit(deltaEdit);
+    fireUndoableEditHappened(deltaEdit);
+  }
+
+  private void fireUndoableEditHappened(UndoableEdit swingEditImpl) {
     myUndoEventDispatcher.postEdit(swingEditImpl);
   }
 